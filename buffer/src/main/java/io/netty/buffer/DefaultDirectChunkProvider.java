@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The default {@link DirectChunkProvider} which allocates chunks via {@link ByteBuffer#allocateDirect(int)}.
+ */
+public final class DefaultDirectChunkProvider implements DirectChunkProvider {
+
+    public static final DefaultDirectChunkProvider INSTANCE = new DefaultDirectChunkProvider();
+
+    private DefaultDirectChunkProvider() { }
+
+    @Override
+    public ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity);
+    }
+
+    @Override
+    public void free(ByteBuffer memory) {
+        PlatformDependent.freeDirectBuffer(memory);
+    }
+}
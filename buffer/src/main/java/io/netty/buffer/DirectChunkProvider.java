@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Provides the memory of the chunks which the direct arenas of a {@link PooledByteBufAllocator} carve their buffers
+ * from. Buffers larger than a chunk are not pooled and so are not allocated via this interface.
+ * <p>
+ * The native epoll transport provides implementations which map anonymous memory backed by transparent huge pages
+ * ({@code EpollAnonymousDirectChunkProvider}) or a {@code memfd} backed by huge pages of the {@code hugetlb} pool
+ * ({@code EpollMemfdDirectChunkProvider}).
+ *
+ * @see DefaultDirectChunkProvider
+ * @see MappedFileDirectChunkProvider
+ */
+public interface DirectChunkProvider {
+
+    /**
+     * Returns a new direct {@link ByteBuffer} of at least the given {@code capacity}. This method may be called
+     * concurrently.
+     */
+    ByteBuffer allocate(int capacity);
+
+    /**
+     * Releases a {@link ByteBuffer} returned by {@link #allocate(int)}, which will not be accessed anymore.
+     */
+    void free(ByteBuffer memory);
+}
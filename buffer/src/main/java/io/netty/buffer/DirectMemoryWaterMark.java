@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Limits the direct memory a {@link PooledByteBufAllocator} holds in its arenas, including the memory of huge buffers
+ * which are not pooled.
+ * <ul>
+ * <li>Once the memory grows above the soft limit allocations still succeed, but every
+ *     {@link DirectMemoryWaterMarkListener} is notified, so the application can shed load.</li>
+ * <li>An allocation which would need the memory to grow above the hard limit fails with a
+ *     {@link DirectMemoryWaterMarkExceededException}, before the memory is allocated.</li>
+ * </ul>
+ * Only allocating a new chunk or a huge buffer adds memory, so buffers may still be allocated from the free space of
+ * the chunks at the hard limit. The limits apply to every allocator the same {@link DirectMemoryWaterMark} is used
+ * with separately.
+ */
+public final class DirectMemoryWaterMark {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(DirectMemoryWaterMark.class);
+
+    private final long softLimit;
+    private final long hardLimit;
+    private final List<DirectMemoryWaterMarkListener> listeners =
+            new CopyOnWriteArrayList<DirectMemoryWaterMarkListener>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param softLimit the number of bytes above which the listeners are notified
+     * @param hardLimit the number of bytes above which allocations fail, which must not be less than the
+     *                  {@code softLimit}
+     */
+    public DirectMemoryWaterMark(long softLimit, long hardLimit) {
+        if (softLimit <= 0) {
+            throw new IllegalArgumentException("softLimit: " + softLimit + " (expected: > 0)");
+        }
+        if (hardLimit < softLimit) {
+            throw new IllegalArgumentException(
+                    "hardLimit: " + hardLimit + " (expected: >= softLimit (" + softLimit + "))");
+        }
+        this.softLimit = softLimit;
+        this.hardLimit = hardLimit;
+    }
+
+    /**
+     * Returns the number of bytes above which the listeners are notified.
+     */
+    public long softLimit() {
+        return softLimit;
+    }
+
+    /**
+     * Returns the number of bytes above which allocations fail.
+     */
+    public long hardLimit() {
+        return hardLimit;
+    }
+
+    /**
+     * Adds a listener which is notified when the soft limit is crossed.
+     */
+    public DirectMemoryWaterMark addListener(DirectMemoryWaterMarkListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        listeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Removes a listener which was added via {@link #addListener(DirectMemoryWaterMarkListener)}.
+     */
+    public DirectMemoryWaterMark removeListener(DirectMemoryWaterMarkListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        listeners.remove(listener);
+        return this;
+    }
+
+    void notifySoftLimitExceeded(PooledByteBufAllocator allocator, long usedDirectMemory) {
+        for (DirectMemoryWaterMarkListener l: listeners) {
+            try {
+                l.softLimitExceeded(allocator, usedDirectMemory);
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown by {}.softLimitExceeded()", l.getClass().getName(), t);
+            }
+        }
+    }
+
+    void notifySoftLimitCleared(PooledByteBufAllocator allocator, long usedDirectMemory) {
+        for (DirectMemoryWaterMarkListener l: listeners) {
+            try {
+                l.softLimitCleared(allocator, usedDirectMemory);
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown by {}.softLimitCleared()", l.getClass().getName(), t);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DirectMemoryWaterMark(soft: " + softLimit + ", hard: " + hardLimit + ')';
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+/**
+ * A {@link RuntimeException} which is raised when a {@link PooledByteBufAllocator} would need more direct memory
+ * than the hard limit of its {@link DirectMemoryWaterMark} to serve an allocation.
+ */
+public class DirectMemoryWaterMarkExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = -8231577430474317361L;
+
+    private final long usedDirectMemory;
+    private final long requestedBytes;
+    private final long hardLimit;
+
+    public DirectMemoryWaterMarkExceededException(long usedDirectMemory, long requestedBytes, long hardLimit) {
+        super("failed to allocate " + requestedBytes + " byte(s) of direct memory (used: " + usedDirectMemory +
+                ", hard limit: " + hardLimit + ')');
+        this.usedDirectMemory = usedDirectMemory;
+        this.requestedBytes = requestedBytes;
+        this.hardLimit = hardLimit;
+    }
+
+    /**
+     * Returns the number of bytes of direct memory the allocator held when the allocation failed.
+     */
+    public long usedDirectMemory() {
+        return usedDirectMemory;
+    }
+
+    /**
+     * Returns the number of bytes of direct memory the allocator would have needed to add.
+     */
+    public long requestedBytes() {
+        return requestedBytes;
+    }
+
+    /**
+     * Returns the hard limit which would have been exceeded.
+     */
+    public long hardLimit() {
+        return hardLimit;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import java.util.EventListener;
+
+/**
+ * Listens to the direct memory held by a {@link PooledByteBufAllocator} crossing the soft limit of its
+ * {@link DirectMemoryWaterMark}, for example to stop reading from channels while the memory is scarce:
+ * <pre>
+ * public void softLimitExceeded(PooledByteBufAllocator allocator, long usedDirectMemory) {
+ *     channel.config().setAutoRead(false);
+ * }
+ *
+ * public void softLimitCleared(PooledByteBufAllocator allocator, long usedDirectMemory) {
+ *     channel.config().setAutoRead(true);
+ * }
+ * </pre>
+ * The methods are called by the thread which allocated or released the memory, after the allocator released its
+ * locks. Only one thread notifies at a time and the notifications always alternate, but the memory may have crossed
+ * the soft limit again already, so use {@link PooledByteBufAllocator#isDirectMemorySoftLimitExceeded()} if the
+ * current state is needed. Other threads crossing the soft limit in the meantime do not wait for the listeners, the
+ * crossing is reported once the current notification returned.
+ */
+public interface DirectMemoryWaterMarkListener extends EventListener {
+
+    /**
+     * Called once the direct memory held by the {@code allocator} grew above the soft limit.
+     */
+    void softLimitExceeded(PooledByteBufAllocator allocator, long usedDirectMemory);
+
+    /**
+     * Called once the direct memory held by the {@code allocator} dropped to or below the soft limit again.
+     */
+    void softLimitCleared(PooledByteBufAllocator allocator, long usedDirectMemory);
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * A {@link DirectChunkProvider} which backs every chunk with a shared memory mapping of a new file in the given
+ * directory. The file is deleted right after it was mapped, so its memory is returned to the system as soon as the
+ * chunk is freed.
+ * <p>
+ * If the directory is on a {@code hugetlbfs} mount (e.g. {@code /dev/hugepages}) the chunks are backed by huge pages,
+ * which reduces TLB misses for workloads which touch a lot of buffer memory. Use a {@code tmpfs} mount for plain
+ * shared memory. A directory on a disk-backed file system will work, but the kernel may write the chunks back to
+ * disk. Be aware that mapped chunks are not limited by {@code -XX:MaxDirectMemorySize}.
+ */
+public final class MappedFileDirectChunkProvider implements DirectChunkProvider {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(MappedFileDirectChunkProvider.class);
+
+    /**
+     * The default {@code fileSizeAlignment}, which matches the default huge page size on x86-64.
+     */
+    public static final int DEFAULT_FILE_SIZE_ALIGNMENT = 2 * 1024 * 1024;
+
+    private final File directory;
+    private final int fileSizeAlignment;
+
+    /**
+     * Creates a new instance which maps its chunks from files in the given {@code directory}, rounding their size
+     * up to a multiple of {@link #DEFAULT_FILE_SIZE_ALIGNMENT}.
+     */
+    public MappedFileDirectChunkProvider(File directory) {
+        this(directory, DEFAULT_FILE_SIZE_ALIGNMENT);
+    }
+
+    /**
+     * Creates a new instance which maps its chunks from files in the given {@code directory}.
+     *
+     * @param fileSizeAlignment the size of every file is rounded up to a multiple of this value, which must be a
+     *                          power of two. {@code hugetlbfs} requires it to be a multiple of the huge page size.
+     */
+    public MappedFileDirectChunkProvider(File directory, int fileSizeAlignment) {
+        if (directory == null) {
+            throw new NullPointerException("directory");
+        }
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException("directory: " + directory + " (expected: an existing directory)");
+        }
+        if (fileSizeAlignment <= 0 || (fileSizeAlignment & fileSizeAlignment - 1) != 0) {
+            throw new IllegalArgumentException(
+                    "fileSizeAlignment: " + fileSizeAlignment + " (expected: a positive power of two)");
+        }
+        this.directory = directory;
+        this.fileSizeAlignment = fileSizeAlignment;
+    }
+
+    /**
+     * Returns the directory the chunks are mapped from.
+     */
+    public File directory() {
+        return directory;
+    }
+
+    @Override
+    public ByteBuffer allocate(int capacity) {
+        final long size = (long) capacity + fileSizeAlignment - 1 & ~((long) fileSizeAlignment - 1);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity: " + capacity + " (too large to map)");
+        }
+
+        File file = null;
+        RandomAccessFile raf = null;
+        try {
+            file = File.createTempFile("netty-chunk-", null, directory);
+            raf = new RandomAccessFile(file, "rw");
+            // The mapping stays valid after the file was closed and deleted.
+            return raf.getChannel().map(MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            OutOfMemoryError error = new OutOfMemoryError("failed to map a chunk of " + size + " bytes in " +
+                    directory);
+            error.initCause(e);
+            throw error;
+        } finally {
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close a chunk file: {}", file, e);
+                }
+            }
+            if (file != null && !file.delete()) {
+                logger.warn("Failed to delete a chunk file: {}", file);
+            }
+        }
+    }
+
+    @Override
+    public void free(ByteBuffer memory) {
+        // Unmaps the memory right away instead of waiting for the GC.
+        PlatformDependent.freeDirectBuffer(memory);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedFileDirectChunkProvider(" + directory + ')';
+    }
+}
@@ -19,13 +19,19 @@ package io.netty.buffer;
 import io.netty.util.internal.LongCounter;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 abstract class PoolArena<T> implements PoolArenaMetric {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(PoolArena.class);
 
     enum SizeClass {
         Tiny,
@@ -35,6 +41,13 @@ abstract class PoolArena<T> implements PoolArenaMetric {
 
     static final int numTinySubpagePools = 512 >>> 4;
 
+    /**
+     * The number of independently locked sets of chunk lists per arena. Threads which contend for the same arena can
+     * allocate normal-size buffers from different stripes in parallel.
+     */
+    static final int NUM_CHUNK_LIST_STRIPES = Math.max(1, SystemPropertyUtil.getInt(
+            "io.netty.allocator.numChunkListStripes", Math.min(4, Runtime.getRuntime().availableProcessors())));
+
     final PooledByteBufAllocator parent;
 
     private final int maxOrder;
@@ -43,40 +56,48 @@ abstract class PoolArena<T> implements PoolArenaMetric {
     final int chunkSize;
     final int subpageOverflowMask;
     final int numSmallSubpagePools;
+    final int directMemoryCacheAlignment;
+    final int directMemoryCacheAlignmentMask;
     private final PoolSubpage<T>[] tinySubpagePools;
     private final PoolSubpage<T>[] smallSubpagePools;
 
-    private final PoolChunkList<T> q050;
-    private final PoolChunkList<T> q025;
-    private final PoolChunkList<T> q000;
-    private final PoolChunkList<T> qInit;
-    private final PoolChunkList<T> q075;
-    private final PoolChunkList<T> q100;
+    private final ChunkListStripe<T>[] stripes;
 
     private final List<PoolChunkListMetric> chunkListMetrics;
 
     // Metrics for allocations and deallocations
-    private long allocationsTiny;
-    private long allocationsSmall;
-    private long allocationsNormal;
-    // We need to use the LongCounter here as this is not guarded via synchronized block.
+    // We need to use the LongCounter here as these are not guarded by a single lock.
+    private final LongCounter allocationsTiny = PlatformDependent.newLongCounter();
+    private final LongCounter allocationsSmall = PlatformDependent.newLongCounter();
+    private final LongCounter allocationsNormal = PlatformDependent.newLongCounter();
     private final LongCounter allocationsHuge = PlatformDependent.newLongCounter();
 
-    private long deallocationsTiny;
-    private long deallocationsSmall;
-    private long deallocationsNormal;
-    // We need to use the LongCounter here as this is not guarded via synchronized block.
+    private final LongCounter deallocationsTiny = PlatformDependent.newLongCounter();
+    private final LongCounter deallocationsSmall = PlatformDependent.newLongCounter();
+    private final LongCounter deallocationsNormal = PlatformDependent.newLongCounter();
     private final LongCounter deallocationsHuge = PlatformDependent.newLongCounter();
 
+    // Metrics for the memory held by this arena
+    private final LongCounter numChunks = PlatformDependent.newLongCounter();
+    private final LongCounter activePooledBytes = PlatformDependent.newLongCounter();
+    private final LongCounter hugeBytes = PlatformDependent.newLongCounter();
+    // Published by the PoolThreadCaches when they are trimmed or freed, so they do not need to count every hit and
+    // miss here. Only allocations of a size which can be cached are counted.
+    final LongCounter threadCacheHits = PlatformDependent.newLongCounter();
+    final LongCounter threadCacheMisses = PlatformDependent.newLongCounter();
+
     // TODO: Test if adding padding helps under contention
     //private long pad0, pad1, pad2, pad3, pad4, pad5, pad6, pad7;
 
-    protected PoolArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize) {
+    protected PoolArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize,
+                        int cacheAlignment) {
         this.parent = parent;
         this.pageSize = pageSize;
         this.maxOrder = maxOrder;
         this.pageShifts = pageShifts;
         this.chunkSize = chunkSize;
+        directMemoryCacheAlignment = cacheAlignment;
+        directMemoryCacheAlignmentMask = cacheAlignment - 1;
         subpageOverflowMask = ~(pageSize - 1);
         tinySubpagePools = newSubpagePoolArray(numTinySubpagePools);
         for (int i = 0; i < tinySubpagePools.length; i ++) {
@@ -89,30 +110,23 @@ abstract class PoolArena<T> implements PoolArenaMetric {
             smallSubpagePools[i] = newSubpagePoolHead(pageSize);
         }
 
-        q100 = new PoolChunkList<T>(null, 100, Integer.MAX_VALUE);
-        q075 = new PoolChunkList<T>(q100, 75, 100);
-        q050 = new PoolChunkList<T>(q075, 50, 100);
-        q025 = new PoolChunkList<T>(q050, 25, 75);
-        q000 = new PoolChunkList<T>(q025, 1, 50);
-        qInit = new PoolChunkList<T>(q000, Integer.MIN_VALUE, 25);
-
-        q100.prevList(q075);
-        q075.prevList(q050);
-        q050.prevList(q025);
-        q025.prevList(q000);
-        q000.prevList(null);
-        qInit.prevList(qInit);
-
-        List<PoolChunkListMetric> metrics = new ArrayList<PoolChunkListMetric>(6);
-        metrics.add(qInit);
-        metrics.add(q000);
-        metrics.add(q025);
-        metrics.add(q050);
-        metrics.add(q075);
-        metrics.add(q100);
+        stripes = newStripeArray(NUM_CHUNK_LIST_STRIPES);
+        for (int i = 0; i < stripes.length; i ++) {
+            stripes[i] = new ChunkListStripe<T>();
+        }
+
+        List<PoolChunkListMetric> metrics = new ArrayList<PoolChunkListMetric>(ChunkListStripe.NUM_LISTS);
+        for (int i = 0; i < ChunkListStripe.NUM_LISTS; i ++) {
+            metrics.add(new StripedChunkListMetric(stripes, i));
+        }
         chunkListMetrics = Collections.unmodifiableList(metrics);
     }
 
+    @SuppressWarnings("unchecked")
+    private static <T> ChunkListStripe<T>[] newStripeArray(int size) {
+        return new ChunkListStripe[size];
+    }
+
     private PoolSubpage<T> newSubpagePoolHead(int pageSize) {
         PoolSubpage<T> head = new PoolSubpage<T>(pageSize);
         head.prev = head;
@@ -192,16 +206,14 @@ abstract class PoolArena<T> implements PoolArenaMetric {
                     long handle = s.allocate();
                     assert handle >= 0;
                     s.chunk.initBufWithSubpage(buf, handle, reqCapacity);
-
-                    if (tiny) {
-                        ++allocationsTiny;
-                    } else {
-                        ++allocationsSmall;
-                    }
+                    activePooledBytes.add(normCapacity);
+                    incTinySmallAllocation(tiny);
                     return;
                 }
             }
             allocateNormal(buf, reqCapacity, normCapacity);
+            activePooledBytes.add(normCapacity);
+            incTinySmallAllocation(tiny);
             return;
         }
         if (normCapacity <= chunkSize) {
@@ -210,37 +222,142 @@ abstract class PoolArena<T> implements PoolArenaMetric {
                 return;
             }
             allocateNormal(buf, reqCapacity, normCapacity);
+            activePooledBytes.add(normCapacity);
+            allocationsNormal.increment();
         } else {
             // Huge allocations are never served via the cache so just call allocateHuge
             allocateHuge(buf, reqCapacity);
         }
     }
 
-    private synchronized void allocateNormal(PooledByteBuf<T> buf, int reqCapacity, int normCapacity) {
-            ++allocationsNormal;
-        if (q050.allocate(buf, reqCapacity, normCapacity) || q025.allocate(buf, reqCapacity, normCapacity) ||
-            q000.allocate(buf, reqCapacity, normCapacity) || qInit.allocate(buf, reqCapacity, normCapacity) ||
-            q075.allocate(buf, reqCapacity, normCapacity) || q100.allocate(buf, reqCapacity, normCapacity)) {
-            return;
+    private void incTinySmallAllocation(boolean tiny) {
+        if (tiny) {
+            allocationsTiny.increment();
+        } else {
+            allocationsSmall.increment();
+        }
+    }
+
+    private void allocateNormal(PooledByteBuf<T> buf, int reqCapacity, int normCapacity) {
+        // Try every stripe without blocking first, starting with the one of the current thread, so we only wait for
+        // a lock if all stripes are busy.
+        final ChunkListStripe<T>[] stripes = this.stripes;
+        final int home = stripes.length == 1 ? 0 : (int) (Thread.currentThread().getId() % stripes.length);
+        for (int i = 0, idx = home; i < stripes.length; i ++) {
+            ChunkListStripe<T> stripe = stripes[idx];
+            if (stripe.lock.tryLock()) {
+                try {
+                    if (stripe.allocate(buf, reqCapacity, normCapacity)) {
+                        return;
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            if (++ idx == stripes.length) {
+                idx = 0;
+            }
+        }
+
+        ChunkListStripe<T> stripe = stripes[home];
+        stripe.lock.lock();
+        try {
+            if (stripe.allocate(buf, reqCapacity, normCapacity)) {
+                return;
+            }
+
+            // Add a new chunk.
+            PoolChunk<T> c = newPooledChunk();
+            long handle = c.allocate(normCapacity);
+            assert handle > 0;
+            c.initBuf(buf, handle, reqCapacity);
+            stripe.qInit.add(c);
+        } finally {
+            stripe.lock.unlock();
         }
+        // Only reached if a new chunk was added, notify without holding the lock.
+        notifyDirectMemoryWaterMark();
+    }
 
-        // Add a new chunk.
-        PoolChunk<T> c = newChunk(pageSize, maxOrder, pageShifts, chunkSize);
-        long handle = c.allocate(normCapacity);
-        assert handle > 0;
-        c.initBuf(buf, handle, reqCapacity);
-        qInit.add(c);
+    /**
+     * Adds a new empty chunk to this arena, so the first allocations do not need to create one.
+     */
+    final void preallocateChunk() {
+        ChunkListStripe<T> stripe = stripes[0];
+        stripe.lock.lock();
+        try {
+            stripe.qInit.add(newPooledChunk());
+        } finally {
+            stripe.lock.unlock();
+        }
+        notifyDirectMemoryWaterMark();
+    }
+
+    private PoolChunk<T> newPooledChunk() {
+        // Reserve the memory first, so we fail before allocating it if it would exceed the limit.
+        final int allocatedBytes = allocatedBytes(chunkSize);
+        parent.reserveMemory(isDirect(), allocatedBytes);
+        boolean success = false;
+        try {
+            PoolChunk<T> chunk = newChunk(pageSize, maxOrder, pageShifts, chunkSize);
+            numChunks.increment();
+            success = true;
+            return chunk;
+        } finally {
+            if (!success) {
+                parent.releaseMemory(isDirect(), allocatedBytes);
+            }
+        }
     }
 
     private void allocateHuge(PooledByteBuf<T> buf, int reqCapacity) {
+        final int allocatedBytes = allocatedBytes(reqCapacity);
+        parent.reserveMemory(isDirect(), allocatedBytes);
+        boolean success = false;
+        try {
+            buf.initUnpooled(newUnpooledChunk(reqCapacity), reqCapacity);
+            success = true;
+        } finally {
+            if (!success) {
+                parent.releaseMemory(isDirect(), allocatedBytes);
+            }
+        }
+        hugeBytes.add(reqCapacity);
         allocationsHuge.increment();
-        buf.initUnpooled(newUnpooledChunk(reqCapacity), reqCapacity);
+        notifyDirectMemoryWaterMark();
+    }
+
+    private void releaseChunk(PoolChunk<T> chunk) {
+        if (chunk.unpooled) {
+            hugeBytes.add(-chunk.chunkSize());
+        } else {
+            numChunks.decrement();
+        }
+        destroyChunk(chunk);
+        parent.releaseMemory(isDirect(), allocatedBytes(chunk.chunkSize()));
+        notifyDirectMemoryWaterMark();
+    }
+
+    /**
+     * Returns the number of bytes which are allocated for a chunk of the given capacity, which includes the extra
+     * bytes needed to align the memory address of a direct chunk.
+     */
+    private int allocatedBytes(int capacity) {
+        return capacity + directMemoryCacheAlignment;
+    }
+
+    private void notifyDirectMemoryWaterMark() {
+        if (isDirect()) {
+            // The listeners may take their time or allocate themselves, so this must not be called while holding
+            // the lock of a stripe.
+            parent.notifyDirectMemoryWaterMark();
+        }
     }
 
     void free(PoolChunk<T> chunk, long handle, int normCapacity, PoolThreadCache cache) {
         if (chunk.unpooled) {
-            allocationsHuge.decrement();
-            destroyChunk(chunk);
+            deallocationsHuge.increment();
+            releaseChunk(chunk);
         } else {
             SizeClass sizeClass = sizeClass(normCapacity);
             if (cache != null && cache.add(this, chunk, handle, normCapacity, sizeClass)) {
@@ -248,7 +365,7 @@ abstract class PoolArena<T> implements PoolArenaMetric {
                 return;
             }
 
-            freeChunk(chunk, handle, sizeClass);
+            freeChunk(chunk, handle, normCapacity, sizeClass);
         }
     }
 
@@ -259,27 +376,34 @@ abstract class PoolArena<T> implements PoolArenaMetric {
         return isTiny(normCapacity) ? SizeClass.Tiny : SizeClass.Small;
     }
 
-    void freeChunk(PoolChunk<T> chunk, long handle, SizeClass sizeClass) {
+    void freeChunk(PoolChunk<T> chunk, long handle, int normCapacity, SizeClass sizeClass) {
+        activePooledBytes.add(-normCapacity);
+        switch (sizeClass) {
+        case Normal:
+            deallocationsNormal.increment();
+            break;
+        case Small:
+            deallocationsSmall.increment();
+            break;
+        case Tiny:
+            deallocationsTiny.increment();
+            break;
+        default:
+            throw new Error();
+        }
+
+        // A chunk only moves between the lists of its stripe, which all share the same lock.
+        final ReentrantLock lock = chunk.parent.lock;
         final boolean destroyChunk;
-        synchronized (this) {
-            switch (sizeClass) {
-            case Normal:
-                ++deallocationsNormal;
-                break;
-            case Small:
-                ++deallocationsSmall;
-                break;
-            case Tiny:
-                ++deallocationsTiny;
-                break;
-            default:
-                throw new Error();
-            }
+        lock.lock();
+        try {
             destroyChunk = !chunk.parent.free(chunk, handle);
+        } finally {
+            lock.unlock();
         }
         if (destroyChunk) {
             // destroyChunk not need to be called while holding the synchronized lock.
-            destroyChunk(chunk);
+            releaseChunk(chunk);
         }
     }
 
@@ -307,7 +431,7 @@ abstract class PoolArena<T> implements PoolArenaMetric {
             throw new IllegalArgumentException("capacity: " + reqCapacity + " (expected: 0+)");
         }
         if (reqCapacity >= chunkSize) {
-            return reqCapacity;
+            return directMemoryCacheAlignment == 0 ? reqCapacity : alignCapacity(reqCapacity);
         }
 
         if (!isTiny(reqCapacity)) { // >= 512
@@ -326,7 +450,12 @@ abstract class PoolArena<T> implements PoolArenaMetric {
                 normalizedCapacity >>>= 1;
             }
 
-            return normalizedCapacity;
+            // Both are a power of two, so the bigger one is also a multiple of the other.
+            return Math.max(normalizedCapacity, directMemoryCacheAlignment);
+        }
+
+        if (directMemoryCacheAlignment > 0) {
+            return alignCapacity(reqCapacity);
         }
 
         // Quantum-spaced
@@ -337,6 +466,11 @@ abstract class PoolArena<T> implements PoolArenaMetric {
         return (reqCapacity & ~15) + 16;
     }
 
+    int alignCapacity(int reqCapacity) {
+        int delta = reqCapacity & directMemoryCacheAlignmentMask;
+        return delta == 0 ? reqCapacity : reqCapacity + directMemoryCacheAlignment - delta;
+    }
+
     void reallocate(PooledByteBuf<T> buf, int newCapacity, boolean freeOldMemory) {
         if (newCapacity < 0 || newCapacity > buf.maxCapacity()) {
             throw new IllegalArgumentException("newCapacity: " + newCapacity);
@@ -431,42 +565,44 @@ abstract class PoolArena<T> implements PoolArenaMetric {
 
     @Override
     public long numAllocations() {
-        return allocationsTiny + allocationsSmall + allocationsNormal + allocationsHuge.value();
+        return allocationsTiny.value() + allocationsSmall.value() + allocationsNormal.value() +
+                allocationsHuge.value();
     }
 
     @Override
     public long numTinyAllocations() {
-        return allocationsTiny;
+        return allocationsTiny.value();
     }
 
     @Override
     public long numSmallAllocations() {
-        return allocationsSmall;
+        return allocationsSmall.value();
     }
 
     @Override
     public long numNormalAllocations() {
-        return allocationsNormal;
+        return allocationsNormal.value();
     }
 
     @Override
     public long numDeallocations() {
-        return deallocationsTiny + deallocationsSmall + allocationsNormal + deallocationsHuge.value();
+        return deallocationsTiny.value() + deallocationsSmall.value() + deallocationsNormal.value() +
+                deallocationsHuge.value();
     }
 
     @Override
     public long numTinyDeallocations() {
-        return deallocationsTiny;
+        return deallocationsTiny.value();
     }
 
     @Override
     public long numSmallDeallocations() {
-        return deallocationsSmall;
+        return deallocationsSmall.value();
     }
 
     @Override
     public long numNormalDeallocations() {
-        return deallocationsNormal;
+        return deallocationsNormal.value();
     }
 
     @Override
@@ -509,6 +645,28 @@ abstract class PoolArena<T> implements PoolArenaMetric {
         return val >= 0 ? val : 0;
     }
 
+    /**
+     * Returns the number of chunks this arena holds.
+     */
+    long numChunks() {
+        return numChunks.value();
+    }
+
+    /**
+     * Returns the number of bytes of the chunks of this arena which are allocated, including the ones which are held
+     * by {@link PoolThreadCache}s.
+     */
+    long numActivePooledBytes() {
+        return activePooledBytes.value();
+    }
+
+    /**
+     * Returns the number of bytes of the huge buffers of this arena which were not released yet.
+     */
+    long numHugeBytes() {
+        return hugeBytes.value();
+    }
+
     protected abstract PoolChunk<T> newChunk(int pageSize, int maxOrder, int pageShifts, int chunkSize);
     protected abstract PoolChunk<T> newUnpooledChunk(int capacity);
     protected abstract PooledByteBuf<T> newByteBuf(int maxCapacity);
@@ -516,31 +674,31 @@ abstract class PoolArena<T> implements PoolArenaMetric {
     protected abstract void destroyChunk(PoolChunk<T> chunk);
 
     @Override
-    public synchronized String toString() {
+    public String toString() {
         StringBuilder buf = new StringBuilder()
             .append("Chunk(s) at 0~25%:")
             .append(StringUtil.NEWLINE)
-            .append(qInit)
+            .append(chunkListMetrics.get(0))
             .append(StringUtil.NEWLINE)
             .append("Chunk(s) at 0~50%:")
             .append(StringUtil.NEWLINE)
-            .append(q000)
+            .append(chunkListMetrics.get(1))
             .append(StringUtil.NEWLINE)
             .append("Chunk(s) at 25~75%:")
             .append(StringUtil.NEWLINE)
-            .append(q025)
+            .append(chunkListMetrics.get(2))
             .append(StringUtil.NEWLINE)
             .append("Chunk(s) at 50~100%:")
             .append(StringUtil.NEWLINE)
-            .append(q050)
+            .append(chunkListMetrics.get(3))
             .append(StringUtil.NEWLINE)
             .append("Chunk(s) at 75~100%:")
             .append(StringUtil.NEWLINE)
-            .append(q075)
+            .append(chunkListMetrics.get(4))
             .append(StringUtil.NEWLINE)
             .append("Chunk(s) at 100%:")
             .append(StringUtil.NEWLINE)
-            .append(q100)
+            .append(chunkListMetrics.get(5))
             .append(StringUtil.NEWLINE)
             .append("tiny subpages:");
         for (int i = 1; i < tinySubpagePools.length; i ++) {
@@ -586,10 +744,127 @@ abstract class PoolArena<T> implements PoolArenaMetric {
         return buf.toString();
     }
 
+    /**
+     * A set of chunk lists with its own lock. Chunks never move between stripes.
+     */
+    private static final class ChunkListStripe<T> {
+        static final int NUM_LISTS = 6;
+
+        final ReentrantLock lock = new ReentrantLock();
+        final PoolChunkList<T> q050;
+        final PoolChunkList<T> q025;
+        final PoolChunkList<T> q000;
+        final PoolChunkList<T> qInit;
+        final PoolChunkList<T> q075;
+        final PoolChunkList<T> q100;
+
+        ChunkListStripe() {
+            q100 = new PoolChunkList<T>(lock, null, 100, Integer.MAX_VALUE);
+            q075 = new PoolChunkList<T>(lock, q100, 75, 100);
+            q050 = new PoolChunkList<T>(lock, q075, 50, 100);
+            q025 = new PoolChunkList<T>(lock, q050, 25, 75);
+            q000 = new PoolChunkList<T>(lock, q025, 1, 50);
+            qInit = new PoolChunkList<T>(lock, q000, Integer.MIN_VALUE, 25);
+
+            q100.prevList(q075);
+            q075.prevList(q050);
+            q050.prevList(q025);
+            q025.prevList(q000);
+            q000.prevList(null);
+            qInit.prevList(qInit);
+        }
+
+        /**
+         * Returns the list at the given index, in the order they are exposed via {@link PoolArena#chunkLists()}.
+         */
+        PoolChunkList<T> list(int index) {
+            switch (index) {
+            case 0:
+                return qInit;
+            case 1:
+                return q000;
+            case 2:
+                return q025;
+            case 3:
+                return q050;
+            case 4:
+                return q075;
+            case 5:
+                return q100;
+            default:
+                throw new IndexOutOfBoundsException("index: " + index);
+            }
+        }
+
+        // Must be called with the lock held.
+        boolean allocate(PooledByteBuf<T> buf, int reqCapacity, int normCapacity) {
+            return q050.allocate(buf, reqCapacity, normCapacity) || q025.allocate(buf, reqCapacity, normCapacity) ||
+                   q000.allocate(buf, reqCapacity, normCapacity) || qInit.allocate(buf, reqCapacity, normCapacity) ||
+                   q075.allocate(buf, reqCapacity, normCapacity) || q100.allocate(buf, reqCapacity, normCapacity);
+        }
+    }
+
+    /**
+     * Exposes the lists with the same usage range of all stripes as a single {@link PoolChunkListMetric}.
+     */
+    private static final class StripedChunkListMetric implements PoolChunkListMetric {
+        private final ChunkListStripe<?>[] stripes;
+        private final int index;
+
+        StripedChunkListMetric(ChunkListStripe<?>[] stripes, int index) {
+            this.stripes = stripes;
+            this.index = index;
+        }
+
+        @Override
+        public int minUsage() {
+            return stripes[0].list(index).minUsage();
+        }
+
+        @Override
+        public int maxUsage() {
+            return stripes[0].list(index).maxUsage();
+        }
+
+        @Override
+        public Iterator<PoolChunkMetric> iterator() {
+            List<PoolChunkMetric> metrics = new ArrayList<PoolChunkMetric>();
+            for (ChunkListStripe<?> stripe: stripes) {
+                stripe.lock.lock();
+                try {
+                    for (PoolChunkMetric chunk: stripe.list(index)) {
+                        metrics.add(chunk);
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            return metrics.iterator();
+        }
+
+        @Override
+        public String toString() {
+            Iterator<PoolChunkMetric> chunks = iterator();
+            if (!chunks.hasNext()) {
+                return "none";
+            }
+
+            StringBuilder buf = new StringBuilder();
+            for (;;) {
+                buf.append(chunks.next());
+                if (!chunks.hasNext()) {
+                    break;
+                }
+                buf.append(StringUtil.NEWLINE);
+            }
+            return buf.toString();
+        }
+    }
+
     static final class HeapArena extends PoolArena<byte[]> {
 
         HeapArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize) {
-            super(parent, pageSize, maxOrder, pageShifts, chunkSize);
+            super(parent, pageSize, maxOrder, pageShifts, chunkSize, 0);
         }
 
         @Override
@@ -599,12 +874,12 @@ abstract class PoolArena<T> implements PoolArenaMetric {
 
         @Override
         protected PoolChunk<byte[]> newChunk(int pageSize, int maxOrder, int pageShifts, int chunkSize) {
-            return new PoolChunk<byte[]>(this, new byte[chunkSize], pageSize, maxOrder, pageShifts, chunkSize);
+            return new PoolChunk<byte[]>(this, new byte[chunkSize], pageSize, maxOrder, pageShifts, chunkSize, 0);
         }
 
         @Override
         protected PoolChunk<byte[]> newUnpooledChunk(int capacity) {
-            return new PoolChunk<byte[]>(this, new byte[capacity], capacity);
+            return new PoolChunk<byte[]>(this, new byte[capacity], capacity, 0);
         }
 
         @Override
@@ -631,8 +906,40 @@ abstract class PoolArena<T> implements PoolArenaMetric {
 
         private static final boolean HAS_UNSAFE = PlatformDependent.hasUnsafe();
 
-        DirectArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize) {
-            super(parent, pageSize, maxOrder, pageShifts, chunkSize);
+        // The smallest page size of the supported platforms.
+        private static final int OS_PAGE_SIZE = 4096;
+
+        private final DirectChunkProvider chunkProvider;
+        private final boolean prefault;
+
+        DirectArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize,
+                    int directMemoryCacheAlignment) {
+            this(parent, pageSize, maxOrder, pageShifts, chunkSize, directMemoryCacheAlignment,
+                    DefaultDirectChunkProvider.INSTANCE, false);
+        }
+
+        /**
+         * @param prefault if {@code true} every page of a new chunk is touched when it is created, so the page faults
+         *                 happen up front and not on the first write to a buffer. One chunk is created right away,
+         *                 unless it would exceed the hard limit of the {@link DirectMemoryWaterMark}.
+         */
+        DirectArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize,
+                    int directMemoryCacheAlignment, DirectChunkProvider chunkProvider, boolean prefault) {
+            super(parent, pageSize, maxOrder, pageShifts, chunkSize, directMemoryCacheAlignment);
+            if (chunkProvider == null) {
+                throw new NullPointerException("chunkProvider");
+            }
+            this.chunkProvider = chunkProvider;
+            this.prefault = prefault;
+            if (prefault) {
+                try {
+                    preallocateChunk();
+                } catch (DirectMemoryWaterMarkExceededException e) {
+                    // Creating the arena must not fail just because the hard limit is lower than one chunk per
+                    // arena, the chunk is then created by the first allocation which fits into the limit.
+                    logger.warn("Not preallocating a chunk of direct arena as it would exceed the hard limit.", e);
+                }
+            }
         }
 
         @Override
@@ -640,20 +947,56 @@ abstract class PoolArena<T> implements PoolArenaMetric {
             return true;
         }
 
+        private int offsetCacheLine(ByteBuffer memory) {
+            // We can only calculate the offset if Unsafe is present as otherwise directBufferAddress(...) will
+            // throw an NPE.
+            return HAS_UNSAFE ?
+                    (int) (PlatformDependent.directBufferAddress(memory) & directMemoryCacheAlignmentMask) : 0;
+        }
+
+        private int alignmentOffset(ByteBuffer memory) {
+            int remainder = offsetCacheLine(memory);
+            return remainder == 0 ? 0 : directMemoryCacheAlignment - remainder;
+        }
+
         @Override
         protected PoolChunk<ByteBuffer> newChunk(int pageSize, int maxOrder, int pageShifts, int chunkSize) {
+            if (directMemoryCacheAlignment == 0) {
+                return new PoolChunk<ByteBuffer>(
+                        this, newChunkMemory(chunkSize), pageSize, maxOrder, pageShifts, chunkSize, 0);
+            }
+            // Allocate a bit more so the chunk can start at an aligned memory address.
+            final ByteBuffer memory = newChunkMemory(chunkSize + directMemoryCacheAlignment);
             return new PoolChunk<ByteBuffer>(
-                    this, ByteBuffer.allocateDirect(chunkSize), pageSize, maxOrder, pageShifts, chunkSize);
+                    this, memory, pageSize, maxOrder, pageShifts, chunkSize, alignmentOffset(memory));
+        }
+
+        private ByteBuffer newChunkMemory(int capacity) {
+            final ByteBuffer memory = chunkProvider.allocate(capacity);
+            if (prefault) {
+                for (int i = 0; i < capacity; i += OS_PAGE_SIZE) {
+                    memory.put(i, (byte) 0);
+                }
+            }
+            return memory;
         }
 
         @Override
         protected PoolChunk<ByteBuffer> newUnpooledChunk(int capacity) {
-            return new PoolChunk<ByteBuffer>(this, ByteBuffer.allocateDirect(capacity), capacity);
+            if (directMemoryCacheAlignment == 0) {
+                return new PoolChunk<ByteBuffer>(this, ByteBuffer.allocateDirect(capacity), capacity, 0);
+            }
+            final ByteBuffer memory = ByteBuffer.allocateDirect(capacity + directMemoryCacheAlignment);
+            return new PoolChunk<ByteBuffer>(this, memory, capacity, alignmentOffset(memory));
         }
 
         @Override
         protected void destroyChunk(PoolChunk<ByteBuffer> chunk) {
-            PlatformDependent.freeDirectBuffer(chunk.memory);
+            if (chunk.unpooled) {
+                PlatformDependent.freeDirectBuffer(chunk.memory);
+            } else {
+                chunkProvider.free(chunk.memory);
+            }
         }
 
         @Override
@@ -22,9 +22,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 final class PoolChunkList<T> implements PoolChunkListMetric {
     private static final Iterator<PoolChunkMetric> EMPTY_METRICS = Collections.<PoolChunkMetric>emptyList().iterator();
+    // Shared by all lists of the same stripe of the arena, so a chunk is always guarded by the same lock.
+    final ReentrantLock lock;
     private final PoolChunkList<T> nextList;
     private final int minUsage;
     private final int maxUsage;
@@ -37,7 +40,8 @@ final class PoolChunkList<T> implements PoolChunkListMetric {
     // TODO: Test if adding padding helps under contention
     //private long pad0, pad1, pad2, pad3, pad4, pad5, pad6, pad7;
 
-    PoolChunkList(PoolChunkList<T> nextList, int minUsage, int maxUsage) {
+    PoolChunkList(ReentrantLock lock, PoolChunkList<T> nextList, int minUsage, int maxUsage) {
+        this.lock = lock;
         this.nextList = nextList;
         this.minUsage = minUsage;
         this.maxUsage = maxUsage;
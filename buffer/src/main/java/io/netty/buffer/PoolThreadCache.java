@@ -55,6 +55,8 @@ final class PoolThreadCache {
     private final int freeSweepAllocationThreshold;
 
     private int allocations;
+    // Set by other threads to make the owning thread trim on its next allocation or release, see requestTrim().
+    private volatile boolean trimRequested;
 
     private final Thread thread = Thread.currentThread();
     private final Runnable freeTask = new Runnable() {
@@ -189,7 +191,7 @@ final class PoolThreadCache {
             return false;
         }
         boolean allocated = cache.allocate(buf, reqCapacity);
-        if (++ allocations >= freeSweepAllocationThreshold) {
+        if (++ allocations >= freeSweepAllocationThreshold || trimRequested) {
             allocations = 0;
             trim();
         }
@@ -202,11 +204,16 @@ final class PoolThreadCache {
      */
     @SuppressWarnings({ "unchecked", "rawtypes" })
     boolean add(PoolArena<?> area, PoolChunk chunk, long handle, int normCapacity, SizeClass sizeClass) {
+        if (trimRequested && Thread.currentThread() == thread) {
+            // Only the owning thread may take entries out of the caches, other threads just add to them.
+            trim();
+        }
         MemoryRegionCache<?> cache = cache(area, normCapacity, sizeClass);
-        if (cache == null) {
+        if (cache == null || area.parent.exceedsPooledMemoryBudget()) {
+            // Give the memory back to the arena if the allocator holds too much memory already.
             return false;
         }
-        return cache.add(chunk, handle);
+        return cache.add(chunk, handle, normCapacity);
     }
 
     private MemoryRegionCache<?> cache(PoolArena<?> area, int normCapacity, SizeClass sizeClass) {
@@ -231,6 +238,14 @@ final class PoolThreadCache {
     }
 
     private void free0() {
+        // Publish what was not published by a trim yet, so it is not lost once the thread is gone.
+        publish(tinySubPageDirectCaches, directArena);
+        publish(smallSubPageDirectCaches, directArena);
+        publish(normalDirectCaches, directArena);
+        publish(tinySubPageHeapCaches, heapArena);
+        publish(smallSubPageHeapCaches, heapArena);
+        publish(normalHeapCaches, heapArena);
+
         int numFreed = free(tinySubPageDirectCaches) +
                 free(smallSubPageDirectCaches) +
                 free(normalDirectCaches) +
@@ -262,29 +277,54 @@ final class PoolThreadCache {
         return cache.free();
     }
 
+    /**
+     * Make the owning {@link Thread} trim this cache on its next allocation or when it releases a buffer the next
+     * time, instead of waiting for the next periodic trim. Can be called from any {@link Thread}.
+     */
+    void requestTrim() {
+        trimRequested = true;
+    }
+
+    /**
+     * Returns {@code true} if the {@link Thread} which owns this cache is still alive.
+     */
+    boolean isThreadAlive() {
+        return thread.isAlive();
+    }
+
     void trim() {
-        trim(tinySubPageDirectCaches);
-        trim(smallSubPageDirectCaches);
-        trim(normalDirectCaches);
-        trim(tinySubPageHeapCaches);
-        trim(smallSubPageHeapCaches);
-        trim(normalHeapCaches);
+        trimRequested = false;
+        PoolArena<?> arena = heapArena != null ? heapArena : directArena;
+        boolean exceedsBudget = arena != null && arena.parent.exceedsPooledMemoryBudget();
+
+        trim(tinySubPageDirectCaches, directArena, exceedsBudget);
+        trim(smallSubPageDirectCaches, directArena, exceedsBudget);
+        trim(normalDirectCaches, directArena, exceedsBudget);
+        trim(tinySubPageHeapCaches, heapArena, exceedsBudget);
+        trim(smallSubPageHeapCaches, heapArena, exceedsBudget);
+        trim(normalHeapCaches, heapArena, exceedsBudget);
     }
 
-    private static void trim(MemoryRegionCache<?>[] caches) {
+    private static void trim(MemoryRegionCache<?>[] caches, PoolArena<?> arena, boolean exceedsBudget) {
         if (caches == null) {
             return;
         }
         for (MemoryRegionCache<?> c: caches) {
-            trim(c);
+            if (c != null) {
+                c.trim(arena, exceedsBudget);
+            }
         }
     }
 
-    private static void trim(MemoryRegionCache<?> cache) {
-        if (cache == null) {
+    private static void publish(MemoryRegionCache<?>[] caches, PoolArena<?> arena) {
+        if (caches == null) {
             return;
         }
-        cache.trim();
+        for (MemoryRegionCache<?> c: caches) {
+            if (c != null) {
+                c.publish(arena);
+            }
+        }
     }
 
     private MemoryRegionCache<?> cacheForTiny(PoolArena<?> area, int normCapacity) {
@@ -350,14 +390,25 @@ final class PoolThreadCache {
     }
 
     private abstract static class MemoryRegionCache<T> {
-        private final int size;
+        // A cache which runs dry more often than it serves an allocation may grow up to this factor beyond the
+        // configured size.
+        private static final int MAX_GROWTH = 2;
+        private static final int MIN_LIMIT = 2;
+
+        private final int maxSize;
         private final Queue<Entry<T>> queue;
         private final SizeClass sizeClass;
+        // The number of entries which are kept at most. It starts at the configured size and adapts to the number of
+        // hits and misses on every trim. Only the owning thread updates it, so threads which free buffers into this
+        // cache may read a stale value, which is harmless.
+        private int limit;
         private int allocations;
+        private int misses;
 
         MemoryRegionCache(int size, SizeClass sizeClass) {
-            this.size = powerOfTwo(size);
-            queue = PlatformDependent.newFixedMpscQueue(this.size);
+            limit = powerOfTwo(size);
+            maxSize = limit * MAX_GROWTH;
+            queue = PlatformDependent.newFixedMpscQueue(maxSize);
             this.sizeClass = sizeClass;
         }
 
@@ -385,8 +436,11 @@ final class PoolThreadCache {
          * Add to cache if not already full.
          */
         @SuppressWarnings("unchecked")
-        public final boolean add(PoolChunk<T> chunk, long handle) {
-            return queue.offer(newEntry(chunk, handle));
+        public final boolean add(PoolChunk<T> chunk, long handle, int normCapacity) {
+            if (queue.size() >= limit) {
+                return false;
+            }
+            return queue.offer(newEntry(chunk, handle, normCapacity));
         }
 
         /**
@@ -394,12 +448,13 @@ final class PoolThreadCache {
          */
         public final boolean allocate(PooledByteBuf<T> buf, int reqCapacity) {
             Entry<T> entry = queue.poll();
+            // allocations and misses are not thread-safe which is fine as this is only called from the same thread
+            // all time.
             if (entry == null) {
+                ++ misses;
                 return false;
             }
             initBuf(entry.chunk, entry.handle, buf, reqCapacity);
-
-            // allocations is not thread-safe which is fine as this is only called from the same thread all time.
             ++ allocations;
             return true;
         }
@@ -426,13 +481,48 @@ final class PoolThreadCache {
         }
 
         /**
-         * Free up cached {@link PoolChunk}s if not allocated frequently enough.
+         * Add the hits and misses since the last call to the counters of the given {@link PoolArena} in one go,
+         * instead of counting every single one there.
          */
-        public final void trim() {
-            int free = size - allocations;
-            allocations = 0;
+        public final void publish(PoolArena<?> arena) {
+            if (allocations > 0) {
+                arena.threadCacheHits.add(allocations);
+                allocations = 0;
+            }
+            if (misses > 0) {
+                arena.threadCacheMisses.add(misses);
+                misses = 0;
+            }
+        }
+
+        /**
+         * Adapt the size of this cache to the hits and misses since the last trim and free up cached
+         * {@link PoolChunk}s if not allocated frequently enough. The hits and misses are published to the given
+         * {@link PoolArena}.
+         *
+         * @param exceedsBudget {@code true} if the allocator holds more memory than its budget, in which case all
+         *                      cached {@link PoolChunk}s are freed.
+         */
+        public final void trim(PoolArena<?> arena, boolean exceedsBudget) {
+            final int hits = allocations;
+            final int misses = this.misses;
+            publish(arena);
+
+            if (exceedsBudget) {
+                limit = Math.max(MIN_LIMIT, limit >>> 1);
+                free();
+                return;
+            }
+
+            if (misses > hits) {
+                // The cache ran dry more often than it could serve an allocation, so keep more entries.
+                limit = Math.min(maxSize, limit << 1);
+            } else if (hits < limit >>> 1) {
+                limit = Math.max(MIN_LIMIT, limit >>> 1);
+            }
 
-            // We not even allocated all the number that are
+            // Keep at most as many entries as were allocated since the last trim.
+            int free = queue.size() - Math.min(hits, limit);
             if (free > 0) {
                 free(free);
             }
@@ -442,17 +532,19 @@ final class PoolThreadCache {
         private  void freeEntry(Entry entry) {
             PoolChunk chunk = entry.chunk;
             long handle = entry.handle;
+            int normCapacity = entry.normCapacity;
 
             // recycle now so PoolChunk can be GC'ed.
             entry.recycle();
 
-            chunk.arena.freeChunk(chunk, handle, sizeClass);
+            chunk.arena.freeChunk(chunk, handle, normCapacity, sizeClass);
         }
 
         static final class Entry<T> {
             final Handle recyclerHandle;
             PoolChunk<T> chunk;
             long handle = -1;
+            int normCapacity;
 
             Entry(Handle recyclerHandle) {
                 this.recyclerHandle = recyclerHandle;
@@ -466,10 +558,11 @@ final class PoolThreadCache {
         }
 
         @SuppressWarnings("rawtypes")
-        private static Entry newEntry(PoolChunk<?> chunk, long handle) {
+        private static Entry newEntry(PoolChunk<?> chunk, long handle, int normCapacity) {
             Entry entry = RECYCLER.get();
             entry.chunk = chunk;
             entry.handle = handle;
+            entry.normCapacity = normCapacity;
             return entry;
         }
 
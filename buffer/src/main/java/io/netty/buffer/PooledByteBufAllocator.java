@@ -16,21 +16,33 @@
 
 package io.netty.buffer;
 
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
 import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.SystemPropertyUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class PooledByteBufAllocator extends AbstractByteBufAllocator {
 
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(PooledByteBufAllocator.class);
+
+    private static final int WATER_MARK_CLEARED = 0;
+    private static final int WATER_MARK_EXCEEDED = 1;
+    private static final int WATER_MARK_NOTIFYING = 2;
+
     private static final int DEFAULT_NUM_HEAP_ARENA;
     private static final int DEFAULT_NUM_DIRECT_ARENA;
 
@@ -41,6 +53,10 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
     private static final int DEFAULT_NORMAL_CACHE_SIZE;
     private static final int DEFAULT_MAX_CACHED_BUFFER_CAPACITY;
     private static final int DEFAULT_CACHE_TRIM_INTERVAL;
+    private static final DirectChunkProvider DEFAULT_DIRECT_CHUNK_PROVIDER;
+    private static final boolean DEFAULT_PREFAULT_DIRECT_CHUNKS;
+    private static final long DEFAULT_POOLED_MEMORY_BUDGET;
+    private static final DirectMemoryWaterMark DEFAULT_DIRECT_MEMORY_WATER_MARK;
 
     private static final int MIN_PAGE_SIZE = 4096;
     private static final int MAX_CHUNK_SIZE = (int) (((long) Integer.MAX_VALUE + 1) / 2);
@@ -103,6 +119,41 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
         DEFAULT_CACHE_TRIM_INTERVAL = SystemPropertyUtil.getInt(
                 "io.netty.allocator.cacheTrimInterval", 8192);
 
+        // map the chunks of the direct arenas from files in this directory, e.g. a hugetlbfs mount
+        String directChunkDirectory = SystemPropertyUtil.get("io.netty.allocator.directChunkDirectory");
+        DirectChunkProvider directChunkProvider = DefaultDirectChunkProvider.INSTANCE;
+        Throwable directChunkProviderFallbackCause = null;
+        if (directChunkDirectory != null) {
+            try {
+                directChunkProvider = new MappedFileDirectChunkProvider(new File(directChunkDirectory));
+            } catch (Throwable t) {
+                directChunkProviderFallbackCause = t;
+            }
+        }
+        DEFAULT_DIRECT_CHUNK_PROVIDER = directChunkProvider;
+        DEFAULT_PREFAULT_DIRECT_CHUNKS = SystemPropertyUtil.getBoolean(
+                "io.netty.allocator.prefaultDirectChunks", false);
+
+        // the number of bytes held by all arenas above which the thread-local caches give their buffers back
+        DEFAULT_POOLED_MEMORY_BUDGET = Math.max(0, SystemPropertyUtil.getLong(
+                "io.netty.allocator.pooledMemoryBudget", 0));
+
+        // notify listeners above the soft limit and fail allocations above the hard limit of direct memory
+        long directMemorySoftLimit = SystemPropertyUtil.getLong("io.netty.allocator.directMemorySoftLimit", 0);
+        long directMemoryHardLimit = SystemPropertyUtil.getLong("io.netty.allocator.directMemoryHardLimit", 0);
+        DirectMemoryWaterMark directMemoryWaterMark = null;
+        Throwable directMemoryWaterMarkFallbackCause = null;
+        if (directMemorySoftLimit > 0 || directMemoryHardLimit > 0) {
+            try {
+                directMemoryWaterMark = new DirectMemoryWaterMark(
+                        directMemorySoftLimit > 0 ? directMemorySoftLimit : directMemoryHardLimit,
+                        directMemoryHardLimit > 0 ? directMemoryHardLimit : Long.MAX_VALUE);
+            } catch (Throwable t) {
+                directMemoryWaterMarkFallbackCause = t;
+            }
+        }
+        DEFAULT_DIRECT_MEMORY_WATER_MARK = directMemoryWaterMark;
+
         if (logger.isDebugEnabled()) {
             logger.debug("-Dio.netty.allocator.numHeapArenas: {}", DEFAULT_NUM_HEAP_ARENA);
             logger.debug("-Dio.netty.allocator.numDirectArenas: {}", DEFAULT_NUM_DIRECT_ARENA);
@@ -122,6 +173,22 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
             logger.debug("-Dio.netty.allocator.normalCacheSize: {}", DEFAULT_NORMAL_CACHE_SIZE);
             logger.debug("-Dio.netty.allocator.maxCachedBufferCapacity: {}", DEFAULT_MAX_CACHED_BUFFER_CAPACITY);
             logger.debug("-Dio.netty.allocator.cacheTrimInterval: {}", DEFAULT_CACHE_TRIM_INTERVAL);
+            logger.debug("-Dio.netty.allocator.numChunkListStripes: {}", PoolArena.NUM_CHUNK_LIST_STRIPES);
+            if (directChunkProviderFallbackCause == null) {
+                logger.debug("-Dio.netty.allocator.directChunkDirectory: {}", directChunkDirectory);
+            } else {
+                logger.debug("-Dio.netty.allocator.directChunkDirectory: {}", directChunkDirectory,
+                        directChunkProviderFallbackCause);
+            }
+            logger.debug("-Dio.netty.allocator.prefaultDirectChunks: {}", DEFAULT_PREFAULT_DIRECT_CHUNKS);
+            logger.debug("-Dio.netty.allocator.pooledMemoryBudget: {}", DEFAULT_POOLED_MEMORY_BUDGET);
+            logger.debug("-Dio.netty.allocator.directMemorySoftLimit: {}", directMemorySoftLimit);
+            if (directMemoryWaterMarkFallbackCause == null) {
+                logger.debug("-Dio.netty.allocator.directMemoryHardLimit: {}", directMemoryHardLimit);
+            } else {
+                logger.debug("-Dio.netty.allocator.directMemoryHardLimit: {}", directMemoryHardLimit,
+                        directMemoryWaterMarkFallbackCause);
+            }
         }
     }
 
@@ -136,6 +203,19 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
     private final List<PoolArenaMetric> heapArenaMetrics;
     private final List<PoolArenaMetric> directArenaMetrics;
     private final PoolThreadLocalCache threadCache;
+    private final long pooledMemoryBudget;
+    private final DirectMemoryWaterMark directMemoryWaterMark;
+    private final AtomicLong usedHeapMemory = new AtomicLong();
+    private final AtomicLong usedDirectMemory = new AtomicLong();
+    // The soft limit state which was last reported to the listeners of the directMemoryWaterMark, see
+    // notifyDirectMemoryWaterMark().
+    private final AtomicInteger waterMarkState = new AtomicInteger();
+    private final Runnable trimTask = new Runnable() {
+        @Override
+        public void run() {
+            trimCurrentThreadCache();
+        }
+    };
 
     public PooledByteBufAllocator() {
         this(false);
@@ -156,7 +236,88 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
 
     public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
                                   int tinyCacheSize, int smallCacheSize, int normalCacheSize) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder,
+                tinyCacheSize, smallCacheSize, normalCacheSize, 0);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param directMemoryCacheAlignment if {@code > 0} the memory address and the capacity reserved for every direct
+     *                                   buffer is aligned to this value, which must be a power of two. This allows
+     *                                   to use pooled buffers for {@code O_DIRECT} I/O by using the block size of
+     *                                   the device. Requires {@link #isDirectMemoryCacheAlignmentSupported()}.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int tinyCacheSize, int smallCacheSize, int normalCacheSize,
+                                  int directMemoryCacheAlignment) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder, tinyCacheSize, smallCacheSize,
+                normalCacheSize, directMemoryCacheAlignment, DEFAULT_DIRECT_CHUNK_PROVIDER,
+                DEFAULT_PREFAULT_DIRECT_CHUNKS);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param directMemoryCacheAlignment see {@link #PooledByteBufAllocator(boolean, int, int, int, int, int, int, int,
+     *                                   int)}.
+     * @param directChunkProvider        the {@link DirectChunkProvider} which provides the memory of the chunks of
+     *                                   the direct arenas.
+     * @param prefaultDirectChunks       if {@code true} every page of a new direct chunk is touched when it is
+     *                                   created, so its page faults do not happen on the first write to a buffer,
+     *                                   and every direct arena creates its first chunk right away as long as the
+     *                                   hard limit of the {@link DirectMemoryWaterMark} is not exceeded by it.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int tinyCacheSize, int smallCacheSize, int normalCacheSize,
+                                  int directMemoryCacheAlignment, DirectChunkProvider directChunkProvider,
+                                  boolean prefaultDirectChunks) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder, tinyCacheSize, smallCacheSize,
+                normalCacheSize, directMemoryCacheAlignment, directChunkProvider, prefaultDirectChunks,
+                DEFAULT_POOLED_MEMORY_BUDGET);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param directChunkProvider        see {@link #PooledByteBufAllocator(boolean, int, int, int, int, int, int, int,
+     *                                   int, DirectChunkProvider, boolean)}.
+     * @param pooledMemoryBudget         if {@code > 0} the thread-local caches stop caching buffers and give the
+     *                                   ones they hold back to the arenas once the memory held by all arenas of this
+     *                                   allocator exceeds this number of bytes. See {@link #usedHeapMemory()} and
+     *                                   {@link #usedDirectMemory()}.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int tinyCacheSize, int smallCacheSize, int normalCacheSize,
+                                  int directMemoryCacheAlignment, DirectChunkProvider directChunkProvider,
+                                  boolean prefaultDirectChunks, long pooledMemoryBudget) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder, tinyCacheSize, smallCacheSize,
+                normalCacheSize, directMemoryCacheAlignment, directChunkProvider, prefaultDirectChunks,
+                pooledMemoryBudget, DEFAULT_DIRECT_MEMORY_WATER_MARK);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param pooledMemoryBudget         see {@link #PooledByteBufAllocator(boolean, int, int, int, int, int, int, int,
+     *                                   int, DirectChunkProvider, boolean, long)}.
+     * @param directMemoryWaterMark      the {@link DirectMemoryWaterMark} which limits the direct memory held by the
+     *                                   arenas of this allocator, or {@code null} for no limit.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int tinyCacheSize, int smallCacheSize, int normalCacheSize,
+                                  int directMemoryCacheAlignment, DirectChunkProvider directChunkProvider,
+                                  boolean prefaultDirectChunks, long pooledMemoryBudget,
+                                  DirectMemoryWaterMark directMemoryWaterMark) {
         super(preferDirect);
+        if (directChunkProvider == null) {
+            throw new NullPointerException("directChunkProvider");
+        }
+        if (pooledMemoryBudget < 0) {
+            throw new IllegalArgumentException("pooledMemoryBudget: " + pooledMemoryBudget + " (expected: >= 0)");
+        }
+        this.pooledMemoryBudget = pooledMemoryBudget;
+        this.directMemoryWaterMark = directMemoryWaterMark;
         threadCache = new PoolThreadLocalCache();
         this.tinyCacheSize = tinyCacheSize;
         this.smallCacheSize = smallCacheSize;
@@ -170,6 +331,20 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
             throw new IllegalArgumentException("nDirectArea: " + nDirectArena + " (expected: >= 0)");
         }
 
+        if (directMemoryCacheAlignment < 0) {
+            throw new IllegalArgumentException("directMemoryCacheAlignment: "
+                    + directMemoryCacheAlignment + " (expected: >= 0)");
+        }
+        if (directMemoryCacheAlignment > 0) {
+            if (!isDirectMemoryCacheAlignmentSupported()) {
+                throw new IllegalArgumentException("directMemoryCacheAlignment is not supported");
+            }
+            if ((directMemoryCacheAlignment & -directMemoryCacheAlignment) != directMemoryCacheAlignment) {
+                throw new IllegalArgumentException("directMemoryCacheAlignment: "
+                        + directMemoryCacheAlignment + " (expected: power of two)");
+            }
+        }
+
         int pageShifts = validateAndCalculatePageShifts(pageSize);
 
         if (nHeapArena > 0) {
@@ -190,8 +365,8 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
             directArenas = newArenaArray(nDirectArena);
             List<PoolArenaMetric> metrics = new ArrayList<PoolArenaMetric>(directArenas.length);
             for (int i = 0; i < directArenas.length; i ++) {
-                PoolArena.DirectArena arena = new PoolArena.DirectArena(
-                        this, pageSize, maxOrder, pageShifts, chunkSize);
+                PoolArena.DirectArena arena = new PoolArena.DirectArena(this, pageSize, maxOrder, pageShifts,
+                        chunkSize, directMemoryCacheAlignment, directChunkProvider, prefaultDirectChunks);
                 directArenas[i] = arena;
                 metrics.add(arena);
             }
@@ -271,6 +446,13 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
         return toLeakAwareBuffer(buf);
     }
 
+    /**
+     * Return {@code true} if direct memory cache alignment is supported, {@code false} otherwise.
+     */
+    public static boolean isDirectMemoryCacheAlignmentSupported() {
+        return PlatformDependent.hasUnsafe();
+    }
+
     @Override
     public boolean isDirectBufferPooled() {
         return directArenas != null;
@@ -279,6 +461,9 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
     final class PoolThreadLocalCache extends FastThreadLocal<PoolThreadCache> {
         private final AtomicInteger index = new AtomicInteger();
         final AtomicInteger caches = new AtomicInteger();
+        // All caches, so they can be asked to trim once the arenas exceed the pooledMemoryBudget.
+        final Set<PoolThreadCache> all =
+                Collections.newSetFromMap(PlatformDependent.<PoolThreadCache, Boolean>newConcurrentHashMap());
 
         @Override
         protected PoolThreadCache initialValue() {
@@ -298,13 +483,16 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
             } else {
                 directArena = null;
             }
-            return new PoolThreadCache(
+            PoolThreadCache cache = new PoolThreadCache(
                     heapArena, directArena, tinyCacheSize, smallCacheSize, normalCacheSize,
                     DEFAULT_MAX_CACHED_BUFFER_CAPACITY, DEFAULT_CACHE_TRIM_INTERVAL);
+            all.add(cache);
+            return cache;
         }
 
         @Override
         protected void onRemoval(PoolThreadCache value) {
+            all.remove(value);
             value.free();
             caches.decrementAndGet();
         }
@@ -345,6 +533,20 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
         return threadCache.caches.get();
     }
 
+    /**
+     * Return a snapshot of the statistics of this allocator. This is cheap as it only reads counters.
+     */
+    public PooledByteBufAllocatorMetric metric() {
+        return new PooledByteBufAllocatorMetric(arenaList(heapArenas), arenaList(directArenas), numThreadLocalCaches());
+    }
+
+    private static <T> List<PoolArena<T>> arenaList(PoolArena<T>[] arenas) {
+        if (arenas == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(arenas);
+    }
+
     /**
      * Return the size of the tiny cache.
      */
@@ -366,6 +568,182 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
         return normalCacheSize;
     }
 
+    /**
+     * Return the number of bytes of heap memory which is currently held by the arenas of this allocator, including
+     * the memory of huge buffers which are not pooled.
+     */
+    public long usedHeapMemory() {
+        return usedHeapMemory.get();
+    }
+
+    /**
+     * Return the number of bytes of direct memory which is currently held by the arenas of this allocator, including
+     * the memory of huge buffers which are not pooled.
+     */
+    public long usedDirectMemory() {
+        return usedDirectMemory.get();
+    }
+
+    /**
+     * Return the number of bytes the arenas may hold before the thread-local caches give their buffers back, or
+     * {@code 0} if there is no budget.
+     */
+    public long pooledMemoryBudget() {
+        return pooledMemoryBudget;
+    }
+
+    /**
+     * Trim the thread-local cache of the current {@link Thread}, which gives the buffers it does not need anymore
+     * back to the arenas. The caches are also trimmed periodically while allocating, and on the next allocation or
+     * release of a buffer once the arenas exceed the {@link #pooledMemoryBudget()}, so this is only useful for
+     * threads which stopped allocating but are still alive.
+     */
+    public void trimCurrentThreadCache() {
+        if (threadCache.isSet()) {
+            threadCache.get().trim();
+        }
+    }
+
+    /**
+     * Trim the thread-local caches of the {@link EventExecutor}s of the given {@link EventExecutorGroup} by
+     * scheduling {@link #trimCurrentThreadCache()} on each of them. This gives back the memory cached by
+     * {@link EventExecutor}s which are idle and so neither allocate nor release buffers anymore.
+     * {@link EventExecutor}s which are shutting down are skipped.
+     */
+    public void trimThreadCaches(EventExecutorGroup group) {
+        if (group == null) {
+            throw new NullPointerException("group");
+        }
+        for (EventExecutor executor: group.children()) {
+            try {
+                executor.execute(trimTask);
+            } catch (RejectedExecutionException ignore) {
+                // Shutting down, its caches are freed once its thread terminates.
+            }
+        }
+    }
+
+    /**
+     * Return the {@link DirectMemoryWaterMark} which limits the direct memory held by the arenas of this allocator, or
+     * {@code null} if there is no limit.
+     */
+    public DirectMemoryWaterMark directMemoryWaterMark() {
+        return directMemoryWaterMark;
+    }
+
+    /**
+     * Return {@code true} if the arenas hold more direct memory than the soft limit of the
+     * {@link #directMemoryWaterMark()}.
+     */
+    public boolean isDirectMemorySoftLimitExceeded() {
+        DirectMemoryWaterMark waterMark = directMemoryWaterMark;
+        return waterMark != null && usedDirectMemory.get() > waterMark.softLimit();
+    }
+
+    /**
+     * Accounts for memory an arena is about to allocate. The listeners of the {@link #directMemoryWaterMark()} are
+     * notified by {@link #notifyDirectMemoryWaterMark()} later on.
+     *
+     * @throws DirectMemoryWaterMarkExceededException if the direct memory would exceed the hard limit
+     */
+    final void reserveMemory(boolean direct, int bytes) {
+        if (direct) {
+            reserveDirectMemory(bytes);
+        } else {
+            usedHeapMemory.addAndGet(bytes);
+        }
+        if (exceedsPooledMemoryBudget()) {
+            // Threads which stopped allocating would keep their cached buffers until they die otherwise.
+            requestThreadCacheTrim();
+        }
+    }
+
+    private void reserveDirectMemory(int bytes) {
+        DirectMemoryWaterMark waterMark = directMemoryWaterMark;
+        if (waterMark == null) {
+            usedDirectMemory.addAndGet(bytes);
+            return;
+        }
+
+        final long hardLimit = waterMark.hardLimit();
+        long used;
+        long newUsed;
+        do {
+            used = usedDirectMemory.get();
+            newUsed = used + bytes;
+            if (newUsed > hardLimit) {
+                throw new DirectMemoryWaterMarkExceededException(used, bytes, hardLimit);
+            }
+        } while (!usedDirectMemory.compareAndSet(used, newUsed));
+    }
+
+    /**
+     * Accounts for memory an arena released or failed to allocate after {@link #reserveMemory(boolean, int)}.
+     */
+    final void releaseMemory(boolean direct, int bytes) {
+        if (direct) {
+            usedDirectMemory.addAndGet(-bytes);
+        } else {
+            usedHeapMemory.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * Notifies the listeners of the {@link #directMemoryWaterMark()} if the direct memory crossed the soft limit since
+     * they were notified the last time. This must be called after {@link #reserveMemory(boolean, int)} or
+     * {@link #releaseMemory(boolean, int)}, once the arena does not hold any of its locks anymore.
+     */
+    final void notifyDirectMemoryWaterMark() {
+        DirectMemoryWaterMark waterMark = directMemoryWaterMark;
+        if (waterMark == null) {
+            return;
+        }
+        for (;;) {
+            final int state = waterMarkState.get();
+            if ((state & WATER_MARK_NOTIFYING) != 0) {
+                // The notifying thread checks the memory again once it is done.
+                return;
+            }
+            final boolean exceeded = state == WATER_MARK_EXCEEDED;
+            final long used = usedDirectMemory.get();
+            if (used > waterMark.softLimit() == exceeded) {
+                return;
+            }
+            // Only one thread at a time notifies, so the listeners see every crossing once and in order.
+            final int newState = exceeded ? WATER_MARK_CLEARED : WATER_MARK_EXCEEDED;
+            if (!waterMarkState.compareAndSet(state, newState | WATER_MARK_NOTIFYING)) {
+                continue;
+            }
+            try {
+                if (exceeded) {
+                    waterMark.notifySoftLimitCleared(this, used);
+                } else {
+                    waterMark.notifySoftLimitExceeded(this, used);
+                }
+            } finally {
+                waterMarkState.set(newState);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the arenas hold more memory than the {@link #pooledMemoryBudget()}.
+     */
+    final boolean exceedsPooledMemoryBudget() {
+        return pooledMemoryBudget > 0 && usedHeapMemory.get() + usedDirectMemory.get() > pooledMemoryBudget;
+    }
+
+    private void requestThreadCacheTrim() {
+        for (PoolThreadCache cache: threadCache.all) {
+            if (cache.isThreadAlive()) {
+                cache.requestTrim();
+            } else {
+                // Freed by the ThreadDeathWatcher.
+                threadCache.all.remove(cache);
+            }
+        }
+    }
+
     final PoolThreadCache threadCache() {
         return threadCache.get();
     }
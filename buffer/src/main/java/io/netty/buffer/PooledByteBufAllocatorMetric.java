@@ -0,0 +1,315 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A snapshot of the statistics of a {@link PooledByteBufAllocator}, as returned by
+ * {@link PooledByteBufAllocator#metric()}.
+ * <p>
+ * All values are read from counters which are updated while buffers are allocated and released, so taking a snapshot
+ * does not need to walk the chunks of the arenas or to acquire any lock and is cheap enough to be done every second.
+ * The counters are read one after the other though, so a snapshot which is taken while the allocator is in use is
+ * not consistent in itself. The hits of a thread-local cache are only published when the cache is trimmed, see
+ * {@link PooledByteBufAllocator#trimCurrentThreadCache()}.
+ */
+public final class PooledByteBufAllocatorMetric {
+
+    private final List<ArenaMetric> heapArenas;
+    private final List<ArenaMetric> directArenas;
+    private final int numThreadLocalCaches;
+
+    PooledByteBufAllocatorMetric(List<? extends PoolArena<?>> heapArenas, List<? extends PoolArena<?>> directArenas,
+                                 int numThreadLocalCaches) {
+        this.heapArenas = snapshot(heapArenas);
+        this.directArenas = snapshot(directArenas);
+        this.numThreadLocalCaches = numThreadLocalCaches;
+    }
+
+    private static List<ArenaMetric> snapshot(List<? extends PoolArena<?>> arenas) {
+        if (arenas.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ArenaMetric> metrics = new ArrayList<ArenaMetric>(arenas.size());
+        for (PoolArena<?> arena: arenas) {
+            metrics.add(new ArenaMetric(arena));
+        }
+        return Collections.unmodifiableList(metrics);
+    }
+
+    /**
+     * Returns the snapshots of the heap arenas.
+     */
+    public List<ArenaMetric> heapArenas() {
+        return heapArenas;
+    }
+
+    /**
+     * Returns the snapshots of the direct arenas.
+     */
+    public List<ArenaMetric> directArenas() {
+        return directArenas;
+    }
+
+    /**
+     * Returns the number of thread-local caches.
+     */
+    public int numThreadLocalCaches() {
+        return numThreadLocalCaches;
+    }
+
+    /**
+     * Returns the number of bytes of heap memory held by all heap arenas.
+     */
+    public long usedHeapMemory() {
+        return usedMemory(heapArenas);
+    }
+
+    /**
+     * Returns the number of bytes of direct memory held by all direct arenas.
+     */
+    public long usedDirectMemory() {
+        return usedMemory(directArenas);
+    }
+
+    private static long usedMemory(List<ArenaMetric> arenas) {
+        long usedMemory = 0;
+        for (ArenaMetric arena: arenas) {
+            usedMemory += arena.usedMemory();
+        }
+        return usedMemory;
+    }
+
+    /**
+     * Returns the number of bytes of all heap arenas which are allocated.
+     */
+    public long activeHeapBytes() {
+        return activeBytes(heapArenas);
+    }
+
+    /**
+     * Returns the number of bytes of all direct arenas which are allocated.
+     */
+    public long activeDirectBytes() {
+        return activeBytes(directArenas);
+    }
+
+    private static long activeBytes(List<ArenaMetric> arenas) {
+        long activeBytes = 0;
+        for (ArenaMetric arena: arenas) {
+            activeBytes += arena.activeBytes();
+        }
+        return activeBytes;
+    }
+
+    /**
+     * Returns the number of chunks of all arenas.
+     */
+    public long numChunks() {
+        long numChunks = 0;
+        for (ArenaMetric arena: heapArenas) {
+            numChunks += arena.numChunks();
+        }
+        for (ArenaMetric arena: directArenas) {
+            numChunks += arena.numChunks();
+        }
+        return numChunks;
+    }
+
+    /**
+     * Returns the ratio of the allocations of a size which can be cached that were served by a thread-local cache,
+     * over all arenas, or {@code 0} if there were none.
+     */
+    public double threadCacheHitRatio() {
+        long hits = 0;
+        long misses = 0;
+        for (ArenaMetric arena: heapArenas) {
+            hits += arena.numThreadCacheHits();
+            misses += arena.numThreadCacheMisses();
+        }
+        for (ArenaMetric arena: directArenas) {
+            hits += arena.numThreadCacheHits();
+            misses += arena.numThreadCacheMisses();
+        }
+        return ratio(hits, hits + misses);
+    }
+
+    static double ratio(long part, long total) {
+        return total <= 0 ? 0 : (double) part / total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder(256)
+            .append(StringUtil.simpleClassName(this))
+            .append("(usedHeapMemory: ").append(usedHeapMemory())
+            .append(", usedDirectMemory: ").append(usedDirectMemory())
+            .append(", numChunks: ").append(numChunks())
+            .append(", numThreadLocalCaches: ").append(numThreadLocalCaches)
+            .append(", threadCacheHitRatio: ").append(threadCacheHitRatio())
+            .append(')');
+        for (int i = 0; i < heapArenas.size(); i ++) {
+            buf.append(StringUtil.NEWLINE).append("heap arena ").append(i).append(": ").append(heapArenas.get(i));
+        }
+        for (int i = 0; i < directArenas.size(); i ++) {
+            buf.append(StringUtil.NEWLINE).append("direct arena ").append(i).append(": ").append(directArenas.get(i));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * A snapshot of the statistics of a single arena.
+     */
+    public static final class ArenaMetric {
+        private final int chunkSize;
+        private final long numChunks;
+        private final long activePooledBytes;
+        private final long hugeBytes;
+        private final long numTinyAllocations;
+        private final long numSmallAllocations;
+        private final long numNormalAllocations;
+        private final long numHugeAllocations;
+        private final long numTinyDeallocations;
+        private final long numSmallDeallocations;
+        private final long numNormalDeallocations;
+        private final long numHugeDeallocations;
+        private final long numThreadCacheHits;
+        private final long numThreadCacheMisses;
+
+        ArenaMetric(PoolArena<?> arena) {
+            chunkSize = arena.chunkSize;
+            numChunks = arena.numChunks();
+            activePooledBytes = arena.numActivePooledBytes();
+            hugeBytes = arena.numHugeBytes();
+            numTinyAllocations = arena.numTinyAllocations();
+            numSmallAllocations = arena.numSmallAllocations();
+            numNormalAllocations = arena.numNormalAllocations();
+            numHugeAllocations = arena.numHugeAllocations();
+            numTinyDeallocations = arena.numTinyDeallocations();
+            numSmallDeallocations = arena.numSmallDeallocations();
+            numNormalDeallocations = arena.numNormalDeallocations();
+            numHugeDeallocations = arena.numHugeDeallocations();
+            numThreadCacheHits = arena.threadCacheHits.value();
+            numThreadCacheMisses = arena.threadCacheMisses.value();
+        }
+
+        /**
+         * Returns the number of bytes held by the arena, which are the bytes of its chunks and of the huge buffers
+         * which were not released yet.
+         */
+        public long usedMemory() {
+            return numChunks * chunkSize + hugeBytes;
+        }
+
+        /**
+         * Returns the number of bytes which are allocated, including the ones held by thread-local caches. The size
+         * of a buffer is rounded up to its size class.
+         */
+        public long activeBytes() {
+            return activePooledBytes + hugeBytes;
+        }
+
+        /**
+         * Returns the number of chunks.
+         */
+        public long numChunks() {
+            return numChunks;
+        }
+
+        /**
+         * Returns the ratio of the memory of the chunks which is not allocated, between {@code 0} and {@code 1}.
+         */
+        public double fragmentation() {
+            long chunkBytes = numChunks * chunkSize;
+            return ratio(chunkBytes - activePooledBytes, chunkBytes);
+        }
+
+        public long numTinyAllocations() {
+            return numTinyAllocations;
+        }
+
+        public long numSmallAllocations() {
+            return numSmallAllocations;
+        }
+
+        public long numNormalAllocations() {
+            return numNormalAllocations;
+        }
+
+        public long numHugeAllocations() {
+            return numHugeAllocations;
+        }
+
+        public long numTinyDeallocations() {
+            return numTinyDeallocations;
+        }
+
+        public long numSmallDeallocations() {
+            return numSmallDeallocations;
+        }
+
+        public long numNormalDeallocations() {
+            return numNormalDeallocations;
+        }
+
+        public long numHugeDeallocations() {
+            return numHugeDeallocations;
+        }
+
+        /**
+         * Returns the number of allocations which were served by a thread-local cache and so never reached the arena.
+         * They are not included in the allocation counts of the size classes. The caches publish their hits and
+         * misses periodically, so the most recent ones may not be included yet.
+         */
+        public long numThreadCacheHits() {
+            return numThreadCacheHits;
+        }
+
+        /**
+         * Returns the number of allocations of a size which can be cached that had to be served by the arena, because
+         * the thread-local cache was empty.
+         */
+        public long numThreadCacheMisses() {
+            return numThreadCacheMisses;
+        }
+
+        /**
+         * Returns the ratio of the allocations of a size which can be cached that were served by a thread-local
+         * cache, or {@code 0} if there were none.
+         */
+        public double threadCacheHitRatio() {
+            return ratio(numThreadCacheHits, numThreadCacheHits + numThreadCacheMisses);
+        }
+
+        @Override
+        public String toString() {
+            return "ArenaMetric(usedMemory: " + usedMemory() +
+                    ", activeBytes: " + activeBytes() +
+                    ", numChunks: " + numChunks +
+                    ", fragmentation: " + fragmentation() +
+                    ", allocations: [tiny: " + numTinyAllocations + ", small: " + numSmallAllocations +
+                    ", normal: " + numNormalAllocations + ", huge: " + numHugeAllocations +
+                    "], deallocations: [tiny: " + numTinyDeallocations + ", small: " + numSmallDeallocations +
+                    ", normal: " + numNormalDeallocations + ", huge: " + numHugeDeallocations +
+                    "], threadCacheHitRatio: " + threadCacheHitRatio() + ')';
+        }
+    }
+}
@@ -17,19 +17,165 @@
 package io.netty.buffer;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class PoolArenaTest {
 
     @Test
     public void testNormalizeCapacity() throws Exception {
-        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, 0, 0, 9, 999999);
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, 0, 0, 9, 999999, 0);
         int[] reqCapacities = {0, 15, 510, 1024, 1023, 1025};
         int[] expectedResult = {0, 16, 512, 1024, 1024, 2048};
         for (int i = 0; i < reqCapacities.length; i ++) {
             Assert.assertEquals(expectedResult[i], arena.normalizeCapacity(reqCapacities[i]));
         }
     }
+
+    @Test
+    public void testNormalizeAlignedCapacity() throws Exception {
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, 0, 0, 9, 999999, 512);
+        int[] reqCapacities = {0, 15, 510, 1024, 1023, 1025, 999999, 1000000};
+        int[] expectedResult = {0, 512, 512, 1024, 1024, 2048, 1000448, 1000448};
+        for (int i = 0; i < reqCapacities.length; i ++) {
+            Assert.assertEquals(expectedResult[i], arena.normalizeCapacity(reqCapacities[i]));
+        }
+    }
+
+    @Test
+    public void testDirectMemoryCacheAlignment() {
+        Assume.assumeTrue(PooledByteBufAllocator.isDirectMemoryCacheAlignmentSupported());
+        final int alignment = 4096;
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 11, 0, 0, 0, alignment);
+        int[] reqCapacities = {16, 512, 4096, 8192, 65536, 16 * 1024 * 1024 + 1};
+        for (int reqCapacity : reqCapacities) {
+            ByteBuf[] buffers = new ByteBuf[4];
+            for (int i = 0; i < buffers.length; i ++) {
+                buffers[i] = allocator.directBuffer(reqCapacity);
+                Assert.assertTrue(buffers[i].hasMemoryAddress());
+                Assert.assertEquals(0, buffers[i].memoryAddress() & alignment - 1);
+            }
+            for (ByteBuf buffer : buffers) {
+                buffer.release();
+            }
+        }
+    }
+
+    @Test
+    public void testPrefaultCreatesFirstChunk() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 11, 0, 0, 0, 0,
+                DefaultDirectChunkProvider.INSTANCE, true);
+        PoolArenaMetric arena = allocator.directArenas().get(0);
+        Assert.assertEquals(1, chunks(arena).size());
+
+        ByteBuf buffer = allocator.directBuffer(65536);
+        Assert.assertEquals(1, chunks(arena).size());
+        buffer.release();
+    }
+
+    @Test
+    public void testMappedFileDirectChunkProvider() throws Exception {
+        File directory = File.createTempFile("netty-chunks", null);
+        Assert.assertTrue(directory.delete());
+        Assert.assertTrue(directory.mkdir());
+        try {
+            final int chunkSize = 8192 << 7;
+            MappedFileDirectChunkProvider provider = new MappedFileDirectChunkProvider(directory, 4096);
+            PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 7, 0, 0, 0, 0,
+                    provider, true);
+
+            List<ByteBuf> buffers = new ArrayList<ByteBuf>();
+            for (int i = 0; i < 4; i ++) {
+                ByteBuf buffer = allocator.directBuffer(chunkSize / 2);
+                buffer.writeInt(i).writerIndex(buffer.capacity() - 4).writeInt(i);
+                buffers.add(buffer);
+            }
+            Assert.assertEquals(2, chunks(allocator.directArenas().get(0)).size());
+            // The files are deleted as soon as they were mapped.
+            Assert.assertEquals(0, directory.list().length);
+
+            for (int i = 0; i < buffers.size(); i ++) {
+                ByteBuf buffer = buffers.get(i);
+                Assert.assertEquals(i, buffer.getInt(0));
+                Assert.assertEquals(i, buffer.getInt(buffer.capacity() - 4));
+                buffer.release();
+            }
+        } finally {
+            directory.delete();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentAllocation() throws Exception {
+        // A single arena without thread caches, so all threads contend for the same chunk lists.
+        final PooledByteBufAllocator allocator = new PooledByteBufAllocator(false, 1, 0, 8192, 4, 0, 0, 0);
+        final int[] capacities = { 16, 1024, 8192, 16384, 32768 };
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i ++) {
+            final byte marker = (byte) i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        ByteBuf[] buffers = new ByteBuf[16];
+                        for (int i = 0; i < 2000; i ++) {
+                            int idx = i % buffers.length;
+                            if (buffers[idx] != null) {
+                                assertFilled(buffers[idx], marker);
+                                buffers[idx].release();
+                            }
+                            ByteBuf buffer = allocator.heapBuffer(capacities[i % capacities.length]);
+                            while (buffer.isWritable()) {
+                                buffer.writeByte(marker);
+                            }
+                            buffers[idx] = buffer;
+                        }
+                        for (ByteBuf buffer: buffers) {
+                            assertFilled(buffer, marker);
+                            buffer.release();
+                        }
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread: threads) {
+            thread.join();
+        }
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+
+        PoolArenaMetric arena = allocator.heapArenas().get(0);
+        Assert.assertEquals(0, arena.numActiveAllocations());
+    }
+
+    private static void assertFilled(ByteBuf buffer, byte marker) {
+        for (int i = 0; i < buffer.writerIndex(); i ++) {
+            Assert.assertEquals(marker, buffer.getByte(i));
+        }
+    }
+
+    private static List<PoolChunkMetric> chunks(PoolArenaMetric arena) {
+        List<PoolChunkMetric> chunks = new ArrayList<PoolChunkMetric>();
+        for (PoolChunkListMetric chunkList : arena.chunkLists()) {
+            for (PoolChunkMetric chunk : chunkList) {
+                chunks.add(chunk);
+            }
+        }
+        return chunks;
+    }
 }
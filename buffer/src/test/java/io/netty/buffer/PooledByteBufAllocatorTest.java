@@ -0,0 +1,317 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.Future;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+public class PooledByteBufAllocatorTest {
+
+    // 8192 << 4 = 128 KiB per chunk
+    private static final int CHUNK_SIZE = 8192 << 4;
+
+    private static PooledByteBufAllocator newHeapAllocator(long pooledMemoryBudget) {
+        return new PooledByteBufAllocator(false, 1, 0, 8192, 4, 0, 0, 64, 0,
+                DefaultDirectChunkProvider.INSTANCE, false, pooledMemoryBudget);
+    }
+
+    @Test
+    public void testUsedMemory() {
+        PooledByteBufAllocator allocator = newHeapAllocator(0);
+        assertEquals(0, allocator.usedHeapMemory());
+
+        ByteBuf pooled = allocator.heapBuffer(8192);
+        assertEquals(CHUNK_SIZE, allocator.usedHeapMemory());
+
+        ByteBuf huge = allocator.heapBuffer(CHUNK_SIZE + 1);
+        assertEquals(2 * CHUNK_SIZE + 1, allocator.usedHeapMemory());
+        assertTrue(huge.release());
+        assertEquals(CHUNK_SIZE, allocator.usedHeapMemory());
+
+        assertTrue(pooled.release());
+        assertEquals(0, allocator.usedDirectMemory());
+    }
+
+    @Test
+    public void testThreadCacheWithoutBudget() {
+        PooledByteBufAllocator allocator = newHeapAllocator(0);
+        PoolArenaMetric arena = allocator.heapArenas().get(0);
+
+        assertTrue(allocator.heapBuffer(8192).release());
+        // The buffer was cached so it was not given back to the arena.
+        assertEquals(0, arena.numNormalDeallocations());
+
+        allocator.trimCurrentThreadCache();
+        // The cached buffer was not allocated since the last trim.
+        assertEquals(1, arena.numNormalDeallocations());
+    }
+
+    @Test
+    public void testThreadCacheExceedsBudget() {
+        PooledByteBufAllocator allocator = newHeapAllocator(CHUNK_SIZE / 2);
+        PoolArenaMetric arena = allocator.heapArenas().get(0);
+
+        assertTrue(allocator.heapBuffer(8192).release());
+        // The arena holds a whole chunk, which is more than the budget, so the buffer was not cached.
+        assertEquals(1, arena.numNormalDeallocations());
+        assertEquals(0, arena.numActiveAllocations());
+    }
+
+    @Test(timeout = 10000)
+    public void testOtherThreadCacheTrimmedOnReleaseOnceBudgetExceeded() throws Exception {
+        final PooledByteBufAllocator allocator = newHeapAllocator(CHUNK_SIZE + CHUNK_SIZE / 2);
+        PoolArenaMetric arena = allocator.heapArenas().get(0);
+        final CountDownLatch cached = new CountDownLatch(1);
+        final CountDownLatch exceeded = new CountDownLatch(1);
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                ByteBuf buf = allocator.heapBuffer(8192);
+                allocator.heapBuffer(8192).release();
+                cached.countDown();
+                try {
+                    exceeded.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // Releasing a buffer trims the cache of this thread, even though it does not allocate anymore.
+                buf.release();
+            }
+        };
+        thread.start();
+        cached.await();
+        assertEquals(0, arena.numNormalDeallocations());
+
+        // Needs a second chunk, which exceeds the budget.
+        ByteBuf buf = allocator.heapBuffer(CHUNK_SIZE);
+        exceeded.countDown();
+        thread.join();
+        assertEquals(2, arena.numNormalDeallocations());
+        assertTrue(buf.release());
+    }
+
+    @Test(timeout = 10000)
+    public void testTrimThreadCaches() throws Exception {
+        final PooledByteBufAllocator allocator = newHeapAllocator(0);
+        final PoolArenaMetric arena = allocator.heapArenas().get(0);
+        EventExecutorGroup group = new DefaultEventExecutorGroup(1);
+        try {
+            group.submit(new Runnable() {
+                @Override
+                public void run() {
+                    allocator.heapBuffer(8192).release();
+                }
+            }).sync();
+            assertEquals(0, arena.numNormalDeallocations());
+
+            allocator.trimThreadCaches(group);
+            // Executed after the trim, as there is only one EventExecutor.
+            Future<Long> deallocations = group.submit(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    return arena.numNormalDeallocations();
+                }
+            });
+            assertEquals(1L, (long) deallocations.sync().getNow());
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testDirectMemoryWaterMark() {
+        final List<String> events = new ArrayList<String>();
+        DirectMemoryWaterMark waterMark = new DirectMemoryWaterMark(2 * CHUNK_SIZE, 3 * CHUNK_SIZE);
+        waterMark.addListener(new DirectMemoryWaterMarkListener() {
+            @Override
+            public void softLimitExceeded(PooledByteBufAllocator allocator, long usedDirectMemory) {
+                events.add("exceeded: " + usedDirectMemory);
+            }
+
+            @Override
+            public void softLimitCleared(PooledByteBufAllocator allocator, long usedDirectMemory) {
+                events.add("cleared: " + usedDirectMemory);
+            }
+        });
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 4, 0, 0, 64, 0,
+                DefaultDirectChunkProvider.INSTANCE, false, 0, waterMark);
+        assertSame(waterMark, allocator.directMemoryWaterMark());
+
+        ByteBuf pooled = allocator.directBuffer(8192);
+        assertFalse(allocator.isDirectMemorySoftLimitExceeded());
+        assertTrue(events.isEmpty());
+
+        // Huge buffers are not pooled but still count.
+        ByteBuf huge = allocator.directBuffer(CHUNK_SIZE + 1);
+        assertTrue(allocator.isDirectMemorySoftLimitExceeded());
+        assertEquals(1, events.size());
+        assertEquals("exceeded: " + (2 * CHUNK_SIZE + 1), events.get(0));
+
+        try {
+            allocator.directBuffer(CHUNK_SIZE + 1);
+            fail();
+        } catch (DirectMemoryWaterMarkExceededException e) {
+            assertEquals(2 * CHUNK_SIZE + 1, e.usedDirectMemory());
+            assertEquals(CHUNK_SIZE + 1, e.requestedBytes());
+            assertEquals(3 * CHUNK_SIZE, e.hardLimit());
+        }
+        assertEquals(2 * CHUNK_SIZE + 1, allocator.usedDirectMemory());
+        // The free space of existing chunks can still be used.
+        assertTrue(allocator.directBuffer(8192).release());
+
+        assertTrue(huge.release());
+        assertFalse(allocator.isDirectMemorySoftLimitExceeded());
+        assertEquals(2, events.size());
+        assertEquals("cleared: " + CHUNK_SIZE, events.get(1));
+
+        assertTrue(pooled.release());
+    }
+
+    @Test(timeout = 10000)
+    public void testDirectMemoryWaterMarkListenerNotifiedWithoutLock() throws Exception {
+        final List<ByteBuf> allocated = new ArrayList<ByteBuf>();
+        DirectMemoryWaterMark waterMark = new DirectMemoryWaterMark(1, 4 * CHUNK_SIZE);
+        waterMark.addListener(new DirectMemoryWaterMarkListener() {
+            @Override
+            public void softLimitExceeded(final PooledByteBufAllocator allocator, long usedDirectMemory) {
+                // Would dead-lock if the listener was notified while the arena is locked.
+                Thread thread = new Thread() {
+                    @Override
+                    public void run() {
+                        allocated.add(allocator.directBuffer(8192));
+                    }
+                };
+                thread.start();
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void softLimitCleared(PooledByteBufAllocator allocator, long usedDirectMemory) {
+                // NOOP
+            }
+        });
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 4, 0, 0, 0, 0,
+                DefaultDirectChunkProvider.INSTANCE, false, 0, waterMark);
+
+        ByteBuf buf = allocator.directBuffer(8192);
+        assertEquals(1, allocated.size());
+        assertTrue(allocated.get(0).release());
+        assertTrue(buf.release());
+    }
+
+    @Test
+    public void testUsedDirectMemoryIncludesAlignment() {
+        assumeTrue(PooledByteBufAllocator.isDirectMemoryCacheAlignmentSupported());
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 4, 0, 0, 0, 64,
+                DefaultDirectChunkProvider.INSTANCE, false, 0);
+
+        // Every chunk is allocated with extra bytes so it can be aligned.
+        ByteBuf pooled = allocator.directBuffer(8192);
+        assertEquals(CHUNK_SIZE + 64, allocator.usedDirectMemory());
+        ByteBuf huge = allocator.directBuffer(CHUNK_SIZE + 64);
+        assertEquals(2 * CHUNK_SIZE + 3 * 64, allocator.usedDirectMemory());
+
+        assertTrue(huge.release());
+        assertEquals(CHUNK_SIZE + 64, allocator.usedDirectMemory());
+        assertTrue(pooled.release());
+    }
+
+    @Test
+    public void testPrefaultDoesNotExceedHardLimit() {
+        // Only one of the two arenas can preallocate its chunk.
+        DirectMemoryWaterMark waterMark = new DirectMemoryWaterMark(CHUNK_SIZE, CHUNK_SIZE);
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 2, 8192, 4, 0, 0, 0, 0,
+                DefaultDirectChunkProvider.INSTANCE, true, 0, waterMark);
+        assertEquals(CHUNK_SIZE, allocator.usedDirectMemory());
+        assertEquals(1, allocator.metric().numChunks());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDirectMemoryWaterMarkHardLimitBelowSoftLimit() {
+        new DirectMemoryWaterMark(2, 1);
+    }
+
+    @Test
+    public void testMetric() {
+        PooledByteBufAllocator allocator = newHeapAllocator(0);
+        ByteBuf tiny = allocator.heapBuffer(16);
+        ByteBuf small = allocator.heapBuffer(1024);
+        ByteBuf normal = allocator.heapBuffer(8192);
+        ByteBuf huge = allocator.heapBuffer(CHUNK_SIZE + 1);
+
+        PooledByteBufAllocatorMetric.ArenaMetric arena = allocator.metric().heapArenas().get(0);
+        assertEquals(1, arena.numChunks());
+        assertEquals(2 * CHUNK_SIZE + 1, arena.usedMemory());
+        assertEquals(16 + 1024 + 8192 + CHUNK_SIZE + 1, arena.activeBytes());
+        assertEquals((double) (CHUNK_SIZE - 16 - 1024 - 8192) / CHUNK_SIZE, arena.fragmentation(), 0.0001);
+        assertEquals(1, arena.numTinyAllocations());
+        assertEquals(1, arena.numSmallAllocations());
+        assertEquals(1, arena.numNormalAllocations());
+        assertEquals(1, arena.numHugeAllocations());
+
+        assertTrue(tiny.release());
+        assertTrue(small.release());
+        assertTrue(normal.release());
+        assertTrue(huge.release());
+        // Served by the thread-local cache, as only normal buffers are cached by this allocator.
+        assertTrue(allocator.heapBuffer(8192).release());
+        allocator.trimCurrentThreadCache();
+
+        PooledByteBufAllocatorMetric metric = allocator.metric();
+        arena = metric.heapArenas().get(0);
+        assertEquals(CHUNK_SIZE, arena.usedMemory());
+        // The cached buffer is still allocated from the arena's point of view.
+        assertEquals(8192, arena.activeBytes());
+        assertEquals(1, arena.numTinyDeallocations());
+        assertEquals(1, arena.numSmallDeallocations());
+        assertEquals(0, arena.numNormalDeallocations());
+        assertEquals(1, arena.numHugeDeallocations());
+        // Only the normal allocation could have been served by the cache.
+        assertEquals(1, arena.numThreadCacheHits());
+        assertEquals(1, arena.numThreadCacheMisses());
+        assertEquals(0.5, arena.threadCacheHitRatio(), 0.0001);
+
+        assertEquals(CHUNK_SIZE, metric.usedHeapMemory());
+        assertEquals(0, metric.usedDirectMemory());
+        assertEquals(1, metric.numChunks());
+        assertEquals(1, metric.numThreadLocalCaches());
+        assertEquals(0.5, metric.threadCacheHitRatio(), 0.0001);
+        assertTrue(metric.directArenas().isEmpty());
+
+        // Hits which were not published by a trim yet are published once the cache is freed.
+        assertTrue(allocator.heapBuffer(8192).release());
+        allocator.threadCache().free();
+        arena = allocator.metric().heapArenas().get(0);
+        assertEquals(2, arena.numThreadCacheHits());
+        assertEquals(1, arena.numThreadCacheMisses());
+    }
+}
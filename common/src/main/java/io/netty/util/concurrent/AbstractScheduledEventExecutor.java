@@ -17,21 +17,38 @@ package io.netty.util.concurrent;
 
 import io.netty.util.internal.CallableEventExecutorAdapter;
 import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.OneTimeTask;
 import io.netty.util.internal.RunnableEventExecutorAdapter;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
 
-import java.util.Iterator;
-import java.util.PriorityQueue;
-import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract base class for {@link EventExecutor}s that want to support scheduling.
+ *
+ * By default the scheduled tasks are kept in a priority queue. If the {@code io.netty.timerWheel} system property
+ * is set to {@code true} a hierarchical timing wheel is used instead, which adds and cancels tasks in {@code O(1)}
+ * and removes cancelled tasks right away, at the cost of running tasks up to a millisecond late.
  */
 public abstract class AbstractScheduledEventExecutor extends AbstractEventExecutor {
 
-    Queue<ScheduledFutureTask<?>> scheduledTaskQueue;
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(AbstractScheduledEventExecutor.class);
+
+    private static final boolean TIMER_WHEEL = SystemPropertyUtil.getBoolean("io.netty.timerWheel", false);
+
+    static {
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.timerWheel: {}", TIMER_WHEEL);
+        }
+    }
+
+    ScheduledTaskQueue scheduledTaskQueue;
 
     protected AbstractScheduledEventExecutor() {
     }
@@ -44,14 +61,15 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
         return ScheduledFutureTask.nanoTime();
     }
 
-    Queue<ScheduledFutureTask<?>> scheduledTaskQueue() {
+    ScheduledTaskQueue scheduledTaskQueue() {
         if (scheduledTaskQueue == null) {
-            scheduledTaskQueue = new PriorityQueue<ScheduledFutureTask<?>>();
+            scheduledTaskQueue = TIMER_WHEEL ? new TimerWheelScheduledTaskQueue(nanoTime())
+                                             : new PriorityScheduledTaskQueue();
         }
         return scheduledTaskQueue;
     }
 
-    private static  boolean isNullOrEmpty(Queue<ScheduledFutureTask<?>> queue) {
+    private static  boolean isNullOrEmpty(ScheduledTaskQueue queue) {
         return queue == null || queue.isEmpty();
     }
 
@@ -62,19 +80,16 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
      */
     protected void cancelScheduledTasks() {
         assert inEventLoop();
-        Queue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
+        ScheduledTaskQueue scheduledTaskQueue = this.scheduledTaskQueue;
         if (isNullOrEmpty(scheduledTaskQueue)) {
             return;
         }
 
-        final ScheduledFutureTask<?>[] scheduledTasks =
-                scheduledTaskQueue.toArray(new ScheduledFutureTask<?>[scheduledTaskQueue.size()]);
+        final ScheduledFutureTask<?>[] scheduledTasks = scheduledTaskQueue.clear();
 
         for (ScheduledFutureTask<?> task: scheduledTasks) {
             task.cancel(false);
         }
-
-        scheduledTaskQueue.clear();
     }
 
     /**
@@ -91,46 +106,35 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
     protected final Runnable pollScheduledTask(long nanoTime) {
         assert inEventLoop();
 
-        Queue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        ScheduledFutureTask<?> scheduledTask = scheduledTaskQueue == null ? null : scheduledTaskQueue.peek();
-        if (scheduledTask == null) {
-            return null;
-        }
-
-        if (scheduledTask.deadlineNanos() <= nanoTime) {
-            scheduledTaskQueue.remove();
-            return scheduledTask;
-        }
-        return null;
+        ScheduledTaskQueue scheduledTaskQueue = this.scheduledTaskQueue;
+        return scheduledTaskQueue == null ? null : scheduledTaskQueue.poll(nanoTime);
     }
 
     /**
      * Return the nanoseconds when the next scheduled task is ready to be run or {@code -1} if no task is scheduled.
      */
     protected final long nextScheduledTaskNano() {
-        Queue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        ScheduledFutureTask<?> scheduledTask = scheduledTaskQueue == null ? null : scheduledTaskQueue.peek();
-        if (scheduledTask == null) {
+        long deadlineNanos = nextScheduledTaskDeadlineNanos();
+        if (deadlineNanos == -1) {
             return -1;
         }
-        return Math.max(0, scheduledTask.deadlineNanos() - nanoTime());
+        return Math.max(0, deadlineNanos - nanoTime());
     }
 
-    final ScheduledFutureTask<?> peekScheduledTask() {
-        Queue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        if (scheduledTaskQueue == null) {
-            return null;
-        }
-        return scheduledTaskQueue.peek();
+    /**
+     * Return the deadline at which the next scheduled task is ready to be run or {@code -1} if no task is scheduled.
+     */
+    final long nextScheduledTaskDeadlineNanos() {
+        ScheduledTaskQueue scheduledTaskQueue = this.scheduledTaskQueue;
+        return scheduledTaskQueue == null ? -1 : scheduledTaskQueue.nextDeadlineNanos();
     }
 
     /**
      * Returns {@code true} if a scheduled task is ready for processing.
      */
     protected final boolean hasScheduledTasks() {
-        Queue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        ScheduledFutureTask<?> scheduledTask = scheduledTaskQueue == null ? null : scheduledTaskQueue.peek();
-        return scheduledTask != null && scheduledTask.deadlineNanos() <= nanoTime();
+        long deadlineNanos = nextScheduledTaskDeadlineNanos();
+        return deadlineNanos != -1 && deadlineNanos <= nanoTime();
     }
 
     @Override
@@ -208,20 +212,38 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
         return task;
     }
 
-    void purgeCancelledScheduledTasks() {
-        Queue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
-        if (isNullOrEmpty(scheduledTaskQueue)) {
+    /**
+     * Remove the given cancelled task if the {@link ScheduledTaskQueue} supports removing it cheaply.
+     */
+    final void removeScheduled(final ScheduledFutureTask<?> task) {
+        if (!(scheduledTaskQueue instanceof TimerWheelScheduledTaskQueue)) {
+            // Purged periodically, see purgeCancelledScheduledTasks()
             return;
         }
-        Iterator<ScheduledFutureTask<?>> i = scheduledTaskQueue.iterator();
-        while (i.hasNext()) {
-            ScheduledFutureTask<?> task = i.next();
-            if (task.isCancelled()) {
-                i.remove();
+        if (inEventLoop()) {
+            scheduledTaskQueue.remove(task);
+        } else {
+            try {
+                execute(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        scheduledTaskQueue.remove(task);
+                    }
+                });
+            } catch (RejectedExecutionException ignore) {
+                // Shutting down, all scheduled tasks will be cancelled anyway.
             }
         }
     }
 
+    void purgeCancelledScheduledTasks() {
+        ScheduledTaskQueue scheduledTaskQueue = this.scheduledTaskQueue;
+        if (isNullOrEmpty(scheduledTaskQueue)) {
+            return;
+        }
+        scheduledTaskQueue.removeCancelled();
+    }
+
     private static Callable<Void> toCallable(final Runnable command) {
         if (command instanceof RunnableEventExecutorAdapter) {
             return new RunnableToCallableAdapter((RunnableEventExecutorAdapter) command);
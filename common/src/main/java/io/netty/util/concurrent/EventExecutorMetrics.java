@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * Counters which tell how a {@link SingleThreadEventExecutor} spends its time.
+ * <p>
+ * The counters are only updated by the thread of the executor, mostly once per run of the task queue, so keeping them
+ * enabled costs next to nothing.  They are volatile, so another thread always reads whole and recent values, but the
+ * counters are read one after the other and so are not consistent with each other.
+ */
+public final class EventExecutorMetrics {
+
+    volatile long tasksExecuted;
+    volatile long maxTasksPerRun;
+    volatile long maxPendingTasks;
+    volatile long taskTimeNanos;
+    volatile long scheduledTasksExecuted;
+    volatile long scheduledTaskLagNanos;
+    volatile long maxScheduledTaskLagNanos;
+    volatile long ioTimeNanos;
+    volatile long wakeups;
+
+    EventExecutorMetrics() { }
+
+    /**
+     * Returns the number of tasks which were executed, including scheduled tasks.
+     */
+    public long tasksExecuted() {
+        return tasksExecuted;
+    }
+
+    /**
+     * Returns the largest number of tasks which were executed by a single run of the task queue.  This includes the
+     * tasks which were added while the run was in progress, so it is not the depth of the task queue at any point
+     * in time, but it shows how long the executor was kept busy by tasks in one go.
+     */
+    public long maxTasksPerRun() {
+        return maxTasksPerRun;
+    }
+
+    /**
+     * Returns the high-water mark of the task queue depth, which is the largest number of tasks that were waiting in
+     * the task queue when the executor started to run them.  The depth is sampled with {@link java.util.Queue#size()}
+     * once per run of the task queue, so tasks which are added and run within the same run are not seen.
+     */
+    public long maxPendingTasks() {
+        return maxPendingTasks;
+    }
+
+    /**
+     * Returns the time in nanoseconds spent running tasks from the task queue.
+     */
+    public long taskTimeNanos() {
+        return taskTimeNanos;
+    }
+
+    /**
+     * Returns the number of scheduled tasks which were due and moved to the task queue.
+     */
+    public long scheduledTasksExecuted() {
+        return scheduledTasksExecuted;
+    }
+
+    /**
+     * Returns the sum of the delays in nanoseconds between the deadlines of the scheduled tasks and the moment they
+     * were moved to the task queue.
+     */
+    public long scheduledTaskLagNanos() {
+        return scheduledTaskLagNanos;
+    }
+
+    /**
+     * Returns the largest delay in nanoseconds between the deadline of a scheduled task and the moment it was moved
+     * to the task queue.
+     */
+    public long maxScheduledTaskLagNanos() {
+        return maxScheduledTaskLagNanos;
+    }
+
+    /**
+     * Returns the time in nanoseconds spent processing I/O events, as reported by the event loop implementation.
+     */
+    public long ioTimeNanos() {
+        return ioTimeNanos;
+    }
+
+    /**
+     * Returns the number of times the executor was woken up by another thread, as reported by the event loop
+     * implementation.
+     */
+    public long wakeups() {
+        return wakeups;
+    }
+
+    @Override
+    public String toString() {
+        return "EventExecutorMetrics(tasksExecuted: " + tasksExecuted +
+                ", maxTasksPerRun: " + maxTasksPerRun +
+                ", maxPendingTasks: " + maxPendingTasks +
+                ", taskTimeNanos: " + taskTimeNanos +
+                ", scheduledTasksExecuted: " + scheduledTasksExecuted +
+                ", scheduledTaskLagNanos: " + scheduledTaskLagNanos +
+                ", maxScheduledTaskLagNanos: " + maxScheduledTaskLagNanos +
+                ", ioTimeNanos: " + ioTimeNanos +
+                ", wakeups: " + wakeups + ')';
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.ThreadLocalRandom;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base class for {@link EventExecutorChooserFactory}s which select the {@link EventExecutor} with the lowest
+ * {@link #load(EventExecutor)} instead of going round-robin, so work is spread to the {@link EventExecutor}s which
+ * actually have headroom.
+ *
+ * Two strategies are supported:
+ * <ul>
+ *     <li>least loaded, which compares the load of all {@link EventExecutor}s and so always picks the least loaded
+ *     one. Ties are broken round-robin, so an idle group behaves like the {@link DefaultEventExecutorChooserFactory}.
+ *     </li>
+ *     <li>power of two choices, which compares the load of two randomly picked {@link EventExecutor}s. This is
+ *     cheaper for large groups and, unlike the least loaded strategy, does not send a burst of work to the same
+ *     {@link EventExecutor} before its load is updated.</li>
+ * </ul>
+ */
+public abstract class LoadAwareEventExecutorChooserFactory implements EventExecutorChooserFactory {
+
+    private final boolean powerOfTwoChoices;
+
+    /**
+     * @param powerOfTwoChoices {@code true} if the less loaded of two random {@link EventExecutor}s should be
+     *                          selected, {@code false} if the least loaded of all {@link EventExecutor}s should be
+     *                          selected.
+     */
+    protected LoadAwareEventExecutorChooserFactory(boolean powerOfTwoChoices) {
+        this.powerOfTwoChoices = powerOfTwoChoices;
+    }
+
+    /**
+     * Returns the current load of the given {@link EventExecutor}. This method is called from the thread which
+     * calls {@link EventExecutorGroup#next()} and so must be thread-safe, but it is fine to return a slightly stale
+     * value.
+     */
+    protected abstract int load(EventExecutor executor);
+
+    @Override
+    public final EventExecutorChooser newChooser(EventExecutor[] executors) {
+        if (powerOfTwoChoices) {
+            return new PowerOfTwoChoicesEventExecutorChooser(executors);
+        }
+        return new LeastLoadedEventExecutorChooser(executors);
+    }
+
+    private final class LeastLoadedEventExecutorChooser implements EventExecutorChooser {
+        private final AtomicInteger idx = new AtomicInteger();
+        private final EventExecutor[] executors;
+
+        LeastLoadedEventExecutorChooser(EventExecutor[] executors) {
+            this.executors = executors;
+        }
+
+        @Override
+        public EventExecutor next() {
+            final EventExecutor[] executors = this.executors;
+            final int length = executors.length;
+            final int start = Math.abs(idx.getAndIncrement() % length);
+            EventExecutor selected = executors[start];
+            int minLoad = load(selected);
+            for (int i = 1; i < length && minLoad > 0; i ++) {
+                EventExecutor e = executors[(start + i) % length];
+                int load = load(e);
+                if (load < minLoad) {
+                    selected = e;
+                    minLoad = load;
+                }
+            }
+            return selected;
+        }
+    }
+
+    private final class PowerOfTwoChoicesEventExecutorChooser implements EventExecutorChooser {
+        private final EventExecutor[] executors;
+
+        PowerOfTwoChoicesEventExecutorChooser(EventExecutor[] executors) {
+            this.executors = executors;
+        }
+
+        @Override
+        public EventExecutor next() {
+            final EventExecutor[] executors = this.executors;
+            final int length = executors.length;
+            if (length == 1) {
+                return executors[0];
+            }
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            EventExecutor first = executors[random.nextInt(length)];
+            int second = random.nextInt(length - 1);
+            if (executors[second] == first) {
+                // Make sure we always compare two different executors.
+                second = length - 1;
+            }
+            EventExecutor other = executors[second];
+            return load(other) < load(first) ? other : first;
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package io.netty.util.concurrent;
 
+import io.netty.util.concurrent.EventExecutorChooserFactory.EventExecutorChooser;
+
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -31,7 +33,6 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
 
     private final EventExecutor[] children;
     private final Set<EventExecutor> readonlyChildren;
-    private final AtomicInteger childIndex = new AtomicInteger();
     private final AtomicInteger terminatedChildren = new AtomicInteger();
     private final Promise<?> terminationFuture = new DefaultPromise(GlobalEventExecutor.INSTANCE);
     private final EventExecutorChooser chooser;
@@ -50,10 +51,30 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
     protected MultithreadEventExecutorGroup(int nEventExecutors,
                                             ExecutorServiceFactory executorServiceFactory,
                                             Object... args) {
+        this(nEventExecutors, executorServiceFactory, DefaultEventExecutorChooserFactory.INSTANCE, args);
+    }
+
+    /**
+     * @param nEventExecutors           the number of {@link EventExecutor}s that will be used by this instance.
+     *                                  If {@code executorServiceFactory} is {@code null} this number will also be
+     *                                  the parallelism requested from the default {@link Executor}. It is generally
+     *                                  advised for the number of {@link EventExecutor}s and the number of
+     *                                  {@link Thread}s used by the {@code executorServiceFactory} to lie close
+     *                                  together.
+     * @param executorServiceFactory    the {@link ExecutorServiceFactory} to use, or {@code null} if the default
+     *                                  should be used.
+     * @param chooserFactory            the {@link EventExecutorChooserFactory} which creates the
+     *                                  {@link EventExecutorChooser} used by {@link #next()}.
+     * @param args                      arguments which will passed to each {@link #newChild(Executor, Object...)} call.
+     */
+    protected MultithreadEventExecutorGroup(int nEventExecutors,
+                                            ExecutorServiceFactory executorServiceFactory,
+                                            EventExecutorChooserFactory chooserFactory,
+                                            Object... args) {
         this(nEventExecutors, executorServiceFactory != null
                                 ? executorServiceFactory.newExecutorService(nEventExecutors)
                                 : null,
-             true, args);
+             true, chooserFactory, args);
     }
 
     /**
@@ -66,17 +87,37 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
      * @param args              arguments which will passed to each {@link #newChild(Executor, Object...)} call
      */
     protected MultithreadEventExecutorGroup(int nEventExecutors, Executor executor, Object... args) {
-        this(nEventExecutors, executor, false, args);
+        this(nEventExecutors, executor, DefaultEventExecutorChooserFactory.INSTANCE, args);
+    }
+
+    /**
+     * @param nEventExecutors   the number of {@link EventExecutor}s that will be used by this instance.
+     *                          If {@code executor} is {@code null} this number will also be the parallelism
+     *                          requested from the default {@link Executor}. It is generally advised for the number
+     *                          of {@link EventExecutor}s and the number of {@link Thread}s used by the
+     *                          {@code executor} to lie close together.
+     * @param executor          the {@link Executor} to use, or {@code null} if the default should be used.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} which creates the {@link EventExecutorChooser}
+     *                          used by {@link #next()}.
+     * @param args              arguments which will passed to each {@link #newChild(Executor, Object...)} call
+     */
+    protected MultithreadEventExecutorGroup(int nEventExecutors, Executor executor,
+                                            EventExecutorChooserFactory chooserFactory, Object... args) {
+        this(nEventExecutors, executor, false, chooserFactory, args);
     }
 
     private MultithreadEventExecutorGroup(int nEventExecutors,
                                           Executor executor,
                                           boolean shutdownExecutor,
+                                          EventExecutorChooserFactory chooserFactory,
                                           Object... args) {
         if (nEventExecutors <= 0) {
             throw new IllegalArgumentException(
                     String.format("nEventExecutors: %d (expected: > 0)", nEventExecutors));
         }
+        if (chooserFactory == null) {
+            throw new NullPointerException("chooserFactory");
+        }
 
         if (executor == null) {
             executor = newDefaultExecutorService(nEventExecutors);
@@ -84,11 +125,6 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
         }
 
         children = new EventExecutor[nEventExecutors];
-        if (isPowerOfTwo(children.length)) {
-            chooser = new PowerOfTwoEventExecutorChooser();
-        } else {
-            chooser = new GenericEventExecutorChooser();
-        }
 
         for (int i = 0; i < nEventExecutors; i ++) {
             boolean success = false;
@@ -140,6 +176,8 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
             e.terminationFuture().addListener(terminationListener);
         }
 
+        chooser = chooserFactory.newChooser(children.clone());
+
         Set<EventExecutor> childrenSet = new LinkedHashSet<EventExecutor>(children.length);
         Collections.addAll(childrenSet, children);
         readonlyChildren = Collections.unmodifiableSet(childrenSet);
@@ -243,26 +281,4 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
         }
         return isTerminated();
     }
-
-    private static boolean isPowerOfTwo(int val) {
-        return (val & -val) == val;
-    }
-
-    private interface EventExecutorChooser {
-        EventExecutor next();
-    }
-
-    private final class PowerOfTwoEventExecutorChooser implements EventExecutorChooser {
-        @Override
-        public EventExecutor next() {
-            return children[childIndex.getAndIncrement() & children.length - 1];
-        }
-    }
-
-    private final class GenericEventExecutorChooser implements EventExecutorChooser {
-        @Override
-        public EventExecutor next() {
-            return children[Math.abs(childIndex.getAndIncrement() % children.length)];
-        }
-    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * {@link LoadAwareEventExecutorChooserFactory} which uses the number of
+ * {@link SingleThreadEventExecutor#pendingTasks()} as the load of an {@link EventExecutor}. {@link EventExecutor}s
+ * which are not {@link SingleThreadEventExecutor}s are always considered to be idle.
+ *
+ * Be aware that {@link SingleThreadEventExecutor#pendingTasks()} may need to walk the task queue, so
+ * {@link #POWER_OF_TWO_CHOICES} is preferable for groups with many {@link EventExecutor}s.
+ */
+public final class PendingTasksEventExecutorChooserFactory extends LoadAwareEventExecutorChooserFactory {
+
+    /**
+     * Selects the {@link EventExecutor} with the least pending tasks.
+     */
+    public static final PendingTasksEventExecutorChooserFactory LEAST_PENDING_TASKS =
+            new PendingTasksEventExecutorChooserFactory(false);
+
+    /**
+     * Selects the {@link EventExecutor} with less pending tasks out of two random ones.
+     */
+    public static final PendingTasksEventExecutorChooserFactory POWER_OF_TWO_CHOICES =
+            new PendingTasksEventExecutorChooserFactory(true);
+
+    private PendingTasksEventExecutorChooserFactory(boolean powerOfTwoChoices) {
+        super(powerOfTwoChoices);
+    }
+
+    @Override
+    protected int load(EventExecutor executor) {
+        if (executor instanceof SingleThreadEventExecutor) {
+            return ((SingleThreadEventExecutor) executor).pendingTasks();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * The default {@link ScheduledTaskQueue} which keeps the tasks ordered by their deadline in a {@link PriorityQueue}.
+ * Cancelled tasks are not removed until they expire or {@link #removeCancelled()} is called, as removing them from
+ * the middle of the heap is {@code O(n)}.
+ */
+final class PriorityScheduledTaskQueue implements ScheduledTaskQueue {
+
+    private static final ScheduledFutureTask<?>[] EMPTY = new ScheduledFutureTask<?>[0];
+
+    private final PriorityQueue<ScheduledFutureTask<?>> queue = new PriorityQueue<ScheduledFutureTask<?>>();
+
+    @Override
+    public void add(ScheduledFutureTask<?> task) {
+        queue.add(task);
+    }
+
+    @Override
+    public boolean remove(ScheduledFutureTask<?> task) {
+        return false;
+    }
+
+    @Override
+    public ScheduledFutureTask<?> poll(long nanoTime) {
+        ScheduledFutureTask<?> task = queue.peek();
+        if (task == null || task.deadlineNanos() > nanoTime) {
+            return null;
+        }
+        queue.remove();
+        return task;
+    }
+
+    @Override
+    public long nextDeadlineNanos() {
+        ScheduledFutureTask<?> task = queue.peek();
+        return task == null ? -1 : task.deadlineNanos();
+    }
+
+    @Override
+    public void removeCancelled() {
+        Iterator<ScheduledFutureTask<?>> i = queue.iterator();
+        while (i.hasNext()) {
+            if (i.next().isCancelled()) {
+                i.remove();
+            }
+        }
+    }
+
+    @Override
+    public ScheduledFutureTask<?>[] clear() {
+        if (queue.isEmpty()) {
+            return EMPTY;
+        }
+        ScheduledFutureTask<?>[] tasks = queue.toArray(new ScheduledFutureTask<?>[queue.size()]);
+        queue.clear();
+        return tasks;
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+}
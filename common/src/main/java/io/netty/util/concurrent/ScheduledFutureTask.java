@@ -19,7 +19,6 @@ package io.netty.util.concurrent;
 import io.netty.util.internal.CallableEventExecutorAdapter;
 import io.netty.util.internal.OneTimeTask;
 
-import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +42,11 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
     /* 0 - no repeat, >0 - repeat at fixed rate, <0 - repeat with fixed delay */
     private final long periodNanos;
 
+    // Only used by the TimerWheelScheduledTaskQueue.
+    TimerWheelScheduledTaskQueue.Bucket bucket;
+    ScheduledFutureTask<?> prev;
+    ScheduledFutureTask<?> next;
+
     ScheduledFutureTask(EventExecutor executor,
                         Callable<V> callable, long nanoTime, long period) {
         super(executor.unwrap(), callable);
@@ -70,7 +74,15 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
     }
 
     public long delayNanos(long currentTimeNanos) {
-        return Math.max(0, deadlineNanos() - (currentTimeNanos - START_TIME));
+        return deadlineToDelayNanos(currentTimeNanos, deadlineNanos());
+    }
+
+    /**
+     * Returns the delay until the given deadline, where {@code currentTimeNanos} is a value of
+     * {@link System#nanoTime()}.
+     */
+    static long deadlineToDelayNanos(long currentTimeNanos, long deadlineNanos) {
+        return Math.max(0, deadlineNanos - (currentTimeNanos - START_TIME));
     }
 
     @Override
@@ -112,7 +124,7 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
                     deadlineNanos = nanoTime() + TimeUnit.MICROSECONDS.toNanos(10);
                     if (!isCancelled()) {
                         // scheduledTaskQueue can never be null as we lazy init it before submit the task!
-                        Queue<ScheduledFutureTask<?>> scheduledTaskQueue =
+                        ScheduledTaskQueue scheduledTaskQueue =
                                 ((AbstractScheduledEventExecutor) executor()).scheduledTaskQueue;
                         assert scheduledTaskQueue != null;
                         scheduledTaskQueue.add(this);
@@ -139,7 +151,7 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
                             }
                             if (!isCancelled()) {
                                 // scheduledTaskQueue can never be null as we lazy init it before submit the task!
-                                Queue<ScheduledFutureTask<?>> scheduledTaskQueue =
+                                ScheduledTaskQueue scheduledTaskQueue =
                                         ((AbstractScheduledEventExecutor) executor()).scheduledTaskQueue;
                                 assert scheduledTaskQueue != null;
                                 scheduledTaskQueue.add(this);
@@ -153,6 +165,18 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
         }
     }
 
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            EventExecutor executor = executor();
+            if (executor instanceof AbstractScheduledEventExecutor) {
+                ((AbstractScheduledEventExecutor) executor).removeScheduled(this);
+            }
+        }
+        return cancelled;
+    }
+
     @Override
     protected StringBuilder toStringBuilder() {
         StringBuilder buf = super.toStringBuilder();
@@ -193,7 +217,7 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
         if (newExecutor instanceof SingleThreadEventExecutor) {
             if (!newExecutor.isShutdown()) {
                 executor = newExecutor;
-                final Queue<ScheduledFutureTask<?>> scheduledTaskQueue
+                final ScheduledTaskQueue scheduledTaskQueue
                         = ((SingleThreadEventExecutor) newExecutor).scheduledTaskQueue();
 
                 executor.execute(new OneTimeTask() {
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * Holds the {@link ScheduledFutureTask}s of an {@link AbstractScheduledEventExecutor}. All methods must only be
+ * called from the thread of the {@link AbstractScheduledEventExecutor}.
+ */
+interface ScheduledTaskQueue {
+
+    /**
+     * Add the given task.
+     */
+    void add(ScheduledFutureTask<?> task);
+
+    /**
+     * Remove the given task if this is cheap and return {@code true} if it was removed. Implementations for which
+     * this is expensive may return {@code false} and rely on {@link #removeCancelled()} instead.
+     */
+    boolean remove(ScheduledFutureTask<?> task);
+
+    /**
+     * Remove and return a task whose deadline is before or at the given {@code nanoTime}, or {@code null} if there
+     * is none.
+     */
+    ScheduledFutureTask<?> poll(long nanoTime);
+
+    /**
+     * Returns the deadline at which {@link #poll(long)} will return the next task, or {@code -1} if no task is
+     * scheduled.
+     */
+    long nextDeadlineNanos();
+
+    /**
+     * Remove all cancelled tasks.
+     */
+    void removeCancelled();
+
+    /**
+     * Remove all tasks and return them.
+     */
+    ScheduledFutureTask<?>[] clear();
+
+    int size();
+
+    boolean isEmpty();
+}
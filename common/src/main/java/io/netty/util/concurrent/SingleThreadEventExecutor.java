@@ -15,6 +15,7 @@
  */
 package io.netty.util.concurrent;
 
+import io.netty.util.internal.DrainableQueue;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
@@ -77,6 +78,9 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     }
 
     private final Queue<Runnable> taskQueue;
+    // Same as taskQueue if it can be drained in batches, null otherwise.
+    private final DrainableQueue<Runnable> drainableTaskQueue;
+    private final TaskRunner taskRunner = new TaskRunner();
 
     @SuppressWarnings({ "FieldMayBeFinal", "unused" })
     private volatile Thread thread;
@@ -86,6 +90,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     private final boolean addTaskWakesUp;
 
     private long lastExecutionTime;
+    private final EventExecutorMetrics metrics = new EventExecutorMetrics();
 
     @SuppressWarnings({ "FieldMayBeFinal", "unused" })
     private volatile int state = ST_NOT_STARTED;
@@ -137,13 +142,16 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         this.addTaskWakesUp = addTaskWakesUp;
         this.executor = executor;
         taskQueue = newTaskQueue();
+        drainableTaskQueue = taskQueue instanceof DrainableQueue ? (DrainableQueue<Runnable>) taskQueue : null;
     }
 
     /**
      * Create a new {@link Queue} which will holds the tasks to execute. This default implementation will return a
      * {@link LinkedBlockingQueue} but if your sub-class of {@link SingleThreadEventExecutor} will not do any blocking
      * calls on the this {@link Queue} it may make sense to {@code @Override} this and return some more performant
-     * implementation that does not support blocking operations at all.
+     * implementation that does not support blocking operations at all. If the returned {@link Queue} is a
+     * {@link DrainableQueue}, {@link #runAllTasks()} and {@link #runAllTasks(long)} will drain it in batches instead
+     * of calling {@link #pollTask()} for each task.
      */
     protected Queue<Runnable> newTaskQueue() {
         return new LinkedBlockingQueue<Runnable>();
@@ -178,10 +186,21 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             throw new UnsupportedOperationException();
         }
 
+        Runnable task = takeTask0();
+        if (task != null) {
+            metrics.tasksExecuted ++;
+            // Include the task which was just taken.
+            recordPendingTasks(taskQueue.size() + 1);
+        }
+        return task;
+    }
+
+    private Runnable takeTask0() {
+
         BlockingQueue<Runnable> taskQueue = (BlockingQueue<Runnable>) this.taskQueue;
         for (;;) {
-            ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
-            if (scheduledTask == null) {
+            long delayNanos = nextScheduledTaskNano();
+            if (delayNanos == -1) {
                 Runnable task = null;
                 try {
                     task = taskQueue.take();
@@ -193,7 +212,6 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
                 }
                 return task;
             } else {
-                long delayNanos = scheduledTask.delayNanos();
                 Runnable task = null;
                 if (delayNanos > 0) {
                     try {
@@ -221,12 +239,19 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
 
     private void fetchFromScheduledTaskQueue() {
         if (hasScheduledTasks()) {
+            final EventExecutorMetrics metrics = this.metrics;
             long nanoTime = AbstractScheduledEventExecutor.nanoTime();
             for (;;) {
                 Runnable scheduledTask = pollScheduledTask(nanoTime);
                 if (scheduledTask == null) {
                     break;
                 }
+                long lagNanos = nanoTime - ((ScheduledFutureTask<?>) scheduledTask).deadlineNanos();
+                metrics.scheduledTasksExecuted ++;
+                metrics.scheduledTaskLagNanos += lagNanos;
+                if (lagNanos > metrics.maxScheduledTaskLagNanos) {
+                    metrics.maxScheduledTaskLagNanos = lagNanos;
+                }
                 taskQueue.add(scheduledTask);
             }
         }
@@ -289,11 +314,18 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
      */
     protected boolean runAllTasks() {
         fetchFromScheduledTaskQueue();
+        recordPendingTasks(taskQueue.size());
+        if (drainableTaskQueue != null) {
+            return drainAllTasks(drainableTaskQueue, Integer.MAX_VALUE, Long.MAX_VALUE);
+        }
+
         Runnable task = pollTask();
         if (task == null) {
             return false;
         }
 
+        final long startTime = ScheduledFutureTask.nanoTime();
+        long runTasks = 0;
         for (;;) {
             try {
                 task.run();
@@ -301,9 +333,12 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
                 logger.warn("A task raised an exception.", t);
             }
 
+            runTasks ++;
+
             task = pollTask();
             if (task == null) {
                 lastExecutionTime = ScheduledFutureTask.nanoTime();
+                recordTasks(runTasks, lastExecutionTime - startTime);
                 return true;
             }
         }
@@ -315,6 +350,12 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
      */
     protected boolean runAllTasks(long timeoutNanos) {
         fetchFromScheduledTaskQueue();
+        recordPendingTasks(taskQueue.size());
+        if (drainableTaskQueue != null) {
+            // Check timeout every 64 tasks because nanoTime() is relatively expensive.
+            return drainAllTasks(drainableTaskQueue, 64, timeoutNanos);
+        }
+
         Runnable task = pollTask();
         if (task == null) {
             return false;
@@ -349,19 +390,98 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         }
 
         this.lastExecutionTime = lastExecutionTime;
+        recordTasks(runTasks, lastExecutionTime - (deadline - timeoutNanos));
+        return true;
+    }
+
+    /**
+     * Drains the task queue in batches of {@code batchSize} tasks until it is empty or {@code timeoutNanos} have
+     * passed, checking the time only between batches.
+     */
+    private boolean drainAllTasks(DrainableQueue<Runnable> taskQueue, int batchSize, long timeoutNanos) {
+        if (taskQueue.isEmpty()) {
+            return false;
+        }
+
+        final TaskRunner taskRunner = this.taskRunner;
+        final long startTime = ScheduledFutureTask.nanoTime();
+        final long deadline = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : startTime + timeoutNanos;
+        taskRunner.runTasks = 0;
+        long lastExecutionTime;
+        for (;;) {
+            int drained = taskQueue.drain(taskRunner, batchSize);
+            if (drained == 0) {
+                lastExecutionTime = ScheduledFutureTask.nanoTime();
+                break;
+            }
+            if (deadline != Long.MAX_VALUE) {
+                lastExecutionTime = ScheduledFutureTask.nanoTime();
+                if (lastExecutionTime >= deadline) {
+                    break;
+                }
+            }
+        }
+
+        // The queue may have contained only WAKEUP_TASKs, which must not count as work done or confirmShutdown()
+        // would never see the executor as quiet.
+        final long runTasks = taskRunner.runTasks;
+        if (runTasks == 0) {
+            return false;
+        }
+        this.lastExecutionTime = lastExecutionTime;
+        recordTasks(runTasks, lastExecutionTime - startTime);
         return true;
     }
 
+    private void recordTasks(long runTasks, long taskTimeNanos) {
+        final EventExecutorMetrics metrics = this.metrics;
+        metrics.tasksExecuted += runTasks;
+        metrics.taskTimeNanos += taskTimeNanos;
+        if (runTasks > metrics.maxTasksPerRun) {
+            metrics.maxTasksPerRun = runTasks;
+        }
+    }
+
+    private void recordPendingTasks(int pendingTasks) {
+        final EventExecutorMetrics metrics = this.metrics;
+        if (pendingTasks > metrics.maxPendingTasks) {
+            metrics.maxPendingTasks = pendingTasks;
+        }
+    }
+
+    /**
+     * Returns the {@link EventExecutorMetrics} of this executor.
+     */
+    public final EventExecutorMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds the given time to the time spent processing I/O events, as reported by {@link #metrics()}.
+     * Must be called from the executor thread.
+     */
+    protected final void recordIoTime(long ioTimeNanos) {
+        metrics.ioTimeNanos += ioTimeNanos;
+    }
+
+    /**
+     * Counts a wakeup of the executor thread by another thread, as reported by {@link #metrics()}.
+     * Must be called from the executor thread.
+     */
+    protected final void recordWakeup() {
+        metrics.wakeups ++;
+    }
+
     /**
      * Returns the amount of time left until the scheduled task with the closest dead line is executed.
      */
     protected long delayNanos(long currentTimeNanos) {
-        ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
-        if (scheduledTask == null) {
+        long deadlineNanos = nextScheduledTaskDeadlineNanos();
+        if (deadlineNanos == -1) {
             return SCHEDULE_PURGE_INTERVAL;
         }
 
-        return scheduledTask.delayNanos(currentTimeNanos);
+        return ScheduledFutureTask.deadlineToDelayNanos(currentTimeNanos, deadlineNanos);
     }
 
     /**
@@ -749,4 +869,21 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             purgeCancelledScheduledTasks();
         }
     }
+
+    private static final class TaskRunner implements DrainableQueue.Consumer<Runnable> {
+        long runTasks;
+
+        @Override
+        public void accept(Runnable task) {
+            if (task == WAKEUP_TASK) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.warn("A task raised an exception.", t);
+            }
+            runTasks ++;
+        }
+    }
 }
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * A {@link ScheduledTaskQueue} backed by a hierarchical timing wheel, which can add and remove a task in {@code O(1)}
+ * no matter how many tasks are scheduled. This is useful if an {@link EventExecutor} schedules a lot of timeouts
+ * which are usually cancelled before they expire, like the ones of an {@code IdleStateHandler} for hundreds of
+ * thousands of connections.
+ *
+ * The time is divided into ticks of {@code 2^20} nanoseconds (about a millisecond). The first level of the wheel has
+ * a bucket for each of the next {@code 256} ticks, and each further level has {@code 64} buckets which each span all
+ * the buckets of the level below. Each time the first level wraps around, the current bucket of the next level is
+ * cascaded into the levels below, the same way the timer wheel of the Linux kernel works. Tasks which are more than
+ * {@code 2^32} ticks (about 50 days) away are kept in the last level until they get closer.
+ *
+ * A task is only returned by {@link #poll(long)} once the tick of its deadline is over, so it may run up to one tick
+ * later than requested, but never earlier. Tasks which expire during the same tick run in the order they were added.
+ *
+ * This class is not thread-safe and must only be used by the thread of the {@link EventExecutor}.
+ */
+final class TimerWheelScheduledTaskQueue implements ScheduledTaskQueue {
+
+    private static final ScheduledFutureTask<?>[] EMPTY = new ScheduledFutureTask<?>[0];
+
+    static final int TICK_SHIFT = 20;
+    private static final int LEVEL0_BITS = 8;
+    private static final int LEVEL0_SIZE = 1 << LEVEL0_BITS;
+    private static final int LEVEL0_MASK = LEVEL0_SIZE - 1;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+    private static final int LEVEL_MASK = LEVEL_SIZE - 1;
+    private static final int LEVELS = 5;
+    private static final long MAX_TICKS = (1L << (LEVEL0_BITS + (LEVELS - 1) * LEVEL_BITS)) - 1;
+
+    private final Bucket[][] wheel = new Bucket[LEVELS][];
+    // One bit per bucket of the first level which is set if the bucket is not empty.
+    private final long[] level0Bitmap = new long[LEVEL0_SIZE / Long.SIZE];
+    // Holds the tasks whose tick is over.
+    private final Bucket expired = new Bucket(this, -1);
+    // The next tick which was not processed yet.
+    private long nextTick;
+    // The smallest tick of all tasks in the wheel, or -1 if it needs to be computed again.
+    private long minTick = -1;
+    private int size;
+
+    TimerWheelScheduledTaskQueue(long nanoTime) {
+        nextTick = nanoTime >> TICK_SHIFT;
+        wheel[0] = newBuckets(LEVEL0_SIZE, true);
+        for (int i = 1; i < LEVELS; i ++) {
+            wheel[i] = newBuckets(LEVEL_SIZE, false);
+        }
+    }
+
+    private Bucket[] newBuckets(int length, boolean level0) {
+        Bucket[] buckets = new Bucket[length];
+        for (int i = 0; i < length; i ++) {
+            buckets[i] = new Bucket(this, level0 ? i : -1);
+        }
+        return buckets;
+    }
+
+    @Override
+    public void add(ScheduledFutureTask<?> task) {
+        if (task.isCancelled()) {
+            // Cancelled before it was added, there is no need to keep it.
+            return;
+        }
+        assert task.bucket == null;
+        place(task);
+        if (size == 0) {
+            minTick = tick(task);
+        } else if (minTick != -1) {
+            minTick = Math.min(minTick, tick(task));
+        }
+        size ++;
+    }
+
+    private static long tick(ScheduledFutureTask<?> task) {
+        return task.deadlineNanos() >> TICK_SHIFT;
+    }
+
+    private void removed(ScheduledFutureTask<?> task) {
+        if (--size == 0 || tick(task) == minTick) {
+            minTick = -1;
+        }
+    }
+
+    private void place(ScheduledFutureTask<?> task) {
+        long tick = tick(task);
+        long delta = tick - nextTick;
+        if (delta < 0) {
+            expired.add(task);
+        } else if (delta < LEVEL0_SIZE) {
+            int index = (int) tick & LEVEL0_MASK;
+            wheel[0][index].add(task);
+            level0Bitmap[index >>> 6] |= 1L << index;
+        } else {
+            if (delta > MAX_TICKS) {
+                // Will be placed again once it was cascaded into the lower levels.
+                delta = MAX_TICKS;
+                tick = nextTick + MAX_TICKS;
+            }
+            int level = 1;
+            int shift = LEVEL0_BITS;
+            while (delta >= 1L << (shift + LEVEL_BITS)) {
+                level ++;
+                shift += LEVEL_BITS;
+            }
+            wheel[level][(int) (tick >> shift) & LEVEL_MASK].add(task);
+        }
+    }
+
+    @Override
+    public boolean remove(ScheduledFutureTask<?> task) {
+        Bucket bucket = task.bucket;
+        if (bucket == null || bucket.queue != this) {
+            return false;
+        }
+        bucket.remove(task);
+        if (bucket.level0Index >= 0 && bucket.head == null) {
+            level0Bitmap[bucket.level0Index >>> 6] &= ~(1L << bucket.level0Index);
+        }
+        removed(task);
+        return true;
+    }
+
+    @Override
+    public ScheduledFutureTask<?> poll(long nanoTime) {
+        if (size == 0) {
+            return null;
+        }
+        advance(nanoTime >> TICK_SHIFT);
+        ScheduledFutureTask<?> task = expired.head;
+        if (task == null) {
+            return null;
+        }
+        expired.remove(task);
+        removed(task);
+        return task;
+    }
+
+    /**
+     * Process all ticks before the given one.
+     */
+    private void advance(long tick) {
+        while (nextTick < tick) {
+            if (size == expired.size) {
+                // Nothing left in the wheel, so there is nothing to cascade either.
+                nextTick = tick;
+                return;
+            }
+            int index = (int) nextTick & LEVEL0_MASK;
+            if (index == 0) {
+                cascade();
+            } else if (isLevel0Empty()) {
+                // Skip to the next wrap around of the first level.
+                nextTick = Math.min(tick, (nextTick | LEVEL0_MASK) + 1);
+                continue;
+            }
+            Bucket bucket = wheel[0][index];
+            if (bucket.head != null) {
+                bucket.transferTo(expired);
+                level0Bitmap[index >>> 6] &= ~(1L << index);
+            }
+            nextTick ++;
+        }
+    }
+
+    /**
+     * Move the tasks of the current bucket of each level into the levels below, until a level did not wrap around.
+     */
+    private void cascade() {
+        int shift = LEVEL0_BITS;
+        for (int level = 1; level < LEVELS; level ++) {
+            int index = (int) (nextTick >> shift) & LEVEL_MASK;
+            Bucket bucket = wheel[level][index];
+            ScheduledFutureTask<?> task = bucket.head;
+            bucket.head = bucket.tail = null;
+            bucket.size = 0;
+            while (task != null) {
+                ScheduledFutureTask<?> next = task.next;
+                task.prev = task.next = null;
+                task.bucket = null;
+                place(task);
+                task = next;
+            }
+            if (index != 0) {
+                break;
+            }
+            shift += LEVEL_BITS;
+        }
+    }
+
+    private boolean isLevel0Empty() {
+        for (long bits: level0Bitmap) {
+            if (bits != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long nextDeadlineNanos() {
+        if (size == 0) {
+            return -1;
+        }
+        if (expired.head != null) {
+            return expired.head.deadlineNanos();
+        }
+
+        // A task can only be polled once its tick is over.
+        return (minTick() + 1) << TICK_SHIFT;
+    }
+
+    private long minTick() {
+        if (minTick != -1) {
+            return minTick;
+        }
+
+        // All tasks in the higher levels and the buckets of the first level which were already passed in the current
+        // round expire after the ones in the rest of the first level, so check it first.
+        int start = (int) nextTick & LEVEL0_MASK;
+        int index = nextLevel0Index(start, LEVEL0_SIZE);
+        if (index != -1) {
+            return minTick = nextTick + index - start;
+        }
+        long min = Long.MAX_VALUE;
+        index = nextLevel0Index(0, start);
+        if (index != -1) {
+            min = nextTick + LEVEL0_SIZE + index - start;
+        }
+
+        // The buckets of each higher level expire in order starting after the current one, while the current one
+        // holds the tasks which expire after all the others.
+        int shift = LEVEL0_BITS;
+        for (int level = 1; level < LEVELS; level ++) {
+            Bucket[] buckets = wheel[level];
+            int current = (int) (nextTick >> shift) & LEVEL_MASK;
+            for (int i = 1; i <= LEVEL_SIZE; i ++) {
+                Bucket bucket = buckets[(current + i) & LEVEL_MASK];
+                if (bucket.head != null) {
+                    for (ScheduledFutureTask<?> task = bucket.head; task != null; task = task.next) {
+                        min = Math.min(min, tick(task));
+                    }
+                    break;
+                }
+            }
+            shift += LEVEL_BITS;
+        }
+        assert min != Long.MAX_VALUE;
+        return minTick = min;
+    }
+
+    /**
+     * Returns the index of the first non-empty bucket of the first level in the range {@code [from, to)} or
+     * {@code -1} if there is none.
+     */
+    private int nextLevel0Index(int from, int to) {
+        for (int word = from >>> 6; word < level0Bitmap.length && word << 6 < to; word ++) {
+            long bits = level0Bitmap[word];
+            if (word == from >>> 6) {
+                bits &= -1L << from;
+            }
+            if (bits != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return index < to ? index : -1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void removeCancelled() {
+        // NOOP, cancelled tasks are removed directly.
+    }
+
+    @Override
+    public ScheduledFutureTask<?>[] clear() {
+        if (size == 0) {
+            return EMPTY;
+        }
+        ScheduledFutureTask<?>[] tasks = new ScheduledFutureTask<?>[size];
+        int i = expired.drainTo(tasks, 0);
+        for (Bucket[] buckets: wheel) {
+            for (Bucket bucket: buckets) {
+                i = bucket.drainTo(tasks, i);
+            }
+        }
+        assert i == size;
+        for (int j = 0; j < level0Bitmap.length; j ++) {
+            level0Bitmap[j] = 0;
+        }
+        size = 0;
+        minTick = -1;
+        return tasks;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * A doubly linked list of tasks, which are linked through their {@link ScheduledFutureTask#prev} and
+     * {@link ScheduledFutureTask#next} fields.
+     */
+    static final class Bucket {
+        final TimerWheelScheduledTaskQueue queue;
+        final int level0Index;
+        ScheduledFutureTask<?> head;
+        ScheduledFutureTask<?> tail;
+        int size;
+
+        Bucket(TimerWheelScheduledTaskQueue queue, int level0Index) {
+            this.queue = queue;
+            this.level0Index = level0Index;
+        }
+
+        void add(ScheduledFutureTask<?> task) {
+            task.bucket = this;
+            task.prev = tail;
+            if (tail == null) {
+                head = task;
+            } else {
+                tail.next = task;
+            }
+            tail = task;
+            size ++;
+        }
+
+        void remove(ScheduledFutureTask<?> task) {
+            ScheduledFutureTask<?> prev = task.prev;
+            ScheduledFutureTask<?> next = task.next;
+            if (prev == null) {
+                head = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                tail = prev;
+            } else {
+                next.prev = prev;
+            }
+            task.prev = task.next = null;
+            task.bucket = null;
+            size --;
+        }
+
+        void transferTo(Bucket bucket) {
+            for (ScheduledFutureTask<?> task = head; task != null; task = task.next) {
+                task.bucket = bucket;
+            }
+            if (bucket.tail == null) {
+                bucket.head = head;
+            } else {
+                bucket.tail.next = head;
+                head.prev = bucket.tail;
+            }
+            bucket.tail = tail;
+            bucket.size += size;
+            head = tail = null;
+            size = 0;
+        }
+
+        int drainTo(ScheduledFutureTask<?>[] tasks, int index) {
+            ScheduledFutureTask<?> task = head;
+            while (task != null) {
+                ScheduledFutureTask<?> next = task.next;
+                task.prev = task.next = null;
+                task.bucket = null;
+                tasks[index ++] = task;
+                task = next;
+            }
+            head = tail = null;
+            size = 0;
+            return index;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import java.util.Queue;
+
+/**
+ * A {@link Queue} which allows its consumer to remove elements in batches, which is usually cheaper than calling
+ * {@link #poll()} for each element.
+ */
+public interface DrainableQueue<E> extends Queue<E> {
+
+    /**
+     * Receives the elements removed by {@link DrainableQueue#drain(Consumer, int)}.
+     */
+    interface Consumer<E> {
+        /**
+         * Called for each element removed from the queue.
+         */
+        void accept(E e);
+    }
+
+    /**
+     * Removes up to {@code limit} elements from this queue and passes them to the given {@link Consumer} in order.
+     * This method stops early when the queue becomes empty. An element is removed from the queue before it is passed
+     * to the {@link Consumer}, so an exception raised by the {@link Consumer} does not cause it to be seen twice.
+     *
+     * @return the number of elements passed to the {@link Consumer}
+     */
+    int drain(Consumer<? super E> consumer, int limit);
+}
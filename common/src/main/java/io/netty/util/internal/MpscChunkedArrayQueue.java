@@ -0,0 +1,351 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * An unbounded lock-free multi-producer single-consumer {@link DrainableQueue} which stores its elements in a linked
+ * list of fixed size array chunks.
+ * <p>
+ * A producer claims a slot by incrementing the producer index and then stores its element into the chunk which owns
+ * the slot, appending a new chunk if it is the first to reach it. Unlike {@link MpscLinkedQueue} this only allocates
+ * once per chunk instead of once per element. The consumer reads the producer index once per
+ * {@link #drain(Consumer, int)} call rather than once per element.
+ * <p>
+ * Any thread may call {@link #offer(Object)}, {@link #size()}, {@link #isEmpty()} and {@link #iterator()}, but only a
+ * single thread may call {@link #poll()}, {@link #peek()} and {@link #drain(Consumer, int)}. {@link #remove(Object)}
+ * is not supported.
+ */
+final class MpscChunkedArrayQueue<E> extends MpscChunkedArrayQueueConsumerFields<E> implements DrainableQueue<E> {
+    long p40, p41, p42, p43, p44, p45, p46;
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+
+    MpscChunkedArrayQueue(int chunkSize) {
+        super(MpscChunkedArrayQueue.<E>chunk(chunkSize));
+    }
+
+    private static <E> Chunk<E> chunk(int chunkSize) {
+        if (chunkSize < 2 || (chunkSize & chunkSize - 1) != 0) {
+            throw new IllegalArgumentException("chunkSize: " + chunkSize + " (expected: power of two >= 2)");
+        }
+        return new Chunk<E>(0, chunkSize);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException("e");
+        }
+
+        // Read the hint before claiming the slot, so the hint can never be ahead of the chunk which owns the slot.
+        final Chunk<E> hint = producerChunk();
+        final long index = getAndIncrementProducerIndex();
+        final Chunk<E> chunk = chunkFor(hint, index);
+        chunk.lazySet((int) (index & mask), e);
+        return true;
+    }
+
+    private Chunk<E> chunkFor(Chunk<E> hint, long index) {
+        final long chunkIndex = index >>> shift;
+        Chunk<E> chunk = hint;
+        while (chunk.index < chunkIndex) {
+            Chunk<E> next = chunk.next;
+            if (next == null) {
+                Chunk<E> newChunk = new Chunk<E>(chunk.index + 1, chunk.length());
+                next = chunk.casNext(newChunk) ? newChunk : chunk.next;
+            }
+            chunk = next;
+        }
+        if (chunk != hint) {
+            advanceProducerChunk(chunk);
+        }
+        return chunk;
+    }
+
+    @Override
+    public E poll() {
+        final long index = lvConsumerIndex();
+        if (index == lvProducerIndex()) {
+            return null;
+        }
+        return consume(index);
+    }
+
+    @Override
+    public E peek() {
+        final long index = lvConsumerIndex();
+        if (index == lvProducerIndex()) {
+            return null;
+        }
+        return consumerChunkFor(index).spinElement((int) (index & mask));
+    }
+
+    @Override
+    public int drain(Consumer<? super E> consumer, int limit) {
+        if (consumer == null) {
+            throw new NullPointerException("consumer");
+        }
+        if (limit <= 0) {
+            return 0;
+        }
+        final long consumerIndex = lvConsumerIndex();
+        final int available = (int) Math.min(limit, lvProducerIndex() - consumerIndex);
+        for (int i = 0; i < available; i ++) {
+            consumer.accept(consume(consumerIndex + i));
+        }
+        return available;
+    }
+
+    /**
+     * Removes the element at the given index, which must have been claimed by a producer already.
+     */
+    private E consume(long index) {
+        final Chunk<E> chunk = consumerChunkFor(index);
+        final int offset = (int) (index & mask);
+        final E e = chunk.spinElement(offset);
+        chunk.lazySet(offset, null);
+        soConsumerIndex(index + 1);
+        return e;
+    }
+
+    private Chunk<E> consumerChunkFor(long index) {
+        Chunk<E> chunk = consumerChunk;
+        if (chunk.index != index >>> shift) {
+            // The producer which claimed the first slot of the next chunk may not have linked it yet.
+            Chunk<E> next;
+            do {
+                next = chunk.next;
+            } while (next == null);
+            consumerChunk = chunk = next;
+        }
+        return chunk;
+    }
+
+    @Override
+    public int size() {
+        // Read the consumer index before and after the producer index so we never report a negative size.
+        long after = lvConsumerIndex();
+        for (;;) {
+            final long before = after;
+            final long producerIndex = lvProducerIndex();
+            after = lvConsumerIndex();
+            if (before == after) {
+                return (int) Math.min(producerIndex - after, Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lvConsumerIndex() == lvProducerIndex();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new ReadOnlyIterator<E>(toList().iterator());
+    }
+
+    private List<E> toList() {
+        // The consumer may move on while we iterate, so skip the slots which were consumed or not filled yet.
+        final List<E> elements = new ArrayList<E>();
+        final long producerIndex = lvProducerIndex();
+        long index = lvConsumerIndex();
+        Chunk<E> chunk = consumerChunk;
+        while (chunk != null && index < producerIndex) {
+            if (chunk.index == index >>> shift) {
+                E e = chunk.get((int) (index & mask));
+                if (e != null) {
+                    elements.add(e);
+                }
+                index ++;
+            } else if (chunk.index < index >>> shift) {
+                chunk = chunk.next;
+            } else {
+                index = chunk.index << shift;
+            }
+        }
+        return elements;
+    }
+
+    static final class Chunk<E> extends AtomicReferenceArray<E> {
+        private static final long serialVersionUID = -3455862163306869580L;
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Chunk, Chunk> NEXT_UPDATER;
+
+        static {
+            @SuppressWarnings("rawtypes")
+            AtomicReferenceFieldUpdater<Chunk, Chunk> updater =
+                    PlatformDependent.newAtomicReferenceFieldUpdater(Chunk.class, "next");
+            if (updater == null) {
+                updater = AtomicReferenceFieldUpdater.newUpdater(Chunk.class, Chunk.class, "next");
+            }
+            NEXT_UPDATER = updater;
+        }
+
+        final long index;
+        volatile Chunk<E> next;
+
+        Chunk(long index, int length) {
+            super(length);
+            this.index = index;
+        }
+
+        boolean casNext(Chunk<E> next) {
+            return NEXT_UPDATER.compareAndSet(this, null, next);
+        }
+
+        E spinElement(int offset) {
+            // The producer which claimed this slot may not have stored its element yet.
+            E e;
+            do {
+                e = get(offset);
+            } while (e == null);
+            return e;
+        }
+    }
+}
+
+abstract class MpscChunkedArrayQueuePad0<E> extends AbstractQueue<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+}
+
+abstract class MpscChunkedArrayQueueProducerFields<E> extends MpscChunkedArrayQueuePad0<E> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<MpscChunkedArrayQueueProducerFields> P_INDEX_UPDATER;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<MpscChunkedArrayQueueProducerFields,
+            MpscChunkedArrayQueue.Chunk> P_CHUNK_UPDATER;
+
+    static {
+        @SuppressWarnings("rawtypes")
+        AtomicLongFieldUpdater<MpscChunkedArrayQueueProducerFields> indexUpdater =
+                PlatformDependent.newAtomicLongFieldUpdater(MpscChunkedArrayQueueProducerFields.class, "producerIndex");
+        if (indexUpdater == null) {
+            indexUpdater = AtomicLongFieldUpdater.newUpdater(
+                    MpscChunkedArrayQueueProducerFields.class, "producerIndex");
+        }
+        P_INDEX_UPDATER = indexUpdater;
+
+        @SuppressWarnings("rawtypes")
+        AtomicReferenceFieldUpdater<MpscChunkedArrayQueueProducerFields, MpscChunkedArrayQueue.Chunk> chunkUpdater =
+                PlatformDependent.newAtomicReferenceFieldUpdater(
+                        MpscChunkedArrayQueueProducerFields.class, "producerChunk");
+        if (chunkUpdater == null) {
+            chunkUpdater = AtomicReferenceFieldUpdater.newUpdater(
+                    MpscChunkedArrayQueueProducerFields.class, MpscChunkedArrayQueue.Chunk.class, "producerChunk");
+        }
+        P_CHUNK_UPDATER = chunkUpdater;
+    }
+
+    protected final long mask;
+    protected final int shift;
+
+    @SuppressWarnings("unused")
+    private volatile long producerIndex;
+    private volatile MpscChunkedArrayQueue.Chunk<E> producerChunk;
+
+    MpscChunkedArrayQueueProducerFields(MpscChunkedArrayQueue.Chunk<E> chunk) {
+        mask = chunk.length() - 1;
+        shift = Integer.numberOfTrailingZeros(chunk.length());
+        producerChunk = chunk;
+    }
+
+    protected final long lvProducerIndex() {
+        return producerIndex;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final long getAndIncrementProducerIndex() {
+        return P_INDEX_UPDATER.getAndIncrement(this);
+    }
+
+    protected final MpscChunkedArrayQueue.Chunk<E> producerChunk() {
+        return producerChunk;
+    }
+
+    /**
+     * Moves the producer hint forward to the given chunk unless another producer moved it further already.
+     */
+    @SuppressWarnings("unchecked")
+    protected final void advanceProducerChunk(MpscChunkedArrayQueue.Chunk<E> chunk) {
+        for (;;) {
+            MpscChunkedArrayQueue.Chunk<E> hint = producerChunk;
+            if (hint.index >= chunk.index || P_CHUNK_UPDATER.compareAndSet(this, hint, chunk)) {
+                return;
+            }
+        }
+    }
+}
+
+abstract class MpscChunkedArrayQueuePad1<E> extends MpscChunkedArrayQueueProducerFields<E> {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+
+    MpscChunkedArrayQueuePad1(MpscChunkedArrayQueue.Chunk<E> chunk) {
+        super(chunk);
+    }
+}
+
+abstract class MpscChunkedArrayQueueConsumerFields<E> extends MpscChunkedArrayQueuePad1<E> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<MpscChunkedArrayQueueConsumerFields> C_INDEX_UPDATER;
+
+    static {
+        @SuppressWarnings("rawtypes")
+        AtomicLongFieldUpdater<MpscChunkedArrayQueueConsumerFields> updater =
+                PlatformDependent.newAtomicLongFieldUpdater(MpscChunkedArrayQueueConsumerFields.class, "consumerIndex");
+        if (updater == null) {
+            updater = AtomicLongFieldUpdater.newUpdater(MpscChunkedArrayQueueConsumerFields.class, "consumerIndex");
+        }
+        C_INDEX_UPDATER = updater;
+    }
+
+    // Only accessed by the consumer thread.
+    protected MpscChunkedArrayQueue.Chunk<E> consumerChunk;
+
+    @SuppressWarnings("unused")
+    private volatile long consumerIndex;
+
+    MpscChunkedArrayQueueConsumerFields(MpscChunkedArrayQueue.Chunk<E> chunk) {
+        super(chunk);
+        consumerChunk = chunk;
+    }
+
+    protected final long lvConsumerIndex() {
+        return consumerIndex;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final void soConsumerIndex(long index) {
+        C_INDEX_UPDATER.lazySet(this, index);
+    }
+}
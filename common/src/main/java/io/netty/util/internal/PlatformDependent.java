@@ -87,6 +87,8 @@ public final class PlatformDependent {
 
     private static final int ADDRESS_SIZE = addressSize0();
 
+    private static final int MPSC_CHUNK_SIZE = 1024;
+
     static {
         if (logger.isDebugEnabled()) {
             logger.debug("-Dio.netty.noPreferDirect: {}", !DIRECT_BUFFER_PREFERRED);
@@ -338,6 +340,20 @@ public final class PlatformDependent {
         PlatformDependent0.putOrderedObject(object, address, value);
     }
 
+    /**
+     * Read an {@code int} from the given (aligned) native memory address with volatile semantics.
+     */
+    public static int getIntVolatile(long address) {
+        return PlatformDependent0.getIntVolatile(address);
+    }
+
+    /**
+     * Write an {@code int} to the given (aligned) native memory address with release semantics.
+     */
+    public static void putOrderedInt(long address, int value) {
+        PlatformDependent0.putOrderedInt(address, value);
+    }
+
     public static void putByte(long address, byte value) {
         PlatformDependent0.putByte(address, value);
     }
@@ -443,6 +459,15 @@ public final class PlatformDependent {
         return new MpscLinkedQueue<T>();
     }
 
+    /**
+     * Create a new unbounded {@link DrainableQueue} which is safe to use for multiple producers (different threads)
+     * and a single consumer (one thread!). Unlike {@link #newMpscQueue()} it does not allocate a node per element
+     * but stores the elements in array chunks of 1024 elements.
+     */
+    public static <T> DrainableQueue<T> newChunkedMpscQueue() {
+        return new MpscChunkedArrayQueue<T>(MPSC_CHUNK_SIZE);
+    }
+
     /**
      * Create a new {@link Queue} which is safe to use for multiple producers (different threads) and a single
      * consumer (one thread!) with the given fixes {@code capacity}.
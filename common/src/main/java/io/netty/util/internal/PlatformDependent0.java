@@ -240,6 +240,14 @@ final class PlatformDependent0 {
         UNSAFE.putOrderedObject(object, address, value);
     }
 
+    static int getIntVolatile(long address) {
+        return UNSAFE.getIntVolatile(null, address);
+    }
+
+    static void putOrderedInt(long address, int value) {
+        UNSAFE.putOrderedInt(null, address, value);
+    }
+
     static void putByte(long address, byte value) {
         UNSAFE.putByte(address, value);
     }
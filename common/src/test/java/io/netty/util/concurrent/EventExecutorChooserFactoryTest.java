@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.concurrent.EventExecutorChooserFactory.EventExecutorChooser;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EventExecutorChooserFactoryTest {
+
+    private static EventExecutor[] executors;
+
+    @BeforeClass
+    public static void setUp() {
+        executors = new EventExecutor[3];
+        for (int i = 0; i < executors.length; i ++) {
+            executors[i] = new DefaultEventExecutor();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        for (EventExecutor e: executors) {
+            e.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void testDefaultIsRoundRobin() {
+        testRoundRobin(DefaultEventExecutorChooserFactory.INSTANCE.newChooser(executors), executors);
+        EventExecutor[] powerOfTwo = { executors[0], executors[1] };
+        testRoundRobin(DefaultEventExecutorChooserFactory.INSTANCE.newChooser(powerOfTwo), powerOfTwo);
+    }
+
+    @Test
+    public void testLeastLoadedIsRoundRobinWhenIdle() {
+        TestChooserFactory factory = new TestChooserFactory(false);
+        testRoundRobin(factory.newChooser(executors), executors);
+    }
+
+    @Test
+    public void testLeastLoaded() {
+        TestChooserFactory factory = new TestChooserFactory(false);
+        factory.loads.put(executors[0], 5);
+        factory.loads.put(executors[1], 1);
+        factory.loads.put(executors[2], 3);
+        EventExecutorChooser chooser = factory.newChooser(executors);
+        for (int i = 0; i < 10; i ++) {
+            assertSame(executors[1], chooser.next());
+        }
+    }
+
+    @Test
+    public void testPowerOfTwoChoicesNeverPicksTheMostLoaded() {
+        TestChooserFactory factory = new TestChooserFactory(true);
+        factory.loads.put(executors[2], 100);
+        EventExecutorChooser chooser = factory.newChooser(executors);
+        Set<EventExecutor> selected = new HashSet<EventExecutor>();
+        for (int i = 0; i < 1000; i ++) {
+            EventExecutor e = chooser.next();
+            assertNotSame(executors[2], e);
+            selected.add(e);
+        }
+        assertEquals(2, selected.size());
+    }
+
+    @Test
+    public void testPowerOfTwoChoicesWithSingleExecutor() {
+        EventExecutor[] single = { executors[0] };
+        EventExecutorChooser chooser = new TestChooserFactory(true).newChooser(single);
+        assertSame(executors[0], chooser.next());
+    }
+
+    @Test(timeout = 5000)
+    public void testLeastPendingTasks() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Runnable block = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        Runnable noop = new Runnable() {
+            @Override
+            public void run() {
+                // NOOP
+            }
+        };
+        try {
+            executors[0].execute(block);
+            executors[2].execute(block);
+            for (int i = 0; i < 3; i ++) {
+                executors[0].execute(noop);
+                executors[2].execute(noop);
+            }
+            EventExecutorChooser chooser =
+                    PendingTasksEventExecutorChooserFactory.LEAST_PENDING_TASKS.newChooser(executors);
+            for (int i = 0; i < 10; i ++) {
+                assertSame(executors[1], chooser.next());
+            }
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    private static void testRoundRobin(EventExecutorChooser chooser, EventExecutor[] executors) {
+        for (int i = 0; i < executors.length * 3; i ++) {
+            assertSame(executors[i % executors.length], chooser.next());
+        }
+    }
+
+    private static final class TestChooserFactory extends LoadAwareEventExecutorChooserFactory {
+        final Map<EventExecutor, Integer> loads = new IdentityHashMap<EventExecutor, Integer>();
+
+        TestChooserFactory(boolean powerOfTwoChoices) {
+            super(powerOfTwoChoices);
+        }
+
+        @Override
+        protected int load(EventExecutor executor) {
+            Integer load = loads.get(executor);
+            return load == null ? 0 : load;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EventExecutorMetricsTest {
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+            // NOOP
+        }
+    };
+
+    @Test(timeout = 5000)
+    public void testTasksAndScheduledTasksAreCounted() throws Exception {
+        DefaultEventExecutor executor = new DefaultEventExecutor();
+        try {
+            for (int i = 0; i < 10; i ++) {
+                executor.submit(NOOP).sync();
+            }
+            executor.schedule(NOOP, 10, TimeUnit.MILLISECONDS).sync();
+
+            EventExecutorMetrics metrics = executor.metrics();
+            // Scheduling from outside the executor submits a task as well.
+            assertTrue(metrics.tasksExecuted() >= 11);
+            assertEquals(1, metrics.scheduledTasksExecuted());
+            assertTrue(metrics.scheduledTaskLagNanos() >= 0);
+            assertEquals(metrics.scheduledTaskLagNanos(), metrics.maxScheduledTaskLagNanos());
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testMaxPendingTasks() throws Exception {
+        DefaultEventExecutor executor = new DefaultEventExecutor();
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            // These tasks pile up in the task queue while the executor is blocked.
+            Future<?> last = null;
+            for (int i = 0; i < 5; i ++) {
+                last = executor.submit(NOOP);
+            }
+            latch.countDown();
+            last.sync();
+
+            EventExecutorMetrics metrics = executor.metrics();
+            assertTrue(metrics.maxPendingTasks() >= 5);
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TimerWheelScheduledTaskQueueTest {
+
+    private static final long TICK = 1L << TimerWheelScheduledTaskQueue.TICK_SHIFT;
+    private static final Callable<Void> NOOP = new Callable<Void>() {
+        @Override
+        public Void call() {
+            return null;
+        }
+    };
+
+    private static ScheduledFutureTask<Void> newTask(long deadlineNanos) {
+        return new ScheduledFutureTask<Void>(ImmediateEventExecutor.INSTANCE, NOOP, deadlineNanos);
+    }
+
+    @Test
+    public void testNeverEarlyAndAtMostOneTickLate() {
+        Random random = new Random(42);
+        long start = 1000 * TICK + 17;
+        TimerWheelScheduledTaskQueue queue = new TimerWheelScheduledTaskQueue(start);
+        Set<ScheduledFutureTask<?>> pending = new HashSet<ScheduledFutureTask<?>>();
+        for (int i = 0; i < 10000; i ++) {
+            // Cover all levels of the wheel, including deadlines which are already over.
+            long delay = (long) (Math.pow(random.nextDouble(), 4) * TimeUnit.HOURS.toNanos(2)) - TICK;
+            ScheduledFutureTask<Void> task = newTask(start + delay);
+            queue.add(task);
+            pending.add(task);
+        }
+        assertEquals(pending.size(), queue.size());
+
+        long now = start;
+        long lastNow = start;
+        while (!pending.isEmpty()) {
+            for (;;) {
+                ScheduledFutureTask<?> task = queue.poll(now);
+                if (task == null) {
+                    break;
+                }
+                assertTrue(pending.remove(task));
+                assertTrue(task.deadlineNanos() <= now);
+                // It was not due yet the last time we polled, except for the tick which was not over.
+                assertTrue(task.deadlineNanos() >= (lastNow >> TimerWheelScheduledTaskQueue.TICK_SHIFT) * TICK ||
+                           task.deadlineNanos() < start);
+            }
+            assertEquals(pending.size(), queue.size());
+            lastNow = now;
+            now += (long) (random.nextDouble() * TimeUnit.SECONDS.toNanos(10));
+        }
+        assertTrue(queue.isEmpty());
+        assertEquals(-1, queue.nextDeadlineNanos());
+    }
+
+    @Test
+    public void testNextDeadline() {
+        Random random = new Random(7);
+        long now = 5 * TICK;
+        TimerWheelScheduledTaskQueue queue = new TimerWheelScheduledTaskQueue(now);
+        List<ScheduledFutureTask<?>> pending = new ArrayList<ScheduledFutureTask<?>>();
+        for (int i = 0; i < 1000; i ++) {
+            ScheduledFutureTask<Void> task = newTask(now + (long) (random.nextDouble() * TimeUnit.MINUTES.toNanos(10)));
+            queue.add(task);
+            pending.add(task);
+        }
+        while (!pending.isEmpty()) {
+            long min = Long.MAX_VALUE;
+            for (ScheduledFutureTask<?> task: pending) {
+                min = Math.min(min, task.deadlineNanos());
+            }
+            long deadline = queue.nextDeadlineNanos();
+            // Never later than the end of the tick of the next task, and there is always a task ready at it.
+            assertTrue(deadline <= ((min >> TimerWheelScheduledTaskQueue.TICK_SHIFT) + 1) * TICK);
+            now = Math.max(now, deadline);
+            ScheduledFutureTask<?> task = queue.poll(now);
+            assertNotNull(task);
+            assertTrue(task.deadlineNanos() <= now);
+            assertTrue(pending.remove(task));
+        }
+        assertEquals(-1, queue.nextDeadlineNanos());
+    }
+
+    @Test
+    public void testRemove() {
+        long now = 0;
+        TimerWheelScheduledTaskQueue queue = new TimerWheelScheduledTaskQueue(now);
+        List<ScheduledFutureTask<Void>> tasks = new ArrayList<ScheduledFutureTask<Void>>();
+        for (int i = 0; i < 100; i ++) {
+            ScheduledFutureTask<Void> task = newTask(now + i * TimeUnit.MILLISECONDS.toNanos(50));
+            tasks.add(task);
+            queue.add(task);
+        }
+        for (int i = 0; i < tasks.size(); i += 2) {
+            assertTrue(queue.remove(tasks.get(i)));
+            assertFalse(queue.remove(tasks.get(i)));
+        }
+        assertEquals(50, queue.size());
+
+        List<ScheduledFutureTask<?>> polled = new ArrayList<ScheduledFutureTask<?>>();
+        ScheduledFutureTask<?> task;
+        while ((task = queue.poll(TimeUnit.HOURS.toNanos(1))) != null) {
+            polled.add(task);
+        }
+        assertEquals(50, polled.size());
+        for (int i = 0; i < polled.size(); i ++) {
+            assertSame(tasks.get(i * 2 + 1), polled.get(i));
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testRemoveFromOtherQueue() {
+        TimerWheelScheduledTaskQueue queue = new TimerWheelScheduledTaskQueue(0);
+        TimerWheelScheduledTaskQueue other = new TimerWheelScheduledTaskQueue(0);
+        ScheduledFutureTask<Void> task = newTask(TimeUnit.SECONDS.toNanos(1));
+        queue.add(task);
+        assertFalse(other.remove(task));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testCancelledTaskIsNotAdded() {
+        TimerWheelScheduledTaskQueue queue = new TimerWheelScheduledTaskQueue(0);
+        ScheduledFutureTask<Void> task = newTask(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(task.cancel(false));
+        queue.add(task);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testClear() {
+        TimerWheelScheduledTaskQueue queue = new TimerWheelScheduledTaskQueue(0);
+        Set<ScheduledFutureTask<?>> tasks = new HashSet<ScheduledFutureTask<?>>();
+        for (int i = 0; i < 10; i ++) {
+            ScheduledFutureTask<Void> task = newTask(TimeUnit.MINUTES.toNanos(i));
+            tasks.add(task);
+            queue.add(task);
+        }
+        ScheduledFutureTask<?>[] cleared = queue.clear();
+        assertEquals(tasks, new HashSet<ScheduledFutureTask<?>>(Arrays.asList(cleared)));
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll(TimeUnit.HOURS.toNanos(1)));
+    }
+}
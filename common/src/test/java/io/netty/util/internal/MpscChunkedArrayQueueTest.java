@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class MpscChunkedArrayQueueTest {
+
+    @Test
+    public void testOfferPollAcrossChunks() {
+        MpscChunkedArrayQueue<Integer> queue = new MpscChunkedArrayQueue<Integer>(4);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+
+        for (int i = 0; i < 10; i ++) {
+            assertTrue(queue.offer(i));
+        }
+        assertEquals(10, queue.size());
+        assertFalse(queue.isEmpty());
+
+        for (int i = 0; i < 10; i ++) {
+            assertEquals(Integer.valueOf(i), queue.peek());
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testDrain() {
+        MpscChunkedArrayQueue<Integer> queue = new MpscChunkedArrayQueue<Integer>(4);
+        for (int i = 0; i < 10; i ++) {
+            queue.offer(i);
+        }
+
+        CollectingConsumer consumer = new CollectingConsumer();
+        assertEquals(0, queue.drain(consumer, 0));
+        assertEquals(6, queue.drain(consumer, 6));
+        assertEquals(4, queue.size());
+        assertEquals(4, queue.drain(consumer, 100));
+        assertEquals(0, queue.drain(consumer, 100));
+        assertTrue(queue.isEmpty());
+
+        assertEquals(10, consumer.elements.size());
+        for (int i = 0; i < 10; i ++) {
+            assertEquals(Integer.valueOf(i), consumer.elements.get(i));
+        }
+    }
+
+    @Test
+    public void testDrainRemovesBeforeAccept() {
+        MpscChunkedArrayQueue<Integer> queue = new MpscChunkedArrayQueue<Integer>(4);
+        queue.offer(1);
+        queue.offer(2);
+        try {
+            queue.drain(new DrainableQueue.Consumer<Integer>() {
+                @Override
+                public void accept(Integer e) {
+                    throw new IllegalStateException();
+                }
+            }, 2);
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        assertEquals(Integer.valueOf(2), queue.poll());
+    }
+
+    @Test
+    public void testIterator() {
+        MpscChunkedArrayQueue<Integer> queue = new MpscChunkedArrayQueue<Integer>(2);
+        for (int i = 0; i < 5; i ++) {
+            queue.offer(i);
+        }
+        queue.poll();
+        queue.poll();
+
+        Iterator<Integer> it = queue.iterator();
+        for (int i = 2; i < 5; i ++) {
+            assertEquals(Integer.valueOf(i), it.next());
+        }
+        assertFalse(it.hasNext());
+        assertTrue(queue.contains(4));
+        assertFalse(queue.contains(0));
+    }
+
+    @Test(timeout = 10000)
+    public void testMultipleProducers() throws Exception {
+        final int producers = 4;
+        final int perProducer = 100000;
+        final MpscChunkedArrayQueue<long[]> queue = new MpscChunkedArrayQueue<long[]>(64);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int p = 0; p < producers; p ++) {
+            final int producer = p;
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i ++) {
+                        queue.offer(new long[] { producer, i });
+                    }
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        start.countDown();
+
+        // Elements of each producer must be seen in the order they were offered.
+        final long[] next = new long[producers];
+        DrainableQueue.Consumer<long[]> consumer = new DrainableQueue.Consumer<long[]>() {
+            @Override
+            public void accept(long[] e) {
+                assertEquals(next[(int) e[0]] ++, e[1]);
+            }
+        };
+        int received = 0;
+        while (received < producers * perProducer) {
+            received += queue.drain(consumer, 256);
+        }
+        for (Thread t: threads) {
+            t.join();
+        }
+        assertTrue(queue.isEmpty());
+        for (long n: next) {
+            assertEquals(perProducer, n);
+        }
+    }
+
+    private static final class CollectingConsumer implements DrainableQueue.Consumer<Integer> {
+        final List<Integer> elements = new ArrayList<Integer>();
+
+        @Override
+        public void accept(Integer e) {
+            elements.add(e);
+        }
+    }
+}
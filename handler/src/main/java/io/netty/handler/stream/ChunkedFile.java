@@ -22,6 +22,7 @@ import io.netty.channel.FileRegion;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 
 /**
  * A {@link ChunkedInput} that fetches data from a file chunk by chunk.
@@ -127,6 +128,14 @@ public class ChunkedFile implements ChunkedInput<ByteBuf> {
         return offset;
     }
 
+    /**
+     * Returns the {@link FileChannel} of the file, used to transfer the rest of it as a
+     * {@link io.netty.channel.FileRegion}.
+     */
+    FileChannel fileChannel() {
+        return file.getChannel();
+    }
+
     @Override
     public boolean isEndOfInput() throws Exception {
         return !(offset < endOffset && file.getChannel().isOpen());
@@ -131,6 +131,14 @@ public class ChunkedNioFile implements ChunkedInput<ByteBuf> {
         return offset;
     }
 
+    /**
+     * Returns the {@link FileChannel} of the file, used to transfer the rest of it as a
+     * {@link io.netty.channel.FileRegion}.
+     */
+    FileChannel fileChannel() {
+        return in;
+    }
+
     @Override
     public boolean isEndOfInput() throws Exception {
         return !(offset < endOffset && in.isOpen());
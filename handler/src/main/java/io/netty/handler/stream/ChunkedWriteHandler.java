@@ -25,11 +25,15 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelProgressivePromise;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+import io.netty.handler.ssl.SslHandler;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayDeque;
 import java.util.Queue;
 
@@ -63,6 +67,14 @@ import java.util.Queue;
  * {@link ChunkedInput#readChunk(ChannelHandlerContext)}, resulting in the indefinitely suspended
  * transfer.  To resume the transfer when a new chunk is available, you have to
  * call {@link #resumeTransfer()}.
+ *
+ * <h3>Transferring files without copying them</h3>
+ *
+ * If constructed with {@link #ChunkedWriteHandler(boolean)} a {@link ChunkedFile} or {@link ChunkedNioFile} is
+ * written as a single {@link FileRegion} instead of chunk by chunk, as long as there is no {@link SslHandler} in
+ * the {@link ChannelPipeline}. The transports which support {@link FileRegion}s, like NIO and epoll, then transfer
+ * the file with {@code sendfile} and so never copy its content into user space. Only use this if the
+ * {@link Channel} and the handlers between this handler and the transport accept {@link FileRegion}s.
  */
 public class ChunkedWriteHandler extends ChannelHandlerAdapter {
 
@@ -70,10 +82,21 @@ public class ChunkedWriteHandler extends ChannelHandlerAdapter {
         InternalLoggerFactory.getInstance(ChunkedWriteHandler.class);
 
     private final Queue<PendingWrite> queue = new ArrayDeque<PendingWrite>();
+    private final boolean transferFilesAsFileRegion;
     private volatile ChannelHandlerContext ctx;
     private PendingWrite currentWrite;
 
     public ChunkedWriteHandler() {
+        this(false);
+    }
+
+    /**
+     * @param transferFilesAsFileRegion {@code true} if a {@link ChunkedFile} or {@link ChunkedNioFile} should be
+     *                                  written as a {@link FileRegion} when there is no {@link SslHandler} in the
+     *                                  {@link ChannelPipeline}.
+     */
+    public ChunkedWriteHandler(boolean transferFilesAsFileRegion) {
+        this.transferFilesAsFileRegion = transferFilesAsFileRegion;
     }
 
     /**
@@ -85,6 +108,7 @@ public class ChunkedWriteHandler extends ChannelHandlerAdapter {
             throw new IllegalArgumentException(
                     "maxPendingWrites: " + maxPendingWrites + " (expected: > 0)");
         }
+        transferFilesAsFileRegion = false;
     }
 
     @Override
@@ -213,7 +237,23 @@ public class ChunkedWriteHandler extends ChannelHandlerAdapter {
             final PendingWrite currentWrite = this.currentWrite;
             final Object pendingMessage = currentWrite.msg;
 
-            if (pendingMessage instanceof ChunkedInput) {
+            final FileRegion region = transferFilesAsFileRegion ? newFileRegion(ctx, pendingMessage) : null;
+            if (region != null) {
+                final ChunkedInput<?> chunks = (ChunkedInput<?>) pendingMessage;
+                this.currentWrite = null;
+                ctx.write(region).addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) throws Exception {
+                        if (future.isSuccess()) {
+                            currentWrite.progress(chunks.length(), chunks.length());
+                            currentWrite.success(chunks.length());
+                        } else {
+                            currentWrite.fail(future.cause());
+                        }
+                        closeInput(chunks);
+                    }
+                });
+            } else if (pendingMessage instanceof ChunkedInput) {
                 final ChunkedInput<?> chunks = (ChunkedInput<?>) pendingMessage;
                 boolean endOfInput;
                 boolean suspend;
@@ -316,6 +356,34 @@ public class ChunkedWriteHandler extends ChannelHandlerAdapter {
         return flushed;
     }
 
+    /**
+     * Returns a {@link FileRegion} which transfers the rest of the given message if it is a {@link ChunkedFile} or
+     * {@link ChunkedNioFile} and no {@link SslHandler} needs to see the content, {@code null} otherwise.
+     */
+    private static FileRegion newFileRegion(ChannelHandlerContext ctx, Object msg) {
+        // Subclasses may override readChunk(...), so only handle the exact types.
+        final FileChannel fileChannel;
+        final long offset;
+        final long count;
+        if (msg.getClass() == ChunkedFile.class) {
+            ChunkedFile file = (ChunkedFile) msg;
+            fileChannel = file.fileChannel();
+            offset = file.currentOffset();
+            count = file.endOffset() - offset;
+        } else if (msg.getClass() == ChunkedNioFile.class) {
+            ChunkedNioFile file = (ChunkedNioFile) msg;
+            fileChannel = file.fileChannel();
+            offset = file.currentOffset();
+            count = file.endOffset() - offset;
+        } else {
+            return null;
+        }
+        if (count <= 0 || !fileChannel.isOpen() || ctx.pipeline().get(SslHandler.class) != null) {
+            return null;
+        }
+        return new DefaultFileRegion(fileChannel, offset, count);
+    }
+
     static void closeInput(ChunkedInput<?> chunks) {
         try {
             chunks.close();
@@ -19,16 +19,25 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerAdapter;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
 import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.ssl.SslHandler;
 import io.netty.util.CharsetUtil;
 import org.junit.Test;
 
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static io.netty.util.ReferenceCountUtil.*;
@@ -96,6 +105,74 @@ public class ChunkedWriteHandlerTest {
         check(new ChunkedNioFile(TMP), new ChunkedNioFile(TMP), new ChunkedNioFile(TMP));
     }
 
+    @Test
+    public void testChunkedFileAsFileRegion() throws IOException {
+        checkFileRegion(new ChunkedFile(TMP), 0, BYTES.length);
+        checkFileRegion(new ChunkedFile(new RandomAccessFile(TMP, "r"), 1024, 2048, 512), 1024, 2048);
+    }
+
+    @Test
+    public void testChunkedNioFileAsFileRegion() throws IOException {
+        checkFileRegion(new ChunkedNioFile(TMP), 0, BYTES.length);
+        checkFileRegion(
+                new ChunkedNioFile(new RandomAccessFile(TMP, "r").getChannel(), 1024, 2048, 512), 1024, 2048);
+    }
+
+    @Test
+    public void testChunkedFileSubclassNotAsFileRegion() throws IOException {
+        EmbeddedChannel ch = new EmbeddedChannel(new ChunkedWriteHandler(true));
+        ch.writeOutbound(new ChunkedFile(TMP) { });
+        assertTrue(ch.finish());
+
+        int read = 0;
+        for (;;) {
+            ByteBuf buffer = ch.readOutbound();
+            if (buffer == null) {
+                break;
+            }
+            read += buffer.readableBytes();
+            buffer.release();
+        }
+        assertEquals(BYTES.length, read);
+    }
+
+    @Test
+    public void testChunkedFileNotAsFileRegionWithSslHandler() throws Exception {
+        SSLEngine engine = SSLContext.getDefault().createSSLEngine();
+        engine.setUseClientMode(false);
+        final List<Object> written = new ArrayList<Object>();
+        EmbeddedChannel ch = new EmbeddedChannel(new SslHandler(engine), new ChannelHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                // Stop here, the SslHandler would wait for the handshake.
+                written.add(msg);
+                release(msg);
+                promise.setSuccess();
+            }
+        }, new ChunkedWriteHandler(true));
+
+        ChannelFuture future = ch.writeAndFlush(new ChunkedFile(TMP));
+        assertTrue(future.isSuccess());
+        assertFalse(written.isEmpty());
+        for (Object msg: written) {
+            assertTrue(msg instanceof ByteBuf);
+        }
+        ch.finish();
+    }
+
+    private static void checkFileRegion(ChunkedInput<ByteBuf> input, long position, long count) {
+        EmbeddedChannel ch = new EmbeddedChannel(new ChunkedWriteHandler(true));
+        ChannelFuture future = ch.writeAndFlush(input);
+        assertTrue(future.isSuccess());
+        assertTrue(ch.finish());
+
+        FileRegion region = ch.readOutbound();
+        assertEquals(position, region.position());
+        assertEquals(count, region.count());
+        assertTrue(region.release());
+        assertNull(ch.readOutbound());
+    }
+
     // Test case which shows that there is not a bug like stated here:
     // http://stackoverflow.com/a/10426305
     @Test
@@ -21,9 +21,12 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.microbench.util.AbstractMicrobenchmark;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
 
 import java.util.Random;
 
@@ -38,6 +41,7 @@ public class ByteBufAllocatorBenchmark extends AbstractMicrobenchmark {
             new PooledByteBufAllocator(true, 4, 4, 8192, 11, 0, 0, 0); // Disable thread-local cache
 
     private static final int MAX_LIVE_BUFFERS = 8192;
+    private static final int MAX_LIVE_BUFFERS_PER_THREAD = 256;
     private static final Random rand = new Random();
     private static final ByteBuf[] unpooledHeapBuffers = new ByteBuf[MAX_LIVE_BUFFERS];
     private static final ByteBuf[] unpooledDirectBuffers = new ByteBuf[MAX_LIVE_BUFFERS];
@@ -108,4 +112,45 @@ public class ByteBufAllocatorBenchmark extends AbstractMicrobenchmark {
         }
         defaultPooledDirectBuffers[idx] = PooledByteBufAllocator.DEFAULT.directBuffer(size);
     }
+
+    /**
+     * Allocates from many more threads than the allocator has arenas, while the thread-local caches are disabled,
+     * so the threads contend for the chunk lists of the arenas.
+     */
+    @Benchmark
+    @Threads(32)
+    public void pooledHeapAllocAndFreeContended(ThreadBuffers buffers) {
+        buffers.replace(pooledAllocator.heapBuffer(size));
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void pooledDirectAllocAndFreeContended(ThreadBuffers buffers) {
+        buffers.replace(pooledAllocator.directBuffer(size));
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadBuffers {
+        private final ByteBuf[] buffers = new ByteBuf[MAX_LIVE_BUFFERS_PER_THREAD];
+        private int idx;
+
+        void replace(ByteBuf buf) {
+            ByteBuf oldBuf = buffers[idx];
+            if (oldBuf != null) {
+                oldBuf.release();
+            }
+            buffers[idx] = buf;
+            idx = (idx + 1) % buffers.length;
+        }
+
+        @TearDown(Level.Trial)
+        public void releaseBuffers() {
+            for (int i = 0; i < buffers.length; i ++) {
+                if (buffers[i] != null) {
+                    buffers[i].release();
+                    buffers[i] = null;
+                }
+            }
+        }
+    }
 }
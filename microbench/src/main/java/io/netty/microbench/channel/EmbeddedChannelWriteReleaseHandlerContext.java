@@ -329,6 +329,40 @@ public abstract class EmbeddedChannelWriteReleaseHandlerContext implements Chann
         return writeAndFlush(msg, newPromise());
     }
 
+    @Override
+    public ChannelFuture writeBatch(Object[] msgs, int offset, int length) {
+        return writeBatch(msgs, offset, length, newPromise());
+    }
+
+    @Override
+    public ChannelFuture writeBatch(Object[] msgs, int offset, int length, ChannelPromise promise) {
+        try {
+            for (int i = offset; i < offset + length; i ++) {
+                Object msg = msgs[i];
+                if (msg instanceof ReferenceCounted) {
+                    ((ReferenceCounted) msg).release();
+                } else {
+                    channel().write(msg);
+                }
+            }
+            promise.setSuccess();
+        } catch (Exception e) {
+            promise.setFailure(e);
+            handleException(e);
+        }
+        return promise;
+    }
+
+    @Override
+    public ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length, ChannelPromise promise) {
+        return channel().writeAndFlushBatch(msgs, offset, length, promise);
+    }
+
+    @Override
+    public ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length) {
+        return writeAndFlushBatch(msgs, offset, length, newPromise());
+    }
+
     @Override
     public ChannelPipeline pipeline() {
         return channel().pipeline();
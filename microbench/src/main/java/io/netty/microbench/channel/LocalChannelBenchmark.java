@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.concurrent.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * This class benchmarks handing off flushed messages between two {@link LocalChannel}s which either share an
+ * {@link io.netty.channel.EventLoop} or not.
+ */
+@State(Scope.Benchmark)
+public class LocalChannelBenchmark extends AbstractMicrobenchmark {
+
+    private static final Object MESSAGE = new Object();
+
+    @Param({ "1", "16", "256" })
+    public int messagesPerFlush;
+
+    @Param({ "true", "false" })
+    public boolean sameEventLoop;
+
+    private EventLoopGroup clientGroup;
+    private EventLoopGroup serverGroup;
+    private Channel serverChannel;
+    private Channel clientChannel;
+    private CountingHandler receiver;
+    private Runnable writeTask;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        clientGroup = new DefaultEventLoopGroup(1);
+        serverGroup = sameEventLoop ? clientGroup : new DefaultEventLoopGroup(1);
+        receiver = new CountingHandler();
+
+        LocalAddress address = new LocalAddress(LocalChannelBenchmark.class.getSimpleName());
+        serverChannel = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(LocalServerChannel.class)
+                .childHandler(receiver)
+                .bind(address).sync().channel();
+        clientChannel = new Bootstrap()
+                .group(clientGroup)
+                .channel(LocalChannel.class)
+                .handler(new ChannelHandlerAdapter())
+                .connect(address).sync().channel();
+
+        writeTask = new Runnable() {
+            @Override
+            public void run() {
+                Channel channel = clientChannel;
+                for (int i = 0; i < messagesPerFlush; i ++) {
+                    channel.write(MESSAGE, channel.voidPromise());
+                }
+                channel.flush();
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        try {
+            clientChannel.close().sync();
+            serverChannel.close().sync();
+        } finally {
+            clientGroup.shutdownGracefully().sync();
+            if (serverGroup != clientGroup) {
+                serverGroup.shutdownGracefully().sync();
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeAndFlush() throws Exception {
+        Promise<Void> received = clientChannel.eventLoop().newPromise();
+        receiver.expect(messagesPerFlush, received);
+        clientChannel.eventLoop().execute(writeTask);
+        received.sync();
+    }
+
+    private static final class CountingHandler extends ChannelHandlerAdapter {
+        // Written by the benchmark thread before the write task is submitted, which happens-before the reads.
+        private int remaining;
+        private Promise<Void> promise;
+
+        void expect(int messages, Promise<Void> promise) {
+            remaining = messages;
+            this.promise = promise;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (-- remaining == 0) {
+                promise.setSuccess(null);
+            }
+        }
+    }
+}
@@ -24,12 +24,16 @@
 #include <sys/un.h>
 #include <linux/tcp.h> // TCP_NOTSENT_LOWAT is a linux specific define
 #include <netinet/in.h>
+#include <netinet/udp.h>
+#include <linux/errqueue.h>
 #include <sys/types.h>
 #include <sys/socket.h>
 #include <unistd.h>
 #include <arpa/inet.h>
 #include <fcntl.h>
 #include <sys/utsname.h>
+#include <sys/mman.h>
+#include <sys/syscall.h>
 #include <stddef.h>
 #include <limits.h>
 #include "io_netty_channel_epoll_Native.h"
@@ -55,8 +59,52 @@ extern int accept4(int sockFd, struct sockaddr* addr, socklen_t* addrlen, int fl
 extern int epoll_create1(int flags) __attribute__((weak));
 extern int pipe2(int pipefd[2], int flags) __attribute__((weak));
 
+// UDP_SEGMENT and UDP_GRO are only defined by recent headers, see linux/udp.h (Linux 4.18 and 5.0).
+#ifndef SOL_UDP
+#define SOL_UDP 17
+#endif /* SOL_UDP */
+
+#ifndef UDP_SEGMENT
+#define UDP_SEGMENT 103
+#endif /* UDP_SEGMENT */
+
+#ifndef UDP_GRO
+#define UDP_GRO 104
+#endif /* UDP_GRO */
+
+#ifndef SO_BUSY_POLL
+#define SO_BUSY_POLL 46
+#endif /* SO_BUSY_POLL */
+
+// MSG_ZEROCOPY is only defined by recent headers, see Documentation/networking/msg_zerocopy.rst (Linux 4.14).
+#ifndef SO_ZEROCOPY
+#define SO_ZEROCOPY 60
+#endif /* SO_ZEROCOPY */
+
+// Not defined by older headers, the kernel just rejects what it does not support.
+#ifndef MADV_HUGEPAGE
+#define MADV_HUGEPAGE 14
+#endif /* MADV_HUGEPAGE */
+
+#ifndef MFD_CLOEXEC
+#define MFD_CLOEXEC 0x0001U
+#endif /* MFD_CLOEXEC */
+
+#ifndef MFD_HUGETLB
+#define MFD_HUGETLB 0x0004U
+#endif /* MFD_HUGETLB */
+
+#ifndef MSG_ZEROCOPY
+#define MSG_ZEROCOPY 0x4000000
+#endif /* MSG_ZEROCOPY */
+
+#ifndef SO_EE_ORIGIN_ZEROCOPY
+#define SO_EE_ORIGIN_ZEROCOPY 5
+#endif /* SO_EE_ORIGIN_ZEROCOPY */
+
 #ifdef IO_NETTY_SENDMMSG_NOT_FOUND
 extern int sendmmsg(int sockfd, struct mmsghdr* msgvec, unsigned int vlen, unsigned int flags) __attribute__((weak));
+extern int recvmmsg(int sockfd, struct mmsghdr* msgvec, unsigned int vlen, int flags, struct timespec* timeout) __attribute__((weak));
 
 #ifndef __USE_GNU
 struct mmsghdr {
@@ -82,6 +130,7 @@ jfieldID packetScopeIdFieldId = NULL;
 jfieldID packetPortFieldId = NULL;
 jfieldID packetMemoryAddressFieldId = NULL;
 jfieldID packetCountFieldId = NULL;
+jfieldID packetSenderFieldId = NULL;
 
 jmethodID inetSocketAddrMethodId = NULL;
 jmethodID datagramSocketAddrMethodId = NULL;
@@ -277,7 +326,7 @@ static jbyteArray createInetSocketAddressArray(JNIEnv* env, const struct sockadd
     return bArray;
 }
 
-static jobject createDatagramSocketAddress(JNIEnv* env, const struct sockaddr_storage* addr, int len) {
+static jobject createDatagramSocketAddress(JNIEnv* env, const struct sockaddr_storage* addr, int len, int segmentSize) {
     char ipstr[INET6_ADDRSTRLEN];
     int port;
     jstring ipString;
@@ -302,7 +351,7 @@ static jobject createDatagramSocketAddress(JNIEnv* env, const struct sockaddr_st
             ipString = (*env)->NewStringUTF(env, ipstr);
         }
     }
-    jobject socketAddr = (*env)->NewObject(env, datagramSocketAddressClass, datagramSocketAddrMethodId, ipString, port, len);
+    jobject socketAddr = (*env)->NewObject(env, datagramSocketAddressClass, datagramSocketAddrMethodId, ipString, port, len, segmentSize);
     return socketAddr;
 }
 
@@ -571,7 +620,7 @@ jint JNI_OnLoad(JavaVM* vm, void* reserved) {
         }
         socketType = socket_type(env);
 
-        datagramSocketAddrMethodId = (*env)->GetMethodID(env, datagramSocketAddressClass, "<init>", "(Ljava/lang/String;II)V");
+        datagramSocketAddrMethodId = (*env)->GetMethodID(env, datagramSocketAddressClass, "<init>", "(Ljava/lang/String;III)V");
         if (datagramSocketAddrMethodId == NULL) {
             throwRuntimeException(env, "failed to get method ID: DatagramSocketAddress.<init>(String, int, int)");
             return JNI_ERR;
@@ -609,6 +658,12 @@ jint JNI_OnLoad(JavaVM* vm, void* reserved) {
             return JNI_ERR;
         }
 
+        packetSenderFieldId = (*env)->GetFieldID(env, nativeDatagramPacketCls, "sender", "Lio/netty/channel/epoll/EpollDatagramChannel$DatagramSocketAddress;");
+        if (packetSenderFieldId == NULL) {
+            throwRuntimeException(env, "failed to get field ID: NativeDatagramPacket.sender");
+            return JNI_ERR;
+        }
+
         // load hook from DirectFileDescriptorController
         return libaio_JNI_OnLoad(env);
     }
@@ -794,6 +849,76 @@ static inline jint _sendTo(JNIEnv* env, jint fd, void* buffer, jint pos, jint li
     return (jint) res;
 }
 
+JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_sendAddressZeroCopy0(JNIEnv* env, jclass clazz, jint fd, jlong address, jint pos, jint limit) {
+    ssize_t res;
+    int err;
+    do {
+       res = send(fd, (void*) address + pos, (size_t) (limit - pos), MSG_ZEROCOPY);
+       // keep on writing if it was interrupted
+    } while (res == -1 && ((err = errno) == EINTR));
+
+    if (res < 0) {
+        return -err;
+    }
+    return (jint) res;
+}
+
+JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_recvZeroCopyCompletions0(JNIEnv* env, jclass clazz, jint fd, jintArray completions) {
+    // The last slot is used to report an error queue entry which is not a MSG_ZEROCOPY completion.
+    jint length = (*env)->GetArrayLength(env, completions);
+    jint len = (length - 1) / 2;
+    jint ranges[len * 2 + 1];
+    int count = 0;
+    int entryErr = 0;
+
+    while (count < len && entryErr == 0) {
+        char control[CMSG_SPACE(sizeof(struct sock_extended_err) + sizeof(struct sockaddr_storage))];
+        struct msghdr m;
+        memset(&m, 0, sizeof(m));
+        m.msg_control = control;
+        m.msg_controllen = sizeof(control);
+
+        ssize_t res;
+        int err;
+        do {
+            res = recvmsg(fd, &m, MSG_ERRQUEUE);
+            // Keep on reading if we was interrupted
+        } while (res == -1 && ((err = errno) == EINTR));
+
+        if (res < 0) {
+            if (err == EAGAIN || err == EWOULDBLOCK || count > 0) {
+                // Nothing left to read
+                break;
+            }
+            return -err;
+        }
+
+        struct cmsghdr* cm;
+        for (cm = CMSG_FIRSTHDR(&m); cm != NULL; cm = CMSG_NXTHDR(&m, cm)) {
+            if ((cm->cmsg_level == IPPROTO_IP && cm->cmsg_type == IP_RECVERR) ||
+                    (cm->cmsg_level == IPPROTO_IPV6 && cm->cmsg_type == IPV6_RECVERR)) {
+                struct sock_extended_err* serr = (struct sock_extended_err*) CMSG_DATA(cm);
+                if (serr->ee_errno == 0 && serr->ee_origin == SO_EE_ORIGIN_ZEROCOPY) {
+                    // The sends with a sequence number between ee_info and ee_data (inclusive) were completed.
+                    ranges[count * 2] = (jint) serr->ee_info;
+                    ranges[count * 2 + 1] = (jint) serr->ee_data;
+                    count++;
+                } else {
+                    // Some other error (for example an ICMP error) was queued, stop here so the caller can
+                    // report it instead of silently dropping it.
+                    entryErr = serr->ee_errno != 0 ? serr->ee_errno : ENOMSG;
+                }
+            }
+        }
+    }
+    if (count > 0) {
+        (*env)->SetIntArrayRegion(env, completions, 0, count * 2, ranges);
+    }
+    ranges[len * 2] = (jint) entryErr;
+    (*env)->SetIntArrayRegion(env, completions, length - 1, 1, ranges + len * 2);
+    return count;
+}
+
 JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_sendTo0(JNIEnv* env, jclass clazz, jint fd, jobject jbuffer, jint pos, jint limit, jbyteArray address, jint scopeId, jint port) {
     void* buffer = (*env)->GetDirectBufferAddress(env, jbuffer);
     if (buffer == NULL) {
@@ -833,6 +958,48 @@ JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_sendToAddresses(JNIEnv
     return (jint) res;
 }
 
+JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_sendToAddressSegmented0(JNIEnv* env, jclass clazz, jint fd, jlong memoryAddress, jint pos, jint limit, jbyteArray address, jint scopeId, jint port, jint segmentSize) {
+    struct sockaddr_storage addr;
+    if (init_sockaddr(env, address, scopeId, port, &addr) == -1) {
+        return -1;
+    }
+
+    struct iovec iov;
+    iov.iov_base = (void*) memoryAddress + pos;
+    iov.iov_len = (size_t) (limit - pos);
+
+    char control[CMSG_SPACE(sizeof(uint16_t))];
+    memset(control, 0, sizeof(control));
+
+    struct msghdr m;
+    memset(&m, 0, sizeof(m));
+    m.msg_name = (void*) &addr;
+    m.msg_namelen = (socklen_t) sizeof(struct sockaddr_storage);
+    m.msg_iov = &iov;
+    m.msg_iovlen = 1;
+    m.msg_control = control;
+    m.msg_controllen = sizeof(control);
+
+    // Let the kernel split the buffer into datagrams of segmentSize bytes.
+    struct cmsghdr* cm = CMSG_FIRSTHDR(&m);
+    cm->cmsg_level = SOL_UDP;
+    cm->cmsg_type = UDP_SEGMENT;
+    cm->cmsg_len = CMSG_LEN(sizeof(uint16_t));
+    *((uint16_t*) CMSG_DATA(cm)) = (uint16_t) segmentSize;
+
+    ssize_t res;
+    int err;
+    do {
+       res = sendmsg(fd, &m, 0);
+       // keep on writing if it was interrupted
+    } while (res == -1 && ((err = errno) == EINTR));
+
+    if (res < 0) {
+        return -err;
+    }
+    return (jint) res;
+}
+
 JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_sendmmsg0(JNIEnv* env, jclass clazz, jint fd, jobjectArray packets, jint offset, jint len) {
     struct mmsghdr msg[len];
     int i;
@@ -871,6 +1038,51 @@ JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_sendmmsg0(JNIEnv* env,
     return (jint) res;
 }
 
+JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_recvmmsg0(JNIEnv* env, jclass clazz, jint fd, jobjectArray packets, jint offset, jint len) {
+    struct mmsghdr msg[len];
+    struct sockaddr_storage addr[len];
+    int i;
+
+    memset(msg, 0, sizeof(msg));
+
+    for (i = 0; i < len; i++) {
+        jobject packet = (*env)->GetObjectArrayElement(env, packets, i + offset);
+
+        msg[i].msg_hdr.msg_name = &addr[i];
+        msg[i].msg_hdr.msg_namelen = sizeof(struct sockaddr_storage);
+
+        msg[i].msg_hdr.msg_iov = (struct iovec*) (*env)->GetLongField(env, packet, packetMemoryAddressFieldId);
+        msg[i].msg_hdr.msg_iovlen = (*env)->GetIntField(env, packet, packetCountFieldId);
+
+        (*env)->DeleteLocalRef(env, packet);
+    }
+
+    ssize_t res;
+    int err;
+    do {
+       res = recvmmsg(fd, msg, len, 0, NULL);
+       // keep on reading if it was interrupted
+    } while (res == -1 && ((err = errno) == EINTR));
+
+    if (res < 0) {
+        return -err;
+    }
+
+    for (i = 0; i < res; i++) {
+        jobject sender = createDatagramSocketAddress(env, &addr[i], msg[i].msg_len, 0);
+        if (sender == NULL) {
+            // pending exception...
+            return -1;
+        }
+        jobject packet = (*env)->GetObjectArrayElement(env, packets, i + offset);
+        (*env)->SetObjectField(env, packet, packetSenderFieldId, sender);
+
+        (*env)->DeleteLocalRef(env, packet);
+        (*env)->DeleteLocalRef(env, sender);
+    }
+    return (jint) res;
+}
+
 static inline jobject recvFrom0(JNIEnv* env, jint fd, void* buffer, jint pos, jint limit) {
     struct sockaddr_storage addr;
     socklen_t addrlen = sizeof(addr);
@@ -895,7 +1107,71 @@ static inline jobject recvFrom0(JNIEnv* env, jint fd, void* buffer, jint pos, ji
         return NULL;
     }
 
-    return createDatagramSocketAddress(env, &addr, res);
+    return createDatagramSocketAddress(env, &addr, res, 0);
+}
+
+static inline jobject recvFromGro0(JNIEnv* env, jint fd, void* buffer, jint pos, jint limit) {
+    struct sockaddr_storage addr;
+    struct iovec iov;
+    iov.iov_base = buffer + pos;
+    iov.iov_len = (size_t) (limit - pos);
+
+    char control[CMSG_SPACE(sizeof(int))];
+
+    struct msghdr m;
+    memset(&m, 0, sizeof(m));
+    m.msg_name = (void*) &addr;
+    m.msg_namelen = (socklen_t) sizeof(struct sockaddr_storage);
+    m.msg_iov = &iov;
+    m.msg_iovlen = 1;
+    m.msg_control = control;
+    m.msg_controllen = sizeof(control);
+
+    ssize_t res;
+    int err;
+    do {
+        res = recvmsg(fd, &m, 0);
+        // Keep on reading if we was interrupted
+    } while (res == -1 && ((err = errno) == EINTR));
+
+    if (res < 0) {
+        if (err == EAGAIN || err == EWOULDBLOCK) {
+            // Nothing left to read
+            return NULL;
+        }
+        if (err == EBADF) {
+            throwClosedChannelException(env);
+            return NULL;
+        }
+        throwIOExceptionErrorNo(env, "recvmsg() failed: ", err);
+        return NULL;
+    }
+
+    // If the kernel coalesced multiple datagrams it tells us the size of each of them (but the last one which may
+    // be smaller).
+    int segmentSize = 0;
+    struct cmsghdr* cm;
+    for (cm = CMSG_FIRSTHDR(&m); cm != NULL; cm = CMSG_NXTHDR(&m, cm)) {
+        if (cm->cmsg_level == SOL_UDP && cm->cmsg_type == UDP_GRO) {
+            segmentSize = *((int*) CMSG_DATA(cm));
+            break;
+        }
+    }
+    return createDatagramSocketAddress(env, &addr, res, segmentSize);
+}
+
+JNIEXPORT jobject JNICALL Java_io_netty_channel_epoll_Native_recvFromGro(JNIEnv* env, jclass clazz, jint fd, jobject jbuffer, jint pos, jint limit) {
+    void* buffer = (*env)->GetDirectBufferAddress(env, jbuffer);
+    if (buffer == NULL) {
+        throwRuntimeException(env, "failed to get direct buffer address");
+        return NULL;
+    }
+
+    return recvFromGro0(env, fd, buffer, pos, limit);
+}
+
+JNIEXPORT jobject JNICALL Java_io_netty_channel_epoll_Native_recvFromAddressGro(JNIEnv* env, jclass clazz, jint fd, jlong address, jint pos, jint limit) {
+    return recvFromGro0(env, fd, (void*) address, pos, limit);
 }
 
 JNIEXPORT jobject JNICALL Java_io_netty_channel_epoll_Native_recvFrom(JNIEnv* env, jclass clazz, jint fd, jobject jbuffer, jint pos, jint limit) {
@@ -1006,6 +1282,14 @@ JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_close0(JNIEnv* env, jc
    return 0;
 }
 
+JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_dup0(JNIEnv* env, jclass clazz, jint fd) {
+    int res = dup(fd);
+    if (res < 0) {
+        return -errno;
+    }
+    return res;
+}
+
 JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_shutdown0(JNIEnv* env, jclass clazz, jint fd, jboolean read, jboolean write) {
     int mode;
     if (read && write) {
@@ -1200,6 +1484,22 @@ JNIEXPORT void JNICALL Java_io_netty_channel_epoll_Native_setReusePort(JNIEnv* e
     setOption(env, fd, SOL_SOCKET, SO_REUSEPORT, &optval, sizeof(optval));
 }
 
+JNIEXPORT void JNICALL Java_io_netty_channel_epoll_Native_setUdpSegment(JNIEnv* env, jclass clazz, jint fd, jint optval) {
+    setOption(env, fd, SOL_UDP, UDP_SEGMENT, &optval, sizeof(optval));
+}
+
+JNIEXPORT void JNICALL Java_io_netty_channel_epoll_Native_setUdpGro(JNIEnv* env, jclass clazz, jint fd, jint optval) {
+    setOption(env, fd, SOL_UDP, UDP_GRO, &optval, sizeof(optval));
+}
+
+JNIEXPORT void JNICALL Java_io_netty_channel_epoll_Native_setZeroCopy(JNIEnv* env, jclass clazz, jint fd, jint optval) {
+    setOption(env, fd, SOL_SOCKET, SO_ZEROCOPY, &optval, sizeof(optval));
+}
+
+JNIEXPORT void JNICALL Java_io_netty_channel_epoll_Native_setSoBusyPoll(JNIEnv* env, jclass clazz, jint fd, jint optval) {
+    setOption(env, fd, SOL_SOCKET, SO_BUSY_POLL, &optval, sizeof(optval));
+}
+
 JNIEXPORT void JNICALL Java_io_netty_channel_epoll_Native_setTcpNoDelay(JNIEnv* env, jclass clazz, jint fd, jint optval) {
     setOption(env, fd, IPPROTO_TCP, TCP_NODELAY, &optval, sizeof(optval));
 }
@@ -1272,6 +1572,22 @@ JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_isReusePort(JNIEnv* en
     return optval;
 }
 
+JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_isZeroCopy(JNIEnv* env, jclass clazz, jint fd) {
+    int optval;
+    if (getOption(env, fd, SOL_SOCKET, SO_ZEROCOPY, &optval, sizeof(optval)) == -1) {
+        return -1;
+    }
+    return optval;
+}
+
+JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_getSoBusyPoll(JNIEnv* env, jclass clazz, jint fd) {
+    int optval;
+    if (getOption(env, fd, SOL_SOCKET, SO_BUSY_POLL, &optval, sizeof(optval)) == -1) {
+        return -1;
+    }
+    return optval;
+}
+
 JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_isTcpNoDelay(JNIEnv* env, jclass clazz, jint fd) {
     int optval;
     if (getOption(env, fd, IPPROTO_TCP, TCP_NODELAY, &optval, sizeof(optval)) == -1) {
@@ -1441,10 +1757,21 @@ JNIEXPORT jboolean JNICALL Java_io_netty_channel_epoll_Native_isSupportingSendmm
     return JNI_FALSE;
 }
 
+JNIEXPORT jboolean JNICALL Java_io_netty_channel_epoll_Native_isSupportingRecvmmsg(JNIEnv* env, jclass clazz) {
+    if (recvmmsg) {
+        return JNI_TRUE;
+    }
+    return JNI_FALSE;
+}
+
 JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_errnoEBADF(JNIEnv* env, jclass clazz) {
     return EBADF;
 }
 
+JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_errnoENOBUFS(JNIEnv* env, jclass clazz) {
+    return ENOBUFS;
+}
+
 JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_errnoEPIPE(JNIEnv* env, jclass clazz) {
     return EPIPE;
 }
@@ -1684,4 +2011,71 @@ JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_splice0(JNIEnv* env, j
 
 JNIEXPORT jlong JNICALL Java_io_netty_channel_epoll_Native_ssizeMax(JNIEnv* env, jclass clazz) {
     return SSIZE_MAX;
-}
\ No newline at end of file
+}
+
+// Wraps the mapping into a direct ByteBuffer, or unmaps it again if that fails.
+static jobject newMappedBuffer(JNIEnv* env, void* address, jint size) {
+    jobject buffer = (*env)->NewDirectByteBuffer(env, address, size);
+    if (buffer == NULL) {
+        munmap(address, (size_t) size);
+    }
+    return buffer;
+}
+
+JNIEXPORT jobject JNICALL Java_io_netty_channel_epoll_Native_mmap0(JNIEnv* env, jclass clazz, jint size, jboolean hugePages) {
+    void* address = mmap(NULL, (size_t) size, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS, -1, 0);
+    if (address == MAP_FAILED) {
+        throwIOExceptionErrorNo(env, "mmap() failed: ", errno);
+        return NULL;
+    }
+    if (hugePages == JNI_TRUE) {
+        // Only a hint, the mapping is still usable with normal pages if transparent huge pages are disabled.
+        madvise(address, (size_t) size, MADV_HUGEPAGE);
+    }
+    return newMappedBuffer(env, address, size);
+}
+
+JNIEXPORT jobject JNICALL Java_io_netty_channel_epoll_Native_mmapMemfd0(JNIEnv* env, jclass clazz, jint size, jboolean hugeTlb) {
+#ifdef SYS_memfd_create
+    unsigned int flags = MFD_CLOEXEC;
+    int fd;
+    int err;
+    void* address;
+
+    if (hugeTlb == JNI_TRUE) {
+        flags |= MFD_HUGETLB;
+    }
+    fd = syscall(SYS_memfd_create, "netty-chunk", flags);
+    if (fd < 0) {
+        throwIOExceptionErrorNo(env, "memfd_create() failed: ", errno);
+        return NULL;
+    }
+    if (ftruncate(fd, (off_t) size) < 0) {
+        err = errno;
+        close(fd);
+        throwIOExceptionErrorNo(env, "ftruncate() failed: ", err);
+        return NULL;
+    }
+    address = mmap(NULL, (size_t) size, PROT_READ | PROT_WRITE, MAP_SHARED, fd, 0);
+    err = errno;
+    // The mapping keeps the memory alive, so the file descriptor is not needed anymore.
+    close(fd);
+    if (address == MAP_FAILED) {
+        throwIOExceptionErrorNo(env, "mmap() failed: ", err);
+        return NULL;
+    }
+    return newMappedBuffer(env, address, size);
+#else
+    throwIOExceptionErrorNo(env, "memfd_create() failed: ", ENOSYS);
+    return NULL;
+#endif /* SYS_memfd_create */
+}
+
+JNIEXPORT jint JNICALL Java_io_netty_channel_epoll_Native_munmap0(JNIEnv* env, jclass clazz, jobject jbuffer) {
+    void* address = (*env)->GetDirectBufferAddress(env, jbuffer);
+    jlong size = (*env)->GetDirectBufferCapacity(env, jbuffer);
+    if (munmap(address, (size_t) size) < 0) {
+        return -errno;
+    }
+    return 0;
+}
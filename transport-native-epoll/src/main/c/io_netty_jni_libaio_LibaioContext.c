@@ -34,6 +34,10 @@
 #include "io_netty_jni_libaio_LibaioContext.h"
 #include "exception_helper.h"
 
+// The maximum number of operations submitBatch(...) passes to a single io_submit, which bounds the iocb pointers it
+// keeps on the stack. Larger batches are submitted with several io_submit calls.
+#define MAX_SUBMIT_BATCH 256
+
 struct io_control {
     io_context_t ioContext;
     struct io_event * events;
@@ -48,6 +52,9 @@ struct io_control {
     int iocbPut;
     int iocbGet;
     int used;
+
+    // eventfd signaled on every completion, or -1 if the context is polled manually
+    int eventFd;
 };
 
 jclass errorInfoClass = NULL;
@@ -201,6 +208,7 @@ JNIEXPORT jobject JNICALL Java_io_netty_jni_libaio_LibaioContext_newContext(JNIE
     theControl->iocbPut = 0;
     theControl->iocbGet = 0;
     theControl->used = 0;
+    theControl->eventFd = -1;
 
     return (*env)->NewDirectByteBuffer(env, theControl, sizeof(struct io_control));
 }
@@ -246,7 +254,16 @@ JNIEXPORT int JNICALL Java_io_netty_jni_libaio_LibaioContext_open(JNIEnv* env, j
     return res;
 }
 
+JNIEXPORT void JNICALL Java_io_netty_jni_libaio_LibaioContext_setEventFd(JNIEnv* env, jclass clazz, jobject contextPointer, jint eventFd) {
+    struct io_control * theControl = getIOControl(env, contextPointer);
+    theControl->eventFd = eventFd;
+}
+
 static inline jboolean submit(JNIEnv * env, struct io_control * theControl, struct iocb * iocb) {
+    if (theControl->eventFd >= 0) {
+        io_set_eventfd(iocb, theControl->eventFd);
+    }
+
     int result = io_submit(theControl->ioContext, 1, &iocb);
 
     if (result < 0) {
@@ -307,6 +324,177 @@ JNIEXPORT jboolean JNICALL Java_io_netty_jni_libaio_LibaioContext_submitRead
     return submit(env, theControl, iocb);
 }
 
+JNIEXPORT jboolean JNICALL Java_io_netty_jni_libaio_LibaioContext_submitWriteAddress
+  (JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jint size, jlong address, jobject callback) {
+    struct io_control * theControl = getIOControl(env, contextPointer);
+
+    struct iocb * iocb = getIOCB(theControl);
+
+    if (iocb == NULL) {
+        return JNI_FALSE;
+    }
+
+    io_prep_pwrite(iocb, fileHandle, (void *) address, size, position);
+
+    // Same as on submitWrite, the GlobalRef will be deleted when poll is called.
+    iocb->data = (void *) (*env)->NewGlobalRef(env, callback);
+
+    return submit(env, theControl, iocb);
+}
+
+JNIEXPORT jboolean JNICALL Java_io_netty_jni_libaio_LibaioContext_submitReadAddress
+  (JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jint size, jlong address, jobject callback) {
+    struct io_control * theControl = getIOControl(env, contextPointer);
+
+    struct iocb * iocb = getIOCB(theControl);
+
+    if (iocb == NULL) {
+        return JNI_FALSE;
+    }
+
+    io_prep_pread(iocb, fileHandle, (void *) address, size, position);
+
+    // Same as on submitRead, the GlobalRef will be deleted when poll is called.
+    iocb->data = (void *) (*env)->NewGlobalRef(env, callback);
+
+    return submit(env, theControl, iocb);
+}
+
+static inline jboolean submitVector(JNIEnv * env, jint fileHandle, jobject contextPointer, jlong position,
+                                    jlongArray addresses, jintArray lengths, jint count, jobject callback,
+                                    jboolean write) {
+    struct io_control * theControl = getIOControl(env, contextPointer);
+    struct iovec iov[count];
+    int i;
+
+    jlong * addressesElements = (*env)->GetLongArrayElements(env, addresses, NULL);
+    jint * lengthsElements = (*env)->GetIntArrayElements(env, lengths, NULL);
+    for (i = 0; i < count; i++) {
+        iov[i].iov_base = (void *) addressesElements[i];
+        iov[i].iov_len = (size_t) lengthsElements[i];
+    }
+    (*env)->ReleaseIntArrayElements(env, lengths, lengthsElements, JNI_ABORT);
+    (*env)->ReleaseLongArrayElements(env, addresses, addressesElements, JNI_ABORT);
+
+    struct iocb * iocb = getIOCB(theControl);
+
+    if (iocb == NULL) {
+        return JNI_FALSE;
+    }
+
+    // The kernel copies the iovec array during io_submit, so it is fine to keep it on the stack.
+    if (write) {
+        io_prep_pwritev(iocb, fileHandle, iov, count, position);
+    } else {
+        io_prep_preadv(iocb, fileHandle, iov, count, position);
+    }
+
+    // Same as on submitWrite / submitRead, the GlobalRef will be deleted when poll is called.
+    iocb->data = (void *) (*env)->NewGlobalRef(env, callback);
+
+    return submit(env, theControl, iocb);
+}
+
+JNIEXPORT jboolean JNICALL Java_io_netty_jni_libaio_LibaioContext_submitWritev
+  (JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jlongArray addresses, jintArray lengths, jint count, jobject callback) {
+    return submitVector(env, fileHandle, contextPointer, position, addresses, lengths, count, callback, JNI_TRUE);
+}
+
+JNIEXPORT jboolean JNICALL Java_io_netty_jni_libaio_LibaioContext_submitReadv
+  (JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jlongArray addresses, jintArray lengths, jint count, jobject callback) {
+    return submitVector(env, fileHandle, contextPointer, position, addresses, lengths, count, callback, JNI_FALSE);
+}
+
+JNIEXPORT jint JNICALL Java_io_netty_jni_libaio_LibaioContext_submitBatch
+  (JNIEnv * env, jclass clazz, jobject contextPointer, jint count, jbooleanArray writes, jintArray fds,
+   jlongArray positions, jintArray sizes, jobjectArray buffers, jobjectArray callbacks) {
+    if (count <= 0) {
+        return 0;
+    }
+
+    struct io_control * theControl = getIOControl(env, contextPointer);
+    struct iocb * iocbs[MAX_SUBMIT_BATCH];
+    int total = 0;
+    int result = 0;
+    int i;
+
+    jboolean * writesElements = (*env)->GetBooleanArrayElements(env, writes, NULL);
+    jint * fdsElements = (*env)->GetIntArrayElements(env, fds, NULL);
+    jlong * positionsElements = (*env)->GetLongArrayElements(env, positions, NULL);
+    jint * sizesElements = (*env)->GetIntArrayElements(env, sizes, NULL);
+
+    // Submit in chunks of at most MAX_SUBMIT_BATCH until everything is submitted, the queue is full or the kernel
+    // did not take a whole chunk.
+    while (total < count) {
+        int limit = count - total;
+        int prepared;
+        if (limit > MAX_SUBMIT_BATCH) {
+            limit = MAX_SUBMIT_BATCH;
+        }
+
+        for (prepared = 0; prepared < limit; prepared++) {
+            struct iocb * iocb = getIOCB(theControl);
+            if (iocb == NULL) {
+                // the queue is full, submit what we have so far
+                break;
+            }
+
+            int index = total + prepared;
+            jobject buffer = (*env)->GetObjectArrayElement(env, buffers, index);
+            if (writesElements[index]) {
+                io_prep_pwrite(iocb, fdsElements[index], getBuffer(env, buffer),
+                               sizesElements[index], positionsElements[index]);
+            } else {
+                io_prep_pread(iocb, fdsElements[index], getBuffer(env, buffer),
+                              sizesElements[index], positionsElements[index]);
+            }
+            (*env)->DeleteLocalRef(env, buffer);
+
+            if (theControl->eventFd >= 0) {
+                io_set_eventfd(iocb, theControl->eventFd);
+            }
+
+            // Same as on submitWrite / submitRead, the GlobalRef will be deleted when poll is called.
+            jobject callback = (*env)->GetObjectArrayElement(env, callbacks, index);
+            iocb->data = (void *) (*env)->NewGlobalRef(env, callback);
+            (*env)->DeleteLocalRef(env, callback);
+
+            iocbs[prepared] = iocb;
+        }
+
+        if (prepared == 0) {
+            break;
+        }
+
+        result = io_submit(theControl->ioContext, prepared, iocbs);
+        int submitted = result < 0 ? 0 : result;
+
+        // Putting the Global Refs and IOCBs back for everything the kernel did not take
+        for (i = submitted; i < prepared; i++) {
+            (*env)->DeleteGlobalRef(env, (jobject)iocbs[i]->data);
+            putIOCB(theControl, iocbs[i]);
+        }
+
+        total += submitted;
+        if (submitted < limit) {
+            break;
+        }
+    }
+
+    (*env)->ReleaseIntArrayElements(env, sizes, sizesElements, JNI_ABORT);
+    (*env)->ReleaseLongArrayElements(env, positions, positionsElements, JNI_ABORT);
+    (*env)->ReleaseIntArrayElements(env, fds, fdsElements, JNI_ABORT);
+    (*env)->ReleaseBooleanArrayElements(env, writes, writesElements, JNI_ABORT);
+
+    if (result < 0 && result != -EAGAIN && total == 0) {
+        // EGAIN will just return 0, meaning poll and try again. If a previous chunk was submitted already we
+        // return its count, and the error is reported again by the next call for the remaining operations.
+        throwIOExceptionErrorNo(env, "Error while submitting IO:", -result);
+    }
+
+    return total;
+}
+
 JNIEXPORT jint JNICALL Java_io_netty_jni_libaio_LibaioContext_poll
   (JNIEnv * env, jobject obj, jobject contextPointer, jobjectArray callbacks, jint min, jint max) {
     int i = 0;
@@ -19,8 +19,14 @@ void Java_io_netty_jni_libaio_LibaioContext_close(JNIEnv* env, jclass clazz, jin
 int Java_io_netty_jni_libaio_LibaioContext_open(JNIEnv* env, jclass clazz, jstring path, jboolean direct);
 jobject Java_io_netty_jni_libaio_LibaioContext_newContext(JNIEnv * env, jclass clazz, jint queueSize);
 void Java_io_netty_jni_libaio_LibaioContext_deleteContext(JNIEnv* env, jclass clazz, jobject pointer);
+void Java_io_netty_jni_libaio_LibaioContext_setEventFd(JNIEnv* env, jclass clazz, jobject pointer, jint eventFd);
 jboolean Java_io_netty_jni_libaio_LibaioContext_submitWrite(JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jint size, jobject bufferWrite, jobject callback);
 jboolean Java_io_netty_jni_libaio_LibaioContext_submitRead(JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jint size, jobject bufferWrite, jobject callback);
+jboolean Java_io_netty_jni_libaio_LibaioContext_submitWriteAddress(JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jint size, jlong address, jobject callback);
+jboolean Java_io_netty_jni_libaio_LibaioContext_submitReadAddress(JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jint size, jlong address, jobject callback);
+jboolean Java_io_netty_jni_libaio_LibaioContext_submitWritev(JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jlongArray addresses, jintArray lengths, jint count, jobject callback);
+jboolean Java_io_netty_jni_libaio_LibaioContext_submitReadv(JNIEnv * env, jclass clazz, jint fileHandle, jobject contextPointer, jlong position, jlongArray addresses, jintArray lengths, jint count, jobject callback);
+jint Java_io_netty_jni_libaio_LibaioContext_submitBatch(JNIEnv * env, jclass clazz, jobject contextPointer, jint count, jbooleanArray writes, jintArray fds, jlongArray positions, jintArray sizes, jobjectArray buffers, jobjectArray callbacks);
 jobject Java_io_netty_jni_libaio_LibaioContext_newAlignedBuffer(JNIEnv * env, jclass clazz, jint size, jint alignment);
 void Java_io_netty_jni_libaio_LibaioContext_freeBuffer(JNIEnv * env, jclass clazz, jobject buffer);
 jint Java_io_netty_jni_libaio_LibaioContext_poll(JNIEnv * env, jobject clazz, jobject libaioContext, jobjectArray callbacks, jint min, jint max);
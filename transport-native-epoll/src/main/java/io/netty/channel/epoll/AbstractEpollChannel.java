@@ -318,6 +318,14 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
             super.flush0();
         }
 
+        /**
+         * Called once EPOLLERR event is ready to be processed, before {@link #epollOutReady()} and
+         * {@link #epollInReady()} are called.
+         */
+        void epollErrReady() {
+            // NOOP
+        }
+
         /**
          * Called once a EPOLLOUT event is ready to be processed
          */
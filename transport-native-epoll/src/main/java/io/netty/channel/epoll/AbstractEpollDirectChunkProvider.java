@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.DirectChunkProvider;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Base class for {@link DirectChunkProvider}s which map the memory of every chunk via {@code mmap} and unmap it
+ * again as soon as the chunk is freed. Mapped chunks are not limited by {@code -XX:MaxDirectMemorySize}.
+ */
+abstract class AbstractEpollDirectChunkProvider implements DirectChunkProvider {
+
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(AbstractEpollDirectChunkProvider.class);
+
+    /**
+     * The default {@code sizeAlignment}, which matches the default huge page size on x86-64.
+     */
+    public static final int DEFAULT_SIZE_ALIGNMENT = 2 * 1024 * 1024;
+
+    private final int sizeAlignment;
+
+    AbstractEpollDirectChunkProvider(int sizeAlignment) {
+        if (sizeAlignment <= 0 || (sizeAlignment & sizeAlignment - 1) != 0) {
+            throw new IllegalArgumentException(
+                    "sizeAlignment: " + sizeAlignment + " (expected: a positive power of two)");
+        }
+        Epoll.ensureAvailability();
+        this.sizeAlignment = sizeAlignment;
+    }
+
+    @Override
+    public final ByteBuffer allocate(int capacity) {
+        final long size = (long) capacity + sizeAlignment - 1 & ~((long) sizeAlignment - 1);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity: " + capacity + " (too large to map)");
+        }
+        try {
+            return map((int) size);
+        } catch (IOException e) {
+            OutOfMemoryError error = new OutOfMemoryError("failed to map a chunk of " + size + " bytes");
+            error.initCause(e);
+            throw error;
+        }
+    }
+
+    /**
+     * Map {@code size} bytes, which is a multiple of the {@code sizeAlignment}.
+     */
+    protected abstract ByteBuffer map(int size) throws IOException;
+
+    @Override
+    public final void free(ByteBuffer memory) {
+        try {
+            Native.munmap(memory);
+        } catch (IOException e) {
+            logger.warn("Failed to unmap a chunk of {} bytes", memory.capacity(), e);
+        }
+    }
+}
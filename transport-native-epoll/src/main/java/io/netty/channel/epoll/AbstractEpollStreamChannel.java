@@ -37,6 +37,7 @@ import io.netty.util.internal.MpscLinkedQueueNode;
 import io.netty.util.internal.OneTimeTask;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.SystemPropertyUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -45,6 +46,7 @@ import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -56,6 +58,12 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
             " (expected: " + StringUtil.simpleClassName(ByteBuf.class) + ", " +
                     StringUtil.simpleClassName(DefaultFileRegion.class) + ')';
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(AbstractEpollStreamChannel.class);
+
+    // How long the MSG_ZEROCOPY buffers of a closed channel are kept until the kernel completes them.
+    private static final long ZEROCOPY_CLOSE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(Math.max(0,
+            SystemPropertyUtil.getLong("io.netty.epoll.zeroCopyCloseTimeoutMillis", 30000)));
+    private static final long ZEROCOPY_CLOSE_POLL_MILLIS = 10;
+
     static final ClosedChannelException CLOSED_CHANNEL_EXCEPTION = new ClosedChannelException();
 
     static {
@@ -78,6 +86,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
     private int pipeIn = -1;
     private int pipeOut = -1;
 
+    // Lazy init this if we need to write with MSG_ZEROCOPY
+    private ZeroCopyTracker zeroCopyTracker;
+
     protected AbstractEpollStreamChannel(Channel parent, int fd) {
         super(parent, fd, Native.EPOLLIN, true);
         // Add EPOLLRDHUP so we are notified once the remote peer close the connection.
@@ -234,7 +245,8 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
         }
 
         if (buf.hasMemoryAddress() || buf.nioBufferCount() == 1) {
-            int writtenBytes = doWriteBytes(buf, writeSpinCount);
+            int writtenBytes = isZeroCopyWrite(buf) ?
+                    doWriteBytesZeroCopy(buf, writeSpinCount) : doWriteBytes(buf, writeSpinCount);
             in.removeBytes(writtenBytes);
             return writtenBytes == readableBytes;
         } else {
@@ -243,6 +255,72 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
         }
     }
 
+    /**
+     * Returns the minimal number of bytes a {@link ByteBuf} must hold to be written with MSG_ZEROCOPY, or {@code -1}
+     * if MSG_ZEROCOPY should not be used.
+     */
+    int zeroCopyThreshold() {
+        return -1;
+    }
+
+    private boolean isZeroCopyWrite(ByteBuf buf) {
+        int zeroCopyThreshold = zeroCopyThreshold();
+        return zeroCopyThreshold >= 0 && buf.readableBytes() >= zeroCopyThreshold && buf.hasMemoryAddress();
+    }
+
+    /**
+     * Write bytes from the given {@link ByteBuf}, which must have a memory address, with MSG_ZEROCOPY. The
+     * {@link ByteBuf} is retained until the kernel signals that it does not need the memory anymore.
+     */
+    private int doWriteBytesZeroCopy(ByteBuf buf, int writeSpinCount) throws Exception {
+        ZeroCopyTracker tracker = zeroCopyTracker;
+        if (tracker == null) {
+            zeroCopyTracker = tracker = new ZeroCopyTracker();
+        }
+        final int fd = fd().intValue();
+        final long memoryAddress = buf.memoryAddress();
+        final int readableBytes = buf.readableBytes();
+        final int writerIndex = buf.writerIndex();
+        int readerIndex = buf.readerIndex();
+        int writtenBytes = 0;
+        for (int i = writeSpinCount - 1; i >= 0; i--) {
+            int localFlushedAmount = Native.sendAddressZeroCopy(fd, memoryAddress, readerIndex, writerIndex);
+            if (localFlushedAmount > 0) {
+                tracker.add(buf);
+            } else if (localFlushedAmount == -1) {
+                // The kernel could not pin the memory, fallback to a copying write.
+                localFlushedAmount = Native.writeAddress(fd, memoryAddress, readerIndex, writerIndex);
+            }
+            if (localFlushedAmount > 0) {
+                writtenBytes += localFlushedAmount;
+                if (writtenBytes == readableBytes) {
+                    return writtenBytes;
+                }
+                readerIndex += localFlushedAmount;
+            } else {
+                break;
+            }
+        }
+        if (writtenBytes < readableBytes) {
+            // Returned EAGAIN need to set EPOLLOUT
+            setFlag(Native.EPOLLOUT);
+        }
+        return writtenBytes;
+    }
+
+    /**
+     * Release the {@link ByteBuf}s which were written with MSG_ZEROCOPY and were completed by the kernel. Returns an
+     * {@link IOException} describing an entry of the error queue which was not a MSG_ZEROCOPY completion, or
+     * {@code null} if there was none.
+     */
+    private IOException processZeroCopyCompletions() throws IOException {
+        ZeroCopyTracker tracker = zeroCopyTracker;
+        if (tracker != null && !tracker.isEmpty()) {
+            return tracker.processCompletions(fd().intValue());
+        }
+        return null;
+    }
+
     private boolean writeBytesMultiple(
             ChannelOutboundBuffer in, IovArray array, int writeSpinCount) throws IOException {
 
@@ -392,8 +470,10 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
                 break;
             }
 
-            // Do gathering write if the outbounf buffer entries start with more than one ByteBuf.
-            if (msgCount > 1 && in.current() instanceof ByteBuf) {
+            // Do gathering write if the outbounf buffer entries start with more than one ByteBuf, unless the first
+            // one is big enough to be written with MSG_ZEROCOPY.
+            Object current = in.current();
+            if (msgCount > 1 && current instanceof ByteBuf && !isZeroCopyWrite((ByteBuf) current)) {
                 if (!doWriteMultiple(in, writeSpinCount)) {
                     break;
                 }
@@ -524,6 +604,7 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
 
     @Override
     protected void doClose() throws Exception {
+        int zeroCopyFd = -1;
         try {
             ChannelPromise promise = connectPromise;
             if (promise != null) {
@@ -537,12 +618,63 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
                 future.cancel(false);
                 connectTimeoutFuture = null;
             }
+            try {
+                // Release as many MSG_ZEROCOPY buffers as possible while we still can read the completions.
+                processZeroCopyCompletions();
+            } catch (IOException ignore) {
+                // The remaining buffers are released once their completions arrive or leaked.
+            }
+            if (zeroCopyTracker != null && !zeroCopyTracker.isEmpty()) {
+                try {
+                    // The kernel still sends from the memory of the pending buffers. Keep the socket alive via a
+                    // duplicate of its file descriptor, so we can read the completions after the channel was closed.
+                    zeroCopyFd = Native.dup(fd().intValue());
+                } catch (IOException e) {
+                    logger.debug("Failed to keep the socket open until the MSG_ZEROCOPY completions arrive", e);
+                }
+            }
+
             // Calling super.doClose() first so splceTo(...) will fail on next call.
             super.doClose();
         } finally {
             safeClosePipe(pipeIn);
             safeClosePipe(pipeOut);
             clearSpliceQueue();
+            ZeroCopyTracker tracker = zeroCopyTracker;
+            if (tracker != null) {
+                zeroCopyTracker = null;
+                if (zeroCopyFd != -1) {
+                    closeAfterZeroCopyCompletions(tracker, zeroCopyFd);
+                } else {
+                    leakZeroCopyBuffers(tracker, this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Shutdown the socket which is referenced by the given duplicate of the file descriptor of this closed channel
+     * and release the pending MSG_ZEROCOPY buffers of the {@link ZeroCopyTracker} once their completions arrive. The
+     * duplicate is closed afterwards.
+     */
+    private void closeAfterZeroCopyCompletions(ZeroCopyTracker tracker, int fd) {
+        try {
+            // Closing the file descriptor of the channel did not close the socket, so send the FIN ourselves.
+            Native.shutdown(fd, true, true);
+        } catch (IOException e) {
+            logger.debug("Failed to shutdown the socket of a closed channel", e);
+        }
+        // The channel is not registered anymore, so poll the completions on the event loop it was registered to.
+        new ZeroCopyCloseTask(tracker, fd, eventLoop().unwrap(), toString()).run();
+    }
+
+    private static void leakZeroCopyBuffers(ZeroCopyTracker tracker, Object channel) {
+        // The completions of these buffers can not be read anymore, while the kernel may still reference their
+        // memory. Never give it back to the allocator.
+        int leaked = tracker.leakAll();
+        if (leaked > 0) {
+            logger.warn("Leaked {} MSG_ZEROCOPY buffer(s) of a closed channel as their completion was not " +
+                    "received in time: {}", leaked, channel);
         }
     }
 
@@ -595,6 +727,21 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
 
         private RecvByteBufAllocator.Handle allocHandle;
 
+        @Override
+        void epollErrReady() {
+            IOException entryError;
+            try {
+                entryError = processZeroCopyCompletions();
+            } catch (IOException e) {
+                // Not fatal here as any real error of the socket is reported by the read or write which follows.
+                logger.debug("Failed to read the MSG_ZEROCOPY completions", e);
+                return;
+            }
+            if (entryError != null) {
+                pipeline().fireExceptionCaught(entryError);
+            }
+        }
+
         private void closeOnRead(ChannelPipeline pipeline) {
             inputShutdown = true;
             if (isOpen()) {
@@ -792,6 +939,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
             if (allocHandle == null) {
                 this.allocHandle = allocHandle = config.getRecvByteBufAllocator().newHandle();
             }
+            final RecvByteBufAllocator.CopyingHandle copyingHandle =
+                    allocHandle instanceof RecvByteBufAllocator.CopyingHandle ?
+                            (RecvByteBufAllocator.CopyingHandle) allocHandle : null;
 
             ByteBuf byteBuf = null;
             boolean close = false;
@@ -818,15 +968,24 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
 
                     // we use a direct buffer here as the native implementations only be able
                     // to handle direct buffers.
-                    byteBuf = allocHandle.allocate(allocator);
+                    byteBuf = copyingHandle != null ?
+                            copyingHandle.allocateRead(allocator) : allocHandle.allocate(allocator);
                     int writable = byteBuf.writableBytes();
                     int localReadAmount = doReadBytes(byteBuf);
                     if (localReadAmount <= 0) {
                         // not was read release the buffer
                         byteBuf.release();
+                        byteBuf = null;
                         close = localReadAmount < 0;
                         break;
                     }
+                    if (copyingHandle != null) {
+                        ByteBuf readBuf = byteBuf;
+                        // finishRead(...) takes care of the buffer even if it fails, so it must never be fired
+                        // or released by the exception handling below.
+                        byteBuf = null;
+                        byteBuf = copyingHandle.finishRead(allocator, readBuf);
+                    }
                     readPending = false;
                     pipeline.fireChannelRead(byteBuf);
                     byteBuf = null;
@@ -1087,4 +1246,48 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
             }
         }
     }
+
+    /**
+     * Reads the MSG_ZEROCOPY completions of the socket of a closed channel until all pending buffers were released or
+     * the timeout passed, and closes the duplicate of its file descriptor afterwards.
+     */
+    private static final class ZeroCopyCloseTask implements Runnable {
+        private final ZeroCopyTracker tracker;
+        private final int fd;
+        private final EventLoop eventLoop;
+        private final String channel;
+        private final long deadline = System.nanoTime() + ZEROCOPY_CLOSE_TIMEOUT_NANOS;
+
+        ZeroCopyCloseTask(ZeroCopyTracker tracker, int fd, EventLoop eventLoop, String channel) {
+            this.tracker = tracker;
+            this.fd = fd;
+            this.eventLoop = eventLoop;
+            this.channel = channel;
+        }
+
+        @Override
+        public void run() {
+            try {
+                tracker.processCompletions(fd);
+            } catch (IOException e) {
+                logger.debug("Failed to read the MSG_ZEROCOPY completions of a closed channel", e);
+            }
+            if (!tracker.isEmpty()) {
+                if (deadline - System.nanoTime() > 0) {
+                    try {
+                        eventLoop.schedule(this, ZEROCOPY_CLOSE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                        return;
+                    } catch (RejectedExecutionException e) {
+                        logger.debug("Failed to schedule the read of the MSG_ZEROCOPY completions", e);
+                    }
+                }
+                leakZeroCopyBuffers(tracker, channel);
+            }
+            try {
+                Native.close(fd);
+            } catch (IOException e) {
+                logger.warn("Failed to close the socket of a closed channel", e);
+            }
+        }
+    }
 }
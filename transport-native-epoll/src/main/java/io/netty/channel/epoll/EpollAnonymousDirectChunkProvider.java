@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.DirectChunkProvider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DirectChunkProvider} which backs every chunk with a private anonymous memory mapping. If enabled, the
+ * kernel is advised via {@code madvise(MADV_HUGEPAGE)} to back the chunks with transparent huge pages, which reduces
+ * TLB misses for workloads which touch a lot of buffer memory without the need to reserve huge pages up front. This
+ * is only a hint: the chunks are backed by normal pages if transparent huge pages are disabled on the system.
+ * <p>
+ * The size of every chunk is rounded up to a multiple of the {@code sizeAlignment}, so chunks should be at least
+ * that large to not waste memory.
+ */
+public final class EpollAnonymousDirectChunkProvider extends AbstractEpollDirectChunkProvider {
+
+    private final boolean hugePages;
+
+    /**
+     * Creates a new instance which advises the kernel to use transparent huge pages and rounds the size of every
+     * chunk up to a multiple of {@link #DEFAULT_SIZE_ALIGNMENT}.
+     */
+    public EpollAnonymousDirectChunkProvider() {
+        this(true, DEFAULT_SIZE_ALIGNMENT);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param hugePages     {@code true} if the kernel should be advised to back the chunks with transparent huge pages
+     * @param sizeAlignment the size of every chunk is rounded up to a multiple of this value, which must be a power of
+     *                      two. Use the huge page size to let the kernel back whole chunks with huge pages.
+     */
+    public EpollAnonymousDirectChunkProvider(boolean hugePages, int sizeAlignment) {
+        super(sizeAlignment);
+        this.hugePages = hugePages;
+    }
+
+    @Override
+    protected ByteBuffer map(int size) throws IOException {
+        return Native.mmap(size, hugePages);
+    }
+
+    @Override
+    public String toString() {
+        return "EpollAnonymousDirectChunkProvider(hugePages: " + hugePages + ')';
+    }
+}
@@ -35,7 +35,7 @@ public class EpollChannelConfig extends DefaultChannelConfig {
 
     @Override
     public Map<ChannelOption<?>, Object> getOptions() {
-        return getOptions(super.getOptions(), EpollChannelOption.EPOLL_MODE);
+        return getOptions(super.getOptions(), EpollChannelOption.EPOLL_MODE, EpollChannelOption.SO_BUSY_POLL);
     }
 
     @SuppressWarnings("unchecked")
@@ -44,6 +44,9 @@ public class EpollChannelConfig extends DefaultChannelConfig {
         if (option == EpollChannelOption.EPOLL_MODE) {
             return (T) getEpollMode();
         }
+        if (option == EpollChannelOption.SO_BUSY_POLL) {
+            return (T) Integer.valueOf(getSoBusyPoll());
+        }
         return super.getOption(option);
     }
 
@@ -52,6 +55,8 @@ public class EpollChannelConfig extends DefaultChannelConfig {
         validate(option, value);
         if (option == EpollChannelOption.EPOLL_MODE) {
             setEpollMode((EpollMode) value);
+        } else if (option == EpollChannelOption.SO_BUSY_POLL) {
+            setSoBusyPoll((Integer) value);
         } else {
             return super.setOption(option, value);
         }
@@ -154,6 +159,27 @@ public class EpollChannelConfig extends DefaultChannelConfig {
         return this;
     }
 
+    /**
+     * Get the {@code SO_BUSY_POLL} option on the socket. See {@code man 7 socket} for more details.
+     */
+    public int getSoBusyPoll() {
+        return Native.getSoBusyPoll(channel.fd().intValue());
+    }
+
+    /**
+     * Set the {@code SO_BUSY_POLL} option on the socket, which is the number of microseconds a blocking receive
+     * busy polls the device queue of the network card. It is best combined with
+     * {@link EpollEventLoopGroup#setBusyPollMicros(int)}. Values above {@code net.core.busy_read} need
+     * {@code CAP_NET_ADMIN}. See {@code man 7 socket} for more details.
+     */
+    public EpollChannelConfig setSoBusyPoll(int busyPollMicros) {
+        if (busyPollMicros < 0) {
+            throw new IllegalArgumentException("busyPollMicros: " + busyPollMicros + " (expected: >= 0)");
+        }
+        Native.setSoBusyPoll(channel.fd().intValue(), busyPollMicros);
+        return this;
+    }
+
     private void checkChannelNotRegistered() {
         if (channel.isRegistered()) {
             throw new IllegalStateException("EpollMode can only be changed before channel is registered");
@@ -31,5 +31,11 @@ public final class EpollChannelOption {
             ChannelOption.valueOf(T, "DOMAIN_SOCKET_READ_MODE");
     public static final ChannelOption<EpollMode> EPOLL_MODE =
             ChannelOption.valueOf(T, "EPOLL_MODE");
+    public static final ChannelOption<Integer> SO_BUSY_POLL = ChannelOption.valueOf(T, "SO_BUSY_POLL");
+    public static final ChannelOption<Boolean> SO_ZEROCOPY = ChannelOption.valueOf(T, "SO_ZEROCOPY");
+    public static final ChannelOption<Integer> ZEROCOPY_THRESHOLD = ChannelOption.valueOf(T, "ZEROCOPY_THRESHOLD");
+    public static final ChannelOption<Integer> UDP_SEGMENT = ChannelOption.valueOf(T, "UDP_SEGMENT");
+    public static final ChannelOption<Boolean> UDP_GRO = ChannelOption.valueOf(T, "UDP_GRO");
+    public static final ChannelOption<Integer> RECVMMSG_BATCH_SIZE = ChannelOption.valueOf(T, "RECVMMSG_BATCH_SIZE");
     private EpollChannelOption() { }
 }
@@ -16,6 +16,7 @@
 package io.netty.channel.epoll;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.AddressedEnvelope;
 import io.netty.channel.ChannelFuture;
@@ -27,7 +28,6 @@ import io.netty.channel.ChannelPromise;
 import io.netty.channel.DefaultAddressedEnvelope;
 import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.socket.DatagramChannel;
-import io.netty.channel.socket.DatagramChannelConfig;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.channel.unix.FileDescriptor;
 import io.netty.util.internal.PlatformDependent;
@@ -57,6 +57,8 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
             StringUtil.simpleClassName(InetSocketAddress.class) + ">, " +
             StringUtil.simpleClassName(ByteBuf.class) + ')';
 
+    private static final ByteBuf[] EMPTY_BUFFERS = new ByteBuf[0];
+
     private volatile InetSocketAddress local;
     private volatile InetSocketAddress remote;
     private volatile boolean connected;
@@ -345,15 +347,23 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
     private boolean doWriteMessage(Object msg) throws Exception {
         final ByteBuf data;
         InetSocketAddress remoteAddress;
-        if (msg instanceof AddressedEnvelope) {
+        final int segmentSize;
+        if (msg instanceof SegmentedDatagramPacket) {
+            SegmentedDatagramPacket packet = (SegmentedDatagramPacket) msg;
+            data = packet.content();
+            remoteAddress = packet.recipient();
+            segmentSize = packet.segmentSize();
+        } else if (msg instanceof AddressedEnvelope) {
             @SuppressWarnings("unchecked")
             AddressedEnvelope<ByteBuf, InetSocketAddress> envelope =
                     (AddressedEnvelope<ByteBuf, InetSocketAddress>) msg;
             data = envelope.content();
             remoteAddress = envelope.recipient();
+            segmentSize = 0;
         } else {
             data = (ByteBuf) msg;
             remoteAddress = null;
+            segmentSize = 0;
         }
 
         final int dataLen = data.readableBytes();
@@ -369,7 +379,11 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
         }
 
         final int writtenBytes;
-        if (data.hasMemoryAddress()) {
+        if (segmentSize > 0) {
+            // filterOutboundMessage(...) made sure we have a memory address.
+            writtenBytes = Native.sendToAddressSegmented(fd().intValue(), data.memoryAddress(), data.readerIndex(),
+                    data.writerIndex(), remoteAddress.getAddress(), remoteAddress.getPort(), segmentSize);
+        } else if (data.hasMemoryAddress()) {
             long memoryAddress = data.memoryAddress();
             writtenBytes = Native.sendToAddress(fd().intValue(), memoryAddress, data.readerIndex(), data.writerIndex(),
                     remoteAddress.getAddress(), remoteAddress.getPort());
@@ -391,6 +405,23 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
 
     @Override
     protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof SegmentedDatagramPacket) {
+            SegmentedDatagramPacket packet = (SegmentedDatagramPacket) msg;
+            ByteBuf content = packet.content();
+            if (content.hasMemoryAddress()) {
+                return msg;
+            }
+            if (!PlatformDependent.hasUnsafe()) {
+                // Without sun.misc.Unsafe not even a copy has a memory address, and sending the content as one
+                // datagram would silently change what is received.
+                throw new UnsupportedOperationException(
+                        "SegmentedDatagramPacket requires sun.misc.Unsafe to obtain the memory address");
+            }
+            // The segmentation offload is only supported for buffers with a memory address so we need to copy.
+            return new SegmentedDatagramPacket(
+                    newDirectBuffer(packet, content), packet.segmentSize(), packet.recipient());
+        }
+
         if (msg instanceof DatagramPacket) {
             DatagramPacket packet = (DatagramPacket) msg;
             ByteBuf content = packet.content();
@@ -475,6 +506,7 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
     final class EpollDatagramChannelUnsafe extends AbstractEpollUnsafe {
 
         private final List<Object> readBuf = new ArrayList<Object>();
+        private ByteBuf[] recvBuffers = EMPTY_BUFFERS;
 
         @Override
         public void connect(SocketAddress remote, SocketAddress local, ChannelPromise channelPromise) {
@@ -514,8 +546,8 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
         @Override
         void epollInReady() {
             assert eventLoop().inEventLoop();
-            DatagramChannelConfig config = config();
-    boolean edgeTriggered = isFlagSet(Native.EPOLLET);
+            EpollDatagramChannelConfig config = config();
+            boolean edgeTriggered = isFlagSet(Native.EPOLLET);
 
             if (!readPending && !edgeTriggered && !config.isAutoRead()) {
                 // ChannelConfig.setAutoRead(false) was called in the meantime
@@ -531,21 +563,49 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
                 // if edgeTriggered is used we need to read all messages as we are not notified again otherwise.
                 final int maxMessagesPerRead = edgeTriggered
                         ? Integer.MAX_VALUE : config.getMaxMessagesPerRead();
+                final boolean udpGro = config.isUdpGro();
+                // recvmmsg(...) does not return the segment size of coalesced datagrams so only use it without GRO.
+                final int batchSize = Native.IS_SUPPORTING_RECVMMSG && !udpGro ? config.getRecvmmsgBatchSize() : 1;
                 int messages = 0;
                 do {
                     ByteBuf data = null;
                     try {
                         data = allocHandle.allocate(config.getAllocator());
+                        if (batchSize > 1 && data.hasMemoryAddress()) {
+                            NativeDatagramPacketArray array = NativeDatagramPacketArray.getInstance();
+                            // Otherwise just receive a single datagram below.
+                            if (array.addWritable(data)) {
+                                ByteBuf first = data;
+                                data = null;
+                                int received = recvmmsg(array, first, allocHandle, config.getAllocator(),
+                                                        Math.min(batchSize, maxMessagesPerRead - messages));
+                                if (received == 0) {
+                                    break;
+                                }
+                                messages += received - 1;
+                                continue;
+                            }
+                        }
                         int writerIndex = data.writerIndex();
                         DatagramSocketAddress remoteAddress;
                         if (data.hasMemoryAddress()) {
                             // has a memory address so use optimized call
-                            remoteAddress = Native.recvFromAddress(
-                                    fd().intValue(), data.memoryAddress(), writerIndex, data.capacity());
+                            if (udpGro) {
+                                remoteAddress = Native.recvFromAddressGro(
+                                        fd().intValue(), data.memoryAddress(), writerIndex, data.capacity());
+                            } else {
+                                remoteAddress = Native.recvFromAddress(
+                                        fd().intValue(), data.memoryAddress(), writerIndex, data.capacity());
+                            }
                         } else {
                             ByteBuffer nioData = data.internalNioBuffer(writerIndex, data.writableBytes());
-                            remoteAddress = Native.recvFrom(
-                                    fd().intValue(), nioData, nioData.position(), nioData.limit());
+                            if (udpGro) {
+                                remoteAddress = Native.recvFromGro(
+                                        fd().intValue(), nioData, nioData.position(), nioData.limit());
+                            } else {
+                                remoteAddress = Native.recvFrom(
+                                        fd().intValue(), nioData, nioData.position(), nioData.limit());
+                            }
                         }
 
                         if (remoteAddress == null) {
@@ -557,8 +617,16 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
                         allocHandle.record(readBytes);
                         readPending = false;
 
-                        readBuf.add(new DatagramPacket(data, (InetSocketAddress) localAddress(), remoteAddress));
-                        data = null;
+                        int segmentSize = remoteAddress.segmentSize;
+                        if (segmentSize > 0 && readBytes > segmentSize) {
+                            // The kernel coalesced multiple datagrams, split them again.
+                            ByteBuf coalesced = data;
+                            data = null;
+                            addSegments(coalesced, segmentSize, (InetSocketAddress) localAddress(), remoteAddress);
+                        } else {
+                            readBuf.add(new DatagramPacket(data, (InetSocketAddress) localAddress(), remoteAddress));
+                            data = null;
+                        }
                     } catch (Throwable t) {
                         // We do not break from the loop here and remember the last exception,
                         // because we need to consume everything from the socket used with epoll ET.
@@ -599,6 +667,77 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
                 }
             }
         }
+
+        /**
+         * Add a {@link DatagramPacket} for each datagram of {@code segmentSize} bytes which was coalesced into
+         * {@code data} by UDP_GRO. The last one may be smaller. {@code data} is released by this method.
+         */
+        private void addSegments(ByteBuf data, int segmentSize, InetSocketAddress localAddress,
+                                 InetSocketAddress remoteAddress) {
+            try {
+                while (data.isReadable()) {
+                    ByteBuf segment = data.readSlice(Math.min(segmentSize, data.readableBytes())).retain();
+                    readBuf.add(new DatagramPacket(segment, localAddress, remoteAddress));
+                }
+            } finally {
+                data.release();
+            }
+        }
+
+        /**
+         * Receive up to {@code batchSize} datagrams with one recvmmsg(...) call. The first datagram is received into
+         * {@code first}, which was added to the given {@link NativeDatagramPacketArray} already. The others are
+         * received into buffers which are allocated via the given {@link RecvByteBufAllocator.Handle}. All buffers
+         * which were not filled are released.
+         *
+         * @return the number of received datagrams.
+         */
+        private int recvmmsg(NativeDatagramPacketArray array, ByteBuf first, RecvByteBufAllocator.Handle allocHandle,
+                             ByteBufAllocator allocator, int batchSize) throws IOException {
+            ByteBuf[] buffers = recvBuffers;
+            if (buffers.length < batchSize) {
+                buffers = recvBuffers = new ByteBuf[batchSize];
+            }
+            buffers[0] = first;
+            int count = 1;
+            try {
+                while (count < batchSize) {
+                    ByteBuf buf = allocHandle.allocate(allocator);
+                    // buffers[i] must always be the target of packets()[i], so stop at the first one we can not add.
+                    if (!buf.hasMemoryAddress() || !array.addWritable(buf)) {
+                        buf.release();
+                        break;
+                    }
+                    buffers[count++] = buf;
+                }
+                int received = Native.recvmmsg(fd().intValue(), array.packets(), 0, array.count());
+                if (received == 0) {
+                    return 0;
+                }
+                InetSocketAddress localAddress = (InetSocketAddress) localAddress();
+                for (int i = 0; i < received; i++) {
+                    ByteBuf data = buffers[i];
+                    buffers[i] = null;
+
+                    DatagramSocketAddress remoteAddress = array.sender(i);
+                    int readBytes = remoteAddress.receivedAmount;
+                    data.writerIndex(data.writerIndex() + readBytes);
+                    allocHandle.record(readBytes);
+
+                    readBuf.add(new DatagramPacket(data, localAddress, remoteAddress));
+                }
+                readPending = false;
+                return received;
+            } finally {
+                for (int i = 0; i < count; i++) {
+                    ByteBuf buf = buffers[i];
+                    if (buf != null) {
+                        buf.release();
+                        buffers[i] = null;
+                    }
+                }
+            }
+        }
     }
 
     /**
@@ -612,9 +751,13 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
         // holds the amount of received bytes
         final int receivedAmount;
 
-        DatagramSocketAddress(String addr, int port, int receivedAmount) {
+        // holds the size of each coalesced datagram when UDP_GRO is used or 0 if nothing was coalesced
+        final int segmentSize;
+
+        DatagramSocketAddress(String addr, int port, int receivedAmount, int segmentSize) {
             super(addr, port);
             this.receivedAmount = receivedAmount;
+            this.segmentSize = segmentSize;
         }
     }
 }
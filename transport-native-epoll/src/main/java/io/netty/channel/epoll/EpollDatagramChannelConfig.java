@@ -30,6 +30,9 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
     private static final RecvByteBufAllocator DEFAULT_RCVBUF_ALLOCATOR = new FixedRecvByteBufAllocator(2048);
     private final EpollDatagramChannel datagramChannel;
     private boolean activeOnOpen;
+    private volatile int recvmmsgBatchSize = 1;
+    private volatile int udpSegment;
+    private volatile boolean udpGro;
 
     EpollDatagramChannelConfig(EpollDatagramChannel channel) {
         super(channel);
@@ -46,7 +49,8 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
                 ChannelOption.SO_REUSEADDR, ChannelOption.IP_MULTICAST_LOOP_DISABLED,
                 ChannelOption.IP_MULTICAST_ADDR, ChannelOption.IP_MULTICAST_IF, ChannelOption.IP_MULTICAST_TTL,
                 ChannelOption.IP_TOS, ChannelOption.DATAGRAM_CHANNEL_ACTIVE_ON_REGISTRATION,
-                EpollChannelOption.SO_REUSEPORT);
+                EpollChannelOption.SO_REUSEPORT, EpollChannelOption.RECVMMSG_BATCH_SIZE,
+                EpollChannelOption.UDP_SEGMENT, EpollChannelOption.UDP_GRO);
     }
 
     @SuppressWarnings({ "unchecked", "deprecation" })
@@ -85,6 +89,15 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
         if (option == EpollChannelOption.SO_REUSEPORT) {
             return (T) Boolean.valueOf(isReusePort());
         }
+        if (option == EpollChannelOption.RECVMMSG_BATCH_SIZE) {
+            return (T) Integer.valueOf(getRecvmmsgBatchSize());
+        }
+        if (option == EpollChannelOption.UDP_SEGMENT) {
+            return (T) Integer.valueOf(getUdpSegment());
+        }
+        if (option == EpollChannelOption.UDP_GRO) {
+            return (T) Boolean.valueOf(isUdpGro());
+        }
         return super.getOption(option);
     }
 
@@ -115,6 +128,12 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
             setActiveOnOpen((Boolean) value);
         } else if (option == EpollChannelOption.SO_REUSEPORT) {
             setReusePort((Boolean) value);
+        } else if (option == EpollChannelOption.RECVMMSG_BATCH_SIZE) {
+            setRecvmmsgBatchSize((Integer) value);
+        } else if (option == EpollChannelOption.UDP_SEGMENT) {
+            setUdpSegment((Integer) value);
+        } else if (option == EpollChannelOption.UDP_GRO) {
+            setUdpGro((Boolean) value);
         } else {
             return super.setOption(option, value);
         }
@@ -302,4 +321,74 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
         Native.setReusePort(datagramChannel.fd().intValue(), reusePort ? 1 : 0);
         return this;
     }
+
+    /**
+     * Returns the maximum number of datagrams which are received with one recvmmsg(...) call.
+     */
+    public int getRecvmmsgBatchSize() {
+        return recvmmsgBatchSize;
+    }
+
+    /**
+     * Set the maximum number of datagrams which are received with one recvmmsg(...) call. Each datagram is received
+     * into its own buffer of the configured {@link RecvByteBufAllocator}, which must allocate buffers that have a
+     * memory address. A value of {@code 1} (the default) disables the use of recvmmsg(...).
+     *
+     * This is only used if {@link Native#IS_SUPPORTING_RECVMMSG} is {@code true}.
+     */
+    public EpollDatagramChannelConfig setRecvmmsgBatchSize(int recvmmsgBatchSize) {
+        if (recvmmsgBatchSize < 1 || recvmmsgBatchSize > Native.UIO_MAX_IOV) {
+            throw new IllegalArgumentException(
+                    "recvmmsgBatchSize: " + recvmmsgBatchSize + " (expected: 1-" + Native.UIO_MAX_IOV + ')');
+        }
+        this.recvmmsgBatchSize = recvmmsgBatchSize;
+        return this;
+    }
+
+    /**
+     * Returns the size of the datagrams the kernel splits every larger write into, or {@code 0} if the UDP_SEGMENT
+     * option is not set.
+     */
+    public int getUdpSegment() {
+        return udpSegment;
+    }
+
+    /**
+     * Set the UDP_SEGMENT option (linux 4.18+) on the underlying Channel. Every write which is larger than
+     * {@code udpSegment} bytes is split into datagrams of {@code udpSegment} bytes by the kernel (or the network
+     * card), so many datagrams can be sent with one syscall. Use {@code 0} to disable it.
+     *
+     * To only segment some writes use {@link SegmentedDatagramPacket}.
+     */
+    public EpollDatagramChannelConfig setUdpSegment(int udpSegment) {
+        if (udpSegment < 0 || udpSegment > 0xFFFF) {
+            throw new IllegalArgumentException("udpSegment: " + udpSegment + " (expected: 0-65535)");
+        }
+        Native.setUdpSegment(datagramChannel.fd().intValue(), udpSegment);
+        this.udpSegment = udpSegment;
+        return this;
+    }
+
+    /**
+     * Returns {@code true} if the UDP_GRO option is set.
+     */
+    public boolean isUdpGro() {
+        return udpGro;
+    }
+
+    /**
+     * Set the UDP_GRO option (linux 5.0+) on the underlying Channel. If set the kernel may coalesce multiple
+     * datagrams of the same sender into one read, which are split into one
+     * {@link io.netty.channel.socket.DatagramPacket} per datagram again before they are passed through the
+     * {@link io.netty.channel.ChannelPipeline}.
+     *
+     * The {@link RecvByteBufAllocator} should allocate buffers which are big enough to hold multiple datagrams
+     * (up to 65535 bytes), as coalesced datagrams which do not fit into the buffer are truncated.
+     * recvmmsg(...) (see {@link #setRecvmmsgBatchSize(int)}) is not used while this option is set.
+     */
+    public EpollDatagramChannelConfig setUdpGro(boolean udpGro) {
+        Native.setUdpGro(datagramChannel.fd().intValue(), udpGro ? 1 : 0);
+        this.udpGro = udpGro;
+        return this;
+    }
 }
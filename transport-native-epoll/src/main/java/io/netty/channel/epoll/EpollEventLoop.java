@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Queue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
@@ -52,12 +53,14 @@ final class EpollEventLoop extends SingleThreadEventLoop {
     private final int epollFd;
     private final int eventFd;
     private final IntObjectMap<AbstractEpollChannel> channels = new IntObjectHashMap<AbstractEpollChannel>(4096);
+    private final IntObjectMap<EpollFdHandler> fdHandlers = new IntObjectHashMap<EpollFdHandler>();
     private final boolean allowGrowing;
     private final EpollEventArray events;
 
     @SuppressWarnings("unused")
     private volatile int wakenUp;
     private volatile int ioRatio = 50;
+    private volatile long busyPollNanos;
 
     EpollEventLoop(EventLoopGroup parent, Executor executor, int maxEvents) {
         super(parent, executor, false);
@@ -142,10 +145,31 @@ final class EpollEventLoop extends SingleThreadEventLoop {
         }
     }
 
+    /**
+     * Register the given {@link EpollFdHandler} with this {@link EventLoop}.
+     */
+    void add(EpollFdHandler handler) throws IOException {
+        assert inEventLoop();
+        int fd = handler.fd();
+        Native.epollCtlAdd(epollFd, fd, Native.EPOLLIN);
+        fdHandlers.put(fd, handler);
+    }
+
+    /**
+     * Deregister the given {@link EpollFdHandler} from this {@link EventLoop}.
+     */
+    void remove(EpollFdHandler handler) throws IOException {
+        assert inEventLoop();
+        int fd = handler.fd();
+        if (fdHandlers.remove(fd) != null) {
+            Native.epollCtlDel(epollFd, fd);
+        }
+    }
+
     @Override
     protected Queue<Runnable> newTaskQueue() {
         // This event loop never calls takeTask()
-        return PlatformDependent.newMpscQueue();
+        return PlatformDependent.newChunkedMpscQueue();
     }
 
     /**
@@ -166,6 +190,52 @@ final class EpollEventLoop extends SingleThreadEventLoop {
         this.ioRatio = ioRatio;
     }
 
+    /**
+     * Returns the number of microseconds the event loop spins on the ready file descriptors and the task queue before
+     * it blocks. {@code 0} means busy polling is disabled.
+     */
+    public int getBusyPollMicros() {
+        return (int) TimeUnit.NANOSECONDS.toMicros(busyPollNanos);
+    }
+
+    /**
+     * Sets the number of microseconds the event loop spins on the ready file descriptors and the task queue before
+     * it blocks in {@code epoll_wait}. While spinning no wake-up via the eventfd is needed, which reduces the latency
+     * of both I/O and tasks submitted from other threads at the cost of burning CPU. The default value is {@code 0},
+     * which disables busy polling.
+     */
+    public void setBusyPollMicros(int busyPollMicros) {
+        if (busyPollMicros < 0) {
+            throw new IllegalArgumentException("busyPollMicros: " + busyPollMicros + " (expected: >= 0)");
+        }
+        busyPollNanos = TimeUnit.MICROSECONDS.toNanos(busyPollMicros);
+    }
+
+    /**
+     * Spin on {@code epoll_wait} with a timeout of {@code 0} and on the task queue for at most
+     * {@code busyPollNanos}. Returns the number of ready file descriptors or {@code -1} if nothing is ready and no
+     * task is pending after spinning, in which case the caller should block.
+     */
+    private int busyPoll(long busyPollNanos) throws IOException {
+        // Mark this EventLoop as waken up while spinning, so wakeup(...) does not write to the eventfd as we check
+        // the task queue on every iteration anyway.
+        WAKEN_UP_UPDATER.set(this, 1);
+        try {
+            final long deadlineNanos = System.nanoTime() + busyPollNanos;
+            do {
+                int ready = Native.epollWait(epollFd, events, 0);
+                if (ready != 0 || hasTasks() || hasScheduledTasks() || isShuttingDown()) {
+                    return ready;
+                }
+            } while (System.nanoTime() - deadlineNanos < 0);
+        } finally {
+            WAKEN_UP_UPDATER.set(this, 0);
+        }
+        // A task may have been added (or a shutdown requested) after the last check but before wakenUp was reset, in
+        // which case nobody wrote to the eventfd. So check again before blocking.
+        return hasTasks() || isShuttingDown() ? Native.epollWait(epollFd, events, 0) : -1;
+    }
+
     private int epollWait(boolean oldWakenUp) throws IOException {
         int selectCnt = 0;
         long currentTimeNanos = System.nanoTime();
@@ -206,6 +276,10 @@ final class EpollEventLoop extends SingleThreadEventLoop {
                 // Non blocking just return what is ready directly without block
                 ready = Native.epollWait(epollFd, events, 0);
             } else {
+                final long busyPollNanos = this.busyPollNanos;
+                ready = busyPollNanos > 0 ? busyPoll(busyPollNanos) : -1;
+            }
+            if (ready == -1) {
                 ready = epollWait(oldWakenUp);
 
                 // 'wakenUp.compareAndSet(false, true)' is always evaluated
@@ -241,20 +315,19 @@ final class EpollEventLoop extends SingleThreadEventLoop {
                 }
             }
 
+            final long ioStartTime = System.nanoTime();
+
+            if (ready > 0) {
+                processReady(events, ready);
+            }
+
+            final long ioTime = System.nanoTime() - ioStartTime;
+            recordIoTime(ioTime);
+
             final int ioRatio = this.ioRatio;
             if (ioRatio == 100) {
-                if (ready > 0) {
-                    processReady(events, ready);
-                }
                 runAllTasks();
             } else {
-                final long ioStartTime = System.nanoTime();
-
-                if (ready > 0) {
-                    processReady(events, ready);
-                }
-
-                final long ioTime = System.nanoTime() - ioStartTime;
                 runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
             }
             if (allowGrowing && ready == events.length()) {
@@ -306,6 +379,7 @@ final class EpollEventLoop extends SingleThreadEventLoop {
             if (fd == eventFd) {
                 // consume wakeup event
                 Native.eventFdRead(eventFd);
+                recordWakeup();
             } else {
                 final long ev = events.events(i);
 
@@ -320,6 +394,12 @@ final class EpollEventLoop extends SingleThreadEventLoop {
                     // Check if an error was the cause of the wakeup.
                     boolean err = (ev & Native.EPOLLERR) != 0;
 
+                    // The error queue may hold MSG_ZEROCOPY completions, so give the Channel a chance to drain it
+                    // before it is notified about the error.
+                    if (err && ch.isOpen()) {
+                        unsafe.epollErrReady();
+                    }
+
                     // First check for EPOLLOUT as we may need to fail the connect ChannelPromise before try
                     // to read from the file descriptor.
                     // See https://github.com/netty/netty/issues/3785
@@ -348,14 +428,25 @@ final class EpollEventLoop extends SingleThreadEventLoop {
                         unsafe.epollInReady();
                     }
                 } else {
-                    // We received an event for an fd which we not use anymore. Remove it from the epoll_event set.
-                    try {
-                        Native.epollCtlDel(epollFd, fd);
-                    } catch (IOException ignore) {
-                        // This can happen but is nothing we need to worry about as we only try to delete
-                        // the fd from the epoll set as we not found it in our mappings. So this call to
-                        // epollCtlDel(...) is just to ensure we cleanup stuff and so may fail if it was
-                        // deleted before or the file descriptor was closed before.
+                    EpollFdHandler handler = fdHandlers.get(fd);
+                    if (handler != null) {
+                        try {
+                            handler.epollInReady();
+                        } catch (Throwable t) {
+                            logger.warn("An exception was thrown by " + handler.getClass().getName() +
+                                    ".epollInReady()", t);
+                        }
+                    } else {
+                        // We received an event for an fd which we not use anymore. Remove it from the epoll_event
+                        // set.
+                        try {
+                            Native.epollCtlDel(epollFd, fd);
+                        } catch (IOException ignore) {
+                            // This can happen but is nothing we need to worry about as we only try to delete
+                            // the fd from the epoll set as we not found it in our mappings. So this call to
+                            // epollCtlDel(...) is just to ensure we cleanup stuff and so may fail if it was
+                            // deleted before or the file descriptor was closed before.
+                        }
                     }
                 }
             }
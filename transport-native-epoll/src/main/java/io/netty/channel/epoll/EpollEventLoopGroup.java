@@ -19,6 +19,7 @@ import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.MultithreadEventLoopGroup;
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory;
 import io.netty.util.concurrent.ExecutorServiceFactory;
 
 import java.util.concurrent.Executor;
@@ -85,6 +86,40 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
         this(nEventLoops, executorServiceFactory, 0);
     }
 
+    /**
+     * @param nEventLoops   the number of {@link EventLoop}s that will be used by this instance.
+     *                      If {@code executor} is {@code null} this number will also be the parallelism
+     *                      requested from the default {@link Executor}. It is generally advised for the number
+     *                      of {@link EventLoop}s and the number of {@link Thread}s used by the
+     *                      {@code executor} to lie close together.
+     *                      If set to {@code 0} the behaviour is the same as documented in
+     *                      {@link #EpollEventLoopGroup()}.
+     * @param executor  the {@link Executor} to use, or {@code null} if the default should be used.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} which selects the {@link EventLoop} a new
+     *                          {@link io.netty.channel.Channel} is registered with.
+     */
+    public EpollEventLoopGroup(int nEventLoops, Executor executor, EventExecutorChooserFactory chooserFactory) {
+        super(nEventLoops, executor, chooserFactory, 0);
+    }
+
+    /**
+     * @param nEventLoops   the number of {@link EventLoop}s that will be used by this instance.
+     *                      If {@code executorServiceFactory} is {@code null} this number will also be the parallelism
+     *                      requested from the default {@link Executor}. It is generally advised for the number
+     *                      of {@link EventLoop}s and the number of {@link Thread}s used by the
+     *                      {@code executorServiceFactory} to lie close together.
+     *                      If set to {@code 0} the behaviour is the same as documented in
+     *                      {@link #EpollEventLoopGroup()}.
+     * @param executorServiceFactory   the {@link ExecutorServiceFactory} to use, or {@code null} if the
+     *                                 default should be used.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} which selects the {@link EventLoop} a new
+     *                          {@link io.netty.channel.Channel} is registered with.
+     */
+    public EpollEventLoopGroup(int nEventLoops, ExecutorServiceFactory executorServiceFactory,
+                               EventExecutorChooserFactory chooserFactory) {
+        super(nEventLoops, executorServiceFactory, chooserFactory, 0);
+    }
+
     /**
      * @param nEventLoops   the number of {@link EventLoop}s that will be used by this instance.
      *                      If {@code executor} is {@code null} this number will also be the parallelism
@@ -134,6 +169,16 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
         }
     }
 
+    /**
+     * Sets the number of microseconds the child event loops spin before they block, see
+     * {@link EpollEventLoop#setBusyPollMicros(int)}. The default value is {@code 0}, which disables busy polling.
+     */
+    public void setBusyPollMicros(int busyPollMicros) {
+        for (EventExecutor e: children()) {
+            ((EpollEventLoop) e).setBusyPollMicros(busyPollMicros);
+        }
+    }
+
     @Override
     protected EventLoop newChild(Executor executor, Object... args) throws Exception {
         return new EpollEventLoop(this, executor, (Integer) args[0]);
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.internal.OneTimeTask;
+
+import java.io.IOException;
+
+/**
+ * Handler for a file descriptor which is not backed by a {@link io.netty.channel.Channel} but still needs to be
+ * notified by an epoll based {@link EventLoop} once it becomes readable (for example an eventfd used by libaio).
+ *
+ * The file descriptor is registered level-triggered, so {@link #epollInReady()} must consume whatever made it
+ * readable, or it will be called again on the next round of the {@link EventLoop}.
+ *
+ * <strong>Internal usage only!</strong>
+ */
+public abstract class EpollFdHandler {
+    private final int fd;
+    private volatile EpollEventLoop eventLoop;
+
+    protected EpollFdHandler(int fd) {
+        if (fd < 0) {
+            throw new IllegalArgumentException("fd must be >= 0");
+        }
+        this.fd = fd;
+    }
+
+    /**
+     * Return the file descriptor handled by this instance.
+     */
+    public final int fd() {
+        return fd;
+    }
+
+    /**
+     * Return the {@link EventLoop} this handler is registered with or {@code null} if it is not registered.
+     */
+    public final EventLoop eventLoop() {
+        return eventLoop;
+    }
+
+    /**
+     * Register this handler with the given {@link EventLoop}, which must be an epoll based {@link EventLoop}.
+     * The returned {@link Future} is notified once the file descriptor was added to the epoll set.
+     */
+    public final Future<Void> register(EventLoop eventLoop) {
+        if (eventLoop == null) {
+            throw new NullPointerException("eventLoop");
+        }
+        final EventLoop unwrapped = eventLoop.unwrap();
+        if (!(unwrapped instanceof EpollEventLoop)) {
+            throw new IllegalArgumentException("incompatible event loop type: " + eventLoop.getClass().getName());
+        }
+        if (this.eventLoop != null) {
+            throw new IllegalStateException("registered to an event loop already");
+        }
+        final EpollEventLoop loop = (EpollEventLoop) unwrapped;
+        this.eventLoop = loop;
+
+        final Promise<Void> promise = loop.newPromise();
+        if (loop.inEventLoop()) {
+            register0(loop, promise);
+        } else {
+            loop.execute(new OneTimeTask() {
+                @Override
+                public void run() {
+                    register0(loop, promise);
+                }
+            });
+        }
+        return promise;
+    }
+
+    private void register0(EpollEventLoop loop, Promise<Void> promise) {
+        try {
+            loop.add(this);
+            promise.setSuccess(null);
+        } catch (IOException e) {
+            eventLoop = null;
+            promise.setFailure(e);
+        }
+    }
+
+    /**
+     * Deregister this handler from the {@link EventLoop} it was registered with. The returned {@link Future} is
+     * notified once the file descriptor was removed from the epoll set.
+     */
+    public final Future<Void> deregister() {
+        final EpollEventLoop loop = eventLoop;
+        if (loop == null) {
+            throw new IllegalStateException("not registered to an event loop");
+        }
+        final Promise<Void> promise = loop.newPromise();
+        if (loop.inEventLoop()) {
+            deregister0(loop, promise);
+        } else {
+            loop.execute(new OneTimeTask() {
+                @Override
+                public void run() {
+                    deregister0(loop, promise);
+                }
+            });
+        }
+        return promise;
+    }
+
+    private void deregister0(EpollEventLoop loop, Promise<Void> promise) {
+        try {
+            loop.remove(this);
+            promise.setSuccess(null);
+        } catch (IOException e) {
+            promise.setFailure(e);
+        } finally {
+            eventLoop = null;
+        }
+    }
+
+    /**
+     * Called by the {@link EventLoop} once the file descriptor is readable.
+     */
+    protected abstract void epollInReady();
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.DirectChunkProvider;
+import io.netty.buffer.MappedFileDirectChunkProvider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DirectChunkProvider} which backs every chunk with a shared memory mapping of a new anonymous file created
+ * via {@code memfd_create} (Linux 3.17 or later). If enabled, the files are backed by huge pages of the
+ * {@code hugetlb} pool (Linux 4.14 or later), like the chunks of a {@link MappedFileDirectChunkProvider} on a
+ * {@code hugetlbfs} mount but without the need to mount one. The huge pages need to be reserved up front (e.g. via
+ * {@code /proc/sys/vm/nr_hugepages}), otherwise allocating a chunk fails.
+ * <p>
+ * The file descriptor is closed right after the file was mapped, so the memory is returned to the system as soon as
+ * the chunk is freed.
+ */
+public final class EpollMemfdDirectChunkProvider extends AbstractEpollDirectChunkProvider {
+
+    private final boolean hugeTlb;
+
+    /**
+     * Creates a new instance which uses huge pages of the {@code hugetlb} pool and rounds the size of every chunk up
+     * to a multiple of {@link #DEFAULT_SIZE_ALIGNMENT}.
+     */
+    public EpollMemfdDirectChunkProvider() {
+        this(true, DEFAULT_SIZE_ALIGNMENT);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param hugeTlb       {@code true} if the chunks should be backed by huge pages of the {@code hugetlb} pool
+     * @param sizeAlignment the size of every chunk is rounded up to a multiple of this value, which must be a power of
+     *                      two. If {@code hugeTlb} is {@code true} it must be a multiple of the huge page size.
+     */
+    public EpollMemfdDirectChunkProvider(boolean hugeTlb, int sizeAlignment) {
+        super(sizeAlignment);
+        this.hugeTlb = hugeTlb;
+    }
+
+    @Override
+    protected ByteBuffer map(int size) throws IOException {
+        return Native.mmapMemfd(size, hugeTlb);
+    }
+
+    @Override
+    public String toString() {
+        return "EpollMemfdDirectChunkProvider(hugeTlb: " + hugeTlb + ')';
+    }
+}
@@ -194,6 +194,12 @@ public final class EpollSocketChannel extends AbstractEpollStreamChannel impleme
         return connected;
     }
 
+    @Override
+    int zeroCopyThreshold() {
+        EpollSocketChannelConfig config = this.config;
+        return config.isZeroCopy() ? config.getZeroCopyThreshold() : -1;
+    }
+
     private final class EpollSocketChannelUnsafe extends EpollStreamUnsafe {
         @Override
         protected Executor closeExecutor() {
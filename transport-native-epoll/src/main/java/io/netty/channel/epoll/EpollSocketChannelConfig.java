@@ -28,8 +28,13 @@ import static io.netty.channel.ChannelOption.*;
 
 public final class EpollSocketChannelConfig extends EpollChannelConfig implements SocketChannelConfig {
     private static final long MAX_UINT32_T = 0xFFFFFFFFL;
+    // MSG_ZEROCOPY is only worth it for writes bigger than ~10KB, see the linux msg_zerocopy documentation.
+    private static final int DEFAULT_ZEROCOPY_THRESHOLD = 16 * 1024;
+
     private final EpollSocketChannel channel;
     private volatile boolean allowHalfClosure;
+    private volatile boolean zeroCopy;
+    private volatile int zeroCopyThreshold = DEFAULT_ZEROCOPY_THRESHOLD;
 
     /**
      * Creates a new instance.
@@ -49,7 +54,8 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
                 super.getOptions(),
                 SO_RCVBUF, SO_SNDBUF, TCP_NODELAY, SO_KEEPALIVE, SO_REUSEADDR, SO_LINGER, IP_TOS,
                 ALLOW_HALF_CLOSURE, EpollChannelOption.TCP_CORK, EpollChannelOption.TCP_NOTSENT_LOWAT,
-                EpollChannelOption.TCP_KEEPCNT, EpollChannelOption.TCP_KEEPIDLE, EpollChannelOption.TCP_KEEPINTVL);
+                EpollChannelOption.TCP_KEEPCNT, EpollChannelOption.TCP_KEEPIDLE, EpollChannelOption.TCP_KEEPINTVL,
+                EpollChannelOption.SO_ZEROCOPY, EpollChannelOption.ZEROCOPY_THRESHOLD);
     }
 
     @SuppressWarnings("unchecked")
@@ -94,6 +100,12 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
         if (option == EpollChannelOption.TCP_KEEPCNT) {
             return (T) Integer.valueOf(getTcpKeepCnt());
         }
+        if (option == EpollChannelOption.SO_ZEROCOPY) {
+            return (T) Boolean.valueOf(isZeroCopy());
+        }
+        if (option == EpollChannelOption.ZEROCOPY_THRESHOLD) {
+            return (T) Integer.valueOf(getZeroCopyThreshold());
+        }
         return super.getOption(option);
     }
 
@@ -127,6 +139,10 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
             setTcpKeepCntl((Integer) value);
         } else if (option == EpollChannelOption.TCP_KEEPINTVL) {
             setTcpKeepIntvl((Integer) value);
+        } else if (option == EpollChannelOption.SO_ZEROCOPY) {
+            setZeroCopy((Boolean) value);
+        } else if (option == EpollChannelOption.ZEROCOPY_THRESHOLD) {
+            setZeroCopyThreshold((Integer) value);
         } else {
             return super.setOption(option, value);
         }
@@ -297,6 +313,45 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
         return this;
     }
 
+    /**
+     * Returns {@code true} if buffers which hold at least {@link #getZeroCopyThreshold()} bytes are written with
+     * MSG_ZEROCOPY.
+     */
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
+    /**
+     * Set the {@code SO_ZEROCOPY} option on the socket (linux 4.14+) and write buffers which hold at least
+     * {@link #getZeroCopyThreshold()} bytes with MSG_ZEROCOPY, so the kernel sends directly from their memory instead
+     * of copying it. Such buffers are only released once the kernel signals that it does not need their memory
+     * anymore, so they must not be modified after they were written. See {@code man 7 socket} for more details.
+     */
+    public EpollSocketChannelConfig setZeroCopy(boolean zeroCopy) {
+        Native.setZeroCopy(channel.fd().intValue(), zeroCopy ? 1 : 0);
+        this.zeroCopy = zeroCopy;
+        return this;
+    }
+
+    /**
+     * Returns the minimal number of bytes a buffer must hold to be written with MSG_ZEROCOPY.
+     */
+    public int getZeroCopyThreshold() {
+        return zeroCopyThreshold;
+    }
+
+    /**
+     * Set the minimal number of bytes a buffer must hold to be written with MSG_ZEROCOPY if {@link #isZeroCopy()}
+     * is {@code true}. Smaller buffers are copied as usual, which is cheaper than pinning their memory.
+     */
+    public EpollSocketChannelConfig setZeroCopyThreshold(int zeroCopyThreshold) {
+        if (zeroCopyThreshold < 0) {
+            throw new IllegalArgumentException("zeroCopyThreshold: " + zeroCopyThreshold + " (expected: >= 0)");
+        }
+        this.zeroCopyThreshold = zeroCopyThreshold;
+        return this;
+    }
+
     @Override
     public boolean isAllowHalfClosure() {
         return allowHalfClosure;
@@ -92,6 +92,18 @@ final class IovArray implements MessageProcessor {
         return add(addr, offset, len);
     }
 
+    /**
+     * Try to add the writable bytes of the given {@link ByteBuf}, which is used for scattering reads. Returns
+     * {@code true} on success, {@code false} otherwise.
+     */
+    boolean addWritable(ByteBuf buf) {
+        if (count == Native.IOV_MAX) {
+            // No more room!
+            return false;
+        }
+        return add(buf.memoryAddress(), buf.writerIndex(), buf.writableBytes());
+    }
+
     private boolean add(long addr, int offset, int len) {
         if (len == 0) {
             // No need to add an empty buffer.
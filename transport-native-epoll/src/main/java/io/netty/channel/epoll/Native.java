@@ -67,6 +67,7 @@ public final class Native {
     public static final int IOV_MAX = iovMax();
     public static final int UIO_MAX_IOV = uioMaxIov();
     public static final boolean IS_SUPPORTING_SENDMMSG = isSupportingSendmmsg();
+    public static final boolean IS_SUPPORTING_RECVMMSG = isSupportingRecvmmsg();
     public static final long SSIZE_MAX = ssizeMax();
     private static final byte[] IPV4_MAPPED_IPV6_PREFIX = {
             0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, (byte) 0xff };
@@ -77,6 +78,7 @@ public final class Native {
     private static final int ERRNO_ECONNRESET_NEGATIVE = -errnoECONNRESET();
     private static final int ERRNO_EAGAIN_NEGATIVE = -errnoEAGAIN();
     private static final int ERRNO_EWOULDBLOCK_NEGATIVE = -errnoEWOULDBLOCK();
+    private static final int ERRNO_ENOBUFS_NEGATIVE = -errnoENOBUFS();
     private static final int ERRNO_EINPROGRESS_NEGATIVE = -errnoEINPROGRESS();
 
     /**
@@ -98,6 +100,7 @@ public final class Native {
     private static final IOException CONNECTION_RESET_EXCEPTION_SENDTO;
     private static final IOException CONNECTION_RESET_EXCEPTION_SENDMSG;
     private static final IOException CONNECTION_RESET_EXCEPTION_SENDMMSG;
+    private static final IOException CONNECTION_RESET_EXCEPTION_RECVMMSG;
     private static final IOException CONNECTION_RESET_EXCEPTION_SPLICE;
 
     static {
@@ -120,6 +123,8 @@ public final class Native {
                 ERRNO_EPIPE_NEGATIVE);
         CONNECTION_RESET_EXCEPTION_SENDMMSG = newConnectionResetException("syscall:sendmmsg(...)",
                 ERRNO_EPIPE_NEGATIVE);
+        CONNECTION_RESET_EXCEPTION_RECVMMSG = newConnectionResetException("syscall:recvmmsg(...)",
+                ERRNO_ECONNRESET_NEGATIVE);
         CONNECTION_RESET_EXCEPTION_SPLICE = newConnectionResetException("syscall:splice(...)",
                 ERRNO_EPIPE_NEGATIVE);
         CLOSED_CHANNEL_EXCEPTION = new ClosedChannelException();
@@ -192,6 +197,7 @@ public final class Native {
     private static native int errnoEBADF();
     private static native int errnoEPIPE();
     private static native int errnoECONNRESET();
+    private static native int errnoENOBUFS();
 
     private static native int errnoEAGAIN();
     private static native int errnoEWOULDBLOCK();
@@ -208,6 +214,16 @@ public final class Native {
 
     private static native int close0(int fd);
 
+    public static int dup(int fd) throws IOException {
+        int res = dup0(fd);
+        if (res < 0) {
+            throw newIOException("dup", res);
+        }
+        return res;
+    }
+
+    private static native int dup0(int fd);
+
     public static int splice(int fd, int offIn, int fdOut, int offOut, int len) throws IOException {
         int res = splice0(fd, offIn, fdOut, offOut, len);
         if (res >= 0) {
@@ -228,6 +244,40 @@ public final class Native {
 
     private static native long pipe0();
 
+    /**
+     * Maps {@code size} bytes of anonymous memory. If {@code hugePages} is {@code true} the kernel is advised to back
+     * the mapping with transparent huge pages. The returned {@link ByteBuffer} must be released via
+     * {@link #munmap(ByteBuffer)}.
+     */
+    public static ByteBuffer mmap(int size, boolean hugePages) throws IOException {
+        return mmap0(size, hugePages);
+    }
+
+    private static native ByteBuffer mmap0(int size, boolean hugePages) throws IOException;
+
+    /**
+     * Maps {@code size} bytes of a new anonymous file created via {@code memfd_create}, which is backed by huge pages
+     * from the {@code hugetlb} pool if {@code hugeTlb} is {@code true}. The returned {@link ByteBuffer} must be
+     * released via {@link #munmap(ByteBuffer)}.
+     */
+    public static ByteBuffer mmapMemfd(int size, boolean hugeTlb) throws IOException {
+        return mmapMemfd0(size, hugeTlb);
+    }
+
+    private static native ByteBuffer mmapMemfd0(int size, boolean hugeTlb) throws IOException;
+
+    /**
+     * Unmaps a {@link ByteBuffer} returned by {@link #mmap(int, boolean)} or {@link #mmapMemfd(int, boolean)}.
+     */
+    public static void munmap(ByteBuffer buffer) throws IOException {
+        int res = munmap0(buffer);
+        if (res < 0) {
+            throw newIOException("munmap", res);
+        }
+    }
+
+    private static native int munmap0(ByteBuffer buffer);
+
     public static int write(int fd, ByteBuffer buf, int pos, int limit) throws IOException {
         int res = write0(fd, buf, pos, limit);
         if (res >= 0) {
@@ -248,6 +298,44 @@ public final class Native {
 
     private static native int writeAddress0(int fd, long address, int pos, int limit);
 
+    /**
+     * Write the bytes between {@code pos} and {@code limit} with MSG_ZEROCOPY (linux 4.14+). The memory must not be
+     * changed or freed until the completion of the call was received via {@link #recvZeroCopyCompletions(int, int[])}.
+     *
+     * @return the number of written bytes or {@code -1} if the kernel could not pin the memory (ENOBUFS), in which
+     *         case nothing was written and the bytes should be written via {@link #writeAddress(int, long, int, int)}.
+     */
+    public static int sendAddressZeroCopy(int fd, long address, int pos, int limit) throws IOException {
+        int res = sendAddressZeroCopy0(fd, address, pos, limit);
+        if (res >= 0) {
+            return res;
+        }
+        if (res == ERRNO_ENOBUFS_NEGATIVE) {
+            return -1;
+        }
+        return ioResult("sendAddressZeroCopy", res, CONNECTION_RESET_EXCEPTION_WRITE);
+    }
+
+    private static native int sendAddressZeroCopy0(int fd, long address, int pos, int limit);
+
+    /**
+     * Read the MSG_ZEROCOPY completions from the error queue of the socket. Each completion is stored as a range of
+     * sequence numbers (both inclusive) in two consecutive slots of {@code completions}. Reading stops at the first
+     * entry of the error queue which is not a MSG_ZEROCOPY completion, its (positive) errno is stored in the last slot
+     * of {@code completions}, which is {@code 0} otherwise.
+     *
+     * @return the number of completions which were stored in {@code completions}.
+     */
+    public static int recvZeroCopyCompletions(int fd, int[] completions) throws IOException {
+        int res = recvZeroCopyCompletions0(fd, completions);
+        if (res >= 0) {
+            return res;
+        }
+        return ioResult("recvZeroCopyCompletions", res, CONNECTION_RESET_EXCEPTION_READ);
+    }
+
+    private static native int recvZeroCopyCompletions0(int fd, int[] completions);
+
     public static long writev(int fd, ByteBuffer[] buffers, int offset, int length) throws IOException {
         long res = writev0(fd, buffers, offset, length);
         if (res >= 0) {
@@ -359,6 +447,33 @@ public final class Native {
     private static native int sendToAddress0(
             int fd, long memoryAddress, int pos, int limit, byte[] address, int scopeId, int port);
 
+    /**
+     * Send the bytes between {@code pos} and {@code limit} with one sendmsg(...) call and let the kernel split them
+     * into datagrams of {@code segmentSize} bytes each (UDP_SEGMENT, linux 4.18+). The last datagram may be smaller.
+     */
+    public static int sendToAddressSegmented(
+            int fd, long memoryAddress, int pos, int limit, InetAddress addr, int port, int segmentSize)
+            throws IOException {
+        byte[] address;
+        int scopeId;
+        if (addr instanceof Inet6Address) {
+            address = addr.getAddress();
+            scopeId = ((Inet6Address) addr).getScopeId();
+        } else {
+            // convert to ipv4 mapped ipv6 address;
+            scopeId = 0;
+            address = ipv4MappedIpv6Address(addr.getAddress());
+        }
+        int res = sendToAddressSegmented0(fd, memoryAddress, pos, limit, address, scopeId, port, segmentSize);
+        if (res >= 0) {
+            return res;
+        }
+        return ioResult("sendToAddressSegmented", res, CONNECTION_RESET_EXCEPTION_SENDMSG);
+    }
+
+    private static native int sendToAddressSegmented0(
+            int fd, long memoryAddress, int pos, int limit, byte[] address, int scopeId, int port, int segmentSize);
+
     public static int sendToAddresses(
             int fd, long memoryAddress, int length, InetAddress addr, int port) throws IOException {
         // just duplicate the toNativeInetAddress code here to minimize object creation as this method is expected
@@ -389,6 +504,20 @@ public final class Native {
     public static native EpollDatagramChannel.DatagramSocketAddress recvFromAddress(
             int fd, long memoryAddress, int pos, int limit) throws IOException;
 
+    /**
+     * Same as {@link #recvFromAddress(int, long, int, int)} but also returns the size of each datagram if the kernel
+     * coalesced multiple datagrams into the buffer (UDP_GRO, linux 5.0+).
+     */
+    public static native EpollDatagramChannel.DatagramSocketAddress recvFromAddressGro(
+            int fd, long memoryAddress, int pos, int limit) throws IOException;
+
+    /**
+     * Same as {@link #recvFrom(int, ByteBuffer, int, int)} but also returns the size of each datagram if the kernel
+     * coalesced multiple datagrams into the buffer (UDP_GRO, linux 5.0+).
+     */
+    public static native EpollDatagramChannel.DatagramSocketAddress recvFromGro(
+            int fd, ByteBuffer buf, int pos, int limit) throws IOException;
+
     public static int sendmmsg(
             int fd, NativeDatagramPacketArray.NativeDatagramPacket[] msgs, int offset, int len) throws IOException {
         int res = sendmmsg0(fd, msgs, offset, len);
@@ -401,7 +530,27 @@ public final class Native {
     private static native int sendmmsg0(
             int fd, NativeDatagramPacketArray.NativeDatagramPacket[] msgs, int offset, int len);
 
+    /**
+     * Receive up to {@code len} datagrams with one recvmmsg(...) call. Each
+     * {@link NativeDatagramPacketArray.NativeDatagramPacket} must be prepared for reading and will hold the sender and
+     * the number of received bytes if it was filled.
+     *
+     * @return the number of received datagrams or {@code 0} if nothing could be read without blocking.
+     */
+    public static int recvmmsg(
+            int fd, NativeDatagramPacketArray.NativeDatagramPacket[] msgs, int offset, int len) throws IOException {
+        int res = recvmmsg0(fd, msgs, offset, len);
+        if (res >= 0) {
+            return res;
+        }
+        return ioResult("recvmmsg", res, CONNECTION_RESET_EXCEPTION_RECVMMSG);
+    }
+
+    private static native int recvmmsg0(
+            int fd, NativeDatagramPacketArray.NativeDatagramPacket[] msgs, int offset, int len);
+
     private static native boolean isSupportingSendmmsg();
+    private static native boolean isSupportingRecvmmsg();
 
     // socket operations
     public static int socketStreamFd() {
@@ -632,6 +781,8 @@ public final class Native {
     public static native int isKeepAlive(int fd);
     public static native int isReuseAddress(int fd);
     public static native int isReusePort(int fd);
+    public static native int isZeroCopy(int fd);
+    public static native int getSoBusyPoll(int fd);
     public static native int isTcpNoDelay(int fd);
     public static native int isTcpCork(int fd);
     public static native int getTcpNotSentLowAt(int fd);
@@ -647,6 +798,10 @@ public final class Native {
     public static native void setReceiveBufferSize(int fd, int receiveBufferSize);
     public static native void setReuseAddress(int fd, int reuseAddress);
     public static native void setReusePort(int fd, int reuseAddress);
+    public static native void setUdpSegment(int fd, int segmentSize);
+    public static native void setUdpGro(int fd, int udpGro);
+    public static native void setZeroCopy(int fd, int zeroCopy);
+    public static native void setSoBusyPoll(int fd, int busyPollMicros);
     public static native void setSendBufferSize(int fd, int sendBufferSize);
     public static native void setTcpNoDelay(int fd, int tcpNoDelay);
     public static native void setTcpCork(int fd, int tcpCork);
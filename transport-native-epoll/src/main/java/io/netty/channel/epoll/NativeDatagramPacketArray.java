@@ -25,7 +25,8 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 
 /**
- * Support <a href="http://linux.die.net/man/2/sendmmsg">sendmmsg(...)</a> on linux with GLIBC 2.14+
+ * Support <a href="http://linux.die.net/man/2/sendmmsg">sendmmsg(...)</a> and
+ * <a href="http://linux.die.net/man/2/recvmmsg">recvmmsg(...)</a> on linux with GLIBC 2.14+
  */
 final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessageProcessor {
 
@@ -79,6 +80,32 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
         return true;
     }
 
+    /**
+     * Try to add the writable bytes of the given {@link ByteBuf} as the target of the next datagram which is received
+     * via recvmmsg(...). Returns {@code true} on success, {@code false} otherwise.
+     */
+    boolean addWritable(ByteBuf buf) {
+        if (count == packets.length) {
+            return false;
+        }
+        if (!packets[count].initWritable(buf)) {
+            return false;
+        }
+        count++;
+        return true;
+    }
+
+    /**
+     * Returns the sender of the datagram which was received into the packet at the given index by the last
+     * recvmmsg(...) call. The sender also holds the number of received bytes.
+     */
+    EpollDatagramChannel.DatagramSocketAddress sender(int index) {
+        NativeDatagramPacket packet = packets[index];
+        EpollDatagramChannel.DatagramSocketAddress sender = packet.sender;
+        packet.sender = null;
+        return sender;
+    }
+
     @Override
     public boolean processMessage(Object msg) throws Exception {
         return msg instanceof DatagramPacket && add((DatagramPacket) msg);
@@ -109,6 +136,15 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
         return array;
     }
 
+    /**
+     * Returns an empty {@link NativeDatagramPacketArray} which can be filled via {@link #addWritable(ByteBuf)}.
+     */
+    static NativeDatagramPacketArray getInstance() {
+        NativeDatagramPacketArray array = ARRAY.get();
+        array.count = 0;
+        return array;
+    }
+
     /**
      * Used to pass needed data to JNI.
      */
@@ -127,6 +163,9 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
         private int scopeId;
         private int port;
 
+        // Set by recvmmsg(...)
+        private EpollDatagramChannel.DatagramSocketAddress sender;
+
         private void release() {
             array.release();
         }
@@ -154,5 +193,20 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
             port = recipient.getPort();
             return true;
         }
+
+        /**
+         * Init this instance for receiving into the writable bytes of the given {@link ByteBuf} and return
+         * {@code true} if the init was successful.
+         */
+        private boolean initWritable(ByteBuf buf) {
+            array.clear();
+            if (!array.addWritable(buf)) {
+                return false;
+            }
+            memoryAddress = array.memoryAddress(0);
+            count = array.count();
+            sender = null;
+            return true;
+        }
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.DefaultAddressedEnvelope;
+import io.netty.channel.socket.DatagramPacket;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Allows to send a large buffer as multiple datagrams of {@link #segmentSize()} bytes each with only one syscall, by
+ * letting the kernel (or the network card) do the segmentation via UDP_SEGMENT. The last datagram may be smaller.
+ *
+ * This is only supported by {@link EpollDatagramChannel} on linux 4.18+, if {@code sun.misc.Unsafe} is available.
+ * For receiving see {@link EpollChannelOption#UDP_GRO}, which splits coalesced datagrams into {@link DatagramPacket}s.
+ */
+public final class SegmentedDatagramPacket
+        extends DefaultAddressedEnvelope<ByteBuf, InetSocketAddress> implements ByteBufHolder {
+
+    private final int segmentSize;
+
+    /**
+     * Create a new instance with the specified packet {@code data}, {@code segmentSize} and {@code recipient}
+     * address.
+     */
+    public SegmentedDatagramPacket(ByteBuf data, int segmentSize, InetSocketAddress recipient) {
+        super(data, recipient);
+        this.segmentSize = checkSegmentSize(segmentSize);
+    }
+
+    /**
+     * Create a new instance with the specified packet {@code data}, {@code segmentSize}, {@code recipient} address,
+     * and {@code sender} address.
+     */
+    public SegmentedDatagramPacket(ByteBuf data, int segmentSize, InetSocketAddress recipient,
+                                   InetSocketAddress sender) {
+        super(data, recipient, sender);
+        this.segmentSize = checkSegmentSize(segmentSize);
+    }
+
+    private static int checkSegmentSize(int segmentSize) {
+        if (segmentSize <= 0 || segmentSize > 0xFFFF) {
+            throw new IllegalArgumentException("segmentSize: " + segmentSize + " (expected: 1-65535)");
+        }
+        return segmentSize;
+    }
+
+    /**
+     * Return the size of each datagram the content is split into.
+     */
+    public int segmentSize() {
+        return segmentSize;
+    }
+
+    @Override
+    public SegmentedDatagramPacket copy() {
+        return new SegmentedDatagramPacket(content().copy(), segmentSize, recipient(), sender());
+    }
+
+    @Override
+    public SegmentedDatagramPacket duplicate() {
+        return new SegmentedDatagramPacket(content().duplicate(), segmentSize, recipient(), sender());
+    }
+
+    @Override
+    public SegmentedDatagramPacket retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public SegmentedDatagramPacket retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public SegmentedDatagramPacket touch() {
+        super.touch();
+        return this;
+    }
+
+    @Override
+    public SegmentedDatagramPacket touch(Object hint) {
+        super.touch(hint);
+        return this;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Keeps the {@link ByteBuf}s which were written with MSG_ZEROCOPY alive until the kernel signals via the error queue
+ * of the socket that it does not reference their memory anymore.
+ *
+ * The kernel numbers every successful MSG_ZEROCOPY call of a socket, starting with {@code 0}, and completes ranges
+ * of these numbers. As the numbers are 32 bit unsigned integers which wrap around, they are only compared via
+ * their difference.
+ *
+ * This class is not thread-safe and must only be used from the {@link io.netty.channel.EventLoop}.
+ */
+final class ZeroCopyTracker {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_COMPLETIONS_PER_READ = 16;
+
+    // The last slot holds the errno of an error queue entry which was not a completion.
+    private final int[] completions = new int[2 * MAX_COMPLETIONS_PER_READ + 1];
+
+    // Ring buffer which holds the pending buffers, a slot is null once it was completed.
+    private ByteBuf[] buffers = new ByteBuf[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+    // The sequence number of the buffer at head.
+    private int headSeq;
+
+    /**
+     * Add the given {@link ByteBuf} which was just written by a successful MSG_ZEROCOPY call. The buffer is retained
+     * until the call is completed.
+     */
+    void add(ByteBuf buf) {
+        if (size == buffers.length) {
+            grow();
+        }
+        buffers[(head + size) & (buffers.length - 1)] = buf.retain();
+        size++;
+    }
+
+    private void grow() {
+        ByteBuf[] newBuffers = new ByteBuf[buffers.length << 1];
+        int firstPart = buffers.length - head;
+        System.arraycopy(buffers, head, newBuffers, 0, firstPart);
+        System.arraycopy(buffers, 0, newBuffers, firstPart, head);
+        buffers = newBuffers;
+        head = 0;
+    }
+
+    /**
+     * Returns {@code true} if there is no MSG_ZEROCOPY call which was not completed yet.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Read all completions from the error queue of the given socket and release the completed buffers.
+     *
+     * @return an {@link IOException} describing the first entry of the error queue which was not a MSG_ZEROCOPY
+     *         completion (for example an ICMP error), or {@code null} if there was none.
+     */
+    IOException processCompletions(int fd) throws IOException {
+        IOException entryError = null;
+        for (;;) {
+            int count = Native.recvZeroCopyCompletions(fd, completions);
+            for (int i = 0; i < count; i++) {
+                complete(completions[i << 1], completions[(i << 1) + 1]);
+            }
+            int errno = completions[completions.length - 1];
+            if (errno != 0) {
+                if (entryError == null) {
+                    entryError = Native.newIOException("recvmsg(MSG_ERRQUEUE)", -errno);
+                }
+                // The entry was consumed, continue with the completions which may follow it.
+                continue;
+            }
+            if (count < MAX_COMPLETIONS_PER_READ) {
+                return entryError;
+            }
+        }
+    }
+
+    /**
+     * Release the buffers of the calls with the sequence numbers between {@code from} and {@code to} (both
+     * inclusive).
+     */
+    void complete(int from, int to) {
+        final int mask = buffers.length - 1;
+        for (int seq = from;; seq++) {
+            int index = seq - headSeq;
+            if (index >= 0 && index < size) {
+                int slot = (head + index) & mask;
+                ByteBuf buf = buffers[slot];
+                if (buf != null) {
+                    buffers[slot] = null;
+                    buf.release();
+                }
+            }
+            if (seq == to) {
+                break;
+            }
+        }
+        // Completions may arrive out of order, so only drop the completed slots at the head.
+        while (size > 0 && buffers[head] == null) {
+            head = (head + 1) & mask;
+            headSeq++;
+            size--;
+        }
+    }
+
+    /**
+     * Forget all pending buffers without releasing them, which must only be done once their completions can not be
+     * read anymore, for example because they did not arrive in time after the channel was closed. The kernel may
+     * still read the memory of these buffers until the data was acknowledged, so giving it back to the allocator could
+     * corrupt the bytes which are retransmitted. The buffers are leaked deliberately instead.
+     *
+     * @return the number of buffers which were leaked.
+     */
+    int leakAll() {
+        int leaked = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] != null) {
+                leaked++;
+            }
+        }
+        Arrays.fill(buffers, null);
+        headSeq += size;
+        head = 0;
+        size = 0;
+        return leaked;
+    }
+}
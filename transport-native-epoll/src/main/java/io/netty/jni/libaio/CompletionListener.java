@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.jni.libaio;
+
+/**
+ * Receives the completions of a {@link LibaioContext} which was registered with an
+ * {@link io.netty.channel.EventLoop} via {@link LibaioContext#register(io.netty.channel.EventLoop,
+ * CompletionListener)}.
+ */
+public interface CompletionListener {
+
+    /**
+     * Called from the {@link io.netty.channel.EventLoop} for every completed submission.
+     *
+     * @param callback the callback passed on submission, or an {@link ErrorInfo} wrapping it in case of a failure.
+     */
+    void onCompletion(Object callback);
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.jni.libaio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+
+/**
+ * Collects reads and writes for one or more {@link LibaioFile}s of the same {@link LibaioContext} and submits all of
+ * them with a single io_submit call on {@link #submit()}.
+ *
+ * The same rules as for {@link LibaioFile#write(long, int, ByteBuffer, Object)} and
+ * {@link LibaioFile#read(long, int, ByteBuffer, Object)} apply to every queued operation. Completions are received
+ * on {@link LibaioContext#poll(Object[], int, int)} or the registered {@link CompletionListener}.
+ *
+ * This class is not thread-safe, but instances can be reused after {@link #submit()}.
+ */
+public final class LibaioBatch {
+    private final LibaioContext context;
+
+    private boolean[] writes;
+    private int[] fds;
+    private long[] positions;
+    private int[] sizes;
+    private ByteBuffer[] buffers;
+    private Object[] callbacks;
+    private int count;
+
+    LibaioBatch(LibaioContext context, int initialCapacity) {
+        this.context = context;
+        writes = new boolean[initialCapacity];
+        fds = new int[initialCapacity];
+        positions = new long[initialCapacity];
+        sizes = new int[initialCapacity];
+        buffers = new ByteBuffer[initialCapacity];
+        callbacks = new Object[initialCapacity];
+    }
+
+    /**
+     * Queue a write, see {@link LibaioFile#write(long, int, ByteBuffer, Object)}.
+     */
+    public LibaioBatch write(LibaioFile file, long position, int size, ByteBuffer buffer, Object callback) {
+        add(true, file, position, size, buffer, callback);
+        return this;
+    }
+
+    /**
+     * Queue a read, see {@link LibaioFile#read(long, int, ByteBuffer, Object)}.
+     */
+    public LibaioBatch read(LibaioFile file, long position, int size, ByteBuffer buffer, Object callback) {
+        add(false, file, position, size, buffer, callback);
+        return this;
+    }
+
+    private void add(boolean write, LibaioFile file, long position, int size, ByteBuffer buffer, Object callback) {
+        checkNotNull(file, "file");
+        checkNotNull(buffer, "buffer");
+        if (file.ioContext() != context.ioContext) {
+            throw new IllegalArgumentException("file was not opened by the context of this batch");
+        }
+        if (count == fds.length) {
+            grow();
+        }
+        writes[count] = write;
+        fds[count] = file.intValue();
+        positions[count] = position;
+        sizes[count] = size;
+        buffers[count] = buffer;
+        callbacks[count] = callback;
+        count++;
+    }
+
+    private void grow() {
+        int newCapacity = fds.length << 1;
+        writes = Arrays.copyOf(writes, newCapacity);
+        fds = Arrays.copyOf(fds, newCapacity);
+        positions = Arrays.copyOf(positions, newCapacity);
+        sizes = Arrays.copyOf(sizes, newCapacity);
+        buffers = Arrays.copyOf(buffers, newCapacity);
+        callbacks = Arrays.copyOf(callbacks, newCapacity);
+    }
+
+    /**
+     * Return the number of operations which are queued and not submitted yet.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Submit all queued operations, with one io_submit for every 256 of them.
+     *
+     * If the libaio queue can not take all of them only a part is submitted. The operations which were not submitted
+     * stay queued in the same order, so you can poll and call this method again.
+     *
+     * @return the number of submitted operations, which is less than {@link #size()} if the queue was full.
+     * @throws IOException in case of error, in which case nothing was submitted.
+     */
+    public int submit() throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        int submitted = LibaioContext.submitBatch(checkNotNull(context.ioContext, "IOContext"), count, writes, fds,
+                                                  positions, sizes, buffers, callbacks);
+        int remaining = count - submitted;
+        if (remaining > 0 && submitted > 0) {
+            System.arraycopy(writes, submitted, writes, 0, remaining);
+            System.arraycopy(fds, submitted, fds, 0, remaining);
+            System.arraycopy(positions, submitted, positions, 0, remaining);
+            System.arraycopy(sizes, submitted, sizes, 0, remaining);
+            System.arraycopy(buffers, submitted, buffers, 0, remaining);
+            System.arraycopy(callbacks, submitted, callbacks, 0, remaining);
+        }
+        // Don't retain the submitted buffers and callbacks, the native layer holds the callbacks until polled.
+        Arrays.fill(buffers, remaining, count, null);
+        Arrays.fill(callbacks, remaining, count, null);
+        count = remaining;
+        return submitted;
+    }
+
+    /**
+     * Discard all queued operations which were not submitted yet.
+     */
+    public void clear() {
+        Arrays.fill(buffers, 0, count, null);
+        Arrays.fill(callbacks, 0, count, null);
+        count = 0;
+    }
+}
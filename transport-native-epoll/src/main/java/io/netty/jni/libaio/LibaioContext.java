@@ -15,11 +15,18 @@
  */
 package io.netty.jni.libaio;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
+import io.netty.channel.epoll.EpollFdHandler;
 import io.netty.channel.epoll.Native;
+import io.netty.util.concurrent.Future;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.RejectedExecutionException;
 
 import static io.netty.util.internal.ObjectUtil.checkNotNull;
 
@@ -31,13 +38,20 @@ import static io.netty.util.internal.ObjectUtil.checkNotNull;
  * You need to use the poll methods to read the result of write and read submissions.
  *
  * You also need to use the special buffer created by {@link LibaioFile} as you need special alignments
- * when dealing with O_DIRECT files.
+ * when dealing with O_DIRECT files. Alternatively a {@link io.netty.buffer.PooledByteBufAllocator} created with a
+ * {@code directMemoryCacheAlignment} of the device block size hands out {@link ByteBuf}s which can be used directly.
  *
  * A Single controller can server multiple files. There's no need to create one controller per file.
  *
+ * Instead of polling from a dedicated thread, the context can also be registered with an epoll based
+ * {@link EventLoop} using {@link #register(EventLoop, CompletionListener)}. Completions are then signaled through
+ * an eventfd and dispatched on the {@link EventLoop} thread.
+ *
  * <a href="https://ext4.wiki.kernel.org/index.php/Clarifying_Direct_IO's_Semantics">Interesting reading for this.</a>
  */
 public class LibaioContext {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(LibaioContext.class);
+
     static {
         Native.loadLibrary();
     }
@@ -47,6 +61,13 @@ public class LibaioContext {
      */
     ByteBuffer ioContext;
 
+    private final int queueSize;
+
+    /**
+     * The handler registered with an {@link EventLoop}, or {@code null} if the context is polled manually.
+     */
+    private EventFdHandler eventFdHandler;
+
     /**
      * The queue size here will use resources defined on the kernel parameter
      *    <a href="https://www.kernel.org/doc/Documentation/sysctl/fs.txt">fs.aio-max-nr</a> .
@@ -55,6 +76,7 @@ public class LibaioContext {
      */
     public LibaioContext(int queueSize) {
         this.ioContext = newContext(queueSize);
+        this.queueSize = queueSize;
     }
 
     /**
@@ -62,9 +84,16 @@ public class LibaioContext {
      *
      * It is unsafe to close the controller while you have pending writes or files open as
      * this could cause core dumps or VM crashes.
+     *
+     * If the context was registered with an {@link EventLoop} this will block until it was deregistered.
      */
-    public void close() {
+    public synchronized void close() {
         if (ioContext != null) {
+            EventFdHandler handler = eventFdHandler;
+            if (handler != null) {
+                eventFdHandler = null;
+                handler.close();
+            }
             deleteContext(ioContext);
             ioContext = null;
         }
@@ -102,6 +131,27 @@ public class LibaioContext {
         return new LibaioFile(res, ioContext);
     }
 
+    /**
+     * Create a new {@link LibaioBatch} which can be used to submit many reads and writes on files opened by this
+     * context with a single syscall.
+     */
+    public LibaioBatch newBatch() {
+        return newBatch(16);
+    }
+
+    /**
+     * Create a new {@link LibaioBatch} with the given initial capacity.
+     *
+     * @see #newBatch()
+     */
+    public LibaioBatch newBatch(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("initialCapacity: " + initialCapacity + " (expected: > 0)");
+        }
+        checkNotNull(ioContext, "IOContext");
+        return new LibaioBatch(this, initialCapacity);
+    }
+
     /**
      * It will poll the libaio queue for results. It should block until min is reached
      * Results are placed on the callback.
@@ -124,6 +174,95 @@ public class LibaioContext {
         return poll(ioContext, callbacks, min, max);
     }
 
+    /**
+     * Register this context with the given epoll based {@link EventLoop}. From now on every submission will signal
+     * its completion through an eventfd which is watched by the {@link EventLoop}, and the completions are passed to
+     * the given {@link CompletionListener} on the {@link EventLoop} thread.
+     *
+     * You must not call {@link #poll(Object[], int, int)} yourself once the context is registered.
+     *
+     * @return the {@link Future} notified once the registration is complete.
+     */
+    public synchronized Future<Void> register(EventLoop eventLoop, CompletionListener listener) {
+        checkNotNull(eventLoop, "eventLoop");
+        checkNotNull(listener, "listener");
+        checkNotNull(ioContext, "IOContext");
+        if (eventFdHandler != null) {
+            throw new IllegalStateException("registered to an event loop already");
+        }
+
+        int eventFd = Native.eventFd();
+        EventFdHandler handler = new EventFdHandler(eventFd, listener);
+        Future<Void> future;
+        try {
+            future = handler.register(eventLoop);
+        } catch (RuntimeException e) {
+            closeEventFd(eventFd);
+            throw e;
+        }
+
+        // Completions which happen before the eventfd is part of the epoll set are not lost, as the eventfd counter
+        // will just make it readable once it was added.
+        setEventFd(ioContext, eventFd);
+        eventFdHandler = handler;
+        return future;
+    }
+
+    private static void closeEventFd(int eventFd) {
+        try {
+            Native.close(eventFd);
+        } catch (IOException e) {
+            logger.warn("Failed to close the event fd.", e);
+        }
+    }
+
+    private final class EventFdHandler extends EpollFdHandler {
+        private final CompletionListener listener;
+        private final Object[] callbacks = new Object[queueSize];
+
+        EventFdHandler(int eventFd, CompletionListener listener) {
+            super(eventFd);
+            this.listener = listener;
+        }
+
+        @Override
+        protected void epollInReady() {
+            Native.eventFdRead(fd());
+
+            ByteBuffer ioContext = LibaioContext.this.ioContext;
+            if (ioContext == null) {
+                return;
+            }
+
+            int completed;
+            do {
+                completed = poll(ioContext, callbacks, 0, callbacks.length);
+                for (int i = 0; i < completed; i++) {
+                    Object callback = callbacks[i];
+                    callbacks[i] = null;
+                    try {
+                        listener.onCompletion(callback);
+                    } catch (Throwable t) {
+                        logger.warn("An exception was thrown by " + listener.getClass().getName() +
+                                ".onCompletion()", t);
+                    }
+                }
+            } while (completed == callbacks.length);
+        }
+
+        void close() {
+            setEventFd(ioContext, -1);
+            if (eventLoop() != null) {
+                try {
+                    deregister().syncUninterruptibly();
+                } catch (RejectedExecutionException ignore) {
+                    // The EventLoop was shutdown already and so the epoll set is gone anyway.
+                }
+            }
+            closeEventFd(fd());
+        }
+    }
+
     /**
      * This is the queue for libaio, initialized with queueSize.
      */
@@ -138,6 +277,11 @@ public class LibaioContext {
 
     static native void close(int fd);
 
+    /**
+     * Set the eventfd which is signaled on every completion of the given context, or {@code -1} to disable it.
+     */
+    static native void setEventFd(ByteBuffer libaioContext, int eventFd);
+
     /**
      * Buffers for O_DIRECT need to use posix_memalign.
      *
@@ -166,6 +310,45 @@ public class LibaioContext {
                                   long position, int size, ByteBuffer bufferWrite,
                                   Object callback) throws IOException;
 
+    /**
+     * Documented at {@link LibaioFile#write(long, ByteBuf, Object)}.
+     */
+    static native boolean submitWriteAddress(int fd,
+                                             ByteBuffer libaioContext,
+                                             long position, int size, long memoryAddress,
+                                             Object callback) throws IOException;
+
+    /**
+     * Documented at {@link LibaioFile#read(long, ByteBuf, Object)}.
+     */
+    static native boolean submitReadAddress(int fd,
+                                            ByteBuffer libaioContext,
+                                            long position, int size, long memoryAddress,
+                                            Object callback) throws IOException;
+
+    /**
+     * Documented at {@link LibaioFile#writev(long, long[], int[], int, Object)}.
+     */
+    static native boolean submitWritev(int fd,
+                                       ByteBuffer libaioContext,
+                                       long position, long[] memoryAddresses, int[] lengths, int count,
+                                       Object callback) throws IOException;
+
+    /**
+     * Documented at {@link LibaioFile#readv(long, long[], int[], int, Object)}.
+     */
+    static native boolean submitReadv(int fd,
+                                      ByteBuffer libaioContext,
+                                      long position, long[] memoryAddresses, int[] lengths, int count,
+                                      Object callback) throws IOException;
+
+    /**
+     * Documented at {@link LibaioBatch#submit()}.
+     */
+    static native int submitBatch(ByteBuffer libaioContext, int count,
+                                  boolean[] writes, int[] fds, long[] positions, int[] sizes,
+                                  ByteBuffer[] buffers, Object[] callbacks) throws IOException;
+
     /**
      * Note: this shouldn't be done concurrently.
      * This method will block until the min condition is satisfied on the poll.
@@ -15,8 +15,10 @@
  */
 package io.netty.jni.libaio;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.epoll.Native;
 import io.netty.channel.unix.FileDescriptor;
+import io.netty.util.internal.PlatformDependent;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -65,6 +67,7 @@ public final class LibaioFile extends FileDescriptor {
      * @throws IOException in case of error
      *
      * @see DirectFileDescriptorController#poll(ByteBuffer, Object[], int, int)
+     * @see LibaioBatch#write(LibaioFile, long, int, ByteBuffer, Object)
      */
     public boolean write(long position, int size, ByteBuffer buffer, Object callback) throws IOException {
         return LibaioContext.submitWrite(this.fd, ioContext, position, size, buffer, callback);
@@ -86,11 +89,174 @@ public final class LibaioFile extends FileDescriptor {
      * @throws IOException
      *
      * @see LibaioContext#poll(ByteBuffer, Object[], int, int)
+     * @see LibaioBatch#read(LibaioFile, long, int, ByteBuffer, Object)
      */
     public boolean read(long position, int size, ByteBuffer buffer, Object callback)  throws IOException {
         return LibaioContext.submitRead(this.fd, ioContext, position, size, buffer, callback);
     }
 
+    /**
+     * It will submit a write of the readable bytes of the given {@link ByteBuf} to the queue. The indexes of the
+     * buffer are not modified.
+     *
+     * Notice: this won't retain the buffer, the callback should hold a reference towards it and it must not be
+     *         released until the callback was called as this could crash the VM.
+     *
+     * @param position The position on the file to write. Notice this has to be a multiple of 512.
+     * @param buffer a direct buffer. If you are using O_DIRECT its memory address and readable bytes need to be
+     *               aligned, which is the case for buffers of a {@link io.netty.buffer.PooledByteBufAllocator}
+     *               using a {@code directMemoryCacheAlignment} of the block size, as long as the
+     *               {@code readerIndex} and the size are aligned too.
+     * @param callback A callback to be returned on the poll method.
+     * @return true if successful, false if the queue was full on that case poll and try again
+     * @throws IOException in case of error
+     *
+     * @see #write(long, int, ByteBuffer, Object)
+     */
+    public boolean write(long position, ByteBuf buffer, Object callback) throws IOException {
+        int size = buffer.readableBytes();
+        if (buffer.hasMemoryAddress()) {
+            return LibaioContext.submitWriteAddress(this.fd, ioContext, position, size,
+                                                    buffer.memoryAddress() + buffer.readerIndex(), callback);
+        }
+        return write(position, size, directNioBuffer(buffer, buffer.readerIndex(), size), callback);
+    }
+
+    /**
+     * It will submit a read into the writable bytes of the given {@link ByteBuf} to the queue. The indexes of the
+     * buffer are not modified, so you need to increase the {@code writerIndex} once the callback was called.
+     *
+     * Notice: this won't retain the buffer, the callback should hold a reference towards it and it must not be
+     *         released until the callback was called as this could crash the VM.
+     *
+     * @param position The position on the file to read. Notice this has to be a multiple of 512.
+     * @param buffer a direct buffer, see {@link #write(long, ByteBuf, Object)} about alignment.
+     * @param callback A callback to be returned on the poll method.
+     * @return true if successful, false if the queue was full on that case poll and try again
+     * @throws IOException in case of error
+     *
+     * @see #read(long, int, ByteBuffer, Object)
+     */
+    public boolean read(long position, ByteBuf buffer, Object callback) throws IOException {
+        int size = buffer.writableBytes();
+        if (buffer.hasMemoryAddress()) {
+            return LibaioContext.submitReadAddress(this.fd, ioContext, position, size,
+                                                   buffer.memoryAddress() + buffer.writerIndex(), callback);
+        }
+        return read(position, size, directNioBuffer(buffer, buffer.writerIndex(), size), callback);
+    }
+
+    /**
+     * It will submit a vectored write (IOCB_CMD_PWRITEV) of the given memory regions to the queue, so records which
+     * are assembled from several buffers can be written without copying them into one buffer first.
+     *
+     * Notice: the memory regions need to stay valid until the callback was called as this could crash the VM.
+     *
+     * @param position The position on the file to write. Notice this has to be a multiple of 512.
+     * @param memoryAddresses the memory addresses of the regions to write, in the order they are written.
+     * @param lengths the length of each region.
+     * @param count the number of regions to use, at most {@link Native#IOV_MAX}.
+     * @param callback A callback to be returned on the poll method.
+     * @return true if successful, false if the queue was full on that case poll and try again
+     * @throws IOException in case of error
+     */
+    public boolean writev(long position, long[] memoryAddresses, int[] lengths, int count, Object callback)
+            throws IOException {
+        checkVector(memoryAddresses, lengths, count);
+        return LibaioContext.submitWritev(this.fd, ioContext, position, memoryAddresses, lengths, count, callback);
+    }
+
+    /**
+     * It will submit a vectored read (IOCB_CMD_PREADV) into the given memory regions to the queue.
+     *
+     * @see #writev(long, long[], int[], int, Object)
+     */
+    public boolean readv(long position, long[] memoryAddresses, int[] lengths, int count, Object callback)
+            throws IOException {
+        checkVector(memoryAddresses, lengths, count);
+        return LibaioContext.submitReadv(this.fd, ioContext, position, memoryAddresses, lengths, count, callback);
+    }
+
+    /**
+     * It will submit a vectored write of the readable bytes of the given direct {@link ByteBuf}, which is usually a
+     * {@link io.netty.buffer.CompositeByteBuf}, using one {@code iovec} per component. The indexes of the buffer are
+     * not modified.
+     *
+     * @throws UnsupportedOperationException if {@code sun.misc.Unsafe} is not available, as the memory addresses of
+     *         the components can not be obtained without it.
+     *
+     * @see #writev(long, long[], int[], int, Object)
+     * @see #write(long, ByteBuf, Object)
+     */
+    public boolean writev(long position, ByteBuf buffer, Object callback) throws IOException {
+        ByteBuffer[] nioBuffers = buffer.nioBuffers();
+        long[] memoryAddresses = new long[nioBuffers.length];
+        int[] lengths = new int[nioBuffers.length];
+        int count = toVector(nioBuffers, memoryAddresses, lengths);
+        return writev(position, memoryAddresses, lengths, count, callback);
+    }
+
+    /**
+     * It will submit a vectored read into the writable bytes of the given direct {@link ByteBuf}, which is usually a
+     * {@link io.netty.buffer.CompositeByteBuf}, using one {@code iovec} per component. The indexes of the buffer are
+     * not modified.
+     *
+     * @throws UnsupportedOperationException if {@code sun.misc.Unsafe} is not available, as the memory addresses of
+     *         the components can not be obtained without it.
+     *
+     * @see #readv(long, long[], int[], int, Object)
+     * @see #read(long, ByteBuf, Object)
+     */
+    public boolean readv(long position, ByteBuf buffer, Object callback) throws IOException {
+        ByteBuffer[] nioBuffers = buffer.nioBuffers(buffer.writerIndex(), buffer.writableBytes());
+        long[] memoryAddresses = new long[nioBuffers.length];
+        int[] lengths = new int[nioBuffers.length];
+        int count = toVector(nioBuffers, memoryAddresses, lengths);
+        return readv(position, memoryAddresses, lengths, count, callback);
+    }
+
+    private static int toVector(ByteBuffer[] nioBuffers, long[] memoryAddresses, int[] lengths) {
+        if (!PlatformDependent.hasUnsafe()) {
+            throw new UnsupportedOperationException(
+                    "vectored I/O of a ByteBuf requires sun.misc.Unsafe to obtain the memory addresses");
+        }
+        int count = 0;
+        for (ByteBuffer nioBuffer : nioBuffers) {
+            int len = nioBuffer.remaining();
+            if (len == 0) {
+                // No need to add an empty buffer so just continue
+                continue;
+            }
+            if (!nioBuffer.isDirect()) {
+                throw new IllegalArgumentException("buffer must only consist of direct buffers");
+            }
+            memoryAddresses[count] = PlatformDependent.directBufferAddress(nioBuffer) + nioBuffer.position();
+            lengths[count] = len;
+            count++;
+        }
+        return count;
+    }
+
+    private static void checkVector(long[] memoryAddresses, int[] lengths, int count) {
+        if (count <= 0 || count > Native.IOV_MAX) {
+            throw new IllegalArgumentException("count: " + count + " (expected: 1-" + Native.IOV_MAX + ')');
+        }
+        if (memoryAddresses.length < count || lengths.length < count) {
+            throw new IllegalArgumentException("memoryAddresses and lengths must have at least count elements");
+        }
+    }
+
+    private static ByteBuffer directNioBuffer(ByteBuf buffer, int index, int size) {
+        if (!buffer.isDirect() || buffer.nioBufferCount() != 1) {
+            throw new IllegalArgumentException("buffer must be a direct buffer backed by a single memory region");
+        }
+        return buffer.nioBuffer(index, size);
+    }
+
+    ByteBuffer ioContext() {
+        return ioContext;
+    }
+
     /**
      * It will allocate a buffer to be used on libaio operations.
      * Buffers here are allocated with posix_memalign.
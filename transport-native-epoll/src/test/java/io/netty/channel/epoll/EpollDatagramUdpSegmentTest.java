@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.util.NetUtil;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EpollDatagramUdpSegmentTest {
+
+    private static final int SEGMENT_SIZE = 100;
+    private static final int[] EXPECTED_SIZES = { SEGMENT_SIZE, SEGMENT_SIZE, SEGMENT_SIZE, 50 };
+
+    @Test(timeout = 10000)
+    public void testSendSegmented() throws Throwable {
+        testSegmented(false);
+    }
+
+    @Test(timeout = 10000)
+    public void testSendSegmentedReceiveGro() throws Throwable {
+        testSegmented(true);
+    }
+
+    private static void testSegmented(boolean gro) throws Throwable {
+        final CountDownLatch latch = new CountDownLatch(EXPECTED_SIZES.length);
+        final List<Integer> sizes = new CopyOnWriteArrayList<Integer>();
+
+        Bootstrap sb = new Bootstrap().group(EpollSocketTestPermutation.EPOLL_WORKER_GROUP)
+                .channel(EpollDatagramChannel.class)
+                .option(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(65535))
+                .handler(new SimpleChannelInboundHandler<DatagramPacket>() {
+                    @Override
+                    protected void messageReceived(ChannelHandlerContext ctx, DatagramPacket msg) {
+                        sizes.add(msg.content().readableBytes());
+                        latch.countDown();
+                    }
+                });
+        Bootstrap cb = new Bootstrap().group(EpollSocketTestPermutation.EPOLL_WORKER_GROUP)
+                .channel(EpollDatagramChannel.class)
+                .handler(new SimpleChannelInboundHandler<Object>() {
+                    @Override
+                    protected void messageReceived(ChannelHandlerContext ctx, Object msg) {
+                        // Nothing will be received.
+                    }
+                });
+
+        Channel sc = sb.bind(new InetSocketAddress(NetUtil.LOCALHOST4, 0)).sync().channel();
+        Channel cc = cb.bind(new InetSocketAddress(NetUtil.LOCALHOST4, 0)).sync().channel();
+        try {
+            if (gro) {
+                try {
+                    ((EpollDatagramChannel) sc).config().setUdpGro(true);
+                } catch (RuntimeException e) {
+                    // UDP_GRO is not supported by the kernel.
+                    Assume.assumeNoException(e);
+                }
+            }
+
+            ByteBuf buf = Unpooled.directBuffer(3 * SEGMENT_SIZE + 50).writeZero(3 * SEGMENT_SIZE + 50);
+            try {
+                cc.writeAndFlush(new SegmentedDatagramPacket(
+                        buf, SEGMENT_SIZE, (InetSocketAddress) sc.localAddress())).sync();
+            } catch (Exception e) {
+                // UDP_SEGMENT is not supported by the kernel.
+                Assume.assumeNoException(e);
+            }
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < EXPECTED_SIZES.length; i++) {
+                assertEquals(EXPECTED_SIZES[i], sizes.get(i).intValue());
+            }
+        } finally {
+            sc.close().sync();
+            cc.close().sync();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DirectChunkProvider;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class EpollDirectChunkProviderTest {
+
+    @Test
+    public void testAnonymousMapping() {
+        testProvider(new EpollAnonymousDirectChunkProvider());
+    }
+
+    @Test
+    public void testAnonymousMappingWithoutHugePages() {
+        testProvider(new EpollAnonymousDirectChunkProvider(false, 4096));
+    }
+
+    @Test
+    public void testMemfd() {
+        // Does not need huge pages to be reserved.
+        testProvider(new EpollMemfdDirectChunkProvider(false, 4096));
+    }
+
+    @Test
+    public void testPooledByteBufAllocator() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 11, 0, 0, 0, 0,
+                new EpollAnonymousDirectChunkProvider(), false);
+        ByteBuf buf = allocator.directBuffer(1024);
+        buf.writeLong(42);
+        assertEquals(42, buf.readLong());
+        assertTrue(buf.release());
+        assertEquals(8192 << 11, allocator.usedDirectMemory());
+    }
+
+    private static void testProvider(DirectChunkProvider provider) {
+        ByteBuffer memory = provider.allocate(5000);
+        assertTrue(memory.isDirect());
+        // Rounded up to a multiple of the alignment.
+        assertEquals(0, memory.capacity() % 4096);
+        assertTrue(memory.capacity() >= 5000);
+
+        memory.putLong(0, 42);
+        memory.putLong(memory.capacity() - 8, 43);
+        assertEquals(42, memory.getLong(0));
+        assertEquals(43, memory.getLong(memory.capacity() - 8));
+        provider.free(memory);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.util.concurrent.Future;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EpollEventLoopBusyPollTest {
+
+    @Test(timeout = 10000)
+    public void testTasksAreExecutedWhileSpinning() throws Exception {
+        EpollEventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            group.setBusyPollMicros(100000);
+            final int tasks = 1000;
+            final CountDownLatch latch = new CountDownLatch(tasks);
+            for (int i = 0; i < tasks; i++) {
+                group.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        latch.countDown();
+                    }
+                });
+                if (i % 100 == 0) {
+                    // Give the event loop the chance to start spinning again.
+                    Thread.sleep(1);
+                }
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+            // Scheduled tasks must fire while spinning as well.
+            Future<Boolean> future = group.schedule(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return Boolean.TRUE;
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+        } finally {
+            assertTrue(group.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS).await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testBusyPollMicros() {
+        EpollEventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            EpollEventLoop loop = (EpollEventLoop) group.next();
+            assertEquals(0, loop.getBusyPollMicros());
+            group.setBusyPollMicros(50);
+            assertEquals(50, loop.getBusyPollMicros());
+            try {
+                loop.setBusyPollMicros(-1);
+                fail();
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS).syncUninterruptibly();
+        }
+    }
+}
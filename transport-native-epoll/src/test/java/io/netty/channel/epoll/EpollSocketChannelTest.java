@@ -16,12 +16,22 @@
 package io.netty.channel.epoll;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.util.ReferenceCountUtil;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 public class EpollSocketChannelTest {
 
@@ -62,6 +72,73 @@ public class EpollSocketChannelTest {
         }
     }
 
+    @Test(timeout = 30000)
+    public void testZeroCopyBuffersReleasedAfterClose() throws Exception {
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        final BlockingQueue<Channel> accepted = new LinkedBlockingQueue<Channel>();
+        final ByteBuf[] buffers = new ByteBuf[16];
+        try {
+            ServerBootstrap sb = new ServerBootstrap();
+            Channel sc = sb.group(group)
+                    .channel(EpollServerSocketChannel.class)
+                    .option(ChannelOption.SO_RCVBUF, 4096)
+                    .childOption(ChannelOption.AUTO_READ, false)
+                    .childHandler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelActive(ChannelHandlerContext ctx) {
+                            accepted.add(ctx.channel());
+                        }
+
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            ReferenceCountUtil.release(msg);
+                        }
+                    })
+                    .bind(new InetSocketAddress(0)).syncUninterruptibly().channel();
+
+            Bootstrap bootstrap = new Bootstrap();
+            final EpollSocketChannel ch = (EpollSocketChannel) bootstrap.group(group)
+                    .channel(EpollSocketChannel.class)
+                    .option(EpollChannelOption.SO_ZEROCOPY, true)
+                    .option(EpollChannelOption.ZEROCOPY_THRESHOLD, 0)
+                    .handler(new ChannelInboundHandlerAdapter())
+                    .connect(sc.localAddress()).syncUninterruptibly().channel();
+            Channel peer = accepted.take();
+            Assume.assumeTrue(ch.config().isZeroCopy());
+
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = Unpooled.directBuffer(65536).writeZero(65536);
+                Assume.assumeTrue(buffers[i].hasMemoryAddress());
+            }
+            // Write and close in one go, so the peer which does not read yet can not acknowledge the data before.
+            ch.eventLoop().submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (ByteBuf buf: buffers) {
+                        ch.write(buf);
+                    }
+                    ch.flush();
+                    ch.close();
+                }
+            }).syncUninterruptibly();
+            ch.closeFuture().syncUninterruptibly();
+            Assert.assertTrue(buffers[0].refCnt() > 0);
+
+            // Once the peer reads the data the kernel completes the pending MSG_ZEROCOPY calls.
+            peer.config().setAutoRead(true);
+            for (ByteBuf buf: buffers) {
+                while (buf.refCnt() > 0) {
+                    Thread.sleep(10);
+                }
+                Assert.assertEquals(0, buf.refCnt());
+            }
+            peer.close().syncUninterruptibly();
+            sc.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
     private static void assertTcpInfo0(EpollTcpInfo info) throws Exception {
         Assert.assertNotNull(info);
 
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ZeroCopyTrackerTest {
+
+    @Test
+    public void testCompleteInOrder() {
+        ZeroCopyTracker tracker = new ZeroCopyTracker();
+        ByteBuf[] buffers = add(tracker, 3);
+
+        tracker.complete(0, 1);
+        assertEquals(1, buffers[0].refCnt());
+        assertEquals(1, buffers[1].refCnt());
+        assertEquals(2, buffers[2].refCnt());
+        assertFalse(tracker.isEmpty());
+
+        tracker.complete(2, 2);
+        assertEquals(1, buffers[2].refCnt());
+        assertTrue(tracker.isEmpty());
+        release(buffers);
+    }
+
+    @Test
+    public void testCompleteOutOfOrder() {
+        ZeroCopyTracker tracker = new ZeroCopyTracker();
+        ByteBuf[] buffers = add(tracker, 4);
+
+        tracker.complete(2, 3);
+        assertEquals(2, buffers[0].refCnt());
+        assertEquals(2, buffers[1].refCnt());
+        assertEquals(1, buffers[2].refCnt());
+        assertEquals(1, buffers[3].refCnt());
+        assertFalse(tracker.isEmpty());
+
+        tracker.complete(0, 1);
+        assertEquals(1, buffers[0].refCnt());
+        assertEquals(1, buffers[1].refCnt());
+        assertTrue(tracker.isEmpty());
+        release(buffers);
+    }
+
+    @Test
+    public void testGrowAndLeakAll() {
+        ZeroCopyTracker tracker = new ZeroCopyTracker();
+        ByteBuf[] first = add(tracker, 10);
+        tracker.complete(0, 9);
+        // Wrap around the ring and grow it afterwards.
+        ByteBuf[] second = add(tracker, 40);
+        tracker.complete(10, 19);
+        for (int i = 0; i < second.length; i++) {
+            assertEquals(i < 10 ? 1 : 2, second[i].refCnt());
+        }
+
+        // The uncompleted buffers must not be released as the kernel may still reference their memory.
+        assertEquals(30, tracker.leakAll());
+        assertTrue(tracker.isEmpty());
+        for (int i = 0; i < second.length; i++) {
+            assertEquals(i < 10 ? 1 : 2, second[i].refCnt());
+        }
+        for (int i = 10; i < second.length; i++) {
+            second[i].release();
+        }
+        release(first);
+        release(second);
+    }
+
+    private static ByteBuf[] add(ZeroCopyTracker tracker, int count) {
+        ByteBuf[] buffers = new ByteBuf[count];
+        for (int i = 0; i < count; i++) {
+            buffers[i] = Unpooled.buffer(1);
+            tracker.add(buffers[i]);
+        }
+        return buffers;
+    }
+
+    private static void release(ByteBuf[] buffers) {
+        for (ByteBuf buf: buffers) {
+            assertTrue(buf.release());
+        }
+    }
+}
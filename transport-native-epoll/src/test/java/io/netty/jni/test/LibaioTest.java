@@ -15,6 +15,13 @@
  */
 package io.netty.jni.test;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.EventLoop;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.jni.libaio.CompletionListener;
+import io.netty.jni.libaio.LibaioBatch;
 import io.netty.jni.libaio.LibaioFile;
 import io.netty.jni.libaio.LibaioContext;
 import io.netty.jni.libaio.ErrorInfo;
@@ -30,6 +37,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -285,6 +294,190 @@ public class LibaioTest {
         }
     }
 
+    @Test
+    public void testSubmitWriteAndReadAlignedByteBuf() throws Exception {
+        Object[] callbacks = new Object[LIBAIO_QUEUE_SIZE];
+
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 11, 0, 0, 0, 512);
+
+        LibaioFile fileDescriptor = control.openFile(temporaryFolder.newFile("test.bin"), true);
+
+        ByteBuf writeBuffer = allocator.directBuffer(1024);
+        ByteBuf readBuffer = allocator.directBuffer(1024);
+        try {
+            for (int i = 0; i < 1024; i++) {
+                writeBuffer.writeByte('p');
+            }
+
+            Assert.assertTrue(fileDescriptor.write(0, writeBuffer, null));
+            Assert.assertEquals(1, control.poll(callbacks, 1, LIBAIO_QUEUE_SIZE));
+            Assert.assertNull(callbacks[0]);
+
+            Assert.assertTrue(fileDescriptor.read(0, readBuffer, null));
+            Assert.assertEquals(1, control.poll(callbacks, 1, LIBAIO_QUEUE_SIZE));
+            Assert.assertNull(callbacks[0]);
+            readBuffer.writerIndex(1024);
+
+            Assert.assertEquals(writeBuffer, readBuffer);
+        } finally {
+            writeBuffer.release();
+            readBuffer.release();
+            fileDescriptor.close();
+        }
+    }
+
+    @Test
+    public void testWritevAndReadvCompositeByteBuf() throws Exception {
+        Object[] callbacks = new Object[LIBAIO_QUEUE_SIZE];
+
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 11, 0, 0, 0, 512);
+
+        LibaioFile fileDescriptor = control.openFile(temporaryFolder.newFile("test.bin"), true);
+
+        CompositeByteBuf record = allocator.compositeDirectBuffer();
+        CompositeByteBuf readRecord = allocator.compositeDirectBuffer();
+        try {
+            ByteBuf header = allocator.directBuffer(512);
+            ByteBuf payload = allocator.directBuffer(1024);
+            for (int i = 0; i < 512; i++) {
+                header.writeByte('h');
+            }
+            for (int i = 0; i < 1024; i++) {
+                payload.writeByte('p');
+            }
+            record.addComponents(header, payload);
+            record.writerIndex(512 + 1024);
+
+            Assert.assertTrue(fileDescriptor.writev(0, record, null));
+            Assert.assertEquals(1, control.poll(callbacks, 1, LIBAIO_QUEUE_SIZE));
+            Assert.assertNull(callbacks[0]);
+
+            // The components only contribute their readable bytes to the capacity of the composite, so mark them
+            // as written and let the composite start with an empty (writerIndex 0) window over them.
+            ByteBuf first = allocator.directBuffer(1024, 1024);
+            ByteBuf second = allocator.directBuffer(512, 512);
+            first.writerIndex(first.capacity());
+            second.writerIndex(second.capacity());
+            readRecord.addComponents(first, second);
+            readRecord.writerIndex(0);
+            Assert.assertEquals(512 + 1024, readRecord.writableBytes());
+
+            Assert.assertTrue(fileDescriptor.readv(0, readRecord, null));
+            Assert.assertEquals(1, control.poll(callbacks, 1, LIBAIO_QUEUE_SIZE));
+            Assert.assertNull(callbacks[0]);
+            readRecord.writerIndex(512 + 1024);
+
+            for (int i = 0; i < 512 + 1024; i++) {
+                Assert.assertEquals(i < 512 ? 'h' : 'p', readRecord.getByte(i));
+            }
+            Assert.assertEquals(record, readRecord);
+        } finally {
+            record.release();
+            readRecord.release();
+            fileDescriptor.close();
+        }
+    }
+
+    @Test
+    public void testSubmitBatch() throws Exception {
+        File file = temporaryFolder.newFile("test.bin");
+
+        fillupFile(file, LIBAIO_QUEUE_SIZE + 1);
+
+        Object[] callbacks = new Object[LIBAIO_QUEUE_SIZE];
+
+        LibaioFile fileDescriptor = control.openFile(file, true);
+
+        ByteBuffer buffer = LibaioContext.newAlignedBuffer(512, 512);
+
+        try {
+            for (int i = 0; i < 512; i++) {
+                buffer.put((byte) 'b');
+            }
+
+            LibaioBatch batch = control.newBatch(4);
+            for (int i = 0; i < LIBAIO_QUEUE_SIZE + 1; i++) {
+                batch.write(fileDescriptor, i * 512, 512, buffer, new CountClass());
+            }
+            Assert.assertEquals(LIBAIO_QUEUE_SIZE + 1, batch.size());
+
+            // only LIBAIO_QUEUE_SIZE iocbs are available, the last write needs to stay queued
+            Assert.assertEquals(LIBAIO_QUEUE_SIZE, batch.submit());
+            Assert.assertEquals(1, batch.size());
+
+            Assert.assertEquals(LIBAIO_QUEUE_SIZE, control.poll(callbacks, LIBAIO_QUEUE_SIZE, LIBAIO_QUEUE_SIZE));
+
+            Assert.assertEquals(1, batch.submit());
+            Assert.assertEquals(0, batch.size());
+            Assert.assertEquals(1, control.poll(callbacks, 1, LIBAIO_QUEUE_SIZE));
+
+            ByteBuffer bigbuffer = LibaioContext.newAlignedBuffer(512 * (LIBAIO_QUEUE_SIZE + 1), 512);
+            try {
+                Assert.assertTrue(fileDescriptor.read(0, 512 * (LIBAIO_QUEUE_SIZE + 1), bigbuffer, null));
+                Assert.assertEquals(1, control.poll(callbacks, 1, LIBAIO_QUEUE_SIZE));
+                for (int i = 0; i < 512 * (LIBAIO_QUEUE_SIZE + 1); i++) {
+                    Assert.assertEquals('b', bigbuffer.get());
+                }
+            } finally {
+                LibaioContext.freeBuffer(bigbuffer);
+            }
+
+            for (int i = 0; i < callbacks.length; i++) {
+                callbacks[i] = null;
+            }
+
+            CountClass.checkLeaks();
+        } finally {
+            LibaioContext.freeBuffer(buffer);
+            fileDescriptor.close();
+        }
+    }
+
+    @Test
+    public void testEventLoopCompletion() throws Exception {
+        File file = temporaryFolder.newFile("test.bin");
+
+        fillupFile(file, LIBAIO_QUEUE_SIZE);
+
+        EpollEventLoopGroup group = new EpollEventLoopGroup(1);
+        final EventLoop eventLoop = group.next();
+        final CountDownLatch latch = new CountDownLatch(LIBAIO_QUEUE_SIZE);
+        final AtomicInteger failures = new AtomicInteger();
+
+        LibaioFile fileDescriptor = control.openFile(file, true);
+        ByteBuffer buffer = LibaioContext.newAlignedBuffer(512, 512);
+
+        try {
+            control.register(eventLoop, new CompletionListener() {
+                @Override
+                public void onCompletion(Object callback) {
+                    if (!eventLoop.inEventLoop() || callback instanceof ErrorInfo) {
+                        failures.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            }).sync();
+
+            for (int i = 0; i < 512; i++) {
+                buffer.put((byte) 'e');
+            }
+
+            for (int i = 0; i < LIBAIO_QUEUE_SIZE; i++) {
+                Assert.assertTrue(fileDescriptor.write(i * 512, 512, buffer, new CountClass()));
+            }
+
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(0, failures.get());
+
+            CountClass.checkLeaks();
+        } finally {
+            control.close();
+            fileDescriptor.close();
+            LibaioContext.freeBuffer(buffer);
+            group.shutdownGracefully().sync();
+        }
+    }
+
     @Test
     public void testInvalidWrite() throws Exception {
 
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+#ifndef _GNU_SOURCE
+// O_DIRECT and syscall(...) won't be available without this define
+#define _GNU_SOURCE
+#endif
+
+#include <jni.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <poll.h>
+#include <string.h>
+#include <unistd.h>
+#include <sys/mman.h>
+#include <sys/socket.h>
+#include <sys/stat.h>
+#include <sys/syscall.h>
+#include <sys/types.h>
+#include "io_netty_channel_uring_Native.h"
+
+// The layout of the long[] which is filled by ioUringSetup(...) and passed back to ioUringExit(...). Keep in sync
+// with RingBuffer.java.
+#define RING_SQ_RING_PTR 0
+#define RING_SQ_RING_SIZE 1
+#define RING_SQ_HEAD 2
+#define RING_SQ_TAIL 3
+#define RING_SQ_RING_MASK 4
+#define RING_SQ_RING_ENTRIES 5
+#define RING_SQ_FLAGS 6
+#define RING_SQ_ARRAY 7
+#define RING_SQES 8
+#define RING_SQES_SIZE 9
+#define RING_CQ_RING_PTR 10
+#define RING_CQ_RING_SIZE 11
+#define RING_CQ_HEAD 12
+#define RING_CQ_TAIL 13
+#define RING_CQ_RING_MASK 14
+#define RING_CQ_RING_ENTRIES 15
+#define RING_CQES 16
+#define RING_LENGTH 17
+
+static int sys_io_uring_setup(unsigned int entries, struct netty_io_uring_params* p) {
+    return (int) syscall(__NR_io_uring_setup, entries, p);
+}
+
+static int sys_io_uring_enter(int fd, unsigned int toSubmit, unsigned int minComplete, unsigned int flags) {
+    return (int) syscall(__NR_io_uring_enter, fd, toSubmit, minComplete, flags, NULL, 0);
+}
+
+static int sys_io_uring_register(int fd, unsigned int opcode, void* arg, unsigned int nrArgs) {
+    return (int) syscall(__NR_io_uring_register, fd, opcode, arg, nrArgs);
+}
+
+jint Java_io_netty_channel_uring_Native_ioUringSetup(JNIEnv* env, jclass clazz, jint entries, jlongArray ring) {
+    struct netty_io_uring_params p;
+    memset(&p, 0, sizeof(p));
+
+    int ringFd = sys_io_uring_setup((unsigned int) entries, &p);
+    if (ringFd < 0) {
+        return -errno;
+    }
+
+    size_t sqRingSize = p.sq_off.array + p.sq_entries * sizeof(uint32_t);
+    size_t cqRingSize = p.cq_off.cqes + p.cq_entries * NETTY_IO_URING_CQE_SIZE;
+    if ((p.features & NETTY_IORING_FEAT_SINGLE_MMAP) != 0) {
+        // The completion queue ring shares the mapping of the submission queue ring.
+        if (cqRingSize > sqRingSize) {
+            sqRingSize = cqRingSize;
+        }
+        cqRingSize = sqRingSize;
+    }
+
+    void* sqRing = mmap(NULL, sqRingSize, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd,
+                        NETTY_IORING_OFF_SQ_RING);
+    if (sqRing == MAP_FAILED) {
+        int err = errno;
+        close(ringFd);
+        return -err;
+    }
+
+    void* cqRing = sqRing;
+    if ((p.features & NETTY_IORING_FEAT_SINGLE_MMAP) == 0) {
+        cqRing = mmap(NULL, cqRingSize, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd,
+                      NETTY_IORING_OFF_CQ_RING);
+        if (cqRing == MAP_FAILED) {
+            int err = errno;
+            munmap(sqRing, sqRingSize);
+            close(ringFd);
+            return -err;
+        }
+    }
+
+    size_t sqesSize = p.sq_entries * NETTY_IO_URING_SQE_SIZE;
+    void* sqes = mmap(NULL, sqesSize, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd,
+                      NETTY_IORING_OFF_SQES);
+    if (sqes == MAP_FAILED) {
+        int err = errno;
+        if (cqRing != sqRing) {
+            munmap(cqRing, cqRingSize);
+        }
+        munmap(sqRing, sqRingSize);
+        close(ringFd);
+        return -err;
+    }
+
+    jlong values[RING_LENGTH];
+    values[RING_SQ_RING_PTR] = (jlong) sqRing;
+    values[RING_SQ_RING_SIZE] = (jlong) sqRingSize;
+    values[RING_SQ_HEAD] = (jlong) sqRing + p.sq_off.head;
+    values[RING_SQ_TAIL] = (jlong) sqRing + p.sq_off.tail;
+    values[RING_SQ_RING_MASK] = *((uint32_t*) ((char*) sqRing + p.sq_off.ring_mask));
+    values[RING_SQ_RING_ENTRIES] = *((uint32_t*) ((char*) sqRing + p.sq_off.ring_entries));
+    values[RING_SQ_FLAGS] = (jlong) sqRing + p.sq_off.flags;
+    values[RING_SQ_ARRAY] = (jlong) sqRing + p.sq_off.array;
+    values[RING_SQES] = (jlong) sqes;
+    values[RING_SQES_SIZE] = (jlong) sqesSize;
+    values[RING_CQ_RING_PTR] = (jlong) cqRing;
+    values[RING_CQ_RING_SIZE] = cqRing == sqRing ? 0 : (jlong) cqRingSize;
+    values[RING_CQ_HEAD] = (jlong) cqRing + p.cq_off.head;
+    values[RING_CQ_TAIL] = (jlong) cqRing + p.cq_off.tail;
+    values[RING_CQ_RING_MASK] = *((uint32_t*) ((char*) cqRing + p.cq_off.ring_mask));
+    values[RING_CQ_RING_ENTRIES] = *((uint32_t*) ((char*) cqRing + p.cq_off.ring_entries));
+    values[RING_CQES] = (jlong) cqRing + p.cq_off.cqes;
+    (*env)->SetLongArrayRegion(env, ring, 0, RING_LENGTH, values);
+    return ringFd;
+}
+
+jint Java_io_netty_channel_uring_Native_ioUringExit(JNIEnv* env, jclass clazz, jint ringFd, jlongArray ring) {
+    jlong values[RING_LENGTH];
+    (*env)->GetLongArrayRegion(env, ring, 0, RING_LENGTH, values);
+
+    munmap((void*) values[RING_SQES], (size_t) values[RING_SQES_SIZE]);
+    if (values[RING_CQ_RING_SIZE] != 0) {
+        munmap((void*) values[RING_CQ_RING_PTR], (size_t) values[RING_CQ_RING_SIZE]);
+    }
+    munmap((void*) values[RING_SQ_RING_PTR], (size_t) values[RING_SQ_RING_SIZE]);
+    if (close(ringFd) < 0) {
+        return -errno;
+    }
+    return 0;
+}
+
+jint Java_io_netty_channel_uring_Native_ioUringEnter0(
+        JNIEnv* env, jclass clazz, jint ringFd, jint toSubmit, jint minComplete, jint flags) {
+    int res;
+    do {
+        res = sys_io_uring_enter(ringFd, (unsigned int) toSubmit, (unsigned int) minComplete, (unsigned int) flags);
+        // Keep on retrying on interrupt only if nothing was submitted yet, as otherwise we would submit twice.
+    } while (res < 0 && errno == EINTR && toSubmit == 0);
+    if (res < 0) {
+        return -errno;
+    }
+    return res;
+}
+
+jboolean Java_io_netty_channel_uring_Native_ioUringProbe(JNIEnv* env, jclass clazz, jint ringFd, jintArray ops) {
+    struct netty_io_uring_probe probe;
+    memset(&probe, 0, sizeof(probe));
+    if (sys_io_uring_register(ringFd, NETTY_IORING_REGISTER_PROBE, &probe, NETTY_IORING_OP_LAST) < 0) {
+        // Kernels before 5.6 don't support probing, and also don't support all the operations we need.
+        return JNI_FALSE;
+    }
+
+    jint len = (*env)->GetArrayLength(env, ops);
+    jint values[len];
+    (*env)->GetIntArrayRegion(env, ops, 0, len, values);
+    int i;
+    for (i = 0; i < len; i++) {
+        int op = values[i];
+        if (op > probe.last_op || (probe.ops[op].flags & NETTY_IO_URING_OP_SUPPORTED) == 0) {
+            return JNI_FALSE;
+        }
+    }
+    return JNI_TRUE;
+}
+
+jint Java_io_netty_channel_uring_Native_open0(JNIEnv* env, jclass clazz, jstring path, jboolean direct) {
+    const char* file = (*env)->GetStringUTFChars(env, path, 0);
+    int flags = O_RDWR | O_CREAT | O_CLOEXEC;
+    if (direct == JNI_TRUE) {
+        flags |= O_DIRECT;
+    }
+    int res = open(file, flags, 0666);
+    (*env)->ReleaseStringUTFChars(env, path, file);
+    if (res < 0) {
+        return -errno;
+    }
+    return res;
+}
+
+jint Java_io_netty_channel_uring_Native_sizeofSqe(JNIEnv* env, jclass clazz) {
+    return NETTY_IO_URING_SQE_SIZE;
+}
+
+jint Java_io_netty_channel_uring_Native_sizeofCqe(JNIEnv* env, jclass clazz) {
+    return NETTY_IO_URING_CQE_SIZE;
+}
+
+jint Java_io_netty_channel_uring_Native_errnoETIME(JNIEnv* env, jclass clazz) {
+    return ETIME;
+}
+
+jint Java_io_netty_channel_uring_Native_errnoECANCELED(JNIEnv* env, jclass clazz) {
+    return ECANCELED;
+}
+
+jint Java_io_netty_channel_uring_Native_errnoEAGAIN(JNIEnv* env, jclass clazz) {
+    return EAGAIN;
+}
+
+jint Java_io_netty_channel_uring_Native_errnoEINTR(JNIEnv* env, jclass clazz) {
+    return EINTR;
+}
+
+jint Java_io_netty_channel_uring_Native_errnoEBUSY(JNIEnv* env, jclass clazz) {
+    return EBUSY;
+}
+
+jint Java_io_netty_channel_uring_Native_pollin(JNIEnv* env, jclass clazz) {
+    return POLLIN;
+}
+
+jint Java_io_netty_channel_uring_Native_pollout(JNIEnv* env, jclass clazz) {
+    return POLLOUT;
+}
+
+jint Java_io_netty_channel_uring_Native_sockNonblock(JNIEnv* env, jclass clazz) {
+    return SOCK_NONBLOCK;
+}
+
+jint Java_io_netty_channel_uring_Native_sockCloexec(JNIEnv* env, jclass clazz) {
+    return SOCK_CLOEXEC;
+}
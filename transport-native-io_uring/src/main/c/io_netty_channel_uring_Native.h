@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+#include <jni.h>
+#include <stdint.h>
+
+// The io_uring ABI as defined by linux/io_uring.h. It is copied here so the library can be built on systems whose
+// kernel headers are older than the kernel it is run on, in which case we fail at runtime with ENOSYS instead.
+#ifndef __NR_io_uring_setup
+#define __NR_io_uring_setup 425
+#endif
+#ifndef __NR_io_uring_enter
+#define __NR_io_uring_enter 426
+#endif
+#ifndef __NR_io_uring_register
+#define __NR_io_uring_register 427
+#endif
+
+#define NETTY_IORING_OFF_SQ_RING 0ULL
+#define NETTY_IORING_OFF_CQ_RING 0x8000000ULL
+#define NETTY_IORING_OFF_SQES 0x10000000ULL
+
+#define NETTY_IORING_FEAT_SINGLE_MMAP (1U << 0)
+#define NETTY_IORING_REGISTER_PROBE 8
+#define NETTY_IO_URING_OP_SUPPORTED (1U << 0)
+#define NETTY_IORING_OP_LAST 64
+
+struct netty_io_sqring_offsets {
+    uint32_t head;
+    uint32_t tail;
+    uint32_t ring_mask;
+    uint32_t ring_entries;
+    uint32_t flags;
+    uint32_t dropped;
+    uint32_t array;
+    uint32_t resv1;
+    uint64_t resv2;
+};
+
+struct netty_io_cqring_offsets {
+    uint32_t head;
+    uint32_t tail;
+    uint32_t ring_mask;
+    uint32_t ring_entries;
+    uint32_t overflow;
+    uint32_t cqes;
+    uint32_t flags;
+    uint32_t resv1;
+    uint64_t resv2;
+};
+
+struct netty_io_uring_params {
+    uint32_t sq_entries;
+    uint32_t cq_entries;
+    uint32_t flags;
+    uint32_t sq_thread_cpu;
+    uint32_t sq_thread_idle;
+    uint32_t features;
+    uint32_t wq_fd;
+    uint32_t resv[3];
+    struct netty_io_sqring_offsets sq_off;
+    struct netty_io_cqring_offsets cq_off;
+};
+
+struct netty_io_uring_probe_op {
+    uint8_t op;
+    uint8_t resv;
+    uint16_t flags;
+    uint32_t resv2;
+};
+
+struct netty_io_uring_probe {
+    uint8_t last_op;
+    uint8_t ops_len;
+    uint16_t resv;
+    uint32_t resv2[3];
+    struct netty_io_uring_probe_op ops[NETTY_IORING_OP_LAST];
+};
+
+// Size of an io_uring_sqe and io_uring_cqe, the Java side writes and reads them directly.
+#define NETTY_IO_URING_SQE_SIZE 64
+#define NETTY_IO_URING_CQE_SIZE 16
+
+jint Java_io_netty_channel_uring_Native_ioUringSetup(JNIEnv* env, jclass clazz, jint entries, jlongArray ring);
+jint Java_io_netty_channel_uring_Native_ioUringExit(JNIEnv* env, jclass clazz, jint ringFd, jlongArray ring);
+jint Java_io_netty_channel_uring_Native_ioUringEnter0(
+        JNIEnv* env, jclass clazz, jint ringFd, jint toSubmit, jint minComplete, jint flags);
+jboolean Java_io_netty_channel_uring_Native_ioUringProbe(JNIEnv* env, jclass clazz, jint ringFd, jintArray ops);
+jint Java_io_netty_channel_uring_Native_open0(JNIEnv* env, jclass clazz, jstring path, jboolean direct);
+jint Java_io_netty_channel_uring_Native_sizeofSqe(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_sizeofCqe(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_errnoETIME(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_errnoECANCELED(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_errnoEAGAIN(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_errnoEINTR(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_errnoEBUSY(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_pollin(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_pollout(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_sockNonblock(JNIEnv* env, jclass clazz);
+jint Java_io_netty_channel_uring_Native_sockCloexec(JNIEnv* env, jclass clazz);
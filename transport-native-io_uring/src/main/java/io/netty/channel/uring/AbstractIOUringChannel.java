@@ -0,0 +1,259 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.EventLoop;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.channel.unix.UnixChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.internal.OneTimeTask;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.UnresolvedAddressException;
+
+/**
+ * Base class for all {@link Channel}s which are driven by an {@link IOUringEventLoop}.
+ *
+ * All operations of a {@link Channel} are submitted with the id it got when it was registered. As the kernel may
+ * still access the memory of an operation until it completed, the {@link Channel} is only removed from the
+ * {@link IOUringEventLoop} once all of its operations completed. Until then the {@link Channel} can not be registered
+ * again, as the completions are still handled by the thread of the previous {@link IOUringEventLoop}.
+ */
+abstract class AbstractIOUringChannel extends AbstractChannel implements UnixChannel {
+    private static final ChannelMetadata DATA = new ChannelMetadata(false);
+    private final FileDescriptor fileDescriptor;
+
+    protected volatile boolean active;
+
+    // The IOUringEventLoop this Channel was added to and the id assigned by it. Both stay valid after the Channel was
+    // deregistered until all the operations submitted to this loop completed.
+    private IOUringEventLoop loop;
+    int id;
+    // The number of submitted operations which did not complete yet.
+    private int inFlight;
+    // Set while deregistered but still waiting for the completions of operations which were in flight.
+    private volatile boolean removeOnCompletion;
+
+    AbstractIOUringChannel(Channel parent, int fd, boolean active) {
+        this(parent, new FileDescriptor(fd), active);
+    }
+
+    AbstractIOUringChannel(Channel parent, FileDescriptor fd, boolean active) {
+        super(parent);
+        if (fd == null) {
+            throw new NullPointerException("fd");
+        }
+        this.active = active;
+        fileDescriptor = fd;
+    }
+
+    @Override
+    public final FileDescriptor fd() {
+        return fileDescriptor;
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return DATA;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return fileDescriptor.isOpen();
+    }
+
+    @Override
+    protected boolean isCompatible(EventLoop loop) {
+        return loop instanceof IOUringEventLoop;
+    }
+
+    final IOUringEventLoop ioUringEventLoop() {
+        return (IOUringEventLoop) eventLoop().unwrap();
+    }
+
+    /**
+     * Returns the {@link IOUringSubmissionQueue} of the {@link IOUringEventLoop} this {@link Channel} was added to,
+     * which must only be used while registered.
+     */
+    final IOUringSubmissionQueue submissionQueue() {
+        return loop.submissionQueue();
+    }
+
+    /**
+     * Must be called after an operation was added to the {@link IOUringSubmissionQueue}.
+     */
+    final void submitted(boolean added) throws IOException {
+        if (!added) {
+            throw new IOException("io_uring submission queue is full");
+        }
+        inFlight++;
+    }
+
+    @Override
+    protected void doRegister() throws Exception {
+        if (removeOnCompletion) {
+            // The previous IOUringEventLoop still owns our state until the operations in flight completed.
+            throw new IllegalStateException(
+                    "operations submitted to the previous event loop did not complete yet: " + loop);
+        }
+        IOUringEventLoop loop = ioUringEventLoop();
+        id = loop.add((AbstractIOUringUnsafe) unsafe());
+        this.loop = loop;
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        cancelOperations();
+        if (inFlight == 0) {
+            loop.remove(id);
+        } else {
+            // Still need to get notified about the completions, so any memory held by them can be released.
+            removeOnCompletion = true;
+        }
+    }
+
+    /**
+     * Cancel all operations which may not complete on their own, like pending reads.
+     */
+    protected abstract void cancelOperations() throws IOException;
+
+    @Override
+    protected void doClose() throws Exception {
+        active = false;
+        // Ensure the file descriptor is closed in all cases. The pending operations are cancelled once the Channel is
+        // deregistered, which always follows a close.
+        fileDescriptor.close();
+    }
+
+    @Override
+    protected void doDisconnect() throws Exception {
+        doClose();
+    }
+
+    @Override
+    protected void doBeginRead() throws Exception {
+        // Channel.read() or ChannelHandlerContext.read() was called
+        AbstractIOUringUnsafe unsafe = (AbstractIOUringUnsafe) unsafe();
+        unsafe.readPending = true;
+        unsafe.submitRead();
+    }
+
+    /**
+     * Called once the user stopped reading, so the completion of a read which is still in flight does not deliver
+     * anything until the next read is requested.
+     */
+    final void clearReadPending() {
+        if (isRegistered()) {
+            final EventLoop loop = eventLoop();
+            final AbstractIOUringUnsafe unsafe = (AbstractIOUringUnsafe) unsafe();
+            if (loop.inEventLoop()) {
+                unsafe.readPending = false;
+            } else {
+                loop.execute(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        if (!config().isAutoRead()) {
+                            // Still no read requested so clear it now
+                            unsafe.readPending = false;
+                        }
+                    }
+                });
+            }
+        } else {
+            ((AbstractIOUringUnsafe) unsafe()).readPending = false;
+        }
+    }
+
+    @Override
+    protected abstract AbstractIOUringUnsafe newUnsafe();
+
+    /**
+     * Returns an off-heap copy of the specified {@link ByteBuf}, and releases the original one.
+     */
+    protected final ByteBuf newDirectBuffer(ByteBuf buf) {
+        final int readableBytes = buf.readableBytes();
+        if (readableBytes == 0) {
+            ReferenceCountUtil.safeRelease(buf);
+            return Unpooled.EMPTY_BUFFER;
+        }
+
+        final ByteBufAllocator alloc = alloc();
+        if (!alloc.isDirectBufferPooled()) {
+            final ByteBuf directBuf = ByteBufUtil.threadLocalDirectBuffer();
+            if (directBuf != null && directBuf.hasMemoryAddress()) {
+                directBuf.writeBytes(buf, buf.readerIndex(), readableBytes);
+                ReferenceCountUtil.safeRelease(buf);
+                return directBuf;
+            }
+        }
+
+        final ByteBuf directBuf = alloc.directBuffer(readableBytes);
+        directBuf.writeBytes(buf, buf.readerIndex(), readableBytes);
+        ReferenceCountUtil.safeRelease(buf);
+        return directBuf;
+    }
+
+    protected static void checkResolvable(InetSocketAddress addr) {
+        if (addr.isUnresolved()) {
+            throw new UnresolvedAddressException();
+        }
+    }
+
+    protected abstract class AbstractIOUringUnsafe extends AbstractUnsafe implements IOUringCompletionHandler {
+        protected boolean readPending;
+
+        final AbstractIOUringChannel channel() {
+            return AbstractIOUringChannel.this;
+        }
+
+        /**
+         * Submit the next read if none is in flight already and the {@link Channel} is still registered.
+         */
+        abstract void submitRead() throws IOException;
+
+        @Override
+        public final void handle(byte op, int res, int data) {
+            inFlight--;
+            try {
+                handleCompletion(op, res, data);
+            } finally {
+                if (removeOnCompletion && inFlight == 0) {
+                    // Use the loop we were added to, eventLoop() may already point to the next one.
+                    loop.remove(id);
+                    removeOnCompletion = false;
+                }
+            }
+        }
+
+        /**
+         * Called once an operation of this {@link Channel} completed.
+         */
+        abstract void handleCompletion(byte op, int res, int data);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.unix.FileDescriptor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Base class for {@link ServerChannel}s which accept connections by submitting {@code IORING_OP_ACCEPT}.
+ */
+abstract class AbstractIOUringServerChannel extends AbstractIOUringChannel implements ServerChannel {
+
+    private boolean acceptSubmitted;
+
+    AbstractIOUringServerChannel(int fd) {
+        super(null, fd, false);
+    }
+
+    AbstractIOUringServerChannel(FileDescriptor fd) {
+        super(null, fd, io.netty.channel.epoll.Native.getSoError(fd.intValue()) == 0);
+    }
+
+    @Override
+    protected InetSocketAddress remoteAddress0() {
+        return null;
+    }
+
+    @Override
+    protected AbstractIOUringUnsafe newUnsafe() {
+        return new IOUringServerSocketUnsafe();
+    }
+
+    @Override
+    protected void doWrite(ChannelOutboundBuffer in) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected Object filterOutboundMessage(Object msg) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void cancelOperations() throws IOException {
+        if (acceptSubmitted) {
+            submitted(submissionQueue().addCancel(
+                    IOUringSubmissionQueue.userData(id, Native.IORING_OP_ACCEPT, 0), id));
+        }
+    }
+
+    abstract Channel newChildChannel(int fd) throws Exception;
+
+    final class IOUringServerSocketUnsafe extends AbstractIOUringUnsafe {
+
+        @Override
+        public void connect(SocketAddress socketAddress, SocketAddress socketAddress2, ChannelPromise channelPromise) {
+            // Connect not supported by ServerChannel implementations
+            channelPromise.setFailure(new UnsupportedOperationException());
+        }
+
+        @Override
+        void submitRead() throws IOException {
+            if (acceptSubmitted || !isActive() || !isRegistered()) {
+                return;
+            }
+            submitted(submissionQueue().addAccept(fd().intValue(), Native.SOCK_NONBLOCK | Native.SOCK_CLOEXEC, id));
+            acceptSubmitted = true;
+        }
+
+        @Override
+        void handleCompletion(byte op, int res, int data) {
+            if (op != Native.IORING_OP_ACCEPT) {
+                return;
+            }
+            acceptSubmitted = false;
+            if (!isOpen()) {
+                if (res >= 0) {
+                    // Accepted while we were closed, nobody will ever use it.
+                    closeAccepted(res);
+                }
+                return;
+            }
+
+            final ChannelPipeline pipeline = pipeline();
+            if (res >= 0) {
+                readPending = false;
+                Throwable exception = null;
+                try {
+                    pipeline.fireChannelRead(newChildChannel(res));
+                } catch (Throwable t) {
+                    exception = t;
+                }
+                pipeline.fireChannelReadComplete();
+
+                if (exception != null) {
+                    pipeline.fireExceptionCaught(exception);
+                }
+            } else if (res != Native.ERRNO_EAGAIN_NEGATIVE && res != Native.ERRNO_ECANCELED_NEGATIVE) {
+                pipeline.fireExceptionCaught(Native.newIOException("accept", res));
+            }
+
+            if (readPending || config().isAutoRead()) {
+                try {
+                    submitRead();
+                } catch (IOException e) {
+                    pipeline.fireExceptionCaught(e);
+                    close(voidPromise());
+                }
+            }
+        }
+
+        private void closeAccepted(int fd) {
+            try {
+                io.netty.channel.epoll.Native.close(fd);
+            } catch (IOException ignore) {
+                // ignore
+            }
+        }
+    }
+}
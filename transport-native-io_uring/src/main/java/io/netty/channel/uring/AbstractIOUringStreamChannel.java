@@ -0,0 +1,524 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.socket.ChannelInputShutdownEvent;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.util.internal.EmptyArrays;
+import io.netty.util.internal.StringUtil;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for stream {@link Channel}s, which read by submitting {@code IORING_OP_RECV} and write by submitting
+ * {@code IORING_OP_SENDMSG}. At most one read and one write are in flight at any time, so the order of the data is
+ * preserved.
+ */
+abstract class AbstractIOUringStreamChannel extends AbstractIOUringChannel {
+
+    private static final String EXPECTED_TYPES =
+            " (expected: " + StringUtil.simpleClassName(ByteBuf.class) + ')';
+    private static final ClosedChannelException CLOSED_CHANNEL_EXCEPTION = new ClosedChannelException();
+
+    static {
+        CLOSED_CHANNEL_EXCEPTION.setStackTrace(EmptyArrays.EMPTY_STACK_TRACE);
+    }
+
+    /**
+     * The future of the current connection attempt.  If not null, subsequent
+     * connection attempts will fail.
+     */
+    private ChannelPromise connectPromise;
+    private ScheduledFuture<?> connectTimeoutFuture;
+    private SocketAddress requestedRemoteAddress;
+
+    // The buffer of the read in flight, the kernel may write to it until the read completed.
+    private ByteBuf readBuffer;
+    private boolean readSubmitted;
+    // Data which was received after the user stopped reading, held until the next read is requested.
+    private ByteBuf receivedBuffer;
+    private boolean receivedDeliveryScheduled;
+    private boolean pollSubmitted;
+    private boolean writeSubmitted;
+    private IovArray iovArray;
+
+    private volatile boolean inputShutdown;
+    private volatile boolean outputShutdown;
+
+    protected AbstractIOUringStreamChannel(Channel parent, int fd) {
+        super(parent, fd, true);
+    }
+
+    protected AbstractIOUringStreamChannel(int fd) {
+        super(null, fd, false);
+    }
+
+    protected AbstractIOUringStreamChannel(FileDescriptor fd) {
+        super(null, fd, io.netty.channel.epoll.Native.getSoError(fd.intValue()) == 0);
+    }
+
+    @Override
+    protected AbstractIOUringUnsafe newUnsafe() {
+        return new IOUringStreamUnsafe();
+    }
+
+    @Override
+    protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof ByteBuf) {
+            ByteBuf buf = (ByteBuf) msg;
+            // The kernel needs the memory address of the buffer.
+            return buf.hasMemoryAddress() ? buf : newDirectBuffer(buf);
+        }
+
+        throw new UnsupportedOperationException(
+                "unsupported message type: " + StringUtil.simpleClassName(msg) + EXPECTED_TYPES);
+    }
+
+    @Override
+    protected void doWrite(ChannelOutboundBuffer in) throws Exception {
+        if (writeSubmitted || !isRegistered()) {
+            // The completion of the write in flight will trigger the next one, or the flushed messages are written
+            // once registered again.
+            return;
+        }
+        IovArray array = iovArray;
+        if (array == null) {
+            iovArray = array = new IovArray();
+        }
+        in.forEachFlushedMessage(array);
+        if (array.count() == 0) {
+            // Only empty buffers were flushed, so just remove them.
+            while (!in.isEmpty()) {
+                in.remove();
+            }
+            return;
+        }
+        boolean success = false;
+        try {
+            submitted(submissionQueue().addSendmsg(fd().intValue(), array.msgHdrAddress(), id));
+            writeSubmitted = true;
+            success = true;
+        } finally {
+            if (!success) {
+                array.releaseBuffers();
+            }
+        }
+    }
+
+    protected boolean isInputShutdown0() {
+        return inputShutdown;
+    }
+
+    protected boolean isOutputShutdown0() {
+        return outputShutdown || !isActive();
+    }
+
+    protected void shutdownOutput0(final ChannelPromise promise) {
+        try {
+            io.netty.channel.epoll.Native.shutdown(fd().intValue(), false, true);
+            outputShutdown = true;
+            promise.setSuccess();
+        } catch (Throwable cause) {
+            promise.setFailure(cause);
+        }
+    }
+
+    @Override
+    protected void cancelOperations() throws IOException {
+        if (readSubmitted) {
+            submitted(submissionQueue().addCancel(IOUringSubmissionQueue.userData(id, Native.IORING_OP_RECV, 0), id));
+        }
+        if (pollSubmitted) {
+            submitted(submissionQueue().addCancel(
+                    IOUringSubmissionQueue.userData(id, Native.IORING_OP_POLL_ADD, 0), id));
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        ChannelPromise promise = connectPromise;
+        if (promise != null) {
+            // Use tryFailure() instead of setFailure() to avoid the race against cancel().
+            promise.tryFailure(CLOSED_CHANNEL_EXCEPTION);
+            connectPromise = null;
+        }
+
+        ScheduledFuture<?> future = connectTimeoutFuture;
+        if (future != null) {
+            future.cancel(false);
+            connectTimeoutFuture = null;
+        }
+        super.doClose();
+    }
+
+    /**
+     * Connect to the remote peer
+     */
+    protected boolean doConnect(SocketAddress remoteAddress, SocketAddress localAddress) throws Exception {
+        int fd = fd().intValue();
+        if (localAddress != null) {
+            io.netty.channel.epoll.Native.bind(fd, localAddress);
+        }
+
+        boolean success = false;
+        try {
+            boolean connected = io.netty.channel.epoll.Native.connect(fd, remoteAddress);
+            if (!connected) {
+                submitConnectPoll();
+            }
+            success = true;
+            return connected;
+        } finally {
+            if (!success) {
+                doClose();
+            }
+        }
+    }
+
+    private void submitConnectPoll() throws IOException {
+        submitted(submissionQueue().addPollAdd(fd().intValue(), Native.POLLOUT, id, 0));
+        pollSubmitted = true;
+    }
+
+    class IOUringStreamUnsafe extends AbstractIOUringUnsafe {
+
+        private RecvByteBufAllocator.Handle allocHandle;
+
+        private final Runnable deliverReceivedTask = new Runnable() {
+            @Override
+            public void run() {
+                receivedDeliveryScheduled = false;
+                final ByteBuf byteBuf = receivedBuffer;
+                if (byteBuf == null) {
+                    return;
+                }
+                receivedBuffer = null;
+                if (!isOpen()) {
+                    byteBuf.release();
+                    return;
+                }
+                fireRead(byteBuf);
+            }
+        };
+
+        @Override
+        void submitRead() throws IOException {
+            if (receivedBuffer != null) {
+                // Deliver what was received already, from outside of the read() call.
+                if (!receivedDeliveryScheduled) {
+                    receivedDeliveryScheduled = true;
+                    eventLoop().execute(deliverReceivedTask);
+                }
+                return;
+            }
+            if (readSubmitted || inputShutdown || !isActive() || !isRegistered()) {
+                return;
+            }
+            final ChannelConfig config = config();
+            RecvByteBufAllocator.Handle allocHandle = this.allocHandle;
+            if (allocHandle == null) {
+                this.allocHandle = allocHandle = config.getRecvByteBufAllocator().newHandle();
+            }
+            ByteBuf byteBuf = allocHandle.allocate(config.getAllocator());
+            if (!byteBuf.hasMemoryAddress()) {
+                // The kernel needs the memory address of the buffer.
+                byteBuf.release();
+                byteBuf = config.getAllocator().directBuffer(allocHandle.guess());
+            }
+            boolean success = false;
+            try {
+                submitted(submissionQueue().addRecv(fd().intValue(), byteBuf.memoryAddress() + byteBuf.writerIndex(),
+                                                    byteBuf.writableBytes(), id));
+                readBuffer = byteBuf;
+                readSubmitted = true;
+                success = true;
+            } finally {
+                if (!success) {
+                    byteBuf.release();
+                }
+            }
+        }
+
+        @Override
+        void handleCompletion(byte op, int res, int data) {
+            switch (op) {
+                case Native.IORING_OP_RECV:
+                    readComplete(res);
+                    break;
+                case Native.IORING_OP_SENDMSG:
+                    writeComplete(res);
+                    break;
+                case Native.IORING_OP_POLL_ADD:
+                    pollSubmitted = false;
+                    if (connectPromise != null) {
+                        finishConnect();
+                    }
+                    break;
+                default:
+                    // Nothing to do for the completion of a cancel.
+                    break;
+            }
+        }
+
+        private void readComplete(int res) {
+            readSubmitted = false;
+            final ByteBuf byteBuf = readBuffer;
+            readBuffer = null;
+            if (!isOpen()) {
+                // Closed in the meantime, which also cancelled the read.
+                byteBuf.release();
+                return;
+            }
+
+            if (res > 0) {
+                byteBuf.writerIndex(byteBuf.writerIndex() + res);
+                allocHandle.record(res);
+                if (!readPending && !config().isAutoRead()) {
+                    // The read was submitted before the user stopped reading, so hold the data until requested.
+                    receivedBuffer = byteBuf;
+                } else {
+                    fireRead(byteBuf);
+                }
+                return;
+            }
+
+            byteBuf.release();
+            final ChannelPipeline pipeline = pipeline();
+            if (res == 0) {
+                // EOF, mark the input as shutdown before channelReadComplete(...) may trigger the next read.
+                inputShutdown = true;
+                pipeline.fireChannelReadComplete();
+                closeOnRead(pipeline);
+                return;
+            }
+            if (res != Native.ERRNO_EAGAIN_NEGATIVE && res != Native.ERRNO_ECANCELED_NEGATIVE) {
+                inputShutdown = true;
+                pipeline.fireChannelReadComplete();
+                pipeline.fireExceptionCaught(Native.newIOException("recv", res));
+                closeOnRead(pipeline);
+                return;
+            }
+
+            if (readPending || config().isAutoRead()) {
+                try {
+                    submitRead();
+                } catch (IOException e) {
+                    pipeline.fireExceptionCaught(e);
+                    close(voidPromise());
+                }
+            }
+        }
+
+        private void fireRead(ByteBuf byteBuf) {
+            final ChannelPipeline pipeline = pipeline();
+            readPending = false;
+            pipeline.fireChannelRead(byteBuf);
+            pipeline.fireChannelReadComplete();
+
+            if (readPending || config().isAutoRead()) {
+                try {
+                    submitRead();
+                } catch (IOException e) {
+                    pipeline.fireExceptionCaught(e);
+                    close(voidPromise());
+                }
+            }
+        }
+
+        private void writeComplete(int res) {
+            writeSubmitted = false;
+            final ChannelOutboundBuffer in = outboundBuffer();
+            if (in == null || !isOpen()) {
+                // Closed in the meantime, all the messages were failed already.
+                iovArray.release();
+                iovArray = null;
+                return;
+            }
+            iovArray.releaseBuffers();
+            if (res >= 0) {
+                in.removeBytes(res);
+            } else if (res != Native.ERRNO_EAGAIN_NEGATIVE) {
+                // Fail all the flushed messages and close, like a failed write(...) does.
+                IOException cause = Native.newIOException("sendmsg", res);
+                boolean removed;
+                do {
+                    removed = in.remove(cause);
+                } while (removed);
+                close(voidPromise());
+                return;
+            }
+            // Write whatever was flushed in the meantime, or the rest of what we failed to write completely.
+            flush0();
+        }
+
+        private void closeOnRead(ChannelPipeline pipeline) {
+            inputShutdown = true;
+            if (isOpen()) {
+                if (Boolean.TRUE.equals(config().getOption(ChannelOption.ALLOW_HALF_CLOSURE))) {
+                    pipeline.fireUserEventTriggered(ChannelInputShutdownEvent.INSTANCE);
+                } else {
+                    close(voidPromise());
+                }
+            }
+        }
+
+        @Override
+        public void connect(
+                final SocketAddress remoteAddress, final SocketAddress localAddress, final ChannelPromise promise) {
+            if (!promise.setUncancellable() || !ensureOpen(promise)) {
+                return;
+            }
+
+            try {
+                if (connectPromise != null) {
+                    throw new IllegalStateException("connection attempt already made");
+                }
+
+                boolean wasActive = isActive();
+                if (doConnect(remoteAddress, localAddress)) {
+                    fulfillConnectPromise(promise, wasActive);
+                } else {
+                    connectPromise = promise;
+                    requestedRemoteAddress = remoteAddress;
+
+                    // Schedule connect timeout.
+                    int connectTimeoutMillis = config().getConnectTimeoutMillis();
+                    if (connectTimeoutMillis > 0) {
+                        connectTimeoutFuture = eventLoop().schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                ChannelPromise connectPromise = AbstractIOUringStreamChannel.this.connectPromise;
+                                ConnectTimeoutException cause =
+                                        new ConnectTimeoutException("connection timed out: " + remoteAddress);
+                                if (connectPromise != null && connectPromise.tryFailure(cause)) {
+                                    close(voidPromise());
+                                }
+                            }
+                        }, connectTimeoutMillis, TimeUnit.MILLISECONDS);
+                    }
+
+                    promise.addListener(new ChannelFutureListener() {
+                        @Override
+                        public void operationComplete(ChannelFuture future) throws Exception {
+                            if (future.isCancelled()) {
+                                if (connectTimeoutFuture != null) {
+                                    connectTimeoutFuture.cancel(false);
+                                }
+                                connectPromise = null;
+                                close(voidPromise());
+                            }
+                        }
+                    });
+                }
+            } catch (Throwable t) {
+                closeIfClosed();
+                promise.tryFailure(annotateConnectException(t, remoteAddress));
+            }
+        }
+
+        private void fulfillConnectPromise(ChannelPromise promise, boolean wasActive) {
+            if (promise == null) {
+                // Closed via cancellation and the promise has been notified already.
+                return;
+            }
+            active = true;
+
+            // trySuccess() will return false if a user cancelled the connection attempt.
+            boolean promiseSet = promise.trySuccess();
+
+            // Regardless if the connection attempt was cancelled, channelActive() event should be triggered,
+            // because what happened is what happened.
+            if (!wasActive && isActive()) {
+                pipeline().fireChannelActive();
+            }
+
+            // If a user cancelled the connection attempt, close the channel, which is followed by channelInactive().
+            if (!promiseSet) {
+                close(voidPromise());
+            }
+        }
+
+        private void fulfillConnectPromise(ChannelPromise promise, Throwable cause) {
+            if (promise == null) {
+                // Closed via cancellation and the promise has been notified already.
+                return;
+            }
+
+            // Use tryFailure() instead of setFailure() to avoid the race against cancel().
+            promise.tryFailure(cause);
+            closeIfClosed();
+        }
+
+        private void finishConnect() {
+            // Note this method is invoked by the event loop only if the connection attempt was
+            // neither cancelled nor timed out.
+
+            assert eventLoop().inEventLoop();
+
+            boolean connectStillInProgress = false;
+            try {
+                boolean wasActive = isActive();
+                if (!io.netty.channel.epoll.Native.finishConnect(fd().intValue())) {
+                    submitConnectPoll();
+                    connectStillInProgress = true;
+                    return;
+                }
+                fulfillConnectPromise(connectPromise, wasActive);
+            } catch (Throwable t) {
+                fulfillConnectPromise(connectPromise, annotateConnectException(t, requestedRemoteAddress));
+            } finally {
+                if (!connectStillInProgress) {
+                    // Check for null as the connectTimeoutFuture is only created if a connectTimeoutMillis > 0 is used
+                    // See https://github.com/netty/netty/issues/1770
+                    if (connectTimeoutFuture != null) {
+                        connectTimeoutFuture.cancel(false);
+                    }
+                    connectPromise = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        super.doDeregister();
+        ByteBuf received = receivedBuffer;
+        if (received != null) {
+            receivedBuffer = null;
+            received.release();
+        }
+        IovArray array = iovArray;
+        if (array != null && !writeSubmitted) {
+            iovArray = null;
+            array.release();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+/**
+ * Owner of submitted operations, which is registered with an {@link IOUringEventLoop} and notified once one of its
+ * operations completed.
+ */
+interface IOUringCompletionHandler {
+
+    /**
+     * Called by the {@link IOUringEventLoop} once an operation completed.
+     *
+     * @param op    the opcode of the operation.
+     * @param res   the result of the operation, which is {@code -errno} on failure.
+     * @param data  the owner specific data which was passed when the operation was submitted.
+     */
+    void handle(byte op, int res, int data);
+}
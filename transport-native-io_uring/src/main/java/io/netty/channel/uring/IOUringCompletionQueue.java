@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * The completion queue of a {@link RingBuffer}. The {@code io_uring_cqe} entries are read directly from the memory
+ * shared with the kernel.
+ *
+ * <pre>
+ * struct io_uring_cqe {
+ *   __u64 user_data;
+ *   __s32 res;
+ *   __u32 flags;
+ * };
+ * </pre>
+ */
+final class IOUringCompletionQueue {
+    private static final int CQE_USER_DATA_FIELD = 0;
+    private static final int CQE_RES_FIELD = 8;
+
+    private final long headAddress;
+    private final long tailAddress;
+    private final int ringMask;
+    private final long cqesAddress;
+
+    /**
+     * Called for each completed operation.
+     */
+    interface CompletionCallback {
+        void handle(long userData, int res);
+    }
+
+    IOUringCompletionQueue(long[] ring) {
+        headAddress = ring[RingBuffer.RING_CQ_HEAD];
+        tailAddress = ring[RingBuffer.RING_CQ_TAIL];
+        ringMask = (int) ring[RingBuffer.RING_CQ_RING_MASK];
+        cqesAddress = ring[RingBuffer.RING_CQES];
+    }
+
+    /**
+     * Returns {@code true} if there is at least one completion which was not processed yet.
+     */
+    boolean hasCompletions() {
+        return PlatformDependent.getInt(headAddress) != PlatformDependent.getIntVolatile(tailAddress);
+    }
+
+    /**
+     * Process all completions which are ready and return how many were processed.
+     */
+    int process(CompletionCallback callback) {
+        // Only we update the head, so no need for a volatile read.
+        int head = PlatformDependent.getInt(headAddress);
+        int processed = 0;
+        for (;;) {
+            int tail = PlatformDependent.getIntVolatile(tailAddress);
+            if (head == tail) {
+                return processed;
+            }
+            long cqeAddress = cqesAddress + (long) (head & ringMask) * Native.SIZEOF_CQE;
+            long userData = PlatformDependent.getLong(cqeAddress + CQE_USER_DATA_FIELD);
+            int res = PlatformDependent.getInt(cqeAddress + CQE_RES_FIELD);
+
+            // Give the slot back to the kernel before the callback runs, which may submit more operations.
+            PlatformDependent.putOrderedInt(headAddress, ++head);
+            processed++;
+
+            callback.handle(userData, res);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.channel.uring.AbstractIOUringChannel.AbstractIOUringUnsafe;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A {@link SingleThreadEventLoop} implementation which uses
+ * <a href="http://kernel.dk/io_uring.pdf">io_uring</a> under the covers. Instead of waiting for readiness and then
+ * doing the I/O itself it submits the I/O operations to the submission queue and processes their results from the
+ * completion queue. This {@link EventLoop} works only on Linux systems!
+ */
+final class IOUringEventLoop extends SingleThreadEventLoop implements IOUringCompletionQueue.CompletionCallback {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(IOUringEventLoop.class);
+    private static final AtomicIntegerFieldUpdater<IOUringEventLoop> WAKEN_UP_UPDATER;
+
+    // The id used for the operations submitted by the EventLoop itself.
+    private static final int LOOP_ID = 0;
+
+    static {
+        AtomicIntegerFieldUpdater<IOUringEventLoop> updater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(IOUringEventLoop.class, "wakenUp");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(IOUringEventLoop.class, "wakenUp");
+        }
+        WAKEN_UP_UPDATER = updater;
+    }
+
+    private final RingBuffer ringBuffer;
+    private final int eventFd;
+    private final IntObjectMap<IOUringCompletionHandler> handlers =
+            new IntObjectHashMap<IOUringCompletionHandler>(4096);
+    // Holds the struct __kernel_timespec of the pending timeout.
+    private final long timeoutMemoryAddress;
+    private int nextId = LOOP_ID + 1;
+
+    private boolean eventFdPollPending;
+    private long timeoutDeadlineNanos = -1;
+    private int timeoutSequence;
+
+    @SuppressWarnings("unused")
+    private volatile int wakenUp;
+    private volatile int ioRatio = 50;
+
+    IOUringEventLoop(EventLoopGroup parent, Executor executor, int ringSize) {
+        super(parent, executor, false);
+        boolean success = false;
+        RingBuffer ringBuffer = null;
+        int eventFd = -1;
+        try {
+            this.ringBuffer = ringBuffer = Native.createRingBuffer(ringSize);
+            this.eventFd = eventFd = io.netty.channel.epoll.Native.eventFd();
+            timeoutMemoryAddress = PlatformDependent.allocateMemory(16);
+            success = true;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create the io_uring instance", e);
+        } finally {
+            if (!success) {
+                if (ringBuffer != null) {
+                    try {
+                        ringBuffer.close();
+                    } catch (Exception e) {
+                        // ignore
+                    }
+                }
+                if (eventFd != -1) {
+                    try {
+                        io.netty.channel.epoll.Native.close(eventFd);
+                    } catch (Exception e) {
+                        // ignore
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void wakeup(boolean inEventLoop) {
+        if (!inEventLoop && WAKEN_UP_UPDATER.compareAndSet(this, 0, 1)) {
+            // write to the evfd which will then complete the pending poll on it and so wake-up io_uring_enter(...)
+            io.netty.channel.epoll.Native.eventFdWrite(eventFd, 1L);
+        }
+    }
+
+    /**
+     * Register the given {@link IOUringCompletionHandler} with this {@link EventLoop} and return the id which must
+     * be used for all the operations it submits.
+     */
+    int add(IOUringCompletionHandler handler) {
+        assert inEventLoop();
+        int id;
+        do {
+            id = nextId++;
+            if (id == LOOP_ID) {
+                id = nextId++;
+            }
+        } while (handlers.containsKey(id));
+        handlers.put(id, handler);
+        return id;
+    }
+
+    /**
+     * Deregister the {@link IOUringCompletionHandler} with the given id from this {@link EventLoop}. This must only
+     * be called once all of its operations completed.
+     */
+    void remove(int id) {
+        assert inEventLoop();
+        handlers.remove(id);
+    }
+
+    /**
+     * Returns the {@link IOUringSubmissionQueue} to which operations are added. The operations are submitted to the
+     * kernel in the next round of the {@link EventLoop}.
+     */
+    IOUringSubmissionQueue submissionQueue() {
+        return ringBuffer.submissionQueue();
+    }
+
+    @Override
+    protected Queue<Runnable> newTaskQueue() {
+        // This event loop never calls takeTask()
+        return PlatformDependent.newChunkedMpscQueue();
+    }
+
+    /**
+     * Returns the percentage of the desired amount of time spent for I/O in the event loop.
+     */
+    public int getIoRatio() {
+        return ioRatio;
+    }
+
+    /**
+     * Sets the percentage of the desired amount of time spent for I/O in the event loop.  The default value is
+     * {@code 50}, which means the event loop will try to spend the same amount of time for I/O as for non-I/O tasks.
+     */
+    public void setIoRatio(int ioRatio) {
+        if (ioRatio <= 0 || ioRatio > 100) {
+            throw new IllegalArgumentException("ioRatio: " + ioRatio + " (expected: 0 < ioRatio <= 100)");
+        }
+        this.ioRatio = ioRatio;
+    }
+
+    /**
+     * Make sure there is a poll pending on the eventfd, so a {@link #wakeup(boolean)} completes it.
+     */
+    private void addEventFdPoll(IOUringSubmissionQueue submissionQueue) throws IOException {
+        if (!eventFdPollPending) {
+            eventFdPollPending = submissionQueue.addPollAdd(eventFd, Native.POLLIN, LOOP_ID, 0);
+        }
+    }
+
+    /**
+     * Make sure there is a timeout pending which completes at the latest at the given deadline, so scheduled tasks
+     * are run in time.
+     */
+    private void addTimeout(IOUringSubmissionQueue submissionQueue, long deadlineNanos, long delayNanos)
+            throws IOException {
+        if (timeoutDeadlineNanos != -1 && timeoutDeadlineNanos - deadlineNanos <= 0) {
+            // The pending timeout completes early enough.
+            return;
+        }
+        if (timeoutDeadlineNanos != -1) {
+            // Remove the pending timeout as it would complete too late.
+            submissionQueue.addTimeoutRemove(
+                    IOUringSubmissionQueue.userData(LOOP_ID, Native.IORING_OP_TIMEOUT, timeoutSequence), LOOP_ID, 0);
+        }
+        timeoutSequence = (timeoutSequence + 1) & 0xFFFF;
+        PlatformDependent.putLong(timeoutMemoryAddress, TimeUnit.NANOSECONDS.toSeconds(delayNanos));
+        PlatformDependent.putLong(timeoutMemoryAddress + 8, delayNanos % TimeUnit.SECONDS.toNanos(1));
+        if (submissionQueue.addTimeout(timeoutMemoryAddress, LOOP_ID, timeoutSequence)) {
+            timeoutDeadlineNanos = deadlineNanos;
+        } else {
+            timeoutDeadlineNanos = -1;
+        }
+    }
+
+    @Override
+    protected void run() {
+        WAKEN_UP_UPDATER.set(this, 0);
+        try {
+            final IOUringSubmissionQueue submissionQueue = ringBuffer.submissionQueue();
+            final IOUringCompletionQueue completionQueue = ringBuffer.completionQueue();
+            addEventFdPoll(submissionQueue);
+
+            if (hasTasks() || completionQueue.hasCompletions()) {
+                // Non blocking just submit what was added and process what is ready directly without block
+                submissionQueue.submit();
+            } else {
+                long currentTimeNanos = System.nanoTime();
+                long delayNanos = delayNanos(currentTimeNanos);
+                addTimeout(submissionQueue, currentTimeNanos + delayNanos, delayNanos);
+                if (!hasTasks()) {
+                    submissionQueue.submitAndWait();
+                } else {
+                    submissionQueue.submit();
+                }
+            }
+
+            final long ioStartTime = System.nanoTime();
+
+            processCompletions(submissionQueue, completionQueue);
+
+            final long ioTime = System.nanoTime() - ioStartTime;
+            recordIoTime(ioTime);
+
+            final int ioRatio = this.ioRatio;
+            if (ioRatio == 100) {
+                runAllTasks();
+            } else {
+                runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
+            }
+
+            if (isShuttingDown()) {
+                closeAll();
+                if (confirmShutdown()) {
+                    cleanupAndTerminate(true);
+                    return;
+                }
+            }
+        } catch (Throwable t) {
+            logger.warn("Unexpected exception in the io_uring loop.", t);
+
+            // Prevent possible consecutive immediate failures that lead to
+            // excessive CPU consumption.
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                // Ignore.
+            }
+        }
+
+        scheduleExecution();
+    }
+
+    private void processCompletions(IOUringSubmissionQueue submissionQueue, IOUringCompletionQueue completionQueue)
+            throws IOException {
+        completionQueue.process(this);
+        // Submit what was added while processing the completions, like the next read of a Channel, so the kernel
+        // can work on it while we run the tasks.
+        submissionQueue.submit();
+    }
+
+    @Override
+    public void handle(long userData, int res) {
+        final int id = IOUringSubmissionQueue.userDataId(userData);
+        final byte op = IOUringSubmissionQueue.userDataOp(userData);
+        final int data = IOUringSubmissionQueue.userDataData(userData);
+        if (id == LOOP_ID) {
+            if (op == Native.IORING_OP_POLL_ADD) {
+                // consume wakeup event
+                io.netty.channel.epoll.Native.eventFdRead(eventFd);
+                recordWakeup();
+                eventFdPollPending = false;
+            } else if (op == Native.IORING_OP_TIMEOUT && data == timeoutSequence) {
+                timeoutDeadlineNanos = -1;
+            }
+            return;
+        }
+
+        IOUringCompletionHandler handler = handlers.get(id);
+        if (handler == null) {
+            // The owner was removed already, nothing to notify.
+            return;
+        }
+        try {
+            handler.handle(op, res, data);
+        } catch (Throwable t) {
+            logger.warn("An exception was thrown by " + handler.getClass().getName() + ".handle()", t);
+        }
+    }
+
+    private void closeAll() {
+        List<AbstractIOUringChannel> channels = new ArrayList<AbstractIOUringChannel>(handlers.size());
+        for (IntObjectMap.Entry<IOUringCompletionHandler> entry: handlers.entries()) {
+            IOUringCompletionHandler handler = entry.value();
+            if (handler instanceof AbstractIOUringUnsafe) {
+                channels.add(((AbstractIOUringUnsafe) handler).channel());
+            }
+        }
+
+        for (AbstractIOUringChannel ch: channels) {
+            ch.unsafe().close(ch.unsafe().voidPromise());
+        }
+    }
+
+    @Override
+    protected void cleanup() {
+        try {
+            try {
+                ringBuffer.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close the io_uring instance.", e);
+            }
+            try {
+                io.netty.channel.epoll.Native.close(eventFd);
+            } catch (IOException e) {
+                logger.warn("Failed to close the event fd.", e);
+            }
+        } finally {
+            // release native memory
+            PlatformDependent.freeMemory(timeoutMemoryAddress);
+        }
+    }
+}
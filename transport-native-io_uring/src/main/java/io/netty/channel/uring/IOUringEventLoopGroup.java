@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultithreadEventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ExecutorServiceFactory;
+import io.netty.util.internal.SystemPropertyUtil;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link MultithreadEventLoopGroup} which uses <a href="http://kernel.dk/io_uring.pdf">io_uring</a> under the
+ * covers. This {@link EventLoopGroup} works only on Linux systems with a kernel that supports io_uring, use
+ * {@link IOUring#isAvailable()} to check for it.
+ */
+public final class IOUringEventLoopGroup extends MultithreadEventLoopGroup {
+
+    private static final int DEFAULT_RING_SIZE =
+            Math.max(64, SystemPropertyUtil.getInt("io.netty.uring.ringSize", 4096));
+
+    /**
+     * Create a new instance that uses twice as many {@link EventLoop}s as there are processors/cores
+     * available, as well as the default {@link Executor}.
+     *
+     * @see io.netty.util.concurrent.DefaultExecutorServiceFactory
+     */
+    public IOUringEventLoopGroup() {
+        this(0);
+    }
+
+    /**
+     * Create a new instance that uses the default {@link Executor}.
+     *
+     * @see io.netty.util.concurrent.DefaultExecutorServiceFactory
+     *
+     * @param nEventLoops   the number of {@link EventLoop}s that will be used by this instance.
+     *                      This will also be the parallelism requested from the default {@link Executor}.
+     *                      If set to {@code 0} the behaviour is the same as documented in
+     *                      {@link #IOUringEventLoopGroup()}.
+     */
+    public IOUringEventLoopGroup(int nEventLoops) {
+        this(nEventLoops, (Executor) null);
+    }
+
+    /**
+     * @param nEventLoops   the number of {@link EventLoop}s that will be used by this instance.
+     *                      If {@code executor} is {@code null} this number will also be the parallelism
+     *                      requested from the default {@link Executor}. It is generally advised for the number
+     *                      of {@link EventLoop}s and the number of {@link Thread}s used by the
+     *                      {@code executor} to lie close together.
+     *                      If set to {@code 0} the behaviour is the same as documented in
+     *                      {@link #IOUringEventLoopGroup()}.
+     * @param executor  the {@link Executor} to use, or {@code null} if the default should be used.
+     */
+    public IOUringEventLoopGroup(int nEventLoops, Executor executor) {
+        this(nEventLoops, executor, 0);
+    }
+
+    /**
+     * @param nEventLoops   the number of {@link EventLoop}s that will be used by this instance.
+     *                      If {@code executorServiceFactory} is {@code null} this number will also be the parallelism
+     *                      requested from the default {@link Executor}. It is generally advised for the number
+     *                      of {@link EventLoop}s and the number of {@link Thread}s used by the
+     *                      {@code executorServiceFactory} to lie close together.
+     *                      If set to {@code 0} the behaviour is the same as documented in
+     *                      {@link #IOUringEventLoopGroup()}.
+     * @param executorServiceFactory   the {@link ExecutorServiceFactory} to use, or {@code null} if the
+     *                                 default should be used.
+     */
+    public IOUringEventLoopGroup(int nEventLoops, ExecutorServiceFactory executorServiceFactory) {
+        this(nEventLoops, executorServiceFactory, 0);
+    }
+
+    /**
+     * @param nEventLoops   the number of {@link EventLoop}s that will be used by this instance.
+     *                      If {@code executor} is {@code null} this number will also be the parallelism
+     *                      requested from the default {@link Executor}.
+     *                      If set to {@code 0} the behaviour is the same as documented in
+     *                      {@link #IOUringEventLoopGroup()}.
+     * @param executor   the {@link Executor} to use, or {@code null} if the default should be used.
+     * @param ringSize   the number of submission queue entries of the io_uring instance of each {@link EventLoop}.
+     *                   If set to {@code 0} the value of the {@code io.netty.uring.ringSize} system property is used,
+     *                   which defaults to {@code 4096}.
+     */
+    public IOUringEventLoopGroup(int nEventLoops, Executor executor, int ringSize) {
+        super(nEventLoops, executor, ringSize(ringSize));
+    }
+
+    /**
+     * @param nEventLoops   the number of {@link EventLoop}s that will be used by this instance.
+     *                      If {@code executorServiceFactory} is {@code null} this number will also be the parallelism
+     *                      requested from the default {@link Executor}.
+     *                      If set to {@code 0} the behaviour is the same as documented in
+     *                      {@link #IOUringEventLoopGroup()}.
+     * @param executorServiceFactory   the {@link ExecutorServiceFactory} to use, or {@code null} if the default
+     *                                 should be used.
+     * @param ringSize   the number of submission queue entries of the io_uring instance of each {@link EventLoop}.
+     *                   If set to {@code 0} the value of the {@code io.netty.uring.ringSize} system property is used,
+     *                   which defaults to {@code 4096}.
+     */
+    public IOUringEventLoopGroup(int nEventLoops, ExecutorServiceFactory executorServiceFactory, int ringSize) {
+        super(nEventLoops, executorServiceFactory, ringSize(ringSize));
+    }
+
+    private static int ringSize(int ringSize) {
+        if (ringSize < 0) {
+            throw new IllegalArgumentException("ringSize: " + ringSize + " (expected: >= 0)");
+        }
+        return ringSize == 0 ? DEFAULT_RING_SIZE : ringSize;
+    }
+
+    /**
+     * Sets the percentage of the desired amount of time spent for I/O in the child event loops.  The default value is
+     * {@code 50}, which means the event loop will try to spend the same amount of time for I/O as for non-I/O tasks.
+     */
+    public void setIoRatio(int ioRatio) {
+        for (EventExecutor e: children()) {
+            ((IOUringEventLoop) e).setIoRatio(ioRatio);
+        }
+    }
+
+    @Override
+    protected EventLoop newChild(Executor executor, Object... args) throws Exception {
+        return new IOUringEventLoop(this, executor, (Integer) args[0]);
+    }
+}
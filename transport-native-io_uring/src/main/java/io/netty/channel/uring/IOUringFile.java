@@ -0,0 +1,279 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.internal.OneTimeTask;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link FileDescriptor} of a regular file whose reads, writes and syncs are submitted to the io_uring instance
+ * of an {@link IOUringEventLoop}. In contrast to {@link io.netty.jni.libaio.LibaioFile} the file is opened without
+ * {@code O_DIRECT}, so neither the buffers nor the positions need to be aligned and the page cache is used.
+ *
+ * All methods may be called from any thread, the operations are submitted by the {@link EventLoop} and the returned
+ * {@link Future}s are notified by it.
+ */
+public final class IOUringFile extends FileDescriptor {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(IOUringFile.class);
+    private static final int MAX_IN_FLIGHT = 0xFFFF + 1;
+
+    private final IOUringEventLoop loop;
+    private final Handler handler = new Handler();
+
+    private IOUringFile(int fd, IOUringEventLoop loop) {
+        super(fd);
+        this.loop = loop;
+    }
+
+    /**
+     * Open the given {@link File} for reading and writing, creating it if it does not exist yet. The operations on
+     * it are submitted by the given {@link EventLoop}, which must belong to an {@link IOUringEventLoopGroup}.
+     */
+    public static IOUringFile open(File file, EventLoop loop) throws IOException {
+        if (!(loop.unwrap() instanceof IOUringEventLoop)) {
+            throw new IllegalArgumentException("loop must be an io_uring EventLoop: " + loop);
+        }
+        final IOUringFile ioUringFile = new IOUringFile(Native.open(file.getPath(), false),
+                                                        (IOUringEventLoop) loop.unwrap());
+        ioUringFile.execute(new OneTimeTask() {
+            @Override
+            public void run() {
+                ioUringFile.handler.register();
+            }
+        });
+        return ioUringFile;
+    }
+
+    /**
+     * Read into the writable bytes of the given {@link ByteBuf}, starting at the given position of the file. Once
+     * the read completed the {@code writerIndex} of the {@link ByteBuf} is increased by the number of bytes read,
+     * which is also the result of the returned {@link Future}. A result of {@code 0} means the end of the file was
+     * reached.
+     *
+     * The {@link ByteBuf} must have a memory address and is retained until the read completed.
+     */
+    public Future<Integer> read(final long position, final ByteBuf buf) {
+        checkBuffer(buf);
+        final Promise<Integer> promise = loop.newPromise();
+        execute(new OneTimeTask() {
+            @Override
+            public void run() {
+                handler.submit(Native.IORING_OP_READ, position, buf, promise);
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Write the readable bytes of the given {@link ByteBuf} at the given position of the file. Once the write
+     * completed the {@code readerIndex} of the {@link ByteBuf} is increased by the number of bytes written, which
+     * is also the result of the returned {@link Future}.
+     *
+     * The {@link ByteBuf} must have a memory address and is retained until the write completed.
+     */
+    public Future<Integer> write(final long position, final ByteBuf buf) {
+        checkBuffer(buf);
+        final Promise<Integer> promise = loop.newPromise();
+        execute(new OneTimeTask() {
+            @Override
+            public void run() {
+                handler.submit(Native.IORING_OP_WRITE, position, buf, promise);
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Flush the data and the metadata of the file to the storage device.
+     */
+    public Future<Integer> fsync() {
+        final Promise<Integer> promise = loop.newPromise();
+        execute(new OneTimeTask() {
+            @Override
+            public void run() {
+                handler.submit(Native.IORING_OP_FSYNC, 0, null, promise);
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Close the file. Operations which were requested before are still submitted and complete nevertheless, as the
+     * file descriptor is closed by the {@link EventLoop} after it submitted them.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        execute(new OneTimeTask() {
+            @Override
+            public void run() {
+                handler.closed();
+            }
+        });
+    }
+
+    private void execute(Runnable task) {
+        if (loop.inEventLoop()) {
+            task.run();
+        } else {
+            loop.execute(task);
+        }
+    }
+
+    private static void checkBuffer(ByteBuf buf) {
+        if (buf == null) {
+            throw new NullPointerException("buf");
+        }
+        if (!buf.hasMemoryAddress()) {
+            throw new IllegalArgumentException("buf must have a memory address: " + buf);
+        }
+    }
+
+    private static final class PendingOperation {
+        final byte op;
+        final ByteBuf buf;
+        final Promise<Integer> promise;
+
+        PendingOperation(byte op, ByteBuf buf, Promise<Integer> promise) {
+            this.op = op;
+            this.buf = buf;
+            this.promise = promise;
+        }
+    }
+
+    /**
+     * Only accessed from within the {@link EventLoop}.
+     */
+    private final class Handler implements IOUringCompletionHandler {
+        private final IntObjectMap<PendingOperation> pending = new IntObjectHashMap<PendingOperation>();
+        private int id;
+        private int nextData;
+        private boolean closed;
+
+        void register() {
+            id = loop.add(this);
+        }
+
+        void submit(byte op, long position, ByteBuf buf, Promise<Integer> promise) {
+            if (closed) {
+                promise.setFailure(new IOException("file closed"));
+                return;
+            }
+            if (pending.size() == MAX_IN_FLIGHT) {
+                promise.setFailure(new IOException("too many operations in flight"));
+                return;
+            }
+            int data;
+            do {
+                data = nextData;
+                nextData = (nextData + 1) & 0xFFFF;
+            } while (pending.containsKey(data));
+
+            final IOUringSubmissionQueue submissionQueue = loop.submissionQueue();
+            final boolean added;
+            try {
+                if (op == Native.IORING_OP_READ) {
+                    added = submissionQueue.addRead(fd, buf.memoryAddress() + buf.writerIndex(), buf.writableBytes(),
+                                                    position, id, data);
+                } else if (op == Native.IORING_OP_WRITE) {
+                    added = submissionQueue.addWrite(fd, buf.memoryAddress() + buf.readerIndex(),
+                                                     buf.readableBytes(), position, id, data);
+                } else {
+                    added = submissionQueue.addFsync(fd, id, data);
+                }
+            } catch (IOException e) {
+                promise.setFailure(e);
+                return;
+            }
+            if (!added) {
+                promise.setFailure(new IOException("io_uring submission queue is full"));
+                return;
+            }
+            if (buf != null) {
+                // The kernel accesses the memory until the operation completed.
+                buf.retain();
+            }
+            pending.put(data, new PendingOperation(op, buf, promise));
+        }
+
+        @Override
+        public void handle(byte op, int res, int data) {
+            PendingOperation operation = pending.remove(data);
+            if (operation == null) {
+                return;
+            }
+            try {
+                if (res < 0) {
+                    operation.promise.setFailure(Native.newIOException(operationName(op), res));
+                } else {
+                    ByteBuf buf = operation.buf;
+                    if (op == Native.IORING_OP_READ) {
+                        buf.writerIndex(buf.writerIndex() + res);
+                    } else if (op == Native.IORING_OP_WRITE) {
+                        buf.readerIndex(buf.readerIndex() + res);
+                    }
+                    operation.promise.setSuccess(res);
+                }
+            } finally {
+                if (operation.buf != null) {
+                    operation.buf.release();
+                }
+                if (closed && pending.isEmpty()) {
+                    loop.remove(id);
+                }
+            }
+        }
+
+        void closed() {
+            closed = true;
+            if (pending.isEmpty()) {
+                loop.remove(id);
+            }
+            try {
+                // The kernel holds its own reference to the file for the operations in flight.
+                io.netty.channel.epoll.Native.close(fd);
+            } catch (IOException e) {
+                logger.warn("Failed to close a file.", e);
+            }
+        }
+    }
+
+    private static String operationName(byte op) {
+        switch (op) {
+            case Native.IORING_OP_READ:
+                return "read";
+            case Native.IORING_OP_WRITE:
+                return "write";
+            default:
+                return "fsync";
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.IOException;
+
+/**
+ * The submission queue of a {@link RingBuffer}. The {@code io_uring_sqe} entries are written directly into the
+ * memory shared with the kernel, and are handed over to the kernel on {@link #submit()} or
+ * {@link #submitAndWait()}.
+ *
+ * <pre>
+ * struct io_uring_sqe {
+ *   __u8  opcode;
+ *   __u8  flags;
+ *   __u16 ioprio;
+ *   __s32 fd;
+ *   __u64 off;
+ *   __u64 addr;
+ *   __u32 len;
+ *   __u32 op_flags;  // msg_flags, poll_events, accept_flags, timeout_flags...
+ *   __u64 user_data;
+ *   __u64 __pad[3];
+ * };
+ * </pre>
+ *
+ * The {@code user_data} of every operation encodes the id of the owner which is notified about the completion, the
+ * opcode and 16 bits of owner specific data. See {@link #userData(int, byte, int)}.
+ */
+final class IOUringSubmissionQueue {
+    private static final int SQE_OP_CODE_FIELD = 0;
+    private static final int SQE_FLAGS_FIELD = 1;
+    private static final int SQE_IOPRIO_FIELD = 2;
+    private static final int SQE_FD_FIELD = 4;
+    private static final int SQE_OFFSET_FIELD = 8;
+    private static final int SQE_ADDRESS_FIELD = 16;
+    private static final int SQE_LEN_FIELD = 24;
+    private static final int SQE_OP_FLAGS_FIELD = 28;
+    private static final int SQE_USER_DATA_FIELD = 32;
+    private static final int SQE_PAD_FIELD = 40;
+
+    private final int ringFd;
+    private final long headAddress;
+    private final long tailAddress;
+    private final long arrayAddress;
+    private final long sqesAddress;
+    private final int ringMask;
+    private final int ringEntries;
+
+    // The tail which is not published to the kernel yet.
+    private int tail;
+    private int pending;
+
+    IOUringSubmissionQueue(int ringFd, long[] ring) {
+        this.ringFd = ringFd;
+        headAddress = ring[RingBuffer.RING_SQ_HEAD];
+        tailAddress = ring[RingBuffer.RING_SQ_TAIL];
+        arrayAddress = ring[RingBuffer.RING_SQ_ARRAY];
+        sqesAddress = ring[RingBuffer.RING_SQES];
+        ringMask = (int) ring[RingBuffer.RING_SQ_RING_MASK];
+        ringEntries = (int) ring[RingBuffer.RING_SQ_RING_ENTRIES];
+        tail = PlatformDependent.getInt(tailAddress);
+    }
+
+    /**
+     * Encode the {@code user_data} of an operation.
+     *
+     * @param id    the id of the owner of the operation, as assigned by the {@link IOUringEventLoop}.
+     * @param op    the opcode of the operation.
+     * @param data  owner specific data, only the lower 16 bits are used.
+     */
+    static long userData(int id, byte op, int data) {
+        return (id & 0xFFFFFFFFL) | (op & 0xFFL) << 32 | (data & 0xFFFFL) << 40;
+    }
+
+    static int userDataId(long userData) {
+        return (int) userData;
+    }
+
+    static byte userDataOp(long userData) {
+        return (byte) (userData >>> 32);
+    }
+
+    static int userDataData(long userData) {
+        return (int) (userData >>> 40) & 0xFFFF;
+    }
+
+    boolean addRecv(int fd, long address, int len, int id) throws IOException {
+        return enqueue(Native.IORING_OP_RECV, fd, address, len, 0, 0, userData(id, Native.IORING_OP_RECV, 0));
+    }
+
+    boolean addSendmsg(int fd, long msgHdrAddress, int id) throws IOException {
+        return enqueue(Native.IORING_OP_SENDMSG, fd, msgHdrAddress, 1, 0, 0,
+                       userData(id, Native.IORING_OP_SENDMSG, 0));
+    }
+
+    boolean addAccept(int fd, int flags, int id) throws IOException {
+        return enqueue(Native.IORING_OP_ACCEPT, fd, 0, 0, 0, flags, userData(id, Native.IORING_OP_ACCEPT, 0));
+    }
+
+    boolean addPollAdd(int fd, int events, int id, int data) throws IOException {
+        return enqueue(Native.IORING_OP_POLL_ADD, fd, 0, 0, 0, events, userData(id, Native.IORING_OP_POLL_ADD, data));
+    }
+
+    boolean addRead(int fd, long address, int len, long offset, int id, int data) throws IOException {
+        return enqueue(Native.IORING_OP_READ, fd, address, len, offset, 0, userData(id, Native.IORING_OP_READ, data));
+    }
+
+    boolean addWrite(int fd, long address, int len, long offset, int id, int data) throws IOException {
+        return enqueue(Native.IORING_OP_WRITE, fd, address, len, offset, 0,
+                       userData(id, Native.IORING_OP_WRITE, data));
+    }
+
+    boolean addFsync(int fd, int id, int data) throws IOException {
+        return enqueue(Native.IORING_OP_FSYNC, fd, 0, 0, 0, 0, userData(id, Native.IORING_OP_FSYNC, data));
+    }
+
+    /**
+     * Add a timeout which completes with {@code -ETIME} once the relative time stored as
+     * {@code struct __kernel_timespec} at the given address passed.
+     */
+    boolean addTimeout(long timespecAddress, int id, int data) throws IOException {
+        return enqueue(Native.IORING_OP_TIMEOUT, -1, timespecAddress, 1, 0, 0,
+                       userData(id, Native.IORING_OP_TIMEOUT, data));
+    }
+
+    boolean addTimeoutRemove(long timeoutUserData, int id, int data) throws IOException {
+        return enqueue(Native.IORING_OP_TIMEOUT_REMOVE, -1, timeoutUserData, 0, 0, 0,
+                       userData(id, Native.IORING_OP_TIMEOUT_REMOVE, data));
+    }
+
+    /**
+     * Try to cancel the operation with the given {@code user_data}, which then completes with {@code -ECANCELED}.
+     */
+    boolean addCancel(long targetUserData, int id) throws IOException {
+        return enqueue(Native.IORING_OP_ASYNC_CANCEL, -1, targetUserData, 0, 0, 0,
+                       userData(id, Native.IORING_OP_ASYNC_CANCEL, 0));
+    }
+
+    private boolean enqueue(byte op, int fd, long address, int len, long offset, int opFlags, long userData)
+            throws IOException {
+        int head = PlatformDependent.getIntVolatile(headAddress);
+        if (tail - head == ringEntries) {
+            // The queue is full, so hand over what we have to the kernel to make room.
+            submit();
+            head = PlatformDependent.getIntVolatile(headAddress);
+            if (tail - head == ringEntries) {
+                return false;
+            }
+        }
+        int index = tail & ringMask;
+        long sqe = sqesAddress + (long) index * Native.SIZEOF_SQE;
+        PlatformDependent.putByte(sqe + SQE_OP_CODE_FIELD, op);
+        PlatformDependent.putByte(sqe + SQE_FLAGS_FIELD, (byte) 0);
+        PlatformDependent.putShort(sqe + SQE_IOPRIO_FIELD, (short) 0);
+        PlatformDependent.putInt(sqe + SQE_FD_FIELD, fd);
+        PlatformDependent.putLong(sqe + SQE_OFFSET_FIELD, offset);
+        PlatformDependent.putLong(sqe + SQE_ADDRESS_FIELD, address);
+        PlatformDependent.putInt(sqe + SQE_LEN_FIELD, len);
+        PlatformDependent.putInt(sqe + SQE_OP_FLAGS_FIELD, opFlags);
+        PlatformDependent.putLong(sqe + SQE_USER_DATA_FIELD, userData);
+        PlatformDependent.putLong(sqe + SQE_PAD_FIELD, 0);
+        PlatformDependent.putLong(sqe + SQE_PAD_FIELD + 8, 0);
+        PlatformDependent.putLong(sqe + SQE_PAD_FIELD + 16, 0);
+        PlatformDependent.putInt(arrayAddress + 4L * index, index);
+        tail++;
+        pending++;
+        return true;
+    }
+
+    /**
+     * Returns the number of operations which were added but not submitted yet.
+     */
+    int pending() {
+        return pending;
+    }
+
+    /**
+     * Submit all pending operations without waiting for any completion.
+     */
+    int submit() throws IOException {
+        return submit(0, 0);
+    }
+
+    /**
+     * Submit all pending operations and block until at least one operation completed.
+     */
+    int submitAndWait() throws IOException {
+        return submit(1, Native.IORING_ENTER_GETEVENTS);
+    }
+
+    private int submit(int minComplete, int flags) throws IOException {
+        int toSubmit = pending;
+        if (toSubmit == 0 && minComplete == 0) {
+            return 0;
+        }
+        // Publish the new tail, the kernel must see the entries before it sees the tail.
+        PlatformDependent.putOrderedInt(tailAddress, tail);
+        int submitted = Native.ioUringEnter(ringFd, toSubmit, minComplete, flags);
+        pending -= submitted;
+        return submitted;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelOutboundBuffer.MessageProcessor;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * A {@code struct msghdr} followed by an array of {@code struct iovec}, which is passed to
+ * {@code IORING_OP_SENDMSG}. See also {@code man sendmsg}.
+ *
+ * <pre>
+ * struct msghdr {
+ *   void         *msg_name;
+ *   socklen_t     msg_namelen;
+ *   struct iovec *msg_iov;
+ *   size_t        msg_iovlen;
+ *   void         *msg_control;
+ *   size_t        msg_controllen;
+ *   int           msg_flags;
+ * };
+ * </pre>
+ *
+ * As the kernel reads the buffers asynchronously, every added {@link ByteBuf} is retained until
+ * {@link #releaseBuffers()} is called once the operation completed.
+ */
+final class IovArray implements MessageProcessor {
+
+    /** The size of an address which should be 8 for 64 bits and 4 for 32 bits. */
+    private static final int ADDRESS_SIZE = PlatformDependent.addressSize();
+
+    /** The size of a {@code msghdr} struct in bytes, including the padding on 64 bits. */
+    private static final int MSGHDR_SIZE = ADDRESS_SIZE == 8 ? 56 : 28;
+    private static final int MSGHDR_IOV_FIELD = 2 * ADDRESS_SIZE;
+    private static final int MSGHDR_IOVLEN_FIELD = 3 * ADDRESS_SIZE;
+
+    /** The size of an {@code iovec} struct in bytes. */
+    private static final int IOV_SIZE = 2 * ADDRESS_SIZE;
+
+    /**
+     * The maximum number of {@code iovec} structs per {@code sendmsg}. We don't use the full
+     * {@link io.netty.channel.epoll.Native#IOV_MAX} as every {@link io.netty.channel.Channel} has its own array.
+     */
+    static final int MAX_COUNT = Math.min(128, io.netty.channel.epoll.Native.IOV_MAX);
+
+    private final long memoryAddress;
+    private final ByteBuf[] buffers = new ByteBuf[MAX_COUNT];
+    private int count;
+    private long size;
+
+    IovArray() {
+        memoryAddress = PlatformDependent.allocateMemory(MSGHDR_SIZE + MAX_COUNT * IOV_SIZE);
+        for (int i = 0; i < MSGHDR_SIZE; i++) {
+            PlatformDependent.putByte(memoryAddress + i, (byte) 0);
+        }
+    }
+
+    /**
+     * Try to add the given {@link ByteBuf}, which must have a memory address. Returns {@code true} on success,
+     * {@code false} otherwise.
+     */
+    boolean add(ByteBuf buf) {
+        if (count == MAX_COUNT) {
+            // No more room!
+            return false;
+        }
+
+        final int len = buf.readableBytes();
+        if (len == 0) {
+            // No need to add an empty buffer.
+            return true;
+        }
+        if (Integer.MAX_VALUE - len < size) {
+            // The result of a completion is a signed 32 bit integer, so don't write more than that at once.
+            return false;
+        }
+        size += len;
+
+        final long baseOffset = memoryAddress + MSGHDR_SIZE + IOV_SIZE * count;
+        final long lengthOffset = baseOffset + ADDRESS_SIZE;
+        final long addr = buf.memoryAddress() + buf.readerIndex();
+        if (ADDRESS_SIZE == 8) {
+            // 64bit
+            PlatformDependent.putLong(baseOffset, addr);
+            PlatformDependent.putLong(lengthOffset, len);
+        } else {
+            assert ADDRESS_SIZE == 4;
+            PlatformDependent.putInt(baseOffset, (int) addr);
+            PlatformDependent.putInt(lengthOffset, len);
+        }
+        buffers[count++] = buf.retain();
+        return true;
+    }
+
+    /**
+     * Returns the number if iov entries.
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * Returns the address of the {@code msghdr} which points to all added buffers.
+     */
+    long msgHdrAddress() {
+        final long iovAddress = memoryAddress + MSGHDR_SIZE;
+        if (ADDRESS_SIZE == 8) {
+            PlatformDependent.putLong(memoryAddress + MSGHDR_IOV_FIELD, iovAddress);
+            PlatformDependent.putLong(memoryAddress + MSGHDR_IOVLEN_FIELD, count);
+        } else {
+            PlatformDependent.putInt(memoryAddress + MSGHDR_IOV_FIELD, (int) iovAddress);
+            PlatformDependent.putInt(memoryAddress + MSGHDR_IOVLEN_FIELD, count);
+        }
+        return memoryAddress;
+    }
+
+    /**
+     * Release all added buffers, after which new buffers can be added.
+     */
+    void releaseBuffers() {
+        for (int i = 0; i < count; i++) {
+            buffers[i].release();
+            buffers[i] = null;
+        }
+        count = 0;
+        size = 0;
+    }
+
+    /**
+     * Release the {@link IovArray}. Once release further using of it may crash the JVM!
+     */
+    void release() {
+        releaseBuffers();
+        PlatformDependent.freeMemory(memoryAddress);
+    }
+
+    @Override
+    public boolean processMessage(Object msg) throws Exception {
+        return msg instanceof ByteBuf && add((ByteBuf) msg);
+    }
+}
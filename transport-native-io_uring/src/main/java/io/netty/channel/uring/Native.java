@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.util.internal.NativeLibraryLoader;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Native helper methods for io_uring.
+ *
+ * <strong>Internal usage only!</strong>
+ */
+final class Native {
+    static {
+        String name = SystemPropertyUtil.get("os.name").toLowerCase(Locale.UK).trim();
+        if (!name.startsWith("linux")) {
+            throw new IllegalStateException("Only supported on Linux");
+        }
+        // The io.netty.channel.unix abstractions and the socket helpers we reuse live in the epoll library.
+        io.netty.channel.epoll.Native.loadLibrary();
+        NativeLibraryLoader.load("netty-transport-native-io_uring", PlatformDependent.getClassLoader(Native.class));
+    }
+
+    // Opcodes of the operations we submit, see linux/io_uring.h
+    static final byte IORING_OP_NOP = 0;
+    static final byte IORING_OP_FSYNC = 3;
+    static final byte IORING_OP_POLL_ADD = 6;
+    static final byte IORING_OP_SENDMSG = 9;
+    static final byte IORING_OP_TIMEOUT = 11;
+    static final byte IORING_OP_TIMEOUT_REMOVE = 12;
+    static final byte IORING_OP_ACCEPT = 13;
+    static final byte IORING_OP_ASYNC_CANCEL = 14;
+    static final byte IORING_OP_READ = 22;
+    static final byte IORING_OP_WRITE = 23;
+    static final byte IORING_OP_RECV = 27;
+
+    /**
+     * All the opcodes which must be supported by the kernel to use this transport.
+     */
+    static final int[] REQUIRED_OPS = {
+            IORING_OP_FSYNC, IORING_OP_POLL_ADD, IORING_OP_SENDMSG, IORING_OP_TIMEOUT, IORING_OP_TIMEOUT_REMOVE,
+            IORING_OP_ACCEPT, IORING_OP_ASYNC_CANCEL, IORING_OP_READ, IORING_OP_WRITE, IORING_OP_RECV
+    };
+
+    static final int IORING_ENTER_GETEVENTS = 1;
+
+    static final int SIZEOF_SQE = sizeofSqe();
+    static final int SIZEOF_CQE = sizeofCqe();
+
+    static final int ERRNO_ETIME_NEGATIVE = -errnoETIME();
+    static final int ERRNO_ECANCELED_NEGATIVE = -errnoECANCELED();
+    static final int ERRNO_EAGAIN_NEGATIVE = -errnoEAGAIN();
+    static final int ERRNO_EINTR_NEGATIVE = -errnoEINTR();
+    static final int ERRNO_EBUSY_NEGATIVE = -errnoEBUSY();
+
+    static final int POLLIN = pollin();
+    static final int POLLOUT = pollout();
+    static final int SOCK_NONBLOCK = sockNonblock();
+    static final int SOCK_CLOEXEC = sockCloexec();
+
+    /**
+     * Create a new io_uring instance with at least the given number of submission queue entries.
+     */
+    static RingBuffer createRingBuffer(int entries) throws IOException {
+        long[] ring = new long[RingBuffer.RING_LENGTH];
+        int ringFd = ioUringSetup(entries, ring);
+        if (ringFd < 0) {
+            throw newIOException("io_uring_setup", ringFd);
+        }
+        return new RingBuffer(ringFd, ring);
+    }
+
+    static int ioUringEnter(int ringFd, int toSubmit, int minComplete, int flags) throws IOException {
+        int res = ioUringEnter0(ringFd, toSubmit, minComplete, flags);
+        if (res >= 0) {
+            return res;
+        }
+        if (res == ERRNO_EINTR_NEGATIVE || res == ERRNO_EAGAIN_NEGATIVE || res == ERRNO_EBUSY_NEGATIVE) {
+            // Interrupted or the completion queue is (about to be) overflowed, in which case the caller needs to
+            // reap completions before it can submit more.
+            return 0;
+        }
+        throw newIOException("io_uring_enter", res);
+    }
+
+    static int open(String path, boolean direct) throws IOException {
+        int res = open0(path, direct);
+        if (res < 0) {
+            throw newIOException("open", res);
+        }
+        return res;
+    }
+
+    static IOException newIOException(String method, int err) {
+        return io.netty.channel.epoll.Native.newIOException(method, err);
+    }
+
+    private static native int ioUringSetup(int entries, long[] ring);
+    static native int ioUringExit(int ringFd, long[] ring);
+    private static native int ioUringEnter0(int ringFd, int toSubmit, int minComplete, int flags);
+    static native boolean ioUringProbe(int ringFd, int[] ops);
+    private static native int open0(String path, boolean direct);
+
+    private static native int sizeofSqe();
+    private static native int sizeofCqe();
+    private static native int errnoETIME();
+    private static native int errnoECANCELED();
+    private static native int errnoEAGAIN();
+    private static native int errnoEINTR();
+    private static native int errnoEBUSY();
+    private static native int pollin();
+    private static native int pollout();
+    private static native int sockNonblock();
+    private static native int sockCloexec();
+
+    private Native() {
+        // utility
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import java.io.IOException;
+
+/**
+ * An io_uring instance, which consists of the mapped {@link IOUringSubmissionQueue} and
+ * {@link IOUringCompletionQueue} and the file descriptor of the ring.
+ */
+final class RingBuffer {
+    // The layout of the long[] filled by Native.ioUringSetup(...), keep in sync with io_netty_channel_uring_Native.c
+    static final int RING_SQ_HEAD = 2;
+    static final int RING_SQ_TAIL = 3;
+    static final int RING_SQ_RING_MASK = 4;
+    static final int RING_SQ_RING_ENTRIES = 5;
+    static final int RING_SQ_FLAGS = 6;
+    static final int RING_SQ_ARRAY = 7;
+    static final int RING_SQES = 8;
+    static final int RING_CQ_HEAD = 12;
+    static final int RING_CQ_TAIL = 13;
+    static final int RING_CQ_RING_MASK = 14;
+    static final int RING_CQ_RING_ENTRIES = 15;
+    static final int RING_CQES = 16;
+    static final int RING_LENGTH = 17;
+
+    private final int ringFd;
+    private final long[] ring;
+    private final IOUringSubmissionQueue submissionQueue;
+    private final IOUringCompletionQueue completionQueue;
+    private boolean closed;
+
+    RingBuffer(int ringFd, long[] ring) {
+        this.ringFd = ringFd;
+        this.ring = ring;
+        submissionQueue = new IOUringSubmissionQueue(ringFd, ring);
+        completionQueue = new IOUringCompletionQueue(ring);
+    }
+
+    int fd() {
+        return ringFd;
+    }
+
+    IOUringSubmissionQueue submissionQueue() {
+        return submissionQueue;
+    }
+
+    IOUringCompletionQueue completionQueue() {
+        return completionQueue;
+    }
+
+    /**
+     * Unmap the queues and close the ring. Once closed, using the queues may crash the JVM!
+     */
+    void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        int res = Native.ioUringExit(ringFd, ring);
+        if (res < 0) {
+            throw Native.newIOException("close", res);
+        }
+    }
+}
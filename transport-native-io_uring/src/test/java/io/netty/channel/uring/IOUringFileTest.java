@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.Future;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class IOUringFileTest {
+
+    private static EventLoopGroup group;
+
+    @BeforeClass
+    public static void setUp() {
+        assumeTrue(IOUring.isAvailable());
+        group = new IOUringEventLoopGroup(1);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (group != null) {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testWriteAndRead() throws Exception {
+        File file = File.createTempFile("netty-io_uring", ".tmp");
+        file.deleteOnExit();
+        EventLoop loop = group.next();
+        IOUringFile ioUringFile = IOUringFile.open(file, loop);
+        ByteBuf data = Unpooled.directBuffer().writeBytes("Hello, io_uring".getBytes(CharsetUtil.US_ASCII));
+        ByteBuf readBuffer = Unpooled.directBuffer(32);
+        try {
+            // Buffered I/O, so the position needs no alignment.
+            Future<Integer> write = ioUringFile.write(3, data).sync();
+            assertEquals(15, write.getNow().intValue());
+            assertFalse(data.isReadable());
+            assertEquals(0, ioUringFile.fsync().sync().getNow().intValue());
+
+            Future<Integer> read = ioUringFile.read(3, readBuffer).sync();
+            assertEquals(15, read.getNow().intValue());
+            assertEquals("Hello, io_uring", readBuffer.toString(CharsetUtil.US_ASCII));
+
+            // Reading behind the end of the file returns 0.
+            assertEquals(0, ioUringFile.read(1024, readBuffer).sync().getNow().intValue());
+            assertEquals(18, file.length());
+        } finally {
+            ioUringFile.close();
+            data.release();
+            readBuffer.release();
+            file.delete();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testFailsAfterClose() throws Exception {
+        File file = File.createTempFile("netty-io_uring", ".tmp");
+        file.deleteOnExit();
+        IOUringFile ioUringFile = IOUringFile.open(file, group.next());
+        ioUringFile.close();
+        assertFalse(ioUringFile.isOpen());
+
+        ByteBuf buf = Unpooled.directBuffer(8);
+        try {
+            Future<Integer> read = ioUringFile.read(0, buf).await();
+            assertTrue(read.cause() instanceof IOException);
+            assertEquals(1, buf.refCnt());
+        } finally {
+            buf.release();
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.epoll.Epoll;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IOUringTest {
+
+    @Test
+    public void testUnavailabilityCause() {
+        Assert.assertTrue(Epoll.isAvailable());
+        if (IOUring.isAvailable()) {
+            Assert.assertNull(IOUring.unavailabilityCause());
+            IOUring.ensureAvailability();
+        } else {
+            // Kernels older than 5.6 do not support all the operations, this must not make the transport unusable
+            // in any other way than reporting why.
+            Assert.assertNotNull(IOUring.unavailabilityCause());
+        }
+    }
+}
@@ -31,6 +31,8 @@ import java.net.SocketAddress;
 import java.net.SocketException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NotYetConnectedException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 
@@ -55,6 +57,7 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
     private final ChannelId id;
     private final Unsafe unsafe;
     private final DefaultChannelPipeline pipeline;
+    private final ChannelMetrics metrics = new ChannelMetrics(this);
     private final ChannelFuture succeededFuture = new SucceededChannelFuture(this, null);
     private final VoidChannelPromise voidPromise = new VoidChannelPromise(this, true);
     private final VoidChannelPromise unsafeVoidPromise = new VoidChannelPromise(this, false);
@@ -63,6 +66,8 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
     private volatile SocketAddress localAddress;
     private volatile SocketAddress remoteAddress;
     private volatile PausableChannelEventLoop eventLoop;
+    // Set once the Channel may be migrated, so only those pay for the synchronization with held operations.
+    private volatile boolean holdable;
     private volatile boolean registered;
 
     /** Cache for the string representation of this channel */
@@ -127,6 +132,11 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return parent;
     }
 
+    @Override
+    public ChannelMetrics metrics() {
+        return metrics;
+    }
+
     @Override
     public ChannelPipeline pipeline() {
         return pipeline;
@@ -146,6 +156,38 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return eventLoop;
     }
 
+    /**
+     * Prepares this {@link Channel} for {@link #holdOperations()}. From now on the outbound operations and tasks
+     * which other threads submit to the {@link #eventLoop()} synchronize with a migration, so this should only be
+     * called for {@link Channel}s which may be migrated.
+     */
+    final void enableHeldOperations() {
+        holdable = true;
+    }
+
+    /**
+     * Holds back the outbound operations and tasks which other threads submit to the {@link #eventLoop()} until this
+     * {@link Channel} is registered again, so they are neither run by the {@link EventLoop} it is deregistered from
+     * nor rejected. They are run in the order they were submitted once the registration completed, or when
+     * {@link #releaseHeldOperations()} is called. Requires {@link #enableHeldOperations()} and must be called from
+     * the {@link #eventLoop()} before the {@link Channel} is deregistered.
+     */
+    final void holdOperations() {
+        assert eventLoop().inEventLoop();
+        eventLoop.holdOperations();
+    }
+
+    /**
+     * Runs the operations held back since {@link #holdOperations()} and stops to hold them back. Must be called from
+     * the {@link #eventLoop()}.
+     */
+    final void releaseHeldOperations() {
+        PausableChannelEventLoop eventLoop = this.eventLoop;
+        if (eventLoop != null) {
+            eventLoop.releaseHeldOperations();
+        }
+    }
+
     @Override
     public SocketAddress localAddress() {
         SocketAddress localAddress = this.localAddress;
@@ -304,6 +346,26 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         return pipeline.writeAndFlush(msg, promise);
     }
 
+    @Override
+    public ChannelFuture writeBatch(Object[] msgs, int offset, int length) {
+        return pipeline.writeBatch(msgs, offset, length);
+    }
+
+    @Override
+    public ChannelFuture writeBatch(Object[] msgs, int offset, int length, ChannelPromise promise) {
+        return pipeline.writeBatch(msgs, offset, length, promise);
+    }
+
+    @Override
+    public ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length) {
+        return pipeline.writeAndFlushBatch(msgs, offset, length);
+    }
+
+    @Override
+    public ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length, ChannelPromise promise) {
+        return pipeline.writeAndFlushBatch(msgs, offset, length, promise);
+    }
+
     @Override
     public ChannelPromise newPromise() {
         return new DefaultChannelPromise(this);
@@ -514,6 +576,7 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                             AbstractChannel.this, t);
                     closeForcibly();
                     closeFuture.setClosed();
+                    AbstractChannel.this.eventLoop.releaseHeldOperations();
                     safeSetFailure(promise, t);
                 }
             }
@@ -530,7 +593,9 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                 doRegister();
                 neverRegistered = false;
                 registered = true;
+                registeredWith(eventLoop.unwrap(), true);
                 eventLoop.acceptNewTasks();
+                eventLoop.releaseHeldOperations();
                 safeSetSuccess(promise);
                 pipeline.fireChannelRegistered();
                 // Only fire a channelActive if the channel has never been registered. This prevents firing
@@ -542,6 +607,8 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                 // Close the channel directly to avoid FD leak.
                 closeForcibly();
                 closeFuture.setClosed();
+                // Let the held operations fail as the channel is closed now.
+                eventLoop.releaseHeldOperations();
                 safeSetFailure(promise, t);
             }
         }
@@ -752,6 +819,7 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
             } finally {
                 if (registered) {
                     registered = false;
+                    registeredWith(eventLoop().unwrap(), false);
                     safeSetSuccess(promise);
                     pipeline.fireChannelUnregistered();
                 } else {
@@ -964,6 +1032,19 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
      */
     protected abstract SocketAddress remoteAddress0();
 
+    /**
+     * Keeps {@link SingleThreadEventLoop#registeredChannels()} up to date.
+     */
+    private static void registeredWith(EventLoop loop, boolean registered) {
+        if (loop instanceof SingleThreadEventLoop) {
+            if (registered) {
+                ((SingleThreadEventLoop) loop).channelRegistered();
+            } else {
+                ((SingleThreadEventLoop) loop).channelDeregistered();
+            }
+        }
+    }
+
     /**
      * Is called after the {@link Channel} is registered with its {@link EventLoop} as part of the register process.
      *
@@ -1051,6 +1132,10 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
 
         volatile boolean isAcceptingNewTasks = true;
         volatile EventLoop unwrapped;
+        // The operations submitted by other threads while the Channel migrates to another EventLoop, or null if it
+        // does not migrate right now. Guarded by heldOperationsLock.
+        private List<Runnable> heldOperations;
+        private final Object heldOperationsLock = new Object();
 
         PausableChannelEventLoop(EventLoop unwrapped) {
             this.unwrapped = unwrapped;
@@ -1110,5 +1195,227 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         ChannelHandlerInvoker unwrapInvoker() {
             return unwrapped.asInvoker();
         }
+
+        void holdOperations() {
+            assert holdable;
+            synchronized (heldOperationsLock) {
+                if (heldOperations == null) {
+                    heldOperations = new ArrayList<Runnable>();
+                }
+            }
+        }
+
+        void releaseHeldOperations() {
+            if (!holdable) {
+                return;
+            }
+            List<Runnable> operations;
+            synchronized (heldOperationsLock) {
+                operations = heldOperations;
+                heldOperations = null;
+            }
+            if (operations != null) {
+                for (Runnable operation: operations) {
+                    operation.run();
+                }
+            }
+        }
+
+        /**
+         * Returns {@code true} if the given operation was submitted from another thread while the {@link Channel}
+         * migrates and so was held back. Otherwise it is dispatched by the caller, which must hold the
+         * {@code heldOperationsLock} while doing so to be ordered with {@link #holdOperations()}.
+         */
+        private boolean hold(Runnable operation) {
+            assert Thread.holdsLock(heldOperationsLock);
+            if (heldOperations == null) {
+                return false;
+            }
+            heldOperations.add(operation);
+            return true;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            if (!holdable || inEventLoop()) {
+                super.execute(command);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (!hold(command)) {
+                    super.execute(command);
+                }
+            }
+        }
+
+        @Override
+        public void invokeBind(final ChannelHandlerContext ctx, final SocketAddress localAddress,
+                               final ChannelPromise promise) {
+            if (!holdable || inEventLoop()) {
+                super.invokeBind(ctx, localAddress, promise);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (!hold(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        invokeBind(ctx, localAddress, promise);
+                    }
+                })) {
+                    super.invokeBind(ctx, localAddress, promise);
+                }
+            }
+        }
+
+        @Override
+        public void invokeConnect(final ChannelHandlerContext ctx, final SocketAddress remoteAddress,
+                                  final SocketAddress localAddress, final ChannelPromise promise) {
+            if (!holdable || inEventLoop()) {
+                super.invokeConnect(ctx, remoteAddress, localAddress, promise);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (!hold(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        invokeConnect(ctx, remoteAddress, localAddress, promise);
+                    }
+                })) {
+                    super.invokeConnect(ctx, remoteAddress, localAddress, promise);
+                }
+            }
+        }
+
+        @Override
+        public void invokeDisconnect(final ChannelHandlerContext ctx, final ChannelPromise promise) {
+            if (!holdable || inEventLoop()) {
+                super.invokeDisconnect(ctx, promise);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (!hold(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        invokeDisconnect(ctx, promise);
+                    }
+                })) {
+                    super.invokeDisconnect(ctx, promise);
+                }
+            }
+        }
+
+        @Override
+        public void invokeClose(final ChannelHandlerContext ctx, final ChannelPromise promise) {
+            if (!holdable || inEventLoop()) {
+                super.invokeClose(ctx, promise);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (!hold(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        invokeClose(ctx, promise);
+                    }
+                })) {
+                    super.invokeClose(ctx, promise);
+                }
+            }
+        }
+
+        @Override
+        public void invokeDeregister(final ChannelHandlerContext ctx, final ChannelPromise promise) {
+            if (!holdable || inEventLoop()) {
+                super.invokeDeregister(ctx, promise);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (!hold(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        invokeDeregister(ctx, promise);
+                    }
+                })) {
+                    super.invokeDeregister(ctx, promise);
+                }
+            }
+        }
+
+        @Override
+        public void invokeRead(final ChannelHandlerContext ctx) {
+            if (!holdable || inEventLoop()) {
+                super.invokeRead(ctx);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (!hold(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        invokeRead(ctx);
+                    }
+                })) {
+                    super.invokeRead(ctx);
+                }
+            }
+        }
+
+        @Override
+        public void invokeWrite(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+            if (!holdable || inEventLoop()) {
+                super.invokeWrite(ctx, msg, promise);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (!hold(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        invokeWrite(ctx, msg, promise);
+                    }
+                })) {
+                    super.invokeWrite(ctx, msg, promise);
+                }
+            }
+        }
+
+        @Override
+        public void invokeWriteBatch(final ChannelHandlerContext ctx, Object[] msgs, int offset, int length,
+                                     final ChannelPromise promise) {
+            if (!holdable || inEventLoop()) {
+                super.invokeWriteBatch(ctx, msgs, offset, length, promise);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (heldOperations == null) {
+                    super.invokeWriteBatch(ctx, msgs, offset, length, promise);
+                    return;
+                }
+                // Copy the messages as the caller is free to reuse the array once this method returns.
+                final Object[] batch = new Object[length];
+                System.arraycopy(msgs, offset, batch, 0, length);
+                hold(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        invokeWriteBatch(ctx, batch, 0, batch.length, promise);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void invokeFlush(final ChannelHandlerContext ctx) {
+            if (!holdable || inEventLoop()) {
+                super.invokeFlush(ctx);
+                return;
+            }
+            synchronized (heldOperationsLock) {
+                if (!hold(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        invokeFlush(ctx);
+                    }
+                })) {
+                    super.invokeFlush(ctx);
+                }
+            }
+        }
     }
 }
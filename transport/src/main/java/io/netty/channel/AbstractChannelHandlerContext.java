@@ -230,6 +230,10 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
     volatile Runnable invokeFlushTask;
     volatile Runnable invokeChannelWritableStateChangedTask;
 
+    // Used by ChannelHandlerProfiler, only if profiling is enabled.
+    int[] profileCountdowns;
+    volatile ChannelHandlerProfile profile;
+
     /**
      * Wrapped {@link EventLoop} and {@link ChannelHandlerInvoker} to support {@link Channel#deregister()}.
      */
@@ -491,6 +495,68 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         return writeAndFlush(msg, newPromise());
     }
 
+    @Override
+    public ChannelFuture writeBatch(Object[] msgs, int offset, int length) {
+        return writeBatch(msgs, offset, length, newPromise());
+    }
+
+    @Override
+    public ChannelFuture writeBatch(Object[] msgs, int offset, int length, ChannelPromise promise) {
+        AbstractChannelHandlerContext next = findContextOutbound();
+        writeBatch(next, msgs, offset, length, promise);
+        return promise;
+    }
+
+    @Override
+    public ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length, ChannelPromise promise) {
+        AbstractChannelHandlerContext next;
+        next = findContextOutbound();
+        writeBatch(next, msgs, offset, length, promise);
+        next = findContextOutbound();
+        next.invoker().invokeFlush(next);
+        return promise;
+    }
+
+    @Override
+    public ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length) {
+        return writeAndFlushBatch(msgs, offset, length, newPromise());
+    }
+
+    private void writeBatch(
+            AbstractChannelHandlerContext next, Object[] msgs, int offset, int length, ChannelPromise promise) {
+        if (msgs == null) {
+            throw new NullPointerException("msgs");
+        }
+        if (offset < 0 || length < 0 || offset + length > msgs.length) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "offset: %d, length: %d (expected: 0 <= offset <= offset + length <= msgs.length(%d))",
+                    offset, length, msgs.length));
+        }
+        if (!ChannelHandlerInvokerUtil.validatePromise(next, promise, true)) {
+            // promise cancelled
+            ChannelHandlerInvokerUtil.releaseAll(msgs, offset, length);
+            return;
+        }
+        if (length == 0) {
+            promise.trySuccess();
+            return;
+        }
+        if (length == 1) {
+            ReferenceCountUtil.touch(msgs[offset], next);
+            next.invoker().invokeWrite(next, msgs[offset], promise);
+            return;
+        }
+        final int end = offset + length;
+        for (int i = offset; i < end; i ++) {
+            ReferenceCountUtil.touch(msgs[i], next);
+        }
+        if (!promise.isVoid()) {
+            // Share one promise between all messages instead of creating one per message.
+            promise = new BatchChannelPromise(channel(), executor(), promise, length);
+        }
+        next.invoker().invokeWriteBatch(next, msgs, offset, length, promise);
+    }
+
     @Override
     public ChannelPromise newPromise() {
         return new DefaultChannelPromise(channel(), executor());
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * The {@link ChannelPromise} which is shared by all messages of a batch written via
+ * {@link ChannelHandlerContext#writeBatch(Object[], int, int, ChannelPromise)}.  It counts down one success per
+ * message and notifies the aggregate {@link ChannelPromise} once every message was written, or on the first failure.
+ * <p>
+ * As the promise is shared, completing it is lenient: {@link #trySuccess()} always records the success of one
+ * message, and neither {@link #setSuccess()} nor {@link #setFailure(Throwable)} throw because another message of the
+ * same batch completed it already.
+ */
+final class BatchChannelPromise extends DefaultChannelPromise {
+
+    private static final AtomicIntegerFieldUpdater<BatchChannelPromise> REMAINING_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(BatchChannelPromise.class, "remaining");
+
+    private final ChannelPromise aggregate;
+    @SuppressWarnings("unused")
+    private volatile int remaining;
+
+    BatchChannelPromise(Channel channel, EventExecutor executor, ChannelPromise aggregate, int messages) {
+        super(channel, executor);
+        this.aggregate = aggregate;
+        remaining = messages;
+    }
+
+    @Override
+    public ChannelPromise setSuccess(Void result) {
+        trySuccess(result);
+        return this;
+    }
+
+    @Override
+    public boolean trySuccess(Void result) {
+        if (REMAINING_UPDATER.decrementAndGet(this) == 0 && super.trySuccess(result)) {
+            aggregate.trySuccess();
+        }
+        // The success of this message was recorded even if the batch failed because of another message already.
+        return true;
+    }
+
+    @Override
+    public ChannelPromise setFailure(Throwable cause) {
+        tryFailure(cause);
+        return this;
+    }
+
+    @Override
+    public boolean tryFailure(Throwable cause) {
+        if (super.tryFailure(cause)) {
+            aggregate.tryFailure(cause);
+            return true;
+        }
+        return false;
+    }
+}
@@ -186,6 +186,11 @@ public interface Channel extends AttributeMap, Comparable<Channel> {
      */
     ChannelPipeline pipeline();
 
+    /**
+     * Return the {@link ChannelMetrics} of this {@link Channel}.
+     */
+    ChannelMetrics metrics();
+
     /**
      * Return the assigned {@link ByteBufAllocator} which will be used to allocate {@link ByteBuf}s.
      */
@@ -460,6 +465,35 @@ public interface Channel extends AttributeMap, Comparable<Channel> {
      */
     ChannelFuture writeAndFlush(Object msg);
 
+    /**
+     * Request to write {@code length} messages of {@code msgs}, starting at {@code offset}, via this
+     * {@link Channel} through the {@link ChannelPipeline}.
+     * This method will not request to actual flush, so be sure to call {@link #flush()}
+     * once you want to request to flush all pending data to the actual transport.
+     */
+    ChannelFuture writeBatch(Object[] msgs, int offset, int length);
+
+    /**
+     * Request to write {@code length} messages of {@code msgs}, starting at {@code offset}, via this
+     * {@link Channel} through the {@link ChannelPipeline}.  All messages share a single internal promise, so
+     * writing a batch does not allocate a {@link ChannelPromise} per message.  The given {@link ChannelPromise} is
+     * notified once all messages were written, or as soon as one of them failed.  Passing {@link #voidPromise()}
+     * writes the messages without any promise bookkeeping at all.
+     * This method will not request to actual flush, so be sure to call {@link #flush()}
+     * once you want to request to flush all pending data to the actual transport.
+     */
+    ChannelFuture writeBatch(Object[] msgs, int offset, int length, ChannelPromise promise);
+
+    /**
+     * Shortcut for call {@link #writeBatch(Object[], int, int, ChannelPromise)} and {@link #flush()}.
+     */
+    ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length, ChannelPromise promise);
+
+    /**
+     * Shortcut for call {@link #writeBatch(Object[], int, int)} and {@link #flush()}.
+     */
+    ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length);
+
     /**
      * <em>Unsafe</em> operations that should <em>never</em> be called from user-code. These methods
      * are only provided to implement the actual transport, and must be invoked from an I/O thread except for the
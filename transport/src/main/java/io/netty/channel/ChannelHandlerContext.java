@@ -447,6 +447,35 @@ public interface ChannelHandlerContext extends AttributeMap {
      */
     ChannelFuture writeAndFlush(Object msg);
 
+    /**
+     * Request to write {@code length} messages of {@code msgs}, starting at {@code offset}, via this
+     * {@link ChannelHandlerContext} through the {@link ChannelPipeline}.
+     * This method will not request to actual flush, so be sure to call {@link #flush()}
+     * once you want to request to flush all pending data to the actual transport.
+     */
+    ChannelFuture writeBatch(Object[] msgs, int offset, int length);
+
+    /**
+     * Request to write {@code length} messages of {@code msgs}, starting at {@code offset}, via this
+     * {@link ChannelHandlerContext} through the {@link ChannelPipeline}.  All messages share a single internal
+     * promise, so writing a batch does not allocate a {@link ChannelPromise} per message.  The given
+     * {@link ChannelPromise} is notified once all messages were written, or as soon as one of them failed.  Passing
+     * {@link #voidPromise()} writes the messages without any promise bookkeeping at all.
+     * This method will not request to actual flush, so be sure to call {@link #flush()}
+     * once you want to request to flush all pending data to the actual transport.
+     */
+    ChannelFuture writeBatch(Object[] msgs, int offset, int length, ChannelPromise promise);
+
+    /**
+     * Shortcut for call {@link #writeBatch(Object[], int, int, ChannelPromise)} and {@link #flush()}.
+     */
+    ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length, ChannelPromise promise);
+
+    /**
+     * Shortcut for call {@link #writeBatch(Object[], int, int)} and {@link #flush()}.
+     */
+    ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length);
+
     /**
      * Return the assigned {@link ChannelPipeline}
      */
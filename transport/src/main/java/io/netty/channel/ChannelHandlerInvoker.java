@@ -146,6 +146,14 @@ public interface ChannelHandlerInvoker {
      */
     void invokeWrite(ChannelHandlerContext ctx, Object msg, ChannelPromise promise);
 
+    /**
+     * Invokes {@link ChannelHandler#write(ChannelHandlerContext, Object, ChannelPromise)} for {@code length}
+     * messages of {@code msgs}, starting at {@code offset}, all with the same {@link ChannelPromise}.
+     * This method is not for a user but for the internal {@link ChannelHandlerContext} implementation.
+     * To trigger an event, use the methods in {@link ChannelHandlerContext} instead.
+     */
+    void invokeWriteBatch(ChannelHandlerContext ctx, Object[] msgs, int offset, int length, ChannelPromise promise);
+
     /**
      * Invokes {@link ChannelHandler#flush(ChannelHandlerContext)}.
      * This method is not for a user but for the internal {@link ChannelHandlerContext} implementation.
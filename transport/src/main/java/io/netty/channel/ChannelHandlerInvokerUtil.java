@@ -16,6 +16,8 @@
 
 package io.netty.channel;
 
+import io.netty.channel.ChannelHandlerProfile.Operation;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.internal.StringUtil;
 
 import java.net.SocketAddress;
@@ -79,10 +81,15 @@ public final class ChannelHandlerInvokerUtil {
     }
 
     public static void invokeChannelReadNow(final ChannelHandlerContext ctx, final Object msg) {
+        final long startNanos = ChannelHandlerProfiler.start(ctx, Operation.CHANNEL_READ);
         try {
             ctx.handler().channelRead(ctx, msg);
         } catch (Throwable t) {
             notifyHandlerException(ctx, t);
+        } finally {
+            if (startNanos != -1) {
+                ChannelHandlerProfiler.stop(ctx, Operation.CHANNEL_READ, startNanos);
+            }
         }
     }
 
@@ -153,18 +160,48 @@ public final class ChannelHandlerInvokerUtil {
     }
 
     public static void invokeWriteNow(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        final long startNanos = ChannelHandlerProfiler.start(ctx, Operation.WRITE);
         try {
             ctx.handler().write(ctx, msg, promise);
         } catch (Throwable t) {
             notifyOutboundHandlerException(t, promise);
+        } finally {
+            if (startNanos != -1) {
+                ChannelHandlerProfiler.stop(ctx, Operation.WRITE, startNanos);
+            }
+        }
+    }
+
+    public static void invokeWriteBatchNow(
+            ChannelHandlerContext ctx, Object[] msgs, int offset, int length, ChannelPromise promise) {
+        final int end = offset + length;
+        for (int i = offset; i < end; i ++) {
+            if (promise.isDone()) {
+                // One of the previous messages failed the whole batch already.
+                releaseAll(msgs, i, end - i);
+                return;
+            }
+            invokeWriteNow(ctx, msgs[i], promise);
+        }
+    }
+
+    static void releaseAll(Object[] msgs, int offset, int length) {
+        final int end = offset + length;
+        for (int i = offset; i < end; i ++) {
+            ReferenceCountUtil.release(msgs[i]);
         }
     }
 
     public static void invokeFlushNow(final ChannelHandlerContext ctx) {
+        final long startNanos = ChannelHandlerProfiler.start(ctx, Operation.FLUSH);
         try {
             ctx.handler().flush(ctx);
         } catch (Throwable t) {
             notifyHandlerException(ctx, t);
+        } finally {
+            if (startNanos != -1) {
+                ChannelHandlerProfiler.stop(ctx, Operation.FLUSH, startNanos);
+            }
         }
     }
 
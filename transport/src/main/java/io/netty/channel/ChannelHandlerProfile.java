@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.internal.StringUtil;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The invocation counts and latency histograms which {@link ChannelHandlerProfiler} sampled for a
+ * {@link ChannelHandler}, either for a single {@link ChannelHandlerContext} or for all handlers of the same type.
+ * <p>
+ * The latency of an invocation includes the time spent in the handlers it called synchronously, for example via
+ * {@link ChannelHandlerContext#fireChannelRead(Object)}.  Latencies are kept in a histogram with power of two
+ * nanosecond buckets.
+ */
+public final class ChannelHandlerProfile {
+
+    /**
+     * The profiled {@link ChannelHandler} methods.
+     */
+    public enum Operation {
+        /**
+         * {@link ChannelHandler#channelRead(ChannelHandlerContext, Object)}
+         */
+        CHANNEL_READ,
+        /**
+         * {@link ChannelHandler#write(ChannelHandlerContext, Object, ChannelPromise)}
+         */
+        WRITE,
+        /**
+         * {@link ChannelHandler#flush(ChannelHandlerContext)}
+         */
+        FLUSH
+    }
+
+    private static final int INVOCATIONS = 0;
+    private static final int SAMPLES = 1;
+    private static final int TOTAL_NANOS = 2;
+    private static final int MAX_NANOS = 3;
+    private static final int FIRST_BUCKET = 4;
+    private static final int BUCKETS = 64;
+    private static final int STRIDE = FIRST_BUCKET + BUCKETS;
+
+    private final Class<? extends ChannelHandler> handlerType;
+    private final AtomicLongArray values = new AtomicLongArray(Operation.values().length * STRIDE);
+
+    ChannelHandlerProfile(Class<? extends ChannelHandler> handlerType) {
+        this.handlerType = handlerType;
+    }
+
+    /**
+     * Returns the type of the profiled {@link ChannelHandler}.
+     */
+    public Class<? extends ChannelHandler> handlerType() {
+        return handlerType;
+    }
+
+    /**
+     * Returns the number of invocations of the given {@link Operation}.  Invocations are counted in steps of the
+     * sample rate, so the last up to {@link ChannelHandlerProfiler#sampleRate()} invocations may be missing.
+     */
+    public long invocations(Operation op) {
+        return values.get(index(op, INVOCATIONS));
+    }
+
+    /**
+     * Returns the number of sampled invocations of the given {@link Operation}.
+     */
+    public long samples(Operation op) {
+        return values.get(index(op, SAMPLES));
+    }
+
+    /**
+     * Returns the sum of the latencies of all sampled invocations of the given {@link Operation} in nanoseconds.
+     */
+    public long totalNanos(Operation op) {
+        return values.get(index(op, TOTAL_NANOS));
+    }
+
+    /**
+     * Returns the largest latency of a sampled invocation of the given {@link Operation} in nanoseconds.
+     */
+    public long maxNanos(Operation op) {
+        return values.get(index(op, MAX_NANOS));
+    }
+
+    /**
+     * Returns the mean latency of the sampled invocations of the given {@link Operation} in nanoseconds.
+     */
+    public long meanNanos(Operation op) {
+        long samples = samples(op);
+        return samples == 0 ? 0 : totalNanos(op) / samples;
+    }
+
+    /**
+     * Returns an upper bound of the latency in nanoseconds which the given percentage of sampled invocations of the
+     * given {@link Operation} did not exceed.
+     *
+     * @param percentile the percentile, between {@code 0} and {@code 100}
+     */
+    public long percentileNanos(Operation op, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile: " + percentile + " (expected: 0-100)");
+        }
+        long samples = samples(op);
+        if (samples == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(samples * percentile / 100);
+        long count = 0;
+        int base = index(op, FIRST_BUCKET);
+        for (int i = 0; i < BUCKETS; i ++) {
+            count += values.get(base + i);
+            if (count >= threshold) {
+                // The bucket i holds latencies in [2^i, 2^(i+1)).
+                long upperBound = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i + 1) - 1;
+                return Math.min(upperBound, maxNanos(op));
+            }
+        }
+        return maxNanos(op);
+    }
+
+    void record(Operation op, int invocations, long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        values.addAndGet(index(op, INVOCATIONS), invocations);
+        values.incrementAndGet(index(op, SAMPLES));
+        values.addAndGet(index(op, TOTAL_NANOS), nanos);
+        int maxIndex = index(op, MAX_NANOS);
+        for (;;) {
+            long max = values.get(maxIndex);
+            if (nanos <= max || values.compareAndSet(maxIndex, max, nanos)) {
+                break;
+            }
+        }
+        int bucket = nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+        values.incrementAndGet(index(op, FIRST_BUCKET) + bucket);
+    }
+
+    private static int index(Operation op, int offset) {
+        return op.ordinal() * STRIDE + offset;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder(128);
+        buf.append(StringUtil.simpleClassName(this)).append('(').append(handlerType.getName());
+        for (Operation op: Operation.values()) {
+            buf.append(", ").append(op).append(": invocations: ").append(invocations(op))
+               .append(", samples: ").append(samples(op))
+               .append(", meanNanos: ").append(meanNanos(op))
+               .append(", p99Nanos: ").append(percentileNanos(op, 99))
+               .append(", maxNanos: ").append(maxNanos(op));
+        }
+        return buf.append(')').toString();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.ChannelHandlerProfile.Operation;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Samples the latency of {@link ChannelHandler#channelRead(ChannelHandlerContext, Object)},
+ * {@link ChannelHandler#write(ChannelHandlerContext, Object, ChannelPromise)} and
+ * {@link ChannelHandler#flush(ChannelHandlerContext)} invocations.
+ * <p>
+ * Profiling is disabled by default.  It is enabled by setting a sample rate of {@code n > 0}, either via
+ * {@link #setSampleRate(int)} or the system property {@code io.netty.handlerProfilerSampleRate}, which makes every
+ * {@code n}-th invocation of each operation of each handler be timed.  The results are available per
+ * {@link ChannelPipeline} via {@link ChannelPipeline#profiles()} and aggregated per handler type via
+ * {@link #profilesByHandlerType()}.
+ */
+public final class ChannelHandlerProfiler {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(ChannelHandlerProfiler.class);
+
+    private static final ConcurrentMap<Class<? extends ChannelHandler>, ChannelHandlerProfile> profilesByType =
+            PlatformDependent.newConcurrentHashMap();
+
+    private static volatile int sampleRate;
+
+    static {
+        setSampleRate(SystemPropertyUtil.getInt("io.netty.handlerProfilerSampleRate", 0));
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.handlerProfilerSampleRate: {}", sampleRate);
+        }
+    }
+
+    /**
+     * Returns the sample rate, {@code 0} if profiling is disabled.
+     */
+    public static int sampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Sets the sample rate.  Every {@code sampleRate}-th invocation is timed, {@code 0} disables profiling.
+     */
+    public static void setSampleRate(int sampleRate) {
+        if (sampleRate < 0) {
+            throw new IllegalArgumentException("sampleRate: " + sampleRate + " (expected: >= 0)");
+        }
+        ChannelHandlerProfiler.sampleRate = sampleRate;
+    }
+
+    /**
+     * Returns a snapshot of the {@link ChannelHandlerProfile}s aggregated over all handlers of the same type.
+     */
+    public static Map<Class<? extends ChannelHandler>, ChannelHandlerProfile> profilesByHandlerType() {
+        return new HashMap<Class<? extends ChannelHandler>, ChannelHandlerProfile>(profilesByType);
+    }
+
+    /**
+     * Clears the {@link ChannelHandlerProfile}s aggregated per handler type.
+     */
+    public static void resetProfilesByHandlerType() {
+        profilesByType.clear();
+    }
+
+    /**
+     * Returns the result of {@link System#nanoTime()} if the invocation of the given operation should be sampled,
+     * {@code -1} otherwise.
+     */
+    static long start(ChannelHandlerContext ctx, Operation op) {
+        final int sampleRate = ChannelHandlerProfiler.sampleRate;
+        if (sampleRate == 0 || !(ctx instanceof AbstractChannelHandlerContext)) {
+            return -1;
+        }
+        AbstractChannelHandlerContext actx = (AbstractChannelHandlerContext) ctx;
+        int[] countdowns = actx.profileCountdowns;
+        if (countdowns == null) {
+            actx.profileCountdowns = countdowns = new int[Operation.values().length];
+        }
+        if (++ countdowns[op.ordinal()] < sampleRate) {
+            return -1;
+        }
+        countdowns[op.ordinal()] = 0;
+        return System.nanoTime();
+    }
+
+    static void stop(ChannelHandlerContext ctx, Operation op, long startNanos) {
+        final long nanos = System.nanoTime() - startNanos;
+        final int invocations = Math.max(1, sampleRate);
+        AbstractChannelHandlerContext actx = (AbstractChannelHandlerContext) ctx;
+        ChannelHandlerProfile profile = actx.profile;
+        Class<? extends ChannelHandler> type = actx.handler().getClass();
+        if (profile == null) {
+            actx.profile = profile = new ChannelHandlerProfile(type);
+        }
+        profile.record(op, invocations, nanos);
+
+        ChannelHandlerProfile typeProfile = profilesByType.get(type);
+        if (typeProfile == null) {
+            ChannelHandlerProfile newProfile = new ChannelHandlerProfile(type);
+            typeProfile = profilesByType.putIfAbsent(type, newProfile);
+            if (typeProfile == null) {
+                typeProfile = newProfile;
+            }
+        }
+        typeProfile.record(op, invocations, nanos);
+    }
+
+    private ChannelHandlerProfiler() { }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+
+/**
+ * Counters for the messages and bytes a {@link Channel} read and wrote.
+ * <p>
+ * The counters are plain fields which are only updated by the {@link EventLoop} of the {@link Channel}, so keeping
+ * them enabled costs next to nothing.  When read from another thread the values may be slightly behind.
+ */
+public final class ChannelMetrics {
+
+    private final Channel channel;
+    private long messagesRead;
+    private long bytesRead;
+    private long messagesWritten;
+    private long bytesWritten;
+
+    ChannelMetrics(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the number of messages passed to {@link ChannelPipeline#fireChannelRead(Object)}.
+     */
+    public long messagesRead() {
+        return messagesRead;
+    }
+
+    /**
+     * Returns the number of readable bytes of the {@link ByteBuf}s and {@link ByteBufHolder}s passed to
+     * {@link ChannelPipeline#fireChannelRead(Object)}.
+     */
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Returns the number of messages which were written to the transport successfully.
+     */
+    public long messagesWritten() {
+        return messagesWritten;
+    }
+
+    /**
+     * Returns the number of bytes of the messages which were written to the transport successfully.
+     */
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Returns the number of bytes which are pending in the {@link ChannelOutboundBuffer} right now.
+     */
+    public long pendingOutboundBytes() {
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        return buffer == null ? 0 : buffer.totalPendingWriteBytes();
+    }
+
+    void recordRead(Object msg) {
+        messagesRead ++;
+        if (msg instanceof ByteBuf) {
+            bytesRead += ((ByteBuf) msg).readableBytes();
+        } else if (msg instanceof ByteBufHolder) {
+            bytesRead += ((ByteBufHolder) msg).content().readableBytes();
+        }
+    }
+
+    void recordWrite(long bytes) {
+        messagesWritten ++;
+        if (bytes > 0) {
+            bytesWritten += bytes;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelMetrics(messagesRead: " + messagesRead +
+                ", bytesRead: " + bytesRead +
+                ", messagesWritten: " + messagesWritten +
+                ", bytesWritten: " + bytesWritten +
+                ", pendingOutboundBytes: " + pendingOutboundBytes() + ')';
+    }
+}
@@ -261,6 +261,7 @@ public final class ChannelOutboundBuffer {
             ReferenceCountUtil.safeRelease(msg);
             safeSuccess(promise);
             decrementPendingOutboundBytes(size, false, true);
+            channel.metrics().recordWrite(e.total);
         }
 
         // recycle the entry
@@ -269,6 +270,39 @@ public final class ChannelOutboundBuffer {
         return true;
     }
 
+    /**
+     * Will remove the current message and mark its {@link ChannelPromise} as success like {@link #remove()}, but will
+     * not release the message and return it instead, so the caller takes over its ownership. Cancelled messages are
+     * skipped. If no flushed message is left it will return {@code null}.
+     */
+    public Object removeAndTransfer() {
+        for (;;) {
+            Entry e = flushedEntry;
+            if (e == null) {
+                clearNioBuffers();
+                return null;
+            }
+            Object msg = e.msg;
+
+            ChannelPromise promise = e.promise;
+            int size = e.pendingSize;
+            long total = e.total;
+            boolean cancelled = e.cancelled;
+
+            removeEntry(e);
+
+            // recycle the entry
+            e.recycle();
+
+            if (!cancelled) {
+                safeSuccess(promise);
+                decrementPendingOutboundBytes(size, false, true);
+                channel.metrics().recordWrite(total);
+                return msg;
+            }
+        }
+    }
+
     /**
      * Will remove the current message, mark its {@link ChannelPromise} as failure using the given {@link Throwable}
      * and return {@code true}. If no   flushed message exists at the time this method is called it will return
@@ -647,6 +647,14 @@ public interface ChannelPipeline extends Iterable<Entry<String, ChannelHandler>>
      */
     List<String> names();
 
+    /**
+     * Returns the {@link ChannelHandlerProfile}s of the handlers in this pipeline, keyed by handler name.  Handlers
+     * which were not sampled yet are not contained.
+     *
+     * @see ChannelHandlerProfiler
+     */
+    Map<String, ChannelHandlerProfile> profiles();
+
     /**
      * Converts this pipeline into an ordered {@link Map} whose keys are
      * handler names and whose values are handlers.
@@ -933,4 +941,33 @@ public interface ChannelPipeline extends Iterable<Entry<String, ChannelHandler>>
      * Shortcut for call {@link #write(Object)} and {@link #flush()}.
      */
     ChannelFuture writeAndFlush(Object msg);
+
+    /**
+     * Request to write {@code length} messages of {@code msgs}, starting at {@code offset}, via this
+     * {@link ChannelPipeline}.
+     * This method will not request to actual flush, so be sure to call {@link #flush()}
+     * once you want to request to flush all pending data to the actual transport.
+     */
+    ChannelFuture writeBatch(Object[] msgs, int offset, int length);
+
+    /**
+     * Request to write {@code length} messages of {@code msgs}, starting at {@code offset}, via this
+     * {@link ChannelPipeline}.  All messages share a single internal promise, so writing a batch does not allocate
+     * a {@link ChannelPromise} per message.  The given {@link ChannelPromise} is notified once all messages were
+     * written, or as soon as one of them failed.  Passing {@link Channel#voidPromise()} writes the messages without
+     * any promise bookkeeping at all.
+     * This method will not request to actual flush, so be sure to call {@link #flush()}
+     * once you want to request to flush all pending data to the actual transport.
+     */
+    ChannelFuture writeBatch(Object[] msgs, int offset, int length, ChannelPromise promise);
+
+    /**
+     * Shortcut for call {@link #writeBatch(Object[], int, int, ChannelPromise)} and {@link #flush()}.
+     */
+    ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length, ChannelPromise promise);
+
+    /**
+     * Shortcut for call {@link #writeBatch(Object[], int, int)} and {@link #flush()}.
+     */
+    ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length);
 }
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.OneTimeTask;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves the busiest {@link Channel}s off overloaded {@link SingleThreadEventLoop}s of an {@link EventLoopGroup}.
+ *
+ * An {@link EventLoopGroup} assigns a {@link Channel} to one of its {@link EventLoop}s once and keeps it there for
+ * the rest of its life, so a few heavy connections which happen to end up on the same {@link EventLoop} can keep it
+ * saturated while the others are idle. The {@link ChannelHandler}s returned by {@link #handler()} measure the time
+ * spent in {@link ChannelHandler#channelRead(ChannelHandlerContext, Object)},
+ * {@link ChannelHandler#channelReadComplete(ChannelHandlerContext)} and
+ * {@link ChannelHandler#flush(ChannelHandlerContext)} as well as the number of bytes read and written for each
+ * {@link Channel} whose {@link ChannelPipeline} it was added to. Once {@link #start()}ed this class periodically
+ * sums up the load of each {@link EventLoop} since the last round and, if the most loaded one exceeds the mean by
+ * more than the configured threshold, migrates its heaviest {@link Channel}s to the least loaded one. The load of a
+ * {@link Channel} is the mean of its share of the busy time and its share of the bytes of all {@link Channel}s in the
+ * round, so both count the same no matter their units, and {@link Channel}s which are cheap to process but move a
+ * lot of data still count.
+ *
+ * A migration uses the same {@link Channel#deregister()} and {@link EventLoop#register(Channel)} calls a user would,
+ * so only transports which allow to deregister an active {@link Channel} (like NIO and epoll) can be rebalanced.
+ * Messages which were written but not flushed or not fully written yet stay in the {@link ChannelOutboundBuffer} and
+ * are flushed once the {@link Channel} was registered with its new {@link EventLoop}. Writes and other operations
+ * which other threads submit while the {@link Channel} migrates are held back and run in order on the new
+ * {@link EventLoop}, so unlike a plain deregistration a migration is not visible to them. Only {@link Channel}s which
+ * extend {@link AbstractChannel} are migrated.
+ *
+ * This class is opt-in and does nothing until {@link #start()} is called.
+ */
+public final class ChannelRebalancer {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(ChannelRebalancer.class);
+
+    private static final Comparator<ChannelLoad> HEAVIEST_FIRST = new Comparator<ChannelLoad>() {
+        @Override
+        public int compare(ChannelLoad o1, ChannelLoad o2) {
+            return o1.cost < o2.cost ? 1 : o1.cost > o2.cost ? -1 : 0;
+        }
+    };
+
+    private final EventLoopGroup group;
+    private final long intervalNanos;
+    private final double imbalanceThreshold;
+    private final int maxMigrationsPerRound;
+    private final Map<Channel, ChannelLoad> loads = PlatformDependent.newConcurrentHashMap();
+    private final AtomicLong migrations = new AtomicLong();
+    private final Runnable rebalanceTask = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                rebalance();
+            } catch (Throwable t) {
+                logger.warn("Unexpected exception while rebalancing the channels of {}", group, t);
+            }
+        }
+    };
+
+    private ScheduledFuture<?> rebalanceFuture;
+
+    /**
+     * Creates a new instance which rebalances once per second if the most loaded {@link EventLoop} exceeds the mean
+     * by more than 25%, and migrates at most one {@link Channel} per round.
+     */
+    public ChannelRebalancer(EventLoopGroup group) {
+        this(group, 1, TimeUnit.SECONDS, 0.25, 1);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param group                 the {@link EventLoopGroup} whose {@link Channel}s should be rebalanced
+     * @param interval              the time between two rounds
+     * @param unit                  the {@link TimeUnit} of {@code interval}
+     * @param imbalanceThreshold    the fraction by which the load of the most loaded {@link EventLoop} needs to
+     *                              exceed the mean before a {@link Channel} is migrated
+     * @param maxMigrationsPerRound the maximal number of {@link Channel}s migrated in one round
+     */
+    public ChannelRebalancer(EventLoopGroup group, long interval, TimeUnit unit,
+                             double imbalanceThreshold, int maxMigrationsPerRound) {
+        if (group == null) {
+            throw new NullPointerException("group");
+        }
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval: " + interval + " (expected: > 0)");
+        }
+        if (imbalanceThreshold < 0) {
+            throw new IllegalArgumentException(
+                    "imbalanceThreshold: " + imbalanceThreshold + " (expected: >= 0)");
+        }
+        if (maxMigrationsPerRound <= 0) {
+            throw new IllegalArgumentException(
+                    "maxMigrationsPerRound: " + maxMigrationsPerRound + " (expected: > 0)");
+        }
+        this.group = group;
+        intervalNanos = unit.toNanos(interval);
+        this.imbalanceThreshold = imbalanceThreshold;
+        this.maxMigrationsPerRound = maxMigrationsPerRound;
+    }
+
+    /**
+     * Returns a new {@link ChannelHandler} which tracks the load of a {@link Channel}. It holds the load of the
+     * {@link Channel} it was added to and so can not be shared, call this method for each {@link Channel} (for
+     * example from a {@link ChannelInitializer}). It should be added as the first {@link ChannelHandler} of the
+     * {@link ChannelPipeline} of each {@link Channel} which may be migrated, so it accounts for the time spent in all
+     * the other {@link ChannelHandler}s. {@link ServerChannel}s are never migrated.
+     */
+    public ChannelHandler handler() {
+        return new LoadTrackingHandler();
+    }
+
+    /**
+     * Start to rebalance periodically. Calling this method more than once has no effect.
+     */
+    public synchronized void start() {
+        if (rebalanceFuture == null) {
+            rebalanceFuture = GlobalEventExecutor.INSTANCE.scheduleWithFixedDelay(
+                    rebalanceTask, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stop to rebalance. Migrations which are in progress are completed.
+     */
+    public synchronized void stop() {
+        if (rebalanceFuture != null) {
+            rebalanceFuture.cancel(false);
+            rebalanceFuture = null;
+        }
+    }
+
+    /**
+     * Returns the number of {@link Channel}s which were migrated successfully so far.
+     */
+    public long migrations() {
+        return migrations.get();
+    }
+
+    /**
+     * Run one round of rebalancing.
+     */
+    void rebalance() {
+        Map<EventLoop, LoopLoad> loopLoads = new IdentityHashMap<EventLoop, LoopLoad>();
+        for (EventExecutor child: group.children()) {
+            if (child instanceof EventLoop) {
+                EventLoop loop = ((EventLoop) child).unwrap();
+                if (loop instanceof SingleThreadEventLoop && !loop.isShuttingDown()) {
+                    loopLoads.put(loop, new LoopLoad(loop));
+                }
+            }
+        }
+        if (loopLoads.size() < 2) {
+            return;
+        }
+
+        List<ChannelLoad> channelLoads = new ArrayList<ChannelLoad>(loads.size());
+        long totalBusyNanos = 0;
+        long totalBytes = 0;
+        for (ChannelLoad load: loads.values()) {
+            load.update();
+            Channel ch = load.channel;
+            if (load.migrating || !ch.isRegistered() || !ch.isActive()) {
+                continue;
+            }
+            channelLoads.add(load);
+            totalBusyNanos += load.busyNanosDelta;
+            totalBytes += load.bytesDelta;
+        }
+        for (ChannelLoad load: channelLoads) {
+            load.cost(totalBusyNanos, totalBytes);
+            LoopLoad loopLoad = loopLoads.get(load.channel.eventLoop().unwrap());
+            if (loopLoad != null) {
+                loopLoad.add(load);
+            }
+        }
+
+        for (int i = 0; i < maxMigrationsPerRound; i++) {
+            LoopLoad max = null;
+            LoopLoad min = null;
+            double total = 0;
+            for (LoopLoad loopLoad: loopLoads.values()) {
+                total += loopLoad.cost;
+                if (max == null || loopLoad.cost > max.cost) {
+                    max = loopLoad;
+                }
+                if (min == null || loopLoad.cost < min.cost) {
+                    min = loopLoad;
+                }
+            }
+            assert max != null && min != null;
+            double mean = total / loopLoads.size();
+            if (total == 0 || max.cost <= mean * (1 + imbalanceThreshold)) {
+                return;
+            }
+
+            // Moving a channel only helps if it does not make the target busier than the source was before.
+            ChannelLoad candidate = null;
+            double gap = max.cost - min.cost;
+            Collections.sort(max.channels, HEAVIEST_FIRST);
+            for (ChannelLoad load: max.channels) {
+                if (load.cost > 0 && load.cost < gap) {
+                    candidate = load;
+                    break;
+                }
+            }
+            if (candidate == null) {
+                return;
+            }
+
+            max.remove(candidate);
+            min.add(candidate);
+            migrate(candidate, min.loop);
+        }
+    }
+
+    private void migrate(final ChannelLoad load, final EventLoop target) {
+        load.migrating = true;
+        final Channel ch = load.channel;
+        final EventLoop source = ch.eventLoop();
+        try {
+            source.execute(new OneTimeTask() {
+                @Override
+                public void run() {
+                    if (!ch.isRegistered() || !ch.isActive()) {
+                        load.migrating = false;
+                        return;
+                    }
+                    // Hold back what other threads submit until the channel is registered with the target, as the
+                    // source would run it after the channel was deregistered or the target would reject it.
+                    final AbstractChannel channel = (AbstractChannel) ch;
+                    channel.holdOperations();
+                    ch.deregister().addListener(new ChannelFutureListener() {
+                        @Override
+                        public void operationComplete(ChannelFuture future) throws Exception {
+                            if (!future.isSuccess()) {
+                                channel.releaseHeldOperations();
+                                load.migrating = false;
+                                logger.debug("Failed to deregister {} for migration", ch, future.cause());
+                                return;
+                            }
+                            target.register(ch).addListener(new ChannelFutureListener() {
+                                @Override
+                                public void operationComplete(ChannelFuture future) throws Exception {
+                                    load.migrating = false;
+                                    if (future.isSuccess()) {
+                                        migrations.incrementAndGet();
+                                        // A re-registration does not trigger channelActive again, so we need to
+                                        // restart reading and write what was left in the ChannelOutboundBuffer.
+                                        if (ch.config().isAutoRead()) {
+                                            ch.read();
+                                        }
+                                        ch.flush();
+                                    } else {
+                                        logger.warn("Failed to register {} with {}, closing it", ch, target,
+                                                future.cause());
+                                        loads.remove(ch);
+                                        ch.unsafe().closeForcibly();
+                                        channel.releaseHeldOperations();
+                                    }
+                                }
+                            });
+                        }
+                    });
+                }
+            });
+        } catch (Throwable t) {
+            // The source is shutting down or the channel was deregistered concurrently, just try again later.
+            load.migrating = false;
+            logger.debug("Failed to migrate {}", ch, t);
+        }
+    }
+
+    private static long size(Object msg) {
+        if (msg instanceof ByteBuf) {
+            return ((ByteBuf) msg).readableBytes();
+        }
+        if (msg instanceof ByteBufHolder) {
+            return ((ByteBufHolder) msg).content().readableBytes();
+        }
+        if (msg instanceof FileRegion) {
+            return ((FileRegion) msg).count();
+        }
+        return 0;
+    }
+
+    private final class LoadTrackingHandler extends ChannelHandlerAdapter {
+
+        // Only accessed by the EventLoop of the Channel, null if it is not tracked.
+        private ChannelLoad load;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+            final Channel ch = ctx.channel();
+            if (ch instanceof ServerChannel || !(ch instanceof AbstractChannel)) {
+                return;
+            }
+            ((AbstractChannel) ch).enableHeldOperations();
+            load = new ChannelLoad(ch);
+            loads.put(ch, load);
+            ch.closeFuture().addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) throws Exception {
+                    loads.remove(ch);
+                }
+            });
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+            load = null;
+            loads.remove(ctx.channel());
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ChannelLoad load = this.load;
+            if (load == null) {
+                ctx.fireChannelRead(msg);
+                return;
+            }
+            load.bytes += size(msg);
+            long start = System.nanoTime();
+            try {
+                ctx.fireChannelRead(msg);
+            } finally {
+                load.busyNanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+            ChannelLoad load = this.load;
+            if (load == null) {
+                ctx.fireChannelReadComplete();
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                ctx.fireChannelReadComplete();
+            } finally {
+                load.busyNanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            ChannelLoad load = this.load;
+            if (load != null) {
+                load.bytes += size(msg);
+            }
+            ctx.write(msg, promise);
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            ChannelLoad load = this.load;
+            if (load == null) {
+                ctx.flush();
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                ctx.flush();
+            } finally {
+                load.busyNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    /**
+     * The load of a {@link Channel}. The counters are only updated by the {@link EventLoop} of the {@link Channel}
+     * and read by the rebalancer, so volatile is enough.
+     */
+    private static final class ChannelLoad {
+        final Channel channel;
+        volatile long busyNanos;
+        volatile long bytes;
+        volatile boolean migrating;
+
+        // Only accessed by the rebalancer.
+        private long lastBusyNanos;
+        private long lastBytes;
+        long busyNanosDelta;
+        long bytesDelta;
+        double cost;
+
+        ChannelLoad(Channel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Take the busy time and bytes since the last round.
+         */
+        void update() {
+            long busyNanos = this.busyNanos;
+            long bytes = this.bytes;
+            busyNanosDelta = busyNanos - lastBusyNanos;
+            bytesDelta = bytes - lastBytes;
+            lastBusyNanos = busyNanos;
+            lastBytes = bytes;
+        }
+
+        /**
+         * Calculate the cost as the mean of the shares of the given totals of this round, so it is between 0 and 1.
+         */
+        void cost(long totalBusyNanos, long totalBytes) {
+            double busyShare = totalBusyNanos == 0 ? 0 : (double) busyNanosDelta / totalBusyNanos;
+            double bytesShare = totalBytes == 0 ? 0 : (double) bytesDelta / totalBytes;
+            cost = (busyShare + bytesShare) / 2;
+        }
+    }
+
+    private static final class LoopLoad {
+        final EventLoop loop;
+        final List<ChannelLoad> channels = new ArrayList<ChannelLoad>();
+        double cost;
+
+        LoopLoad(EventLoop loop) {
+            this.loop = loop;
+        }
+
+        void add(ChannelLoad load) {
+            channels.add(load);
+            cost += load.cost;
+        }
+
+        void remove(ChannelLoad load) {
+            channels.remove(load);
+            cost -= load.cost;
+        }
+    }
+}
@@ -349,6 +349,56 @@ public class DefaultChannelHandlerInvoker implements ChannelHandlerInvoker {
         }
     }
 
+    @Override
+    public void invokeWriteBatch(
+            ChannelHandlerContext ctx, Object[] msgs, int offset, int length, ChannelPromise promise) {
+        if (msgs == null) {
+            throw new NullPointerException("msgs");
+        }
+        final int end = offset + length;
+        for (int i = offset; i < end; i ++) {
+            if (msgs[i] == null) {
+                throw new NullPointerException("msgs[" + i + ']');
+            }
+        }
+        if (!validatePromise(ctx, promise, true)) {
+            // promise cancelled
+            releaseAll(msgs, offset, length);
+            return;
+        }
+
+        if (executor.inEventLoop()) {
+            invokeWriteBatchNow(ctx, msgs, offset, length, promise);
+        } else {
+            // Copy the messages as the caller is free to reuse the array once this method returns.
+            Object[] batch = new Object[length];
+            System.arraycopy(msgs, offset, batch, 0, length);
+
+            AbstractChannel channel = (AbstractChannel) ctx.channel();
+            MessageSizeEstimator.Handle estimator = channel.estimatorHandle();
+            long size = 0;
+            for (Object msg: batch) {
+                size += Math.max(0, estimator.size(msg));
+            }
+            if (size > 0) {
+                ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+                // Check for null as it may be set to null if the channel is closed already
+                if (buffer != null) {
+                    buffer.incrementPendingOutboundBytes(size);
+                }
+            }
+            try {
+                executor.execute(new WriteBatchTask(ctx, batch, size, promise));
+            } catch (Throwable cause) {
+                try {
+                    promise.setFailure(cause);
+                } finally {
+                    releaseAll(batch, 0, length);
+                }
+            }
+        }
+    }
+
     @Override
     public void invokeFlush(final ChannelHandlerContext ctx) {
         if (executor.inEventLoop()) {
@@ -399,6 +449,36 @@ public class DefaultChannelHandlerInvoker implements ChannelHandlerInvoker {
         }
     }
 
+    /**
+     * Hands a whole batch of messages over to the event loop with a single task and a single update of the
+     * pending outbound bytes.
+     */
+    static final class WriteBatchTask implements SingleThreadEventLoop.NonWakeupRunnable {
+        private final ChannelHandlerContext ctx;
+        private final Object[] msgs;
+        private final ChannelPromise promise;
+        private final long size;
+
+        WriteBatchTask(ChannelHandlerContext ctx, Object[] msgs, long size, ChannelPromise promise) {
+            this.ctx = ctx;
+            this.msgs = msgs;
+            this.size = size;
+            this.promise = promise;
+        }
+
+        @Override
+        public void run() {
+            if (size > 0) {
+                ChannelOutboundBuffer buffer = ctx.channel().unsafe().outboundBuffer();
+                // Check for null as it may be set to null if the channel is closed already
+                if (buffer != null) {
+                    buffer.decrementPendingOutboundBytes(size);
+                }
+            }
+            invokeWriteBatchNow(ctx, msgs, 0, msgs.length, promise);
+        }
+    }
+
     static final class WriteTask extends RecyclableMpscLinkedQueueNode<SingleThreadEventLoop.NonWakeupRunnable>
             implements SingleThreadEventLoop.NonWakeupRunnable {
         private ChannelHandlerContext ctx;
@@ -788,6 +788,22 @@ final class DefaultChannelPipeline implements ChannelPipeline {
         }
     }
 
+    @Override
+    public Map<String, ChannelHandlerProfile> profiles() {
+        Map<String, ChannelHandlerProfile> map = new LinkedHashMap<String, ChannelHandlerProfile>();
+        AbstractChannelHandlerContext ctx = head.next;
+        for (;;) {
+            if (ctx == tail) {
+                return map;
+            }
+            ChannelHandlerProfile profile = ctx.profile;
+            if (profile != null) {
+                map.put(ctx.name(), profile);
+            }
+            ctx = ctx.next;
+        }
+    }
+
     @Override
     public Map<String, ChannelHandler> toMap() {
         Map<String, ChannelHandler> map = new LinkedHashMap<String, ChannelHandler>();
@@ -952,6 +968,7 @@ final class DefaultChannelPipeline implements ChannelPipeline {
 
     @Override
     public ChannelPipeline fireChannelRead(Object msg) {
+        channel.metrics().recordRead(msg);
         head.fireChannelRead(msg);
         return this;
     }
@@ -1063,6 +1080,26 @@ final class DefaultChannelPipeline implements ChannelPipeline {
         return tail.writeAndFlush(msg);
     }
 
+    @Override
+    public ChannelFuture writeBatch(Object[] msgs, int offset, int length) {
+        return tail.writeBatch(msgs, offset, length);
+    }
+
+    @Override
+    public ChannelFuture writeBatch(Object[] msgs, int offset, int length, ChannelPromise promise) {
+        return tail.writeBatch(msgs, offset, length, promise);
+    }
+
+    @Override
+    public ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length, ChannelPromise promise) {
+        return tail.writeAndFlushBatch(msgs, offset, length, promise);
+    }
+
+    @Override
+    public ChannelFuture writeAndFlushBatch(Object[] msgs, int offset, int length) {
+        return tail.writeAndFlushBatch(msgs, offset, length);
+    }
+
     private String filterName(String name, ChannelHandler handler) {
         if (name == null) {
             return generateName(handler);
@@ -15,6 +15,7 @@
  */
 package io.netty.channel;
 
+import io.netty.util.concurrent.EventExecutorChooserFactory;
 import io.netty.util.concurrent.ExecutorServiceFactory;
 import io.netty.util.concurrent.MultithreadEventExecutorGroup;
 import io.netty.util.internal.SystemPropertyUtil;
@@ -58,6 +59,27 @@ public abstract class MultithreadEventLoopGroup extends MultithreadEventExecutor
         super(nEventLoops == 0 ? DEFAULT_EVENT_LOOP_THREADS : nEventLoops, executorServiceFactory, args);
     }
 
+    /**
+     * @see {@link MultithreadEventExecutorGroup#MultithreadEventExecutorGroup(int, Executor,
+     *      EventExecutorChooserFactory, Object...)}
+     */
+    protected MultithreadEventLoopGroup(int nEventLoops, Executor executor,
+                                        EventExecutorChooserFactory chooserFactory, Object... args) {
+        super(nEventLoops == 0 ? DEFAULT_EVENT_LOOP_THREADS : nEventLoops, executor, chooserFactory, args);
+    }
+
+    /**
+     * @see {@link MultithreadEventExecutorGroup#MultithreadEventExecutorGroup(int, ExecutorServiceFactory,
+     *      EventExecutorChooserFactory, Object...)}
+     */
+    protected MultithreadEventLoopGroup(int nEventLoops,
+                                        ExecutorServiceFactory executorServiceFactory,
+                                        EventExecutorChooserFactory chooserFactory,
+                                        Object... args) {
+        super(nEventLoops == 0 ? DEFAULT_EVENT_LOOP_THREADS : nEventLoops, executorServiceFactory,
+              chooserFactory, args);
+    }
+
     @Override
     public EventLoop next() {
         return (EventLoop) super.next();
@@ -132,6 +132,12 @@ abstract class PausableChannelEventExecutor implements PausableEventExecutor, Ch
         unwrapInvoker().invokeWrite(ctx, msg, promise);
     }
 
+    @Override
+    public void invokeWriteBatch(
+            ChannelHandlerContext ctx, Object[] msgs, int offset, int length, ChannelPromise promise) {
+        unwrapInvoker().invokeWriteBatch(ctx, msgs, offset, length, promise);
+    }
+
     @Override
     public EventExecutor next() {
         return unwrap().next();
@@ -51,4 +51,26 @@ public interface RecvByteBufAllocator {
          */
         void record(int actualReadBytes);
     }
+
+    /**
+     * A {@link Handle} which may read into a temporary buffer and hand out a right-sized copy of the read bytes.
+     * Transports which support it use {@link #allocateRead(ByteBufAllocator)} and
+     * {@link #finishRead(ByteBufAllocator, ByteBuf)} instead of {@link #allocate(ByteBufAllocator)}.
+     */
+    interface CopyingHandle extends Handle {
+        /**
+         * Returns the buffer to read into.  It may be a temporary buffer shared with other {@link Channel}s of the
+         * same thread, so it must be passed to {@link #finishRead(ByteBufAllocator, ByteBuf)} right after the read
+         * and before anything else is done with it.  It is fine to just release it if nothing was read.
+         */
+        ByteBuf allocateRead(ByteBufAllocator alloc);
+
+        /**
+         * Returns the buffer that contains the bytes read into {@code buf}, which was returned by
+         * {@link #allocateRead(ByteBufAllocator)}, and which can be passed through the {@link ChannelPipeline}.
+         * If a different buffer is returned {@code buf} is released, which is also the case if this method throws,
+         * so the caller must not use {@code buf} anymore afterwards.
+         */
+        ByteBuf finishRead(ByteBufAllocator alloc, ByteBuf buf);
+    }
 }
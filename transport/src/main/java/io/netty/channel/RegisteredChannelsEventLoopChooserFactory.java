@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.LoadAwareEventExecutorChooserFactory;
+
+/**
+ * {@link LoadAwareEventExecutorChooserFactory} which uses the number of
+ * {@link SingleThreadEventLoop#registeredChannels()} as the load of an {@link EventLoop}. Use it for servers which
+ * accept connections with very uneven lifetimes, so new {@link Channel}s are registered with the {@link EventLoop}s
+ * which serve the fewest {@link Channel}s instead of going round-robin. {@link EventExecutor}s which are not
+ * {@link SingleThreadEventLoop}s are always considered to be idle.
+ */
+public final class RegisteredChannelsEventLoopChooserFactory extends LoadAwareEventExecutorChooserFactory {
+
+    /**
+     * Selects the {@link EventLoop} with the least registered {@link Channel}s.
+     */
+    public static final RegisteredChannelsEventLoopChooserFactory LEAST_REGISTERED_CHANNELS =
+            new RegisteredChannelsEventLoopChooserFactory(false);
+
+    /**
+     * Selects the {@link EventLoop} with less registered {@link Channel}s out of two random ones.
+     */
+    public static final RegisteredChannelsEventLoopChooserFactory POWER_OF_TWO_CHOICES =
+            new RegisteredChannelsEventLoopChooserFactory(true);
+
+    private RegisteredChannelsEventLoopChooserFactory(boolean powerOfTwoChoices) {
+        super(powerOfTwoChoices);
+    }
+
+    @Override
+    protected int load(EventExecutor executor) {
+        if (executor instanceof SingleThreadEventLoop) {
+            return ((SingleThreadEventLoop) executor).registeredChannels();
+        }
+        return 0;
+    }
+}
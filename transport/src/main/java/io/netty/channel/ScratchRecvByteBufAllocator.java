@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * The {@link RecvByteBufAllocator} that reads into a scratch buffer which is shared by all {@link Channel}s of the
+ * same thread and then copies the read bytes into a buffer of exactly the right size.  Buffers passed through the
+ * {@link ChannelPipeline} thus never hold more memory than needed, which matters for many mostly idle connections
+ * that receive small messages.
+ * <p>
+ * The buffer capacity is still predicted by another {@link RecvByteBufAllocator}.  If the prediction is larger than
+ * {@code maxCopySize} the bytes are read into a buffer of the predicted capacity directly, as copying bulk transfers
+ * would cost more than it saves.
+ * <p>
+ * Only transports which support {@link RecvByteBufAllocator.CopyingHandle} make use of the scratch buffer, all
+ * others allocate as the predicting {@link RecvByteBufAllocator} would.
+ */
+public class ScratchRecvByteBufAllocator implements RecvByteBufAllocator {
+
+    static final int DEFAULT_SCRATCH_CAPACITY = 65536;
+    static final int DEFAULT_MAX_COPY_SIZE = 8192;
+
+    public static final ScratchRecvByteBufAllocator DEFAULT = new ScratchRecvByteBufAllocator();
+
+    private final RecvByteBufAllocator predictor;
+    private final int scratchCapacity;
+    private final int maxCopySize;
+    private final FastThreadLocal<ByteBuf> scratch = new FastThreadLocal<ByteBuf>() {
+        @Override
+        protected void onRemoval(ByteBuf value) throws Exception {
+            if (value != null) {
+                value.release();
+            }
+        }
+    };
+
+    /**
+     * Creates a new allocator which predicts with {@link AdaptiveRecvByteBufAllocator#DEFAULT}, uses a scratch buffer
+     * of {@code 65536} bytes and copies reads of up to {@code 8192} predicted bytes.
+     */
+    public ScratchRecvByteBufAllocator() {
+        this(AdaptiveRecvByteBufAllocator.DEFAULT, DEFAULT_SCRATCH_CAPACITY, DEFAULT_MAX_COPY_SIZE);
+    }
+
+    /**
+     * Creates a new allocator.
+     *
+     * @param predictor        the {@link RecvByteBufAllocator} which predicts the capacity of the next read
+     * @param scratchCapacity  the capacity of the per-thread scratch buffer
+     * @param maxCopySize      the largest prediction for which the scratch buffer is still used
+     */
+    public ScratchRecvByteBufAllocator(RecvByteBufAllocator predictor, int scratchCapacity, int maxCopySize) {
+        if (predictor == null) {
+            throw new NullPointerException("predictor");
+        }
+        if (scratchCapacity <= 0) {
+            throw new IllegalArgumentException("scratchCapacity: " + scratchCapacity + " (expected: > 0)");
+        }
+        if (maxCopySize < 0 || maxCopySize > scratchCapacity) {
+            throw new IllegalArgumentException(
+                    "maxCopySize: " + maxCopySize + " (expected: 0 <= maxCopySize <= scratchCapacity)");
+        }
+        this.predictor = predictor;
+        this.scratchCapacity = scratchCapacity;
+        this.maxCopySize = maxCopySize;
+    }
+
+    @Override
+    public Handle newHandle() {
+        return new HandleImpl(predictor.newHandle());
+    }
+
+    private final class HandleImpl implements CopyingHandle {
+
+        private final Handle predictor;
+
+        HandleImpl(Handle predictor) {
+            this.predictor = predictor;
+        }
+
+        @Override
+        public ByteBuf allocate(ByteBufAllocator alloc) {
+            return predictor.allocate(alloc);
+        }
+
+        @Override
+        public int guess() {
+            return predictor.guess();
+        }
+
+        @Override
+        public void record(int actualReadBytes) {
+            predictor.record(actualReadBytes);
+        }
+
+        @Override
+        public ByteBuf allocateRead(ByteBufAllocator alloc) {
+            int guess = predictor.guess();
+            if (guess > maxCopySize) {
+                return predictor.allocate(alloc);
+            }
+            ByteBuf buf = scratch.get();
+            if (buf == null) {
+                buf = alloc.ioBuffer(scratchCapacity, scratchCapacity);
+                scratch.set(buf);
+            }
+            // Only expose as many writable bytes as predicted, so the reads are not larger than without the
+            // scratch buffer.  The window is placed at the end, as the capacity of the scratch buffer is fixed.
+            int index = scratchCapacity - guess;
+            buf.setIndex(index, index);
+            // Retain so the caller can release the buffer as it would release any other buffer.
+            return buf.retain();
+        }
+
+        @Override
+        public ByteBuf finishRead(ByteBufAllocator alloc, ByteBuf buf) {
+            if (buf != scratch.get()) {
+                return buf;
+            }
+            try {
+                int readableBytes = buf.readableBytes();
+                return alloc.ioBuffer(readableBytes, readableBytes).writeBytes(buf);
+            } finally {
+                // Reset the scratch buffer even if the copy failed, so it is never mistaken for read bytes.
+                buf.clear();
+                buf.release();
+            }
+        }
+    }
+}
@@ -28,6 +28,8 @@ import java.util.concurrent.ThreadFactory;
 public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor implements EventLoop {
 
     private final ChannelHandlerInvoker invoker = new DefaultChannelHandlerInvoker(this);
+    // Only modified by the EventLoop itself, see AbstractChannel.
+    private volatile int registeredChannels;
 
     protected SingleThreadEventLoop(EventLoopGroup parent, Executor executor, boolean addTaskWakesUp) {
         super(parent, executor, addTaskWakesUp);
@@ -76,6 +78,24 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
         return this;
     }
 
+    /**
+     * Returns the number of {@link Channel}s which are registered with this {@link EventLoop}. The returned value
+     * is a snapshot and may be outdated as soon as it is returned.
+     */
+    public int registeredChannels() {
+        return registeredChannels;
+    }
+
+    void channelRegistered() {
+        assert inEventLoop();
+        registeredChannels++;
+    }
+
+    void channelDeregistered() {
+        assert inEventLoop();
+        registeredChannels--;
+    }
+
     /**
      * Marker interface for {@link Runnable} that will not trigger an {@link #wakeup(boolean)} in all cases.
      */
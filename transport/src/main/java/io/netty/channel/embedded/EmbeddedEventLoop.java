@@ -242,6 +242,12 @@ final class EmbeddedEventLoop extends AbstractScheduledEventExecutor implements
         invokeWriteNow(ctx, msg, promise);
     }
 
+    @Override
+    public void invokeWriteBatch(
+            ChannelHandlerContext ctx, Object[] msgs, int offset, int length, ChannelPromise promise) {
+        invokeWriteBatchNow(ctx, msgs, offset, length, promise);
+    }
+
     @Override
     public void invokeFlush(ChannelHandlerContext ctx) {
         invokeFlushNow(ctx);
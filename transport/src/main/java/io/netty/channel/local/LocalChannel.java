@@ -26,9 +26,7 @@ import io.netty.channel.ChannelPromise;
 import io.netty.channel.DefaultChannelConfig;
 import io.netty.channel.EventLoop;
 import io.netty.channel.SingleThreadEventLoop;
-import io.netty.util.ReferenceCountUtil;
 import io.netty.util.internal.InternalThreadLocalMap;
-import io.netty.util.internal.OneTimeTask;
 import io.netty.util.internal.PlatformDependent;
 
 import java.net.SocketAddress;
@@ -36,7 +34,9 @@ import java.nio.channels.AlreadyConnectedException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ConnectionPendingException;
 import java.nio.channels.NotYetConnectedException;
+import java.util.Arrays;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * A {@link Channel} for the local transport.
@@ -49,21 +49,33 @@ public class LocalChannel extends AbstractChannel {
 
     private static final int MAX_READER_STACK_DEPTH = 8;
 
+    private static final AtomicIntegerFieldUpdater<LocalChannel> FINISH_READ_SCHEDULED_UPDATER;
+
+    static {
+        AtomicIntegerFieldUpdater<LocalChannel> updater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(LocalChannel.class, "finishReadScheduled");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(LocalChannel.class, "finishReadScheduled");
+        }
+        FINISH_READ_SCHEDULED_UPDATER = updater;
+    }
+
     private final ChannelConfig config = new DefaultChannelConfig(this);
+    // Each element holds all messages the peer flushed at once, up to the first null element.
     // To futher optimize this we could write our own SPSC queue.
-    private final Queue<Object> inboundBuffer = PlatformDependent.newMpscQueue();
+    private final Queue<Object[]> inboundBuffer = PlatformDependent.newMpscQueue();
     private final Runnable readTask = new Runnable() {
         @Override
         public void run() {
-            ChannelPipeline pipeline = pipeline();
-            for (;;) {
-                Object m = inboundBuffer.poll();
-                if (m == null) {
-                    break;
-                }
-                pipeline.fireChannelRead(m);
-            }
-            pipeline.fireChannelReadComplete();
+            readInbound(pipeline());
+        }
+    };
+    private final Runnable finishReadTask = new Runnable() {
+        @Override
+        public void run() {
+            // Reset before reading so that batches added while we read schedule this task again.
+            finishReadScheduled = 0;
+            finishRead();
         }
     };
     private final Runnable shutdownHook = new Runnable() {
@@ -80,6 +92,8 @@ public class LocalChannel extends AbstractChannel {
     private volatile ChannelPromise connectPromise;
     private volatile boolean readInProgress;
     private volatile boolean registerInProgress;
+    @SuppressWarnings("unused")
+    private volatile int finishReadScheduled;
 
     public LocalChannel() {
         super(null);
@@ -246,8 +260,6 @@ public class LocalChannel extends AbstractChannel {
             return;
         }
 
-        ChannelPipeline pipeline = pipeline();
-        Queue<Object> inboundBuffer = this.inboundBuffer;
         if (inboundBuffer.isEmpty()) {
             readInProgress = true;
             return;
@@ -258,14 +270,7 @@ public class LocalChannel extends AbstractChannel {
         if (stackDepth < MAX_READER_STACK_DEPTH) {
             threadLocals.setLocalChannelReaderStackDepth(stackDepth + 1);
             try {
-                for (;;) {
-                    Object received = inboundBuffer.poll();
-                    if (received == null) {
-                        break;
-                    }
-                    pipeline.fireChannelRead(received);
-                }
-                pipeline.fireChannelReadComplete();
+                readInbound(pipeline());
             } finally {
                 threadLocals.setLocalChannelReaderStackDepth(stackDepth);
             }
@@ -284,46 +289,84 @@ public class LocalChannel extends AbstractChannel {
             throw new ClosedChannelException();
         }
 
+        final Object[] batch = transferFlushed(in);
+        if (batch == null) {
+            return;
+        }
+
         final LocalChannel peer = this.peer;
-        final ChannelPipeline peerPipeline = peer.pipeline();
-        final EventLoop peerLoop = peer.eventLoop();
+        // Every Channel has its own wrapper around the EventLoop it is registered with, so compare the threads.
+        if (peer.eventLoop().inEventLoop()) {
+            if (peer.readInProgress && peer.inboundBuffer.isEmpty()) {
+                // Both channels share the EventLoop and the peer is waiting for data, so hand the messages over
+                // directly without going through its inboundBuffer.
+                peer.readInProgress = false;
+                ChannelPipeline peerPipeline = peer.pipeline();
+                fireChannelRead(peerPipeline, batch);
+                peerPipeline.fireChannelReadComplete();
+            } else {
+                peer.inboundBuffer.add(batch);
+                peer.finishRead();
+            }
+        } else {
+            peer.inboundBuffer.add(batch);
+            // Only schedule a new task if the peer did not start to process the previous one yet.
+            if (FINISH_READ_SCHEDULED_UPDATER.compareAndSet(peer, 0, 1)) {
+                peer.eventLoop().execute(peer.finishReadTask);
+            }
+        }
+    }
+
+    /**
+     * Removes all flushed messages from the {@link ChannelOutboundBuffer} without releasing them, so their ownership
+     * moves to the peer, and returns them or {@code null} if there were none.
+     */
+    private static Object[] transferFlushed(ChannelOutboundBuffer in) {
+        int size = in.size();
+        if (size == 0) {
+            return null;
+        }
 
+        Object[] batch = new Object[size];
+        int i = 0;
         for (;;) {
-            Object msg = in.current();
+            Object msg = in.removeAndTransfer();
             if (msg == null) {
                 break;
             }
-            try {
-                peer.inboundBuffer.add(ReferenceCountUtil.retain(msg));
-                in.remove();
-            } catch (Throwable cause) {
-                in.remove(cause);
+            if (i == batch.length) {
+                // A listener of a completed write flushed more messages.
+                batch = Arrays.copyOf(batch, i << 1);
             }
+            batch[i ++] = msg;
         }
+        return i == 0 ? null : batch;
+    }
 
-        if (peerLoop == eventLoop()) {
-            finishPeerRead(peer, peerPipeline);
-        } else {
-            peerLoop.execute(new OneTimeTask() {
-                @Override
-                public void run() {
-                    finishPeerRead(peer, peerPipeline);
-                }
-            });
+    private void finishRead() {
+        if (readInProgress) {
+            readInProgress = false;
+            readInbound(pipeline());
         }
     }
 
-    private static void finishPeerRead(LocalChannel peer, ChannelPipeline peerPipeline) {
-        if (peer.readInProgress) {
-            peer.readInProgress = false;
-            for (;;) {
-                Object received = peer.inboundBuffer.poll();
-                if (received == null) {
-                    break;
-                }
-                peerPipeline.fireChannelRead(received);
+    private void readInbound(ChannelPipeline pipeline) {
+        for (;;) {
+            Object[] batch = inboundBuffer.poll();
+            if (batch == null) {
+                break;
+            }
+            fireChannelRead(pipeline, batch);
+        }
+        pipeline.fireChannelReadComplete();
+    }
+
+    private static void fireChannelRead(ChannelPipeline pipeline, Object[] batch) {
+        for (Object msg: batch) {
+            if (msg == null) {
+                break;
             }
-            peerPipeline.fireChannelReadComplete();
+            pipeline.fireChannelRead(msg);
         }
     }
 
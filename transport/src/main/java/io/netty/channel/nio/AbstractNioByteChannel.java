@@ -102,6 +102,9 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel {
             final ByteBufAllocator allocator = config.getAllocator();
             final int maxMessagesPerRead = config.getMaxMessagesPerRead();
             RecvByteBufAllocator.Handle allocHandle = recvBufAllocHandle();
+            final RecvByteBufAllocator.CopyingHandle copyingHandle =
+                    allocHandle instanceof RecvByteBufAllocator.CopyingHandle ?
+                            (RecvByteBufAllocator.CopyingHandle) allocHandle : null;
 
             ByteBuf byteBuf = null;
             int messages = 0;
@@ -110,7 +113,8 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel {
                 int totalReadAmount = 0;
                 boolean readPendingReset = false;
                 do {
-                    byteBuf = allocHandle.allocate(allocator);
+                    byteBuf = copyingHandle != null ?
+                            copyingHandle.allocateRead(allocator) : allocHandle.allocate(allocator);
                     int writable = byteBuf.writableBytes();
                     int localReadAmount = doReadBytes(byteBuf);
                     if (localReadAmount <= 0) {
@@ -120,6 +124,13 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel {
                         close = localReadAmount < 0;
                         break;
                     }
+                    if (copyingHandle != null) {
+                        ByteBuf readBuf = byteBuf;
+                        // finishRead(...) takes care of the buffer even if it fails, so it must never be fired
+                        // or released by the exception handling below.
+                        byteBuf = null;
+                        byteBuf = copyingHandle.finishRead(allocator, readBuf);
+                    }
                     if (!readPendingReset) {
                         readPendingReset = true;
                         setReadPending(false);
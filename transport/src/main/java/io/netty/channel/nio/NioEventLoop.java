@@ -163,7 +163,7 @@ public final class NioEventLoop extends SingleThreadEventLoop {
     @Override
     protected Queue<Runnable> newTaskQueue() {
         // This event loop never calls takeTask()
-        return PlatformDependent.newMpscQueue();
+        return PlatformDependent.newChunkedMpscQueue();
     }
 
     /**
@@ -300,6 +300,11 @@ public final class NioEventLoop extends SingleThreadEventLoop {
     @Override
     protected void run() {
         boolean oldWakenUp = wakenUp.getAndSet(false);
+        if (oldWakenUp) {
+            // Every selector.wakeup() issued by wakeup(boolean) sets the flag which is only reset here, so this
+            // counts each of them exactly once, whether it interrupted a select or happened while running tasks.
+            recordWakeup();
+        }
         try {
             if (hasTasks()) {
                 selectNow();
@@ -341,16 +346,18 @@ public final class NioEventLoop extends SingleThreadEventLoop {
 
             cancelledKeys = 0;
             needsToSelectAgain = false;
+
+            final long ioStartTime = System.nanoTime();
+
+            processSelectedKeys();
+
+            final long ioTime = System.nanoTime() - ioStartTime;
+            recordIoTime(ioTime);
+
             final int ioRatio = this.ioRatio;
             if (ioRatio == 100) {
-                processSelectedKeys();
                 runAllTasks();
             } else {
-                final long ioStartTime = System.nanoTime();
-
-                processSelectedKeys();
-
-                final long ioTime = System.nanoTime() - ioStartTime;
                 runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
             }
 
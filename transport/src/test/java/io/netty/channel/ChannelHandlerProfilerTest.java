@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.ChannelHandlerProfile.Operation;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ChannelHandlerProfilerTest {
+
+    @After
+    public void tearDown() {
+        ChannelHandlerProfiler.setSampleRate(0);
+        ChannelHandlerProfiler.resetProfilesByHandlerType();
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        EmbeddedChannel channel = new EmbeddedChannel(new SlowHandler());
+        channel.writeInbound("msg");
+        assertTrue(channel.pipeline().profiles().isEmpty());
+        assertFalse(ChannelHandlerProfiler.profilesByHandlerType().containsKey(SlowHandler.class));
+        channel.finish();
+    }
+
+    @Test
+    public void testSampleEveryInvocation() {
+        ChannelHandlerProfiler.setSampleRate(1);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addFirst("slow", new SlowHandler());
+        for (int i = 0; i < 3; i ++) {
+            channel.writeInbound("msg");
+        }
+        channel.writeAndFlush("msg");
+
+        ChannelHandlerProfile profile = channel.pipeline().profiles().get("slow");
+        assertSame(SlowHandler.class, profile.handlerType());
+        assertEquals(3, profile.invocations(Operation.CHANNEL_READ));
+        assertEquals(3, profile.samples(Operation.CHANNEL_READ));
+        assertTrue(profile.maxNanos(Operation.CHANNEL_READ) >= TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(profile.percentileNanos(Operation.CHANNEL_READ, 50) >= TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(profile.percentileNanos(Operation.CHANNEL_READ, 100) <= profile.maxNanos(Operation.CHANNEL_READ));
+        assertEquals(1, profile.samples(Operation.WRITE));
+        assertEquals(1, profile.samples(Operation.FLUSH));
+
+        ChannelHandlerProfile typeProfile = ChannelHandlerProfiler.profilesByHandlerType().get(SlowHandler.class);
+        assertEquals(3, typeProfile.samples(Operation.CHANNEL_READ));
+        channel.finish();
+    }
+
+    @Test
+    public void testSampleRate() {
+        ChannelHandlerProfiler.setSampleRate(4);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addFirst("handler", new ChannelHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                ctx.fireChannelRead(msg);
+            }
+        });
+        for (int i = 0; i < 10; i ++) {
+            channel.writeInbound(i);
+        }
+
+        ChannelHandlerProfile profile = channel.pipeline().profiles().get("handler");
+        assertEquals(2, profile.samples(Operation.CHANNEL_READ));
+        assertEquals(8, profile.invocations(Operation.CHANNEL_READ));
+        channel.finish();
+        for (;;) {
+            if (channel.readInbound() == null) {
+                break;
+            }
+        }
+    }
+
+    private static final class SlowHandler extends ChannelHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            Thread.sleep(1);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            ctx.write(msg, promise);
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            ctx.flush();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.EventExecutorMetrics;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ChannelMetricsTest {
+
+    @Test
+    public void testEmbeddedChannel() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelHandlerAdapter());
+        ChannelMetrics metrics = channel.metrics();
+
+        assertTrue(channel.writeInbound(Unpooled.buffer().writeInt(1), Unpooled.buffer().writeLong(2)));
+        assertEquals(2, metrics.messagesRead());
+        assertEquals(12, metrics.bytesRead());
+
+        channel.write(Unpooled.buffer().writeLong(3));
+        assertEquals(8, metrics.pendingOutboundBytes());
+        assertEquals(0, metrics.messagesWritten());
+        channel.flush();
+        assertEquals(0, metrics.pendingOutboundBytes());
+        assertEquals(1, metrics.messagesWritten());
+        assertEquals(8, metrics.bytesWritten());
+
+        assertTrue(channel.finish());
+        for (;;) {
+            Object msg = channel.readInbound();
+            if (msg == null) {
+                break;
+            }
+            ReferenceCountUtil.release(msg);
+        }
+        ReferenceCountUtil.release(channel.readOutbound());
+    }
+
+    @Test(timeout = 10000)
+    public void testNioChannel() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicLong received = new AtomicLong();
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            ServerBootstrap sb = new ServerBootstrap();
+            sb.group(group).channel(NioServerSocketChannel.class).childHandler(new ChannelHandlerAdapter() {
+                @Override
+                public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                    received.addAndGet(((ByteBuf) msg).readableBytes());
+                    ReferenceCountUtil.release(msg);
+                    if (received.get() == 1024 && ctx.channel().metrics().bytesRead() == 1024) {
+                        latch.countDown();
+                    }
+                }
+            });
+            Channel sc = sb.bind(new InetSocketAddress(0)).sync().channel();
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(group).channel(NioSocketChannel.class).handler(new ChannelHandlerAdapter());
+            Channel cc = cb.connect(sc.localAddress()).sync().channel();
+            cc.writeAndFlush(Unpooled.wrappedBuffer(new byte[1024])).sync();
+            latch.await();
+
+            assertEquals(1, cc.metrics().messagesWritten());
+            assertEquals(1024, cc.metrics().bytesWritten());
+
+            EventExecutorMetrics loopMetrics = ((SingleThreadEventExecutor) cc.eventLoop().unwrap()).metrics();
+            assertTrue(loopMetrics.ioTimeNanos() > 0);
+            assertTrue(loopMetrics.tasksExecuted() > 0);
+            assertTrue(loopMetrics.wakeups() > 0);
+
+            cc.close().sync();
+            sc.close().sync();
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testNioEventLoopCountsWakeups() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            SingleThreadEventExecutor loop = (SingleThreadEventExecutor) group.next().unwrap();
+            Runnable noop = new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            };
+            loop.submit(noop).sync();
+            long wakeups = loop.metrics().wakeups();
+            for (int i = 0; i < 3; i ++) {
+                // Give the loop time to block in select again, so the task has to wake it up.
+                Thread.sleep(100);
+                loop.submit(noop).sync();
+            }
+            // A wakeup is counted when the loop starts its next round.
+            Thread.sleep(100);
+            assertTrue(loop.metrics().wakeups() >= wakeups + 3);
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+}
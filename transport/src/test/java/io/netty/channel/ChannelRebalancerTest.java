@@ -0,0 +1,294 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.NetUtil;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.EventExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ChannelRebalancerTest {
+
+    private EventLoopGroup serverGroup;
+    private EventLoopGroup clientGroup;
+    private Channel serverChannel;
+    private ChannelRebalancer rebalancer;
+    private EventLoop loop1;
+    private EventLoop loop2;
+    private final LinkedBlockingQueue<Integer> received = new LinkedBlockingQueue<Integer>();
+
+    @Before
+    public void setUp() throws Exception {
+        serverGroup = new NioEventLoopGroup(1);
+        clientGroup = new NioEventLoopGroup(2);
+        Iterator<EventExecutor> loops = clientGroup.children().iterator();
+        loop1 = (EventLoop) loops.next();
+        loop2 = (EventLoop) loops.next();
+        rebalancer = new ChannelRebalancer(clientGroup, 1, TimeUnit.HOURS, 0.25, 1);
+
+        serverChannel = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new EchoHandler())
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).syncUninterruptibly().channel();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        rebalancer.stop();
+        serverChannel.close().syncUninterruptibly();
+        clientGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        serverGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    private Channel connect() {
+        return new Bootstrap()
+                .group(loop1)
+                .channel(NioSocketChannel.class)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) throws Exception {
+                        ch.pipeline().addLast(rebalancer.handler(), new ChannelHandlerAdapter() {
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                                try {
+                                    // Simulate an expensive handler so the loop has something to measure.
+                                    Thread.sleep(10);
+                                    received.add(((ByteBuf) msg).readableBytes());
+                                } finally {
+                                    ReferenceCountUtil.release(msg);
+                                }
+                            }
+                        });
+                    }
+                })
+                .connect(serverChannel.localAddress()).syncUninterruptibly().channel();
+    }
+
+    private void echo(Channel ch) throws Exception {
+        ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[8])).syncUninterruptibly();
+        assertEquals(8, receive(8));
+    }
+
+    private int receive(int expected) throws Exception {
+        int bytes = 0;
+        while (bytes < expected) {
+            Integer read = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(read);
+            bytes += read;
+        }
+        return bytes;
+    }
+
+    @Test(timeout = 10000)
+    public void testMigratesFromOverloadedLoop() throws Exception {
+        Channel ch1 = connect();
+        Channel ch2 = connect();
+        echo(ch1);
+        echo(ch2);
+        assertSame(loop1, ch1.eventLoop().unwrap());
+        assertSame(loop1, ch2.eventLoop().unwrap());
+
+        rebalancer.rebalance();
+        while (rebalancer.migrations() != 1) {
+            Thread.sleep(10);
+        }
+
+        // Exactly one of the channels was moved to the idle loop, and both are still usable.
+        assertNotSame(ch1.eventLoop().unwrap(), ch2.eventLoop().unwrap());
+        assertTrue(ch1.eventLoop().unwrap() == loop2 || ch2.eventLoop().unwrap() == loop2);
+        echo(ch1);
+        echo(ch2);
+        ch1.close().syncUninterruptibly();
+        ch2.close().syncUninterruptibly();
+    }
+
+    @Test(timeout = 10000)
+    public void testUnflushedWritesSurviveMigration() throws Exception {
+        final Channel ch1 = connect();
+        final Channel ch2 = connect();
+        echo(ch1);
+        echo(ch2);
+
+        // Queue a write on both channels which is only flushed once the migrated one was re-registered.
+        final ByteBuf buf = Unpooled.wrappedBuffer(new byte[16]);
+        ch1.eventLoop().submit(new Runnable() {
+            @Override
+            public void run() {
+                ch1.write(buf.duplicate().retain());
+                ch2.write(buf.duplicate().retain());
+            }
+        }).syncUninterruptibly();
+        buf.release();
+
+        rebalancer.rebalance();
+        while (rebalancer.migrations() != 1) {
+            Thread.sleep(10);
+        }
+
+        // Flush the channel which stayed, the migrated one was flushed as part of the migration.
+        Channel stayed = ch1.eventLoop().unwrap() == loop1 ? ch1 : ch2;
+        stayed.flush();
+        assertEquals(32, receive(32));
+        ch1.close().syncUninterruptibly();
+        ch2.close().syncUninterruptibly();
+    }
+
+    @Test(timeout = 10000)
+    public void testWritesFromOtherThreadSurviveMigration() throws Exception {
+        final Channel ch1 = connect();
+        final Channel ch2 = connect();
+        echo(ch1);
+        echo(ch2);
+
+        // Pause the migration right before the channel is deregistered until another thread wrote to it and submitted
+        // tasks to its EventLoop, and check that every write is run by the EventLoop the channel is registered with.
+        final CountDownLatch deregistering = new CountDownLatch(1);
+        final CountDownLatch written = new CountDownLatch(1);
+        final AtomicInteger foreignWrites = new AtomicInteger();
+        ChannelHandler handler = new MigrationWatcher(deregistering, written, foreignWrites);
+        ch1.pipeline().addLast(handler);
+        ch2.pipeline().addLast(handler);
+
+        final List<ChannelFuture> futures = Collections.synchronizedList(new ArrayList<ChannelFuture>());
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    deregistering.await();
+                    for (int i = 0; i < 10; i++) {
+                        for (final Channel ch: new Channel[] { ch1, ch2 }) {
+                            futures.add(ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[8])));
+                            ch.eventLoop().execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    futures.add(ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[8])));
+                                }
+                            });
+                        }
+                    }
+                } catch (Throwable t) {
+                    error.set(t);
+                } finally {
+                    written.countDown();
+                }
+            }
+        };
+        writer.start();
+        rebalancer.rebalance();
+        writer.join();
+        while (rebalancer.migrations() != 1) {
+            Thread.sleep(10);
+        }
+
+        assertNull(error.get());
+        assertEquals(0, foreignWrites.get());
+        assertEquals(40 * 8, receive(40 * 8));
+        assertEquals(40, futures.size());
+        for (ChannelFuture future: futures) {
+            assertTrue(future.isSuccess());
+        }
+        ch1.close().syncUninterruptibly();
+        ch2.close().syncUninterruptibly();
+    }
+
+    @Test(timeout = 10000)
+    public void testSingleChannelIsNotMigrated() throws Exception {
+        Channel ch = connect();
+        echo(ch);
+
+        // Moving the only busy channel would just move the imbalance to the other loop.
+        rebalancer.rebalance();
+        Thread.sleep(100);
+        assertEquals(0, rebalancer.migrations());
+        assertSame(loop1, ch.eventLoop().unwrap());
+        ch.close().syncUninterruptibly();
+    }
+
+    @Test(timeout = 10000)
+    public void testClosedChannelsAreForgotten() throws Exception {
+        Channel ch1 = connect();
+        Channel ch2 = connect();
+        echo(ch1);
+        echo(ch2);
+        ch1.close().syncUninterruptibly();
+        ch2.close().syncUninterruptibly();
+
+        rebalancer.rebalance();
+        Thread.sleep(100);
+        assertEquals(0, rebalancer.migrations());
+    }
+
+    @Sharable
+    private static final class MigrationWatcher extends ChannelHandlerAdapter {
+        private final CountDownLatch deregistering;
+        private final CountDownLatch written;
+        private final AtomicInteger foreignWrites;
+
+        MigrationWatcher(CountDownLatch deregistering, CountDownLatch written, AtomicInteger foreignWrites) {
+            this.deregistering = deregistering;
+            this.written = written;
+            this.foreignWrites = foreignWrites;
+        }
+
+        @Override
+        public void deregister(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+            deregistering.countDown();
+            written.await(5, TimeUnit.SECONDS);
+            ctx.deregister(promise);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (!ctx.channel().eventLoop().inEventLoop()) {
+                foreignWrites.incrementAndGet();
+            }
+            ctx.write(msg, promise);
+        }
+    }
+
+    @Sharable
+    private static final class EchoHandler extends ChannelHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ctx.writeAndFlush(msg);
+        }
+    }
+}
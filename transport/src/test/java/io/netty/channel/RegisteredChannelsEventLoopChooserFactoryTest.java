@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RegisteredChannelsEventLoopChooserFactoryTest {
+
+    private NioEventLoopGroup group;
+
+    @Before
+    public void setUp() {
+        group = new NioEventLoopGroup(2, (Executor) null,
+                RegisteredChannelsEventLoopChooserFactory.LEAST_REGISTERED_CHANNELS, SelectorProvider.provider());
+    }
+
+    @After
+    public void tearDown() {
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @Test(timeout = 5000)
+    public void testRegistersWithLeastLoadedEventLoop() throws Exception {
+        Channel[] channels = new Channel[4];
+        for (int i = 0; i < channels.length; i ++) {
+            channels[i] = new NioSocketChannel();
+            group.register(channels[i]).syncUninterruptibly();
+        }
+
+        SingleThreadEventLoop loop = (SingleThreadEventLoop) channels[0].eventLoop().unwrap();
+        SingleThreadEventLoop other = (SingleThreadEventLoop) channels[1].eventLoop().unwrap();
+        assertNotSame(loop, other);
+        assertEquals(2, loop.registeredChannels());
+        assertEquals(2, other.registeredChannels());
+
+        // Free the first loop, all new channels should go there until it has caught up.
+        for (Channel ch: channels) {
+            if (ch.eventLoop().unwrap() == loop) {
+                ch.close().syncUninterruptibly();
+            }
+        }
+        while (loop.registeredChannels() != 0) {
+            Thread.sleep(10);
+        }
+
+        for (int i = 0; i < 2; i ++) {
+            Channel ch = new NioSocketChannel();
+            group.register(ch).syncUninterruptibly();
+            assertSame(loop, ch.eventLoop().unwrap());
+        }
+        assertEquals(2, loop.registeredChannels());
+    }
+
+    @Test(timeout = 5000)
+    public void testDeregisterUpdatesCount() throws Exception {
+        Channel ch = new NioSocketChannel();
+        group.register(ch).syncUninterruptibly();
+        SingleThreadEventLoop loop = (SingleThreadEventLoop) ch.eventLoop().unwrap();
+        assertEquals(1, loop.registeredChannels());
+
+        ch.deregister().syncUninterruptibly();
+        assertEquals(0, loop.registeredChannels());
+
+        group.register(ch).syncUninterruptibly();
+        assertEquals(1, ((SingleThreadEventLoop) ch.eventLoop().unwrap()).registeredChannels());
+        ch.close().syncUninterruptibly();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.AbstractByteBufAllocator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.RecvByteBufAllocator.CopyingHandle;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.Assert.*;
+
+public class ScratchRecvByteBufAllocatorTest {
+
+    private static final ByteBufAllocator ALLOC = UnpooledByteBufAllocator.DEFAULT;
+
+    @Test
+    public void testCopiesIntoRightSizedBuffer() {
+        CopyingHandle handle = (CopyingHandle) new ScratchRecvByteBufAllocator(
+                new FixedRecvByteBufAllocator(1024), 4096, 2048).newHandle();
+
+        ByteBuf scratch = handle.allocateRead(ALLOC);
+        // Only the predicted number of bytes may be read into the scratch buffer.
+        assertEquals(1024, scratch.writableBytes());
+        scratch.writeBytes("netty".getBytes(CharsetUtil.US_ASCII));
+        ByteBuf buf = handle.finishRead(ALLOC, scratch);
+        assertNotSame(scratch, buf);
+        assertEquals(5, buf.capacity());
+        assertEquals("netty", buf.toString(CharsetUtil.US_ASCII));
+        // The scratch buffer itself is kept by the allocator.
+        assertEquals(1, scratch.refCnt());
+        buf.release();
+
+        // The same scratch buffer is reused by the next read.
+        ByteBuf next = handle.allocateRead(ALLOC);
+        assertSame(scratch, next);
+        assertEquals(0, next.readableBytes());
+        next.release();
+        assertEquals(1, scratch.refCnt());
+    }
+
+    @Test
+    public void testScratchBufferResetIfCopyFails() {
+        CopyingHandle handle = (CopyingHandle) new ScratchRecvByteBufAllocator(
+                new FixedRecvByteBufAllocator(1024), 4096, 2048).newHandle();
+        ByteBufAllocator failingAlloc = new AbstractByteBufAllocator() {
+            @Override
+            protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity) {
+                throw new OutOfMemoryError();
+            }
+
+            @Override
+            protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
+                throw new OutOfMemoryError();
+            }
+
+            @Override
+            public boolean isDirectBufferPooled() {
+                return false;
+            }
+        };
+
+        ByteBuf scratch = handle.allocateRead(ALLOC);
+        scratch.writeBytes("netty".getBytes(CharsetUtil.US_ASCII));
+        try {
+            handle.finishRead(failingAlloc, scratch);
+            fail();
+        } catch (OutOfMemoryError expected) {
+            // expected
+        }
+        // The scratch buffer was released by finishRead(...) and holds no bytes which could be passed on.
+        assertEquals(1, scratch.refCnt());
+        assertFalse(scratch.isReadable());
+
+        ByteBuf next = handle.allocateRead(ALLOC);
+        assertSame(scratch, next);
+        next.release();
+    }
+
+    @Test
+    public void testLargePredictionReadsDirectly() {
+        CopyingHandle handle = (CopyingHandle) new ScratchRecvByteBufAllocator(
+                new FixedRecvByteBufAllocator(8192), 4096, 2048).newHandle();
+
+        ByteBuf buf = handle.allocateRead(ALLOC);
+        assertEquals(8192, buf.capacity());
+        buf.writeByte(1);
+        assertSame(buf, handle.finishRead(ALLOC, buf));
+        buf.release();
+    }
+
+    @Test(timeout = 10000)
+    public void testNioRead() throws Throwable {
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            ServerBootstrap sb = new ServerBootstrap();
+            sb.group(group).channel(NioServerSocketChannel.class)
+              .childOption(ChannelOption.RCVBUF_ALLOCATOR, ScratchRecvByteBufAllocator.DEFAULT)
+              .childHandler(new ChannelHandlerAdapter() {
+                  @Override
+                  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                      received.add(msg);
+                  }
+
+                  @Override
+                  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+                      received.add(cause);
+                  }
+              });
+            Channel sc = sb.bind(new InetSocketAddress(0)).sync().channel();
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(group).channel(NioSocketChannel.class).handler(new ChannelHandlerAdapter());
+            Channel cc = cb.connect(sc.localAddress()).sync().channel();
+
+            byte[] data = "Hello, scratch buffer!".getBytes(CharsetUtil.US_ASCII);
+            cc.writeAndFlush(ALLOC.buffer().writeBytes(data)).sync();
+
+            StringBuilder builder = new StringBuilder();
+            while (builder.length() < data.length) {
+                Object msg = received.take();
+                if (msg instanceof Throwable) {
+                    throw (Throwable) msg;
+                }
+                ByteBuf buf = (ByteBuf) msg;
+                assertEquals(buf.readableBytes(), buf.capacity());
+                builder.append(buf.toString(CharsetUtil.US_ASCII));
+                buf.release();
+            }
+            assertEquals(new String(data, CharsetUtil.US_ASCII), builder.toString());
+
+            cc.close().sync();
+            sc.close().sync();
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+}
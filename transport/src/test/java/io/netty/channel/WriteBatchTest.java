@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.local.LocalChannel;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class WriteBatchTest {
+
+    private static final EventLoopGroup group = new DefaultEventLoopGroup(1);
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        group.shutdownGracefully().sync();
+    }
+
+    @Test
+    public void testWriteBatch() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelHandlerAdapter());
+        ByteBuf[] msgs = newBuffers(5);
+        ChannelFuture future = channel.writeAndFlushBatch(msgs, 1, 3);
+        assertTrue(future.isSuccess());
+        for (int i = 1; i < 4; i ++) {
+            assertSame(msgs[i], channel.readOutbound());
+            msgs[i].release();
+        }
+        assertNull(channel.readOutbound());
+        msgs[0].release();
+        msgs[4].release();
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testWriteBatchVoidPromise() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelHandlerAdapter());
+        ByteBuf[] msgs = newBuffers(3);
+        channel.writeAndFlushBatch(msgs, 0, msgs.length, channel.voidPromise());
+        for (ByteBuf msg: msgs) {
+            assertSame(msg, channel.readOutbound());
+            msg.release();
+        }
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testWriteBatchEmpty() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelHandlerAdapter());
+        assertTrue(channel.writeBatch(new Object[0], 0, 0).isSuccess());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testWriteBatchFailure() {
+        final Exception cause = new Exception();
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelHandlerAdapter() {
+            private int count;
+
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                if (++ count == 2) {
+                    ((ByteBuf) msg).release();
+                    promise.setFailure(cause);
+                } else {
+                    ctx.write(msg, promise);
+                }
+            }
+        });
+        ByteBuf[] msgs = newBuffers(3);
+        ChannelFuture future = channel.writeAndFlushBatch(msgs, 0, msgs.length);
+        assertSame(cause, future.cause());
+        assertSame(msgs[0], channel.readOutbound());
+        assertNull(channel.readOutbound());
+        msgs[0].release();
+        assertEquals(0, msgs[1].refCnt());
+        assertEquals(0, msgs[2].refCnt());
+        assertFalse(channel.finish());
+    }
+
+    @Test(timeout = 5000)
+    public void testWriteBatchFromOutsideEventLoop() throws Exception {
+        final List<Object> written = new CopyOnWriteArrayList<Object>();
+        final Channel channel = new LocalChannel();
+        channel.pipeline().addLast(new ChannelHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                assertTrue(ctx.executor().inEventLoop());
+                written.add(msg);
+                promise.setSuccess();
+            }
+        });
+        group.register(channel).sync();
+
+        Object[] msgs = { "a", "b", "c", "d" };
+        ChannelFuture future = channel.writeBatch(msgs, 0, msgs.length);
+        // The caller may reuse the array right away.
+        msgs[0] = "x";
+        future.sync();
+        assertEquals(4, written.size());
+        assertEquals("a", written.get(0));
+        assertEquals("d", written.get(3));
+        channel.close().sync();
+    }
+
+    private static ByteBuf[] newBuffers(int num) {
+        ByteBuf[] buffers = new ByteBuf[num];
+        for (int i = 0; i < num; i ++) {
+            buffers[i] = Unpooled.buffer().writeInt(i);
+        }
+        return buffers;
+    }
+}
@@ -33,6 +33,10 @@ import io.netty.util.internal.logging.InternalLoggerFactory;
 import org.junit.Test;
 
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -282,6 +286,116 @@ public class LocalChannelTest {
         sc.close().syncUninterruptibly();
     }
 
+    @Test
+    public void testBatchedWriteSameEventLoop() throws Exception {
+        EventLoopGroup group = new DefaultEventLoopGroup(1);
+        try {
+            testBatchedWrite(group, group);
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testBatchedWriteDifferentEventLoops() throws Exception {
+        EventLoopGroup clientGroup = new DefaultEventLoopGroup(1);
+        EventLoopGroup serverGroup = new DefaultEventLoopGroup(1);
+        try {
+            testBatchedWrite(clientGroup, serverGroup);
+        } finally {
+            clientGroup.shutdownGracefully();
+            serverGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testWriteSameEventLoopReadsDirectly() throws Exception {
+        final List<Object> received = Collections.synchronizedList(new ArrayList<Object>());
+        EventLoopGroup group = new DefaultEventLoopGroup(1);
+        LocalAddress addr = new LocalAddress(LOCAL_ADDR_ID);
+        Bootstrap cb = new Bootstrap();
+        ServerBootstrap sb = new ServerBootstrap();
+
+        cb.group(group)
+          .channel(LocalChannel.class)
+          .handler(new TestHandler());
+
+        sb.group(group)
+          .channel(LocalServerChannel.class)
+          .childHandler(new ChannelHandlerAdapter() {
+              @Override
+              public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                  received.add(msg);
+              }
+          });
+
+        Channel sc = sb.bind(addr).sync().channel();
+        final Channel cc = cb.connect(addr).sync().channel();
+        try {
+            int receivedDuringFlush = cc.eventLoop().submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    cc.writeAndFlush("Hello, World");
+                    return received.size();
+                }
+            }).sync().getNow();
+
+            // The peer shares the EventLoop, so it must have read the message before the flush returned.
+            assertEquals(1, receivedDuringFlush);
+        } finally {
+            cc.close().sync();
+            sc.close().sync();
+            group.shutdownGracefully();
+        }
+    }
+
+    private static void testBatchedWrite(EventLoopGroup clientGroup, EventLoopGroup serverGroup) throws Exception {
+        final int messages = 100;
+        final List<Object> received = Collections.synchronizedList(new ArrayList<Object>());
+        final CountDownLatch latch = new CountDownLatch(messages);
+        LocalAddress addr = new LocalAddress(LOCAL_ADDR_ID);
+        Bootstrap cb = new Bootstrap();
+        ServerBootstrap sb = new ServerBootstrap();
+
+        cb.group(clientGroup)
+          .channel(LocalChannel.class)
+          .handler(new TestHandler());
+
+        sb.group(serverGroup)
+          .channel(LocalServerChannel.class)
+          .childHandler(new ChannelHandlerAdapter() {
+              @Override
+              public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                  received.add(msg);
+                  latch.countDown();
+              }
+          });
+
+        Channel sc = sb.bind(addr).sync().channel();
+        final Channel cc = cb.connect(addr).sync().channel();
+        try {
+            final List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+            cc.eventLoop().submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < messages; i ++) {
+                        futures.add(cc.write(i));
+                    }
+                    cc.flush();
+                }
+            }).sync();
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < messages; i ++) {
+                assertEquals(i, received.get(i));
+                assertTrue(futures.get(i).isSuccess());
+            }
+        } finally {
+            cc.close().sync();
+            sc.close().sync();
+        }
+    }
+
     static class TestHandler extends ChannelHandlerAdapter {
         @Override
         public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {